@@ -0,0 +1,68 @@
+/*
+ * Copyright © 2021 Shcherbina Daniil
+ * License: http://opensource.org/licenses/MIT
+ */
+
+package ausf.software.benchmarks;
+
+import ausf.software.codecs.PCMConverter;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures converting one second of interleaved PCM data into
+ * per-channel sample arrays with {@link PCMConverter}.
+ *
+ * @author  Shcherbina Daniil
+ * @since   0.2.0
+ * @version 0.2.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PCMConverterBenchmark {
+
+    @Param({"1", "2", "6"})
+    public int numChannels;
+
+    @Param({"8", "16", "24", "32"})
+    public int bitsPerSample;
+
+    private static final int FRAMES = WAVFixtures.SAMPLE_RATE;
+
+    private ByteBuffer source;
+    private float[][] floatPlanes;
+    private short[][] shortPlanes;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        byte[] data = new byte[FRAMES * numChannels * bitsPerSample / 8];
+        SplittableRandom random = new SplittableRandom(1);
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) random.nextInt();
+        }
+        source = ByteBuffer.wrap(data).order(ByteOrder.LITTLE_ENDIAN);
+        floatPlanes = new float[numChannels][FRAMES];
+        shortPlanes = new short[numChannels][FRAMES];
+    }
+
+    @Benchmark
+    public float[][] toFloat() {
+        PCMConverter.toFloat(source, bitsPerSample, numChannels, floatPlanes, 0, FRAMES);
+        return floatPlanes;
+    }
+
+    @Benchmark
+    public short[][] toShort() {
+        PCMConverter.toShort(source, bitsPerSample, numChannels, shortPlanes, 0, FRAMES);
+        return shortPlanes;
+    }
+
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright © 2021 Shcherbina Daniil
+ * License: http://opensource.org/licenses/MIT
+ */
+
+package ausf.software.benchmarks;
+
+import ausf.software.io.Reader;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures decoding a little-endian header field through the copying
+ * {@code convertAreaArrayToBuffer} path and through the in-place codec.
+ *
+ * @author  Shcherbina Daniil
+ * @since   0.2.0
+ * @version 0.2.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReaderFieldBenchmark {
+
+    private final FieldReader reader = new FieldReader();
+
+    public int offset = 24;
+
+    @Benchmark
+    public int convertAreaArrayToBuffer() {
+        return reader.copying(offset);
+    }
+
+    @Benchmark
+    public int readInt() {
+        return reader.inPlace(offset);
+    }
+
+    /**
+     * Reader over a WAV header that exposes the protected field decoders.
+     */
+    static class FieldReader extends Reader {
+
+        FieldReader() {
+            buffer = new byte[]{82, 73, 70, 70, 36, 0, 0, 0, 87, 65, 86, 69, 102, 109, 116, 32,
+                                16, 0, 0, 0, 1, 0, 2, 0, -128, -69, 0, 0, 0, -18, 2, 0, 4, 0, 16, 0};
+        }
+
+        @SuppressWarnings("deprecation")
+        int copying(int offset) {
+            return convertAreaArrayToBuffer(offset, offset + 4).getInt();
+        }
+
+        int inPlace(int offset) {
+            return readInt(offset);
+        }
+
+    }
+
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright © 2021 Shcherbina Daniil
+ * License: http://opensource.org/licenses/MIT
+ */
+
+package ausf.software.benchmarks;
+
+import ausf.software.codecs.Resampler;
+import ausf.software.constants.ResamplerQuality;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures converting one second of a mono stream to 48 kHz
+ * in blocks of 10 milliseconds with {@link Resampler}.
+ *
+ * @author  Shcherbina Daniil
+ * @since   0.2.0
+ * @version 0.2.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResamplerBenchmark {
+
+    private static final int OUTPUT_RATE = 48000;
+
+    @Param({"8000", "22050", "44100"})
+    public int inputRate;
+
+    @Param({"LINEAR", "MEDIUM", "HIGH"})
+    public ResamplerQuality quality;
+
+    private Resampler resampler;
+    private float[][] input;
+    private float[][] output;
+    private int blockFrames;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        blockFrames = inputRate / 100;
+        resampler = new Resampler(inputRate, OUTPUT_RATE, 1, quality);
+        input = new float[1][blockFrames];
+        for (int i = 0; i < blockFrames; i++) {
+            input[0][i] = (float) Math.sin(i * 0.1);
+        }
+        output = new float[1][resampler.getOutputCapacity(blockFrames)];
+    }
+
+    @Benchmark
+    public float[][] oneSecond() {
+        for (int block = 0; block < 100; block++) {
+            resampler.process(input, 0, blockFrames, output, 0);
+        }
+        return output;
+    }
+
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright © 2021 Shcherbina Daniil
+ * License: http://opensource.org/licenses/MIT
+ */
+
+package ausf.software.benchmarks;
+
+import ausf.software.file.audio.WAVFile;
+import ausf.software.io.readers.WAVFileReader;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures access to the audio data of a read WAV file: copying it into
+ * the heap with {@link WAVFile#getData()} and reading it through the
+ * mapped buffer of {@link WAVFile#getDataBuffer()}.
+ *
+ * @author  Shcherbina Daniil
+ * @since   0.2.0
+ * @version 0.2.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WAVFileDataBenchmark {
+
+    @Param({"1024", "1048576", "67108864"})
+    public long dataSize;
+
+    private Path file;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        file = WAVFixtures.create(dataSize, 2, 16, false);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        WAVFixtures.delete(file);
+    }
+
+    @Benchmark
+    public byte[] getData() {
+        return new WAVFileReader(file.toString()).read().getData();
+    }
+
+    @Benchmark
+    public long getDataBuffer() {
+        ByteBuffer buffer = new WAVFileReader(file.toString()).read().getDataBuffer();
+        long sum = 0;
+        for (int i = 0; i + 8 <= buffer.limit(); i += 8) {
+            sum += buffer.getLong(i);
+        }
+        return sum;
+    }
+
+}
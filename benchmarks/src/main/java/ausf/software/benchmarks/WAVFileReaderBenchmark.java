@@ -0,0 +1,64 @@
+/*
+ * Copyright © 2021 Shcherbina Daniil
+ * License: http://opensource.org/licenses/MIT
+ */
+
+package ausf.software.benchmarks;
+
+import ausf.software.constants.audio.wav.WAVParserMode;
+import ausf.software.file.audio.WAVFile;
+import ausf.software.io.readers.WAVFileReader;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures opening a WAV file with {@link WAVFileReader#read()}.
+ *
+ * @author  Shcherbina Daniil
+ * @since   0.2.0
+ * @version 0.2.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WAVFileReaderBenchmark {
+
+    @Param({"1024", "1048576", "67108864"})
+    public long dataSize;
+
+    @Param({"2"})
+    public int numChannels;
+
+    @Param({"16"})
+    public int bitsPerSample;
+
+    @Param({"false", "true"})
+    public boolean withInfo;
+
+    @Param({"CHUNK_DIRECTED", "SIGNATURE_SCAN"})
+    public WAVParserMode parserMode;
+
+    private Path file;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        file = WAVFixtures.create(dataSize, numChannels, bitsPerSample, withInfo);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        WAVFixtures.delete(file);
+    }
+
+    @Benchmark
+    public WAVFile read() {
+        return new WAVFileReader(file.toString(), parserMode).read();
+    }
+
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright © 2021 Shcherbina Daniil
+ * License: http://opensource.org/licenses/MIT
+ */
+
+package ausf.software.benchmarks;
+
+import ausf.software.containers.AudioData;
+import ausf.software.file.audio.WAVFile;
+import ausf.software.io.readers.WAVFileReader;
+import ausf.software.io.writers.WAVFileWriter;
+import ausf.software.io.writers.WAVStreamWriter;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures writing a WAV file from memory with {@link WAVFileWriter#write()}
+ * and in blocks with {@link WAVStreamWriter}.
+ *
+ * @author  Shcherbina Daniil
+ * @since   0.2.0
+ * @version 0.2.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WAVFileWriterBenchmark {
+
+    @Param({"1024", "1048576", "67108864"})
+    public long dataSize;
+
+    @Param({"false", "true"})
+    public boolean withInfo;
+
+    private static final int BLOCK_SIZE = 64 * 1024;
+
+    private Path source;
+    private Path target;
+    private WAVFile wavFile;
+    private byte[] data;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        source = WAVFixtures.create(dataSize, 2, 16, withInfo);
+        target = Files.createTempFile("gmf-bench", ".wav");
+        WAVFile read = new WAVFileReader(source.toString()).read();
+        AudioData audioData = read.getAudioData();
+        data = audioData.getData();
+        wavFile = WAVFile.builder().filePath(target.toString()).audioDataObject(audioData).info(read.getInfo()).build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        WAVFixtures.delete(source);
+        Files.deleteIfExists(target);
+    }
+
+    @Benchmark
+    public void write() {
+        new WAVFileWriter(wavFile).write();
+    }
+
+    @Benchmark
+    public void streamWrite() throws IOException {
+        try (WAVStreamWriter writer = new WAVStreamWriter(wavFile)) {
+            for (int offset = 0; offset < data.length; offset += BLOCK_SIZE) {
+                writer.append(data, offset, Math.min(BLOCK_SIZE, data.length - offset));
+            }
+        }
+    }
+
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright © 2021 Shcherbina Daniil
+ * License: http://opensource.org/licenses/MIT
+ */
+
+package ausf.software.benchmarks;
+
+import ausf.software.constants.INFOListChunkID;
+import ausf.software.constants.audio.wav.WAVCodecRegistries;
+import ausf.software.file.audio.WAVFile;
+import ausf.software.io.writers.WAVStreamWriter;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+
+/**
+ * Generator of synthetic WAV files used by the benchmarks.
+ *
+ * <p>Each file is created in its own temporary directory and filled with
+ * pseudo-random samples, written through {@link WAVStreamWriter} so that
+ * files of several gigabytes do not need to fit in memory.
+ *
+ * @author  Shcherbina Daniil
+ * @since   0.2.0
+ * @version 0.2.0
+ */
+public final class WAVFixtures {
+
+    /**
+     * The sample rate of the generated files.
+     */
+    public static final int SAMPLE_RATE = 48000;
+
+    private static final int BLOCK_SIZE = 1 << 20;
+
+    private WAVFixtures() {}
+
+    /**
+     * Creates a WAV file with the specified parameters.
+     *
+     * @param dataSize the size of the audio data, rounded down to whole frames
+     * @param numChannels number of audio channels
+     * @param bitsPerSample the number of bits in the sample
+     * @param withInfo true if the file should contain an "INFO" list
+     * @return the path to the created file
+     * @throws IOException if the file can not be written
+     */
+    public static Path create(long dataSize, int numChannels, int bitsPerSample, boolean withInfo)
+            throws IOException {
+        Path file = Files.createTempDirectory("gmf-bench").resolve(
+                "fixture-" + dataSize + "-" + numChannels + "ch-" + bitsPerSample + "bit.wav");
+
+        WAVFile format = WAVFile.builder()
+                .filePath(file.toString())
+                .fileAudioFormat(WAVCodecRegistries.FORMAT_PCM.getIndex())
+                .numChannels((short) numChannels)
+                .fileSampleRate(SAMPLE_RATE)
+                .bitsPerSample((short) bitsPerSample)
+                .build();
+        if (withInfo) {
+            format.addInfo(INFOListChunkID.INAM, "Benchmark fixture");
+            format.addInfo(INFOListChunkID.ISFT, "Grizzly Media Framework benchmarks");
+            format.addInfo(INFOListChunkID.ICMT, "Synthetic pseudo-random PCM data");
+        }
+
+        byte[] block = new byte[BLOCK_SIZE];
+        SplittableRandom random = new SplittableRandom(dataSize);
+        for (int i = 0; i < block.length; i++) {
+            block[i] = (byte) random.nextInt();
+        }
+
+        long remaining = dataSize - dataSize % format.getBlockAlign();
+        try (WAVStreamWriter writer = new WAVStreamWriter(format)) {
+            while (remaining > 0) {
+                int size = (int) Math.min(remaining, block.length);
+                writer.append(block, 0, size);
+                remaining -= size;
+            }
+        }
+        return file;
+    }
+
+    /**
+     * Deletes the file created by {@link #create} and its directory.
+     *
+     * @param file the path to the file
+     * @throws IOException if the file can not be deleted
+     */
+    public static void delete(Path file) throws IOException {
+        if (file != null) {
+            Files.deleteIfExists(file);
+            Files.deleteIfExists(file.getParent());
+        }
+    }
+
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright © 2021 Shcherbina Daniil
+ * License: http://opensource.org/licenses/MIT
+ */
+
+package ausf.software.analysis;
+
+import java.time.Duration;
+
+/**
+ *
+ * A range of frames of audio data: the number of its first frame and the number
+ * of the frame after its last frame.
+ *
+ * @author  Shcherbina Daniil
+ * @see     SilenceDetector
+ * @see     ausf.software.io.writers.WAVSplitter
+ * @since   0.2.0
+ * @version 0.2.0
+ */
+public final class AudioSegment {
+
+    private final long startFrame;
+    private final long stopFrame;
+    private final int sampleRate;
+
+    /**
+     * Creates a segment.
+     *
+     * @param startFrame the first frame of the segment
+     * @param stopFrame the frame after the last frame of the segment
+     * @param sampleRate the sample rate of the audio data
+     * @throws IllegalArgumentException if the range is negative
+     */
+    public AudioSegment(long startFrame, long stopFrame, int sampleRate) {
+        if (startFrame < 0 || stopFrame < startFrame) {
+            throw new IllegalArgumentException("Invalid segment " + startFrame + ".." + stopFrame + ".");
+        }
+        this.startFrame = startFrame;
+        this.stopFrame = stopFrame;
+        this.sampleRate = sampleRate;
+    }
+
+    /**
+     * Returns the first frame of the segment.
+     *
+     * @return the first frame of the segment
+     */
+    public long getStartFrame() {
+        return startFrame;
+    }
+
+    /**
+     * Returns the frame after the last frame of the segment.
+     *
+     * @return the frame after the last frame of the segment
+     */
+    public long getStopFrame() {
+        return stopFrame;
+    }
+
+    /**
+     * Returns the number of frames in the segment.
+     *
+     * @return the number of frames in the segment
+     */
+    public long getFrames() {
+        return stopFrame - startFrame;
+    }
+
+    /**
+     * Returns the time from the beginning of the audio data to the start of the segment.
+     *
+     * @return the start of the segment
+     */
+    public Duration getStart() {
+        return toDuration(startFrame);
+    }
+
+    /**
+     * Returns the length of the segment.
+     *
+     * @return the length of the segment
+     */
+    public Duration getDuration() {
+        return toDuration(getFrames());
+    }
+
+    /**
+     * Returns the sample rate of the audio data.
+     *
+     * @return the sample rate of the audio data
+     */
+    public int getSampleRate() {
+        return sampleRate;
+    }
+
+    @Override
+    public String toString() {
+        return "AudioSegment{" + startFrame + ".." + stopFrame + ", " + getStart() + " + " + getDuration() + "}";
+    }
+
+    private Duration toDuration(long frames) {
+        return Duration.ofSeconds(frames / sampleRate, (frames % sampleRate) * 1_000_000_000L / sampleRate);
+    }
+
+}
@@ -0,0 +1,195 @@
+/*
+ * Copyright © 2021 Shcherbina Daniil
+ * License: http://opensource.org/licenses/MIT
+ */
+
+package ausf.software.analysis;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ *
+ * Plan of the fast Fourier transform of real samples for one transform size,
+ * a power of two.
+ *
+ * <p>The transform of n real samples is computed as a complex transform of n/2
+ * points followed by a split step, with the bit reversal table and the twiddle
+ * factors computed when the plan is created. Plans are cached by size and shared:
+ * a plan holds no state besides its tables, and all working memory is supplied
+ * by the caller, so one plan can be used by many threads at once and a transform
+ * allocates nothing.
+ *
+ * <pre>{@code
+ * FFT fft = FFT.getInstance(2048);
+ * float[] re = new float[fft.getBins()], im = new float[fft.getBins()];
+ * fft.forward(samples, offset, re, im);
+ * }</pre>
+ *
+ * @author  Shcherbina Daniil
+ * @see     STFT
+ * @since   0.2.0
+ * @version 0.2.0
+ */
+public final class FFT {
+
+    /**
+     * The plans created so far, by transform size.
+     */
+    private static final Map<Integer, FFT> PLANS = new ConcurrentHashMap<>();
+
+    /**
+     * The number of real samples transformed.
+     */
+    private final int size;
+    /**
+     * The index of each point of the complex transform after the bit reversal.
+     */
+    private final int[] reversed;
+    /**
+     * The twiddle factors of the complex transform of size/2 points.
+     */
+    private final float[] cos;
+    private final float[] sin;
+    /**
+     * The twiddle factors of the split step.
+     */
+    private final float[] splitCos;
+    private final float[] splitSin;
+
+    private FFT(int size) {
+        this.size = size;
+        int half = size / 2;
+        int bits = Integer.numberOfTrailingZeros(half);
+        reversed = new int[half];
+        for (int i = 0; i < half; i++) {
+            reversed[i] = bits == 0 ? 0 : Integer.reverse(i) >>> (32 - bits);
+        }
+        cos = new float[half / 2];
+        sin = new float[half / 2];
+        for (int i = 0; i < half / 2; i++) {
+            double phase = 2 * Math.PI * i / half;
+            cos[i] = (float) Math.cos(phase);
+            sin[i] = (float) Math.sin(phase);
+        }
+        splitCos = new float[half / 2 + 1];
+        splitSin = new float[half / 2 + 1];
+        for (int i = 0; i <= half / 2; i++) {
+            double phase = 2 * Math.PI * i / size;
+            splitCos[i] = (float) Math.cos(phase);
+            splitSin[i] = (float) Math.sin(phase);
+        }
+    }
+
+    /**
+     * Returns the plan for the transform size, creating it on first use.
+     *
+     * @param size the number of real samples, a power of two not less than 4
+     * @return the plan for the transform size
+     * @throws IllegalArgumentException if the size is not a power of two or is less than 4
+     */
+    public static FFT getInstance(int size) {
+        if (size < 4 || Integer.bitCount(size) != 1) {
+            throw new IllegalArgumentException("The transform size must be a power of two, at least 4: " + size);
+        }
+        return PLANS.computeIfAbsent(size, FFT::new);
+    }
+
+    /**
+     * Returns the number of real samples transformed.
+     *
+     * @return the transform size
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Returns the number of frequency bins of the transform, from 0 to the Nyquist
+     * frequency inclusive: size/2 + 1.
+     *
+     * @return the number of frequency bins
+     */
+    public int getBins() {
+        return size / 2 + 1;
+    }
+
+    /**
+     * Computes the spectrum of the real samples. Bin k has the frequency
+     * k * sampleRate / size. The arrays of the spectrum must not be the input array.
+     *
+     * @param input the array with the samples
+     * @param offset the index of the first sample
+     * @param re the array receiving the real parts of the bins, at least {@link #getBins()} long
+     * @param im the array receiving the imaginary parts of the bins, at least {@link #getBins()} long
+     */
+    public void forward(float[] input, int offset, float[] re, float[] im) {
+        int half = size / 2;
+        // the even samples are the real parts and the odd samples the imaginary parts
+        for (int i = 0; i < half; i++) {
+            int j = reversed[i];
+            re[j] = input[offset + 2 * i];
+            im[j] = input[offset + 2 * i + 1];
+        }
+
+        for (int length = 2; length <= half; length <<= 1) {
+            int middle = length >> 1;
+            int step = half / length;
+            for (int start = 0; start < half; start += length) {
+                for (int k = 0; k < middle; k++) {
+                    float wr = cos[k * step];
+                    float wi = -sin[k * step];
+                    int a = start + k;
+                    int b = a + middle;
+                    float tr = wr * re[b] - wi * im[b];
+                    float ti = wr * im[b] + wi * re[b];
+                    re[b] = re[a] - tr;
+                    im[b] = im[a] - ti;
+                    re[a] += tr;
+                    im[a] += ti;
+                }
+            }
+        }
+
+        // the split step separates the spectra of the even and the odd samples
+        float first = re[0];
+        re[0] = first + im[0];
+        re[half] = first - im[0];
+        im[0] = 0;
+        im[half] = 0;
+        for (int k = 1; k <= half / 2; k++) {
+            int m = half - k;
+            float a = re[k];
+            float b = im[k];
+            float c = re[m];
+            float d = im[m];
+            float er = (a + c) * 0.5f;
+            float ei = (b - d) * 0.5f;
+            float or = (b + d) * 0.5f;
+            float oi = (c - a) * 0.5f;
+            float wr = splitCos[k];
+            float wi = -splitSin[k];
+            float tr = wr * or - wi * oi;
+            float ti = wr * oi + wi * or;
+            re[k] = er + tr;
+            im[k] = ei + ti;
+            re[m] = er - tr;
+            im[m] = ti - ei;
+        }
+    }
+
+    /**
+     * Computes the power of each bin of a spectrum: re² + im².
+     *
+     * @param re the real parts of the bins
+     * @param im the imaginary parts of the bins
+     * @param power the array receiving the power of each bin, may be one of the input arrays
+     * @param bins the number of bins
+     */
+    public static void power(float[] re, float[] im, float[] power, int bins) {
+        for (int k = 0; k < bins; k++) {
+            power[k] = re[k] * re[k] + im[k] * im[k];
+        }
+    }
+
+}
@@ -0,0 +1,483 @@
+/*
+ * Copyright © 2021 Shcherbina Daniil
+ * License: http://opensource.org/licenses/MIT
+ */
+
+package ausf.software.analysis;
+
+import ausf.software.constants.audio.wav.WAVSpeakerPosition;
+import ausf.software.file.audio.WAVFile;
+import ausf.software.util.pipeline.AudioBlock;
+import ausf.software.util.pipeline.BlockSink;
+import ausf.software.util.pipeline.Pipeline;
+
+import java.io.IOException;
+
+/**
+ *
+ * Implementation of the loudness meter of ITU-R BS.1770 and EBU R128 as the end
+ * of a block pipeline: momentary (400 ms), short-term (3 s) and gated integrated
+ * loudness in LUFS, and the true peak in dBTP.
+ *
+ * <p>The samples are K-weighted with two biquad filters computed for the sample
+ * rate, and their energy is summed over steps of 100 ms. The momentary and the
+ * short-term loudness are the sums of the last 4 and 30 steps. Each momentary
+ * block, overlapping the previous one by 75%, is added to a histogram with bins of
+ * 0.01 LU from -70 to +10 LUFS that keeps the count and the total energy of its
+ * blocks; the integrated loudness is computed from the histogram with the absolute
+ * gate of -70 LUFS and the relative gate of -10 LU. The memory used is therefore
+ * fixed whatever the length of the audio data. The true peak is the largest
+ * sample of the signal upsampled four times (two times from 96 kHz) with a
+ * 48-tap interpolation filter.
+ *
+ * <pre>{@code
+ * LoudnessMeter meter = LoudnessMeter.measure(wavFile);
+ * double lufs = meter.getIntegratedLoudness();
+ * }</pre>
+ *
+ * <p>The momentary and the short-term loudness can be read by another thread
+ * while the meter runs; the other values are meant to be read when it is closed.
+ *
+ * @author  Shcherbina Daniil
+ * @see     LoudnessNormalizer
+ * @see     Pipeline#run(BlockSink)
+ * @since   0.2.0
+ * @version 0.2.0
+ */
+public class LoudnessMeter implements BlockSink {
+
+    private static final double ABSOLUTE_GATE = -70;
+    private static final double RELATIVE_GATE = -10;
+    private static final double HISTOGRAM_TOP = 10;
+    private static final int HISTOGRAM_BINS_PER_LU = 100;
+    private static final int MOMENTARY_STEPS = 4;
+    private static final int SHORT_TERM_STEPS = 30;
+    /**
+     * The number of input samples used to interpolate one sample of the true peak.
+     */
+    private static final int PEAK_TAPS = 12;
+
+    /**
+     * The weight of each channel, or null to take them from the number of channels.
+     */
+    private final float[] presetWeights;
+
+    private float[] weights;
+    private int stepSize;
+    /**
+     * The number of samples in the current step.
+     */
+    private int stepFilled;
+    /**
+     * The K-weighted energy of each channel in the current step.
+     */
+    private double[] stepEnergy;
+    /**
+     * The weighted energy of the last steps, in a ring.
+     */
+    private double[] steps;
+    private long stepCount;
+
+    /**
+     * The coefficients and the state of the K-weighting filters: b0 b1 b2 a1 a2
+     * of the high shelf and the high pass.
+     */
+    private double[] shelf;
+    private double[] highPass;
+    private double[][] filterState;
+
+    private long[] histogramCounts;
+    private double[] histogramEnergy;
+
+    /**
+     * The coefficients of each phase of the interpolation filter, and the last
+     * samples of each channel, stored twice so that a window is contiguous.
+     */
+    private float[][] peakFilter;
+    private float[][] peakHistory;
+    private int peakPosition;
+    private float[] truePeak;
+
+    private volatile double momentaryLoudness = Double.NEGATIVE_INFINITY;
+    private volatile double shortTermLoudness = Double.NEGATIVE_INFINITY;
+    private double maxMomentaryLoudness = Double.NEGATIVE_INFINITY;
+    private double maxShortTermLoudness = Double.NEGATIVE_INFINITY;
+
+    /**
+     * Creates a meter weighting the channels by their usual speaker positions
+     * for the number of channels: the low frequency channel of 5.1 and 7.1 is
+     * ignored and the surround channels are weighted by 1.41.
+     */
+    public LoudnessMeter() {
+        presetWeights = null;
+    }
+
+    /**
+     * Creates a meter with the specified weights of the channels.
+     *
+     * @param weights the weight of each channel
+     * @see #getChannelWeights(int, int)
+     */
+    public LoudnessMeter(float[] weights) {
+        presetWeights = weights.clone();
+    }
+
+    /**
+     * Measures the loudness of the audio data, reading it one block at a time.
+     * The channels are weighted by the speaker positions of the file.
+     *
+     * @param wavFile the read WAV file
+     * @return the closed meter with the loudness of the audio data
+     * @throws IOException if the file can not be read
+     */
+    public static LoudnessMeter measure(WAVFile wavFile) throws IOException {
+        int numChannels = wavFile.getNumberAudioChanel();
+        int mask = wavFile.isExtensible() ? wavFile.getChannelMask() : WAVSpeakerPosition.getDefaultMask(numChannels);
+        LoudnessMeter meter = new LoudnessMeter(getChannelWeights(mask, numChannels));
+        Pipeline.from(wavFile).run(meter);
+        return meter;
+    }
+
+    /**
+     * Returns the weights of the channels with the speaker positions of the channel
+     * mask: 0 for the low frequency channel, 1.41 for the back and side channels
+     * and 1 for the others, including the channels without a position.
+     *
+     * @param channelMask the channel mask
+     * @param numChannels number of audio channels
+     * @return the weight of each channel
+     */
+    public static float[] getChannelWeights(int channelMask, int numChannels) {
+        float[] weights = new float[numChannels];
+        int channel = 0;
+        for (WAVSpeakerPosition position : WAVSpeakerPosition.fromMask(channelMask)) {
+            if (channel == numChannels) {
+                break;
+            }
+            switch (position) {
+                case LOW_FREQUENCY:
+                    weights[channel] = 0;
+                    break;
+                case BACK_LEFT:
+                case BACK_RIGHT:
+                case SIDE_LEFT:
+                case SIDE_RIGHT:
+                    weights[channel] = 1.41f;
+                    break;
+                default:
+                    weights[channel] = 1;
+            }
+            channel++;
+        }
+        for (; channel < numChannels; channel++) {
+            weights[channel] = 1;
+        }
+        return weights;
+    }
+
+    @Override
+    public void open(int sampleRate, int numChannels) {
+        if (presetWeights != null && presetWeights.length != numChannels) {
+            throw new IllegalArgumentException("The meter has weights for " + presetWeights.length
+                                                + " channels, not " + numChannels + ".");
+        }
+        weights = presetWeights != null ? presetWeights
+                : getChannelWeights(WAVSpeakerPosition.getDefaultMask(numChannels), numChannels);
+        stepSize = (int) Math.round(sampleRate / 10.0);
+        stepFilled = 0;
+        stepEnergy = new double[numChannels];
+        steps = new double[SHORT_TERM_STEPS];
+        stepCount = 0;
+        initFilters(sampleRate);
+        filterState = new double[numChannels][4];
+        int bins = (int) ((HISTOGRAM_TOP - ABSOLUTE_GATE) * HISTOGRAM_BINS_PER_LU);
+        histogramCounts = new long[bins];
+        histogramEnergy = new double[bins];
+        initPeakFilter(sampleRate < 96000 ? 4 : sampleRate < 192000 ? 2 : 1);
+        peakHistory = new float[numChannels][2 * PEAK_TAPS];
+        peakPosition = 0;
+        truePeak = new float[numChannels];
+        momentaryLoudness = Double.NEGATIVE_INFINITY;
+        shortTermLoudness = Double.NEGATIVE_INFINITY;
+        maxMomentaryLoudness = Double.NEGATIVE_INFINITY;
+        maxShortTermLoudness = Double.NEGATIVE_INFINITY;
+    }
+
+    @Override
+    public void write(AudioBlock block) {
+        int frames = block.getFrames();
+        for (int done = 0; done < frames; ) {
+            int count = Math.min(frames - done, stepSize - stepFilled);
+            for (int channel = 0; channel < weights.length; channel++) {
+                float[] samples = block.getChannel(channel);
+                if (weights[channel] != 0) {
+                    stepEnergy[channel] += filter(samples, done, count, filterState[channel]);
+                }
+                updatePeak(channel, samples, done, count);
+            }
+            peakPosition = (peakPosition + count) % PEAK_TAPS;
+            stepFilled += count;
+            done += count;
+            if (stepFilled == stepSize) {
+                closeStep();
+            }
+        }
+    }
+
+    /**
+     * Passes the last samples through the interpolation filter. An incomplete last
+     * step is not a whole gating block and is left out.
+     */
+    @Override
+    public void close() {
+        if (truePeak == null) {
+            return;
+        }
+        float[] silence = new float[PEAK_TAPS / 2];
+        for (int channel = 0; channel < weights.length; channel++) {
+            updatePeak(channel, silence, 0, silence.length);
+        }
+        peakPosition = (peakPosition + silence.length) % PEAK_TAPS;
+    }
+
+    /**
+     * Returns the integrated loudness of the audio data measured so far.
+     *
+     * @return the integrated loudness in LUFS, or negative infinity if all blocks are below the absolute gate
+     */
+    public double getIntegratedLoudness() {
+        long count = 0;
+        double energy = 0;
+        for (int bin = 0; bin < histogramCounts.length; bin++) {
+            count += histogramCounts[bin];
+            energy += histogramEnergy[bin];
+        }
+        if (count == 0) {
+            return Double.NEGATIVE_INFINITY;
+        }
+        double threshold = toLoudness(energy / count) + RELATIVE_GATE;
+        count = 0;
+        energy = 0;
+        for (int bin = Math.max(0, getHistogramBin(threshold)); bin < histogramCounts.length; bin++) {
+            count += histogramCounts[bin];
+            energy += histogramEnergy[bin];
+        }
+        return count == 0 ? Double.NEGATIVE_INFINITY : toLoudness(energy / count);
+    }
+
+    /**
+     * Returns the loudness of the last 400 ms.
+     *
+     * @return the momentary loudness in LUFS
+     */
+    public double getMomentaryLoudness() {
+        return momentaryLoudness;
+    }
+
+    /**
+     * Returns the loudness of the last 3 s.
+     *
+     * @return the short-term loudness in LUFS
+     */
+    public double getShortTermLoudness() {
+        return shortTermLoudness;
+    }
+
+    /**
+     * Returns the largest momentary loudness measured so far.
+     *
+     * @return the largest momentary loudness in LUFS
+     */
+    public double getMaxMomentaryLoudness() {
+        return maxMomentaryLoudness;
+    }
+
+    /**
+     * Returns the largest short-term loudness measured so far.
+     *
+     * @return the largest short-term loudness in LUFS
+     */
+    public double getMaxShortTermLoudness() {
+        return maxShortTermLoudness;
+    }
+
+    /**
+     * Returns the largest true peak of all channels.
+     *
+     * @return the true peak in dBTP
+     */
+    public double getTruePeak() {
+        float peak = 0;
+        for (float value : truePeak) {
+            peak = Math.max(peak, value);
+        }
+        return 20 * Math.log10(peak);
+    }
+
+    /**
+     * Returns the true peak of the channel.
+     *
+     * @param channel the number of the channel
+     * @return the true peak in dBTP
+     */
+    public double getTruePeak(int channel) {
+        return 20 * Math.log10(truePeak[channel]);
+    }
+
+    /**
+     * Ends the current step of 100 ms and updates the momentary and the short-term loudness.
+     */
+    private void closeStep() {
+        double energy = 0;
+        for (int channel = 0; channel < weights.length; channel++) {
+            energy += weights[channel] * stepEnergy[channel];
+            stepEnergy[channel] = 0;
+        }
+        steps[(int) (stepCount % SHORT_TERM_STEPS)] = energy;
+        stepCount++;
+        stepFilled = 0;
+
+        if (stepCount >= MOMENTARY_STEPS) {
+            double mean = sumSteps(MOMENTARY_STEPS) / ((double) MOMENTARY_STEPS * stepSize);
+            double loudness = toLoudness(mean);
+            momentaryLoudness = loudness;
+            maxMomentaryLoudness = Math.max(maxMomentaryLoudness, loudness);
+            if (loudness >= ABSOLUTE_GATE) {
+                int bin = Math.min(getHistogramBin(loudness), histogramCounts.length - 1);
+                histogramCounts[bin]++;
+                histogramEnergy[bin] += mean;
+            }
+        }
+        if (stepCount >= SHORT_TERM_STEPS) {
+            double loudness = toLoudness(sumSteps(SHORT_TERM_STEPS) / ((double) SHORT_TERM_STEPS * stepSize));
+            shortTermLoudness = loudness;
+            maxShortTermLoudness = Math.max(maxShortTermLoudness, loudness);
+        }
+    }
+
+    /**
+     * Returns the total energy of the last steps.
+     *
+     * @param count the number of steps
+     * @return the total energy of the steps
+     */
+    private double sumSteps(int count) {
+        double sum = 0;
+        for (int i = 1; i <= count; i++) {
+            sum += steps[(int) ((stepCount - i) % SHORT_TERM_STEPS)];
+        }
+        return sum;
+    }
+
+    /**
+     * Passes the samples through the K-weighting filters.
+     *
+     * @param samples the samples of the channel
+     * @param offset the index of the first sample
+     * @param count the number of samples
+     * @param state the state of the filters of the channel
+     * @return the energy of the filtered samples
+     */
+    private double filter(float[] samples, int offset, int count, double[] state) {
+        double b0 = shelf[0], b1 = shelf[1], b2 = shelf[2], a1 = shelf[3], a2 = shelf[4];
+        double c0 = highPass[0], c1 = highPass[1], c2 = highPass[2], d1 = highPass[3], d2 = highPass[4];
+        double s1 = state[0], s2 = state[1], t1 = state[2], t2 = state[3];
+        double energy = 0;
+        for (int i = offset; i < offset + count; i++) {
+            // transposed direct form II
+            double x = samples[i];
+            double y = b0 * x + s1;
+            s1 = b1 * x - a1 * y + s2;
+            s2 = b2 * x - a2 * y;
+            double z = c0 * y + t1;
+            t1 = c1 * y - d1 * z + t2;
+            t2 = c2 * y - d2 * z;
+            energy += z * z;
+        }
+        state[0] = s1;
+        state[1] = s2;
+        state[2] = t1;
+        state[3] = t2;
+        return energy;
+    }
+
+    /**
+     * Updates the true peak of the channel with the interpolated samples.
+     *
+     * @param channel the number of the channel
+     * @param samples the samples of the channel
+     * @param offset the index of the first sample
+     * @param count the number of samples
+     */
+    private void updatePeak(int channel, float[] samples, int offset, int count) {
+        float[] history = peakHistory[channel];
+        float peak = truePeak[channel];
+        int position = peakPosition;
+        for (int i = offset; i < offset + count; i++) {
+            history[position] = samples[i];
+            history[position + PEAK_TAPS] = samples[i];
+            position = position + 1 == PEAK_TAPS ? 0 : position + 1;
+            // the window of the last samples, from the oldest, starts at the next position
+            for (float[] phase : peakFilter) {
+                float sum = 0;
+                for (int tap = 0; tap < PEAK_TAPS; tap++) {
+                    sum += phase[tap] * history[position + tap];
+                }
+                peak = Math.max(peak, Math.abs(sum));
+            }
+        }
+        truePeak[channel] = peak;
+    }
+
+    /**
+     * Computes the K-weighting filters for the sample rate, as in ITU-R BS.1770.
+     *
+     * @param sampleRate the sample rate
+     */
+    private void initFilters(int sampleRate) {
+        double k = Math.tan(Math.PI * 1681.974450955533 / sampleRate);
+        double q = 0.7071752369554196;
+        double vh = Math.pow(10, 3.999843853973347 / 20);
+        double vb = Math.pow(vh, 0.4996667741545416);
+        double a0 = 1 + k / q + k * k;
+        shelf = new double[] {
+                (vh + vb * k / q + k * k) / a0,
+                2 * (k * k - vh) / a0,
+                (vh - vb * k / q + k * k) / a0,
+                2 * (k * k - 1) / a0,
+                (1 - k / q + k * k) / a0
+        };
+        k = Math.tan(Math.PI * 38.13547087602444 / sampleRate);
+        q = 0.5003270373238773;
+        a0 = 1 + k / q + k * k;
+        highPass = new double[] {1, -2, 1, 2 * (k * k - 1) / a0, (1 - k / q + k * k) / a0};
+    }
+
+    /**
+     * Computes the phases of the Hann-windowed sinc filter interpolating the
+     * samples between the middle two samples of the window.
+     *
+     * @param factor the upsampling factor
+     */
+    private void initPeakFilter(int factor) {
+        peakFilter = new float[factor][PEAK_TAPS];
+        double center = PEAK_TAPS / 2.0 - 1;
+        for (int phase = 0; phase < factor; phase++) {
+            for (int tap = 0; tap < PEAK_TAPS; tap++) {
+                double distance = tap - center - (double) phase / factor;
+                double sinc = distance == 0 ? 1 : Math.sin(Math.PI * distance) / (Math.PI * distance);
+                double window = 0.5 + 0.5 * Math.cos(Math.PI * distance / (PEAK_TAPS / 2.0));
+                peakFilter[phase][tap] = (float) (sinc * window);
+            }
+        }
+    }
+
+    private int getHistogramBin(double loudness) {
+        return (int) Math.floor((loudness - ABSOLUTE_GATE) * HISTOGRAM_BINS_PER_LU);
+    }
+
+    private static double toLoudness(double energy) {
+        return -0.691 + 10 * Math.log10(energy);
+    }
+
+}
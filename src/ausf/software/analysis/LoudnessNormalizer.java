@@ -0,0 +1,85 @@
+/*
+ * Copyright © 2021 Shcherbina Daniil
+ * License: http://opensource.org/licenses/MIT
+ */
+
+package ausf.software.analysis;
+
+import ausf.software.file.audio.WAVFile;
+import ausf.software.util.pipeline.Pipeline;
+import ausf.software.util.pipeline.WAVFileBlockSink;
+
+import java.io.IOException;
+
+/**
+ *
+ * Implementation of loudness normalization in two passes over a WAV file: the
+ * first pass measures the loudness with a {@link LoudnessMeter}, the second one
+ * applies the gain bringing the integrated loudness to the target and writes the
+ * new file in the format of the source, with its channel layout and metadata. The gain is lowered when needed so that
+ * the true peak stays below the ceiling.
+ *
+ * <p>Both passes read the file one block at a time and the second one writes the
+ * blocks as they are processed, so the memory used does not depend on the length
+ * of the file. A normalizer holds only its settings and can normalize many files
+ * from many threads at once.
+ *
+ * <pre>{@code
+ * LoudnessNormalizer normalizer = new LoudnessNormalizer(-23, -1);
+ * LoudnessMeter measured = normalizer.normalize(new WAVFileReader(source).read(), target);
+ * }</pre>
+ *
+ * @author  Shcherbina Daniil
+ * @see     LoudnessMeter
+ * @since   0.2.0
+ * @version 0.2.0
+ */
+public class LoudnessNormalizer {
+
+    private final double targetLoudness;
+    private final double truePeakCeiling;
+
+    /**
+     * Creates a normalizer to the specified integrated loudness and true peak ceiling.
+     *
+     * @param targetLoudness the integrated loudness of the new files in LUFS, for example -23
+     * @param truePeakCeiling the largest true peak of the new files in dBTP, for example -1
+     */
+    public LoudnessNormalizer(double targetLoudness, double truePeakCeiling) {
+        this.targetLoudness = targetLoudness;
+        this.truePeakCeiling = truePeakCeiling;
+    }
+
+    /**
+     * Returns the gain bringing the measured audio data to the target loudness
+     * without its true peak exceeding the ceiling.
+     *
+     * @param meter the meter that measured the audio data
+     * @return the gain in decibels, 0 for audio data below the absolute gate
+     */
+    public double getGain(LoudnessMeter meter) {
+        double loudness = meter.getIntegratedLoudness();
+        if (Double.isInfinite(loudness)) {
+            return 0;
+        }
+        return Math.min(targetLoudness - loudness, truePeakCeiling - meter.getTruePeak());
+    }
+
+    /**
+     * Measures the loudness of the WAV file and writes the normalized audio data to a new file.
+     *
+     * @param source the read WAV file
+     * @param targetPath the path of the new file
+     * @return the meter with the loudness of the source
+     * @throws IOException if the source can not be read or the new file can not be written
+     * @throws IllegalArgumentException if the format of the source can not be written
+     */
+    public LoudnessMeter normalize(WAVFile source, String targetPath) throws IOException {
+        WAVFileBlockSink sink = new WAVFileBlockSink(targetPath, source);
+        LoudnessMeter meter = LoudnessMeter.measure(source);
+        float gain = (float) Math.pow(10, getGain(meter) / 20);
+        Pipeline.from(source).gain(gain).run(sink);
+        return meter;
+    }
+
+}
@@ -0,0 +1,235 @@
+/*
+ * Copyright © 2021 Shcherbina Daniil
+ * License: http://opensource.org/licenses/MIT
+ */
+
+package ausf.software.analysis;
+
+import ausf.software.constants.WindowFunction;
+import ausf.software.util.pipeline.AudioBlock;
+import ausf.software.util.pipeline.BlockSink;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ *
+ * Implementation of the short-time Fourier transform as the end of a block
+ * pipeline: the samples are cut into overlapping frames, each frame is weighted
+ * by a window and transformed with a shared {@link FFT} plan, and the power
+ * spectrum of every channel is passed to a {@link SpectrumListener}.
+ *
+ * <p>Only the last frame of samples is kept, so a file of any length is analysed
+ * with a fixed amount of memory, allocated when the pipeline opens the sink.
+ * The channels of a frame are transformed in parallel when the frames are large
+ * enough for it to pay off. The last samples are padded with silence to a whole
+ * frame when the pipeline ends.
+ *
+ * <p>The power is scaled so that a sine of amplitude A at the frequency of a bin
+ * has a power of A²/4 in that bin, whatever the window and the frame size.
+ *
+ * <pre>{@code
+ * STFT stft = new STFT(2048, 512, WindowFunction.HANN, (position, power) -> {
+ *     float bass = stft.getBandPower(power[0], 20, 250);
+ * });
+ * Pipeline.from(wavFile).run(stft);
+ * }</pre>
+ *
+ * @author  Shcherbina Daniil
+ * @see     FFT
+ * @see     SpectrumListener
+ * @see     ausf.software.util.pipeline.Pipeline#run(BlockSink)
+ * @since   0.2.0
+ * @version 0.2.0
+ */
+public class STFT implements BlockSink {
+
+    /**
+     * The smallest frame size for which the channels are transformed in parallel.
+     */
+    private static final int PARALLEL_FRAME_SIZE = 1024;
+
+    private final FFT fft;
+    private final int hopSize;
+    private final WindowFunction window;
+    private final SpectrumListener listener;
+    /**
+     * The factor turning the squared magnitude of a bin into its power.
+     */
+    private final float scale;
+
+    private int sampleRate;
+    /**
+     * The samples of the current frame of each channel.
+     */
+    private float[][] history;
+    /**
+     * The number of samples in the history.
+     */
+    private int filled;
+    /**
+     * The number of the first sample of the history in the audio data.
+     */
+    private long position;
+    private float[][] windowed;
+    private float[][] re;
+    private float[][] im;
+
+    /**
+     * Creates a transform with the specified frame size, hop and window.
+     *
+     * @param frameSize the number of samples in a frame, a power of two not less than 4
+     * @param hopSize the number of samples between the starts of two frames, from 1 to the frame size
+     * @param window the window applied to each frame
+     * @param listener the receiver of the spectra
+     * @throws IllegalArgumentException if the frame size or the hop is not valid
+     */
+    public STFT(int frameSize, int hopSize, WindowFunction window, SpectrumListener listener) {
+        if (hopSize <= 0 || hopSize > frameSize) {
+            throw new IllegalArgumentException("The hop must be from 1 to the frame size: " + hopSize);
+        }
+        fft = FFT.getInstance(frameSize);
+        this.hopSize = hopSize;
+        this.window = window;
+        this.listener = listener;
+        double sum = window.getSum(frameSize);
+        scale = (float) (1 / (sum * sum));
+    }
+
+    @Override
+    public void open(int sampleRate, int numChannels) {
+        this.sampleRate = sampleRate;
+        int frameSize = fft.getSize();
+        history = new float[numChannels][frameSize];
+        windowed = new float[numChannels][frameSize];
+        re = new float[numChannels][fft.getBins()];
+        im = new float[numChannels][fft.getBins()];
+        filled = 0;
+        position = 0;
+    }
+
+    @Override
+    public void write(AudioBlock block) {
+        int frameSize = fft.getSize();
+        int frames = block.getFrames();
+        for (int done = 0; done < frames; ) {
+            int count = Math.min(frames - done, frameSize - filled);
+            for (int channel = 0; channel < history.length; channel++) {
+                System.arraycopy(block.getChannel(channel), done, history[channel], filled, count);
+            }
+            filled += count;
+            done += count;
+            if (filled == frameSize) {
+                analyse();
+                for (float[] samples : history) {
+                    System.arraycopy(samples, hopSize, samples, 0, frameSize - hopSize);
+                }
+                filled -= hopSize;
+                position += hopSize;
+            }
+        }
+    }
+
+    /**
+     * Analyses the samples not yet covered by a whole frame, padded with silence.
+     */
+    @Override
+    public void close() {
+        if (history != null && filled > fft.getSize() - hopSize) {
+            for (float[] samples : history) {
+                Arrays.fill(samples, filled, samples.length, 0);
+            }
+            analyse();
+        }
+        history = null;
+        windowed = null;
+        re = null;
+        im = null;
+    }
+
+    /**
+     * Returns the number of samples in a frame.
+     *
+     * @return the frame size
+     */
+    public int getFrameSize() {
+        return fft.getSize();
+    }
+
+    /**
+     * Returns the number of samples between the starts of two frames.
+     *
+     * @return the hop
+     */
+    public int getHopSize() {
+        return hopSize;
+    }
+
+    /**
+     * Returns the number of frequency bins of a spectrum.
+     *
+     * @return the number of frequency bins
+     */
+    public int getBins() {
+        return fft.getBins();
+    }
+
+    /**
+     * Returns the frequency of the bin for the sample rate of the opened pipeline.
+     *
+     * @param bin the number of the bin
+     * @return the frequency of the bin in hertz
+     */
+    public double getFrequency(int bin) {
+        return (double) bin * sampleRate / fft.getSize();
+    }
+
+    /**
+     * Returns the total power of the bins whose frequencies are in the band.
+     *
+     * @param power the power spectrum of a channel
+     * @param lowFrequency the lower border of the band in hertz, inclusive
+     * @param highFrequency the upper border of the band in hertz, exclusive
+     * @return the power of the band
+     */
+    public float getBandPower(float[] power, double lowFrequency, double highFrequency) {
+        int first = Math.max(0, (int) Math.ceil(lowFrequency * fft.getSize() / sampleRate));
+        int last = Math.min(fft.getBins(), (int) Math.ceil(highFrequency * fft.getSize() / sampleRate));
+        float sum = 0;
+        for (int bin = first; bin < last; bin++) {
+            sum += power[bin];
+        }
+        return sum;
+    }
+
+    /**
+     * Transforms the current frame of every channel and passes the spectra to the listener.
+     */
+    private void analyse() {
+        if (history.length > 1 && fft.getSize() >= PARALLEL_FRAME_SIZE) {
+            IntStream.range(0, history.length).parallel().forEach(this::transform);
+        } else {
+            for (int channel = 0; channel < history.length; channel++) {
+                transform(channel);
+            }
+        }
+        listener.spectrum(position, re);
+    }
+
+    /**
+     * Computes the power spectrum of the current frame of the channel into its array of real parts.
+     *
+     * @param channel the number of the channel
+     */
+    private void transform(int channel) {
+        int bins = fft.getBins();
+        window.apply(history[channel], 0, windowed[channel], fft.getSize());
+        fft.forward(windowed[channel], 0, re[channel], im[channel]);
+        float[] power = re[channel];
+        FFT.power(power, im[channel], power, bins);
+        for (int bin = 0; bin < bins; bin++) {
+            power[bin] *= scale;
+        }
+    }
+
+}
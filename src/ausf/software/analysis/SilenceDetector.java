@@ -0,0 +1,327 @@
+/*
+ * Copyright © 2021 Shcherbina Daniil
+ * License: http://opensource.org/licenses/MIT
+ */
+
+package ausf.software.analysis;
+
+import ausf.software.file.audio.WAVFile;
+import ausf.software.util.pipeline.AudioBlock;
+import ausf.software.util.pipeline.BlockSink;
+import ausf.software.util.pipeline.Pipeline;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ *
+ * Implementation of the detection of the sounding segments of audio data, as the
+ * end of a block pipeline.
+ *
+ * <p>The samples are examined in windows of 10 ms; a window sounds when the RMS
+ * of any channel reaches the threshold. A segment starts at the first sample of
+ * a sounding window reaching the threshold and ends after the last such sample
+ * plus the hangover, so the borders are accurate to a frame. A segment ends only
+ * after a silence of at least the minimum silence; segments whose sound is shorter
+ * than the minimum segment are dropped as noise. Only the current window and the
+ * list of segments are kept, so a recording of any length is examined with little
+ * memory.
+ *
+ * <pre>{@code
+ * List<AudioSegment> segments = SilenceDetector.builder()
+ *         .threshold(-45)
+ *         .minSilence(Duration.ofMillis(700))
+ *         .hangover(Duration.ofMillis(200))
+ *         .build()
+ *         .detect(wavFile);
+ * new WAVSplitter(wavFile).split(segments, "call-%03d.wav");
+ * }</pre>
+ *
+ * @author  Shcherbina Daniil
+ * @see     AudioSegment
+ * @see     ausf.software.io.writers.WAVSplitter
+ * @since   0.2.0
+ * @version 0.2.0
+ */
+public class SilenceDetector implements BlockSink {
+
+    /**
+     * The length of the windows in which the RMS is measured.
+     */
+    private static final Duration WINDOW = Duration.ofMillis(10);
+
+    private final double threshold;
+    private final Duration minSilence;
+    private final Duration minSegment;
+    private final Duration hangover;
+
+    private int sampleRate;
+    private float amplitude;
+    private int windowSize;
+    private long minSilenceFrames;
+    private long minSegmentFrames;
+    private long hangoverFrames;
+
+    /**
+     * The squared samples of each channel in the current window.
+     */
+    private double[] energy;
+    /**
+     * The number of frames in the current window.
+     */
+    private int windowFilled;
+    /**
+     * The first and the last frame of the current window reaching the threshold, or -1.
+     */
+    private long firstLoud;
+    private long lastLoud;
+    /**
+     * The number of frames examined.
+     */
+    private long position;
+    /**
+     * The first frame of the current segment, or -1 outside a segment.
+     */
+    private long segmentStart;
+    /**
+     * The last frame of the current segment reaching the threshold in a sounding window.
+     */
+    private long segmentLastLoud;
+    private List<AudioSegment> segments;
+
+    /**
+     * Creates a detector using an instance of the specified builder class.
+     *
+     * @param builder an instance builder class
+     */
+    private SilenceDetector(SilenceDetectorBuilder builder) {
+        threshold = builder.threshold;
+        minSilence = builder.minSilence;
+        minSegment = builder.minSegment;
+        hangover = builder.hangover;
+    }
+
+    /**
+     * Returns an instance SilenceDetectorBuilder.
+     *
+     * @return an instance SilenceDetectorBuilder
+     */
+    public static SilenceDetectorBuilder builder() {
+        return new SilenceDetectorBuilder();
+    }
+
+    /**
+     * Returns the sounding segments of the audio data, reading it one block at a time.
+     *
+     * @param wavFile the read WAV file
+     * @return the sounding segments, in order
+     * @throws IOException if the file can not be read
+     */
+    public List<AudioSegment> detect(WAVFile wavFile) throws IOException {
+        Pipeline.from(wavFile).run(this);
+        return getSegments();
+    }
+
+    @Override
+    public void open(int sampleRate, int numChannels) {
+        this.sampleRate = sampleRate;
+        amplitude = (float) Math.pow(10, threshold / 20);
+        windowSize = (int) Math.max(1, toFrames(WINDOW));
+        minSilenceFrames = toFrames(minSilence);
+        minSegmentFrames = toFrames(minSegment);
+        hangoverFrames = toFrames(hangover);
+        energy = new double[numChannels];
+        windowFilled = 0;
+        firstLoud = -1;
+        lastLoud = -1;
+        position = 0;
+        segmentStart = -1;
+        segments = new ArrayList<>();
+    }
+
+    @Override
+    public void write(AudioBlock block) {
+        int frames = block.getFrames();
+        for (int done = 0; done < frames; ) {
+            int count = Math.min(frames - done, windowSize - windowFilled);
+            for (int channel = 0; channel < energy.length; channel++) {
+                float[] samples = block.getChannel(channel);
+                double sum = 0;
+                for (int i = done; i < done + count; i++) {
+                    float sample = samples[i];
+                    sum += sample * sample;
+                    if (Math.abs(sample) >= amplitude) {
+                        long frame = position + i - done;
+                        if (firstLoud < 0 || frame < firstLoud) {
+                            firstLoud = frame;
+                        }
+                        lastLoud = Math.max(lastLoud, frame);
+                    }
+                }
+                energy[channel] += sum;
+            }
+            windowFilled += count;
+            position += count;
+            done += count;
+            if (windowFilled == windowSize) {
+                closeWindow();
+            }
+        }
+    }
+
+    /**
+     * Examines the last incomplete window and ends the current segment.
+     */
+    @Override
+    public void close() {
+        if (segments == null) {
+            return;
+        }
+        if (windowFilled > 0) {
+            closeWindow();
+        }
+        if (segmentStart >= 0) {
+            endSegment(position);
+        }
+    }
+
+    /**
+     * Returns the sounding segments found so far.
+     *
+     * @return the sounding segments, in order
+     */
+    public List<AudioSegment> getSegments() {
+        return segments == null ? Collections.emptyList() : Collections.unmodifiableList(segments);
+    }
+
+    /**
+     * Returns the RMS level at which a window sounds.
+     *
+     * @return the threshold in dBFS
+     */
+    public double getThreshold() {
+        return threshold;
+    }
+
+    /**
+     * Decides whether the current window sounds and updates the current segment.
+     */
+    private void closeWindow() {
+        boolean sounding = false;
+        for (int channel = 0; channel < energy.length; channel++) {
+            sounding |= Math.sqrt(energy[channel] / windowFilled) >= amplitude;
+            energy[channel] = 0;
+        }
+        long windowStart = position - windowFilled;
+        if (sounding) {
+            // a window sounding by its RMS alone has no sample reaching the threshold
+            long first = firstLoud >= 0 ? firstLoud : windowStart;
+            long last = lastLoud >= 0 ? lastLoud : position - 1;
+            if (segmentStart < 0) {
+                segmentStart = first;
+            }
+            segmentLastLoud = last;
+        } else if (segmentStart >= 0 && position - (segmentLastLoud + 1) >= Math.max(minSilenceFrames, hangoverFrames)) {
+            endSegment(position);
+        }
+        windowFilled = 0;
+        firstLoud = -1;
+        lastLoud = -1;
+    }
+
+    /**
+     * Ends the current segment and keeps it unless its sound is too short.
+     *
+     * @param limit the frame after the last examined frame
+     */
+    private void endSegment(long limit) {
+        long sound = segmentLastLoud + 1 - segmentStart;
+        if (sound >= minSegmentFrames) {
+            segments.add(new AudioSegment(segmentStart, Math.min(segmentLastLoud + 1 + hangoverFrames, limit),
+                                          sampleRate));
+        }
+        segmentStart = -1;
+    }
+
+    private long toFrames(Duration time) {
+        return time.getSeconds() * sampleRate + (long) time.getNano() * sampleRate / 1_000_000_000L;
+    }
+
+    /**
+     * Class for creating SilenceDetector class objects.
+     *
+     * @author  Shcherbina Daniil
+     * @see     SilenceDetector
+     * @since   0.2.0
+     * @version 0.2.0
+     */
+    public static class SilenceDetectorBuilder {
+
+        private double threshold = -50;
+        private Duration minSilence = Duration.ofMillis(500);
+        private Duration minSegment = Duration.ofMillis(100);
+        private Duration hangover = Duration.ofMillis(200);
+
+        /**
+         * Returns an instance of the SilenceDetectorBuilder class with the modified threshold.
+         *
+         * @param threshold the RMS level at which a window sounds, in dBFS; -50 by default
+         * @return an instance of the SilenceDetectorBuilder class with the modified threshold
+         */
+        public SilenceDetectorBuilder threshold(double threshold) {
+            this.threshold = threshold;
+            return this;
+        }
+
+        /**
+         * Returns an instance of the SilenceDetectorBuilder class with the modified minimum silence.
+         *
+         * @param minSilence the shortest silence ending a segment; 500 ms by default
+         * @return an instance of the SilenceDetectorBuilder class with the modified minimum silence
+         */
+        public SilenceDetectorBuilder minSilence(Duration minSilence) {
+            this.minSilence = minSilence;
+            return this;
+        }
+
+        /**
+         * Returns an instance of the SilenceDetectorBuilder class with the modified minimum segment.
+         *
+         * @param minSegment the shortest sound kept as a segment; 100 ms by default
+         * @return an instance of the SilenceDetectorBuilder class with the modified minimum segment
+         */
+        public SilenceDetectorBuilder minSegment(Duration minSegment) {
+            this.minSegment = minSegment;
+            return this;
+        }
+
+        /**
+         * Returns an instance of the SilenceDetectorBuilder class with the modified hangover.
+         *
+         * @param hangover the time added to a segment after its last sound; 200 ms by default
+         * @return an instance of the SilenceDetectorBuilder class with the modified hangover
+         */
+        public SilenceDetectorBuilder hangover(Duration hangover) {
+            this.hangover = hangover;
+            return this;
+        }
+
+        /**
+         * Returns the SilenceDetector object assembled based on the specified parameters.
+         *
+         * @return the SilenceDetector object
+         * @throws IllegalArgumentException if a duration is negative
+         */
+        public SilenceDetector build() {
+            if (minSilence.isNegative() || minSegment.isNegative() || hangover.isNegative()) {
+                throw new IllegalArgumentException("The durations must not be negative.");
+            }
+            return new SilenceDetector(this);
+        }
+
+    }
+
+}
@@ -0,0 +1,29 @@
+/*
+ * Copyright © 2021 Shcherbina Daniil
+ * License: http://opensource.org/licenses/MIT
+ */
+
+package ausf.software.analysis;
+
+/**
+ *
+ * Receiver of the spectra computed by an {@link STFT}, one call for each frame.
+ *
+ * @author  Shcherbina Daniil
+ * @see     STFT
+ * @since   0.2.0
+ * @version 0.2.0
+ */
+@FunctionalInterface
+public interface SpectrumListener {
+
+    /**
+     * Called for each analysed frame, in the order of the frames. The arrays are
+     * reused for the next frame and are valid only until the method returns.
+     *
+     * @param position the number of the first sample of the frame in the audio data
+     * @param power the power of each frequency bin, one array for each channel
+     */
+    void spectrum(long position, float[][] power);
+
+}
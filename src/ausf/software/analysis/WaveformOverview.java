@@ -0,0 +1,486 @@
+/*
+ * Copyright © 2021 Shcherbina Daniil
+ * License: http://opensource.org/licenses/MIT
+ */
+
+package ausf.software.analysis;
+
+import ausf.software.codecs.PCMConverter;
+import ausf.software.file.audio.WAVFile;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ *
+ * A multi-resolution summary of the audio data of a WAV file for drawing its waveform:
+ * for each level, the minimum, the maximum and the RMS of every bin of a fixed number
+ * of frames, for each channel. By default the levels have bins of 256, 4096 and 65536
+ * frames.
+ *
+ * <p>All levels are computed in one pass over the "data" chunk, reading one block
+ * at a time. The summary can be kept next to the WAV file in a sidecar file, which
+ * records the size and the modification time of the WAV file and is ignored when
+ * they no longer match. {@link #get(WAVFile)} reads the sidecar file if it is valid
+ * and otherwise computes the summary and writes it.
+ *
+ * <p>{@link #render} reduces any range of frames to the requested number of pixels
+ * from the coarsest level whose bins are not larger than a pixel, so the work done
+ * depends on the number of pixels and not on the length of the range. The values
+ * are stored as 16-bit numbers, so levels below -90 dB are drawn as silence.
+ *
+ * <pre>{@code
+ * WaveformOverview overview = WaveformOverview.get(wavFile);
+ * float[] min = new float[width], max = new float[width], rms = new float[width];
+ * overview.render(0, startFrame, stopFrame, width, min, max, rms);
+ * }</pre>
+ *
+ * @author  Shcherbina Daniil
+ * @since   0.2.0
+ * @version 0.2.0
+ */
+public class WaveformOverview {
+
+    /**
+     * The extension added to the path of the WAV file to get the path of the sidecar file.
+     */
+    public static final String SIDECAR_EXTENSION = ".overview";
+    /**
+     * The number of frames in a bin of each level, unless other levels are set.
+     */
+    private static final int[] DEFAULT_LEVELS = {256, 4096, 65536};
+    /**
+     * The identifier at the beginning of the sidecar file.
+     */
+    private static final int MAGIC = 0x5746564F;
+    private static final int VERSION = 1;
+    /**
+     * The number of frames decoded at a time.
+     */
+    private static final int BLOCK_FRAMES = 65536;
+    private static final float SCALE = 32767;
+
+    private final int sampleRate;
+    private final int numChannels;
+    private final long frames;
+    /**
+     * The number of frames in a bin of each level, from the finest level.
+     */
+    private final int[] levels;
+    /**
+     * The bins of each level: the minimum, the maximum and the RMS of each channel in each bin.
+     */
+    private final short[][] bins;
+    /**
+     * The size and the modification time of the WAV file the summary was computed from.
+     */
+    private final long sourceSize;
+    private final long sourceModified;
+
+    private WaveformOverview(int sampleRate, int numChannels, long frames, int[] levels, short[][] bins,
+                             long sourceSize, long sourceModified) {
+        this.sampleRate = sampleRate;
+        this.numChannels = numChannels;
+        this.frames = frames;
+        this.levels = levels;
+        this.bins = bins;
+        this.sourceSize = sourceSize;
+        this.sourceModified = sourceModified;
+    }
+
+    /**
+     * Returns the summary of the WAV file from its sidecar file if the sidecar file
+     * matches the WAV file; otherwise computes the summary with the default levels
+     * and writes it to the sidecar file. A sidecar file that can not be written
+     * is reported and the computed summary is still returned.
+     *
+     * @param wavFile the read WAV file
+     * @return the summary of the WAV file
+     * @throws IOException if the WAV file can not be read
+     */
+    public static WaveformOverview get(WAVFile wavFile) throws IOException {
+        Path source = Paths.get(wavFile.getPath());
+        Path sidecar = getSidecarPath(source);
+        long size = Files.size(source);
+        long modified = Files.getLastModifiedTime(source).toMillis();
+        if (Files.isRegularFile(sidecar)) {
+            try {
+                WaveformOverview overview = read(sidecar);
+                if (overview.sourceSize == size && overview.sourceModified == modified) {
+                    return overview;
+                }
+            } catch (IOException e) {
+                // a damaged sidecar file is computed again
+            }
+        }
+        WaveformOverview overview = build(wavFile, DEFAULT_LEVELS);
+        try {
+            overview.write(sidecar);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        return overview;
+    }
+
+    /**
+     * Computes the summary of the audio data with the default levels.
+     *
+     * @param wavFile the WAV file
+     * @return the summary of the audio data
+     */
+    public static WaveformOverview build(WAVFile wavFile) {
+        return build(wavFile, DEFAULT_LEVELS);
+    }
+
+    /**
+     * Computes the summary of the audio data in one pass.
+     *
+     * @param wavFile the WAV file
+     * @param levels the number of frames in a bin of each level, increasing,
+     *               each a multiple of the previous one
+     * @return the summary of the audio data
+     * @throws IllegalArgumentException if the levels are not increasing multiples
+     */
+    public static WaveformOverview build(WAVFile wavFile, int... levels) {
+        checkLevels(levels);
+        int numChannels = wavFile.getNumberAudioChanel();
+        int blockAlign = wavFile.getBlockAlign();
+        long frames = wavFile.getDataSize() / blockAlign;
+        short[][] bins = new short[levels.length][];
+        for (int level = 0; level < levels.length; level++) {
+            bins[level] = new short[(int) getBinCount(frames, levels[level]) * numChannels * 3];
+        }
+
+        // the running values of the current bin of each level and channel
+        float[][] min = new float[levels.length][numChannels];
+        float[][] max = new float[levels.length][numChannels];
+        double[][] squares = new double[levels.length][numChannels];
+        for (int level = 0; level < levels.length; level++) {
+            Arrays.fill(min[level], Float.MAX_VALUE);
+            Arrays.fill(max[level], -Float.MAX_VALUE);
+        }
+
+        float[][] planes = new float[numChannels][BLOCK_FRAMES];
+        int finest = levels[0];
+        for (long done = 0; done < frames; ) {
+            int count = (int) Math.min(BLOCK_FRAMES, frames - done);
+            ByteBuffer block = wavFile.getDataBuffer(done * blockAlign, count * blockAlign);
+            PCMConverter.toFloat(block, wavFile.getAudioCodec(), wavFile.getBitsPerSample(), numChannels,
+                                planes, 0, count);
+            for (int i = 0; i < count; ) {
+                long frame = done + i;
+                // the frames up to the end of the current bin of the finest level
+                int length = (int) Math.min(count - i, finest - frame % finest);
+                for (int channel = 0; channel < numChannels; channel++) {
+                    float[] plane = planes[channel];
+                    float low = min[0][channel];
+                    float high = max[0][channel];
+                    double sum = 0;
+                    for (int k = i; k < i + length; k++) {
+                        float sample = plane[k];
+                        low = Math.min(low, sample);
+                        high = Math.max(high, sample);
+                        sum += sample * sample;
+                    }
+                    min[0][channel] = low;
+                    max[0][channel] = high;
+                    squares[0][channel] += sum;
+                }
+                i += length;
+                long end = done + i;
+                if (end % finest == 0 || end == frames) {
+                    closeBins(end, frames, levels, bins, min, max, squares);
+                }
+            }
+            done += count;
+        }
+
+        long size = 0;
+        long modified = 0;
+        if (wavFile.getPath() != null) {
+            try {
+                Path source = Paths.get(wavFile.getPath());
+                size = Files.size(source);
+                modified = Files.getLastModifiedTime(source).toMillis();
+            } catch (IOException e) {
+                // the summary of audio data that is not in a file is not tied to a file
+            }
+        }
+        return new WaveformOverview(wavFile.getSampleRate(), numChannels, frames, levels.clone(), bins,
+                                    size, modified);
+    }
+
+    /**
+     * Reads the summary from a sidecar file.
+     *
+     * @param path the path of the sidecar file
+     * @return the summary read from the file
+     * @throws IOException if the file can not be read or is not a summary
+     */
+    public static WaveformOverview read(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer header = readFully(channel, 0, 40);
+            if (header.getInt() != MAGIC || header.getInt() != VERSION) {
+                throw new IOException(path + " is not a waveform overview.");
+            }
+            long sourceSize = header.getLong();
+            long sourceModified = header.getLong();
+            int sampleRate = header.getInt();
+            int numChannels = header.getInt();
+            long frames = header.getLong();
+            int levelCount = readFully(channel, 40, 4).getInt();
+            if (numChannels <= 0 || frames < 0 || levelCount <= 0 || levelCount > 32) {
+                throw new IOException(path + " is damaged.");
+            }
+            ByteBuffer table = readFully(channel, 44, levelCount * 4);
+            int[] levels = new int[levelCount];
+            for (int level = 0; level < levelCount; level++) {
+                levels[level] = table.getInt();
+            }
+            try {
+                checkLevels(levels);
+            } catch (IllegalArgumentException e) {
+                throw new IOException(path + " is damaged.");
+            }
+            long position = 44 + levelCount * 4L;
+            short[][] bins = new short[levelCount][];
+            for (int level = 0; level < levelCount; level++) {
+                // the sizes come from the file, so they are checked before anything is allocated
+                long binCount = getBinCount(frames, levels[level]);
+                long available = (channel.size() - position) / 2 / 3 / numChannels;
+                if (binCount < 0 || binCount > available || binCount * numChannels * 3 > Integer.MAX_VALUE) {
+                    throw new IOException(path + " is damaged.");
+                }
+                int values = (int) (binCount * numChannels * 3);
+                bins[level] = new short[values];
+                readFully(channel, position, values * 2).asShortBuffer().get(bins[level]);
+                position += values * 2L;
+            }
+            return new WaveformOverview(sampleRate, numChannels, frames, levels, bins, sourceSize, sourceModified);
+        }
+    }
+
+    /**
+     * Writes the summary to a sidecar file. The file is written under a temporary
+     * name first and then renamed, so a reader never sees a partial file.
+     *
+     * @param path the path of the sidecar file
+     * @throws IOException if the file can not be written
+     */
+    public void write(Path path) throws IOException {
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer header = ByteBuffer.allocate(44 + levels.length * 4).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(MAGIC).putInt(VERSION).putLong(sourceSize).putLong(sourceModified)
+                    .putInt(sampleRate).putInt(numChannels).putLong(frames).putInt(levels.length);
+            for (int level : levels) {
+                header.putInt(level);
+            }
+            writeFully(channel, header.flip());
+            for (short[] level : bins) {
+                ByteBuffer data = ByteBuffer.allocate(level.length * 2).order(ByteOrder.LITTLE_ENDIAN);
+                data.asShortBuffer().put(level);
+                writeFully(channel, data);
+            }
+        }
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Reduces the range of frames of the channel to the specified number of pixels.
+     * Each pixel gets the minimum, the maximum and the RMS of its frames, in the
+     * range from -1 to 1. A pixel outside the audio data gets zeros.
+     *
+     * @param channel the number of the channel
+     * @param startFrame the first frame of the range
+     * @param stopFrame the frame after the last frame of the range
+     * @param pixels the number of pixels
+     * @param min the array receiving the minimum of each pixel, or null
+     * @param max the array receiving the maximum of each pixel, or null
+     * @param rms the array receiving the RMS of each pixel, or null
+     * @throws IllegalArgumentException if the range is empty or the channel does not exist
+     */
+    public void render(int channel, long startFrame, long stopFrame, int pixels,
+                       float[] min, float[] max, float[] rms) {
+        if (stopFrame <= startFrame || pixels <= 0 || channel < 0 || channel >= numChannels) {
+            throw new IllegalArgumentException("Empty range or no channel " + channel + ".");
+        }
+        double framesPerPixel = (double) (stopFrame - startFrame) / pixels;
+        int level = 0;
+        while (level + 1 < levels.length && levels[level + 1] <= framesPerPixel) {
+            level++;
+        }
+        int binFrames = levels[level];
+        short[] values = bins[level];
+        long binCount = getBinCount(frames, binFrames);
+
+        for (int pixel = 0; pixel < pixels; pixel++) {
+            long from = startFrame + (long) (pixel * framesPerPixel);
+            long to = Math.max(from + 1, startFrame + (long) ((pixel + 1) * framesPerPixel));
+            long first = Math.max(0, Math.floorDiv(from, binFrames));
+            long last = Math.min(binCount, Math.floorDiv(to - 1, binFrames) + 1);
+            float low = Float.MAX_VALUE;
+            float high = -Float.MAX_VALUE;
+            double squares = 0;
+            long count = 0;
+            for (long bin = first; bin < last; bin++) {
+                int index = (int) ((bin * numChannels + channel) * 3);
+                long binSize = Math.min(binFrames, frames - bin * binFrames);
+                low = Math.min(low, values[index] / SCALE);
+                high = Math.max(high, values[index + 1] / SCALE);
+                float level0 = values[index + 2] / SCALE;
+                squares += (double) level0 * level0 * binSize;
+                count += binSize;
+            }
+            if (count == 0) {
+                low = 0;
+                high = 0;
+            }
+            if (min != null) {
+                min[pixel] = low;
+            }
+            if (max != null) {
+                max[pixel] = high;
+            }
+            if (rms != null) {
+                rms[pixel] = count == 0 ? 0 : (float) Math.sqrt(squares / count);
+            }
+        }
+    }
+
+    /**
+     * Returns the path of the sidecar file of the WAV file.
+     *
+     * @param wavPath the path of the WAV file
+     * @return the path of the sidecar file
+     */
+    public static Path getSidecarPath(Path wavPath) {
+        return wavPath.resolveSibling(wavPath.getFileName() + SIDECAR_EXTENSION);
+    }
+
+    /**
+     * Returns the sample rate of the audio data.
+     *
+     * @return the sample rate of the audio data
+     */
+    public int getSampleRate() {
+        return sampleRate;
+    }
+
+    /**
+     * Returns the number of audio channels.
+     *
+     * @return the number of audio channels
+     */
+    public int getNumberChannels() {
+        return numChannels;
+    }
+
+    /**
+     * Returns the number of frames of the audio data.
+     *
+     * @return the number of frames of the audio data
+     */
+    public long getFrames() {
+        return frames;
+    }
+
+    /**
+     * Returns the number of frames in a bin of each level, from the finest level.
+     *
+     * @return the number of frames in a bin of each level
+     */
+    public int[] getLevels() {
+        return levels.clone();
+    }
+
+    /**
+     * Stores the bins of the finest level ending at the specified frame, and adds them
+     * to the bins of the coarser levels, storing those that end there as well.
+     *
+     * @param end the frame after the last frame of the bins
+     * @param frames the number of frames of the audio data
+     * @param levels the number of frames in a bin of each level
+     * @param bins the bins of each level
+     * @param min the running minimum of each level and channel
+     * @param max the running maximum of each level and channel
+     * @param squares the running sum of squares of each level and channel
+     */
+    private static void closeBins(long end, long frames, int[] levels, short[][] bins,
+                                  float[][] min, float[][] max, double[][] squares) {
+        int numChannels = min[0].length;
+        for (int level = 0; level < levels.length; level++) {
+            int binFrames = levels[level];
+            if (end % binFrames != 0 && end != frames) {
+                return;
+            }
+            long bin = (end - 1) / binFrames;
+            long binSize = end - bin * binFrames;
+            for (int channel = 0; channel < numChannels; channel++) {
+                int index = (int) ((bin * numChannels + channel) * 3);
+                bins[level][index] = quantize(min[level][channel]);
+                bins[level][index + 1] = quantize(max[level][channel]);
+                bins[level][index + 2] = quantize((float) Math.sqrt(squares[level][channel] / binSize));
+                if (level + 1 < levels.length) {
+                    min[level + 1][channel] = Math.min(min[level + 1][channel], min[level][channel]);
+                    max[level + 1][channel] = Math.max(max[level + 1][channel], max[level][channel]);
+                    squares[level + 1][channel] += squares[level][channel];
+                }
+                min[level][channel] = Float.MAX_VALUE;
+                max[level][channel] = -Float.MAX_VALUE;
+                squares[level][channel] = 0;
+            }
+        }
+    }
+
+    private static short quantize(float value) {
+        return (short) Math.round(Math.max(-1, Math.min(1, value)) * SCALE);
+    }
+
+    private static long getBinCount(long frames, int binFrames) {
+        return (frames + binFrames - 1) / binFrames;
+    }
+
+    /**
+     * Checks that the levels are increasing and that each is a multiple of the previous one.
+     *
+     * @param levels the number of frames in a bin of each level
+     * @throws IllegalArgumentException if the levels are not increasing multiples
+     */
+    private static void checkLevels(int[] levels) {
+        if (levels.length == 0 || levels[0] <= 0) {
+            throw new IllegalArgumentException("At least one level with positive bins is needed.");
+        }
+        for (int level = 1; level < levels.length; level++) {
+            if (levels[level] <= levels[level - 1] || levels[level] % levels[level - 1] != 0) {
+                throw new IllegalArgumentException("Each level must be a larger multiple of the previous one.");
+            }
+        }
+    }
+
+    private static ByteBuffer readFully(FileChannel channel, long position, int size) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of the waveform overview.");
+            }
+        }
+        return buffer.flip();
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+}
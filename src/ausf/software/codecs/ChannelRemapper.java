@@ -0,0 +1,183 @@
+/*
+ * Copyright © 2021 Shcherbina Daniil
+ * License: http://opensource.org/licenses/MIT
+ */
+
+package ausf.software.codecs;
+
+import ausf.software.constants.audio.wav.WAVCodecRegistries;
+import ausf.software.containers.AudioData;
+import ausf.software.file.Audio;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ *
+ * A class containing implementations of methods for selecting and reordering
+ * the channels of interleaved audio data.
+ *
+ * <p>The samples are copied as they are stored, without being decoded: each
+ * output channel is a strided copy of one input channel, with a loop for each
+ * sample size. Extracting one channel of a multichannel file therefore reads
+ * only one sample of each frame. A channel mapped to -1 is filled with silence
+ * of the data compression format.
+ *
+ * <pre>{@code
+ * // the center channel of a 5.1 file
+ * AudioData center = ChannelRemapper.extract(wavFile, 2);
+ * // swap the left and right channels
+ * AudioData swapped = ChannelRemapper.remap(wavFile, new int[] {1, 0});
+ * }</pre>
+ *
+ * <p>The methods that fill buffers passed by the caller do not create any objects.
+ *
+ * @author  Shcherbina Daniil
+ * @see     PCMConverter
+ * @since   0.2.0
+ * @version 0.2.0
+ */
+public class ChannelRemapper {
+
+    /**
+     * Copies the channels of interleaved frames into new frames. The frames are read
+     * from the position of the source buffer, which is not changed, and written at the
+     * position of the target buffer, which is moved after the written frames.
+     *
+     * @param source the buffer with the frames, starting at its position
+     * @param audioFormat data compression format registration index
+     * @param bitsPerSample number of bits in the sample
+     * @param numChannels number of audio channels of the source frames
+     * @param map the index of the source channel of each target channel, or -1 for silence
+     * @param target the buffer into which the frames are written
+     * @param frames the number of frames to be copied
+     * @throws IllegalArgumentException if the map refers to a channel the source does not have
+     */
+    public static void remap(ByteBuffer source, int audioFormat, int bitsPerSample, int numChannels,
+                             int[] map, ByteBuffer target, int frames) {
+        checkMap(map, numChannels);
+        int sampleSize = PCMConverter.getSampleSize(bitsPerSample);
+        int sourceFrame = sampleSize * numChannels;
+        int targetFrame = sampleSize * map.length;
+        // the samples are copied whole, so the byte order only has to match
+        ByteBuffer input = source.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        ByteBuffer output = target.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        byte silence = getSilence(audioFormat, bitsPerSample);
+
+        for (int channel = 0; channel < map.length; channel++) {
+            int to = target.position() + channel * sampleSize;
+            if (map[channel] < 0) {
+                for (int i = 0; i < frames; i++, to += targetFrame) {
+                    for (int b = 0; b < sampleSize; b++) {
+                        output.put(to + b, silence);
+                    }
+                }
+                continue;
+            }
+            int from = source.position() + map[channel] * sampleSize;
+            switch (sampleSize) {
+                case 1:
+                    for (int i = 0; i < frames; i++, from += sourceFrame, to += targetFrame) {
+                        output.put(to, input.get(from));
+                    }
+                    break;
+                case 2:
+                    for (int i = 0; i < frames; i++, from += sourceFrame, to += targetFrame) {
+                        output.putShort(to, input.getShort(from));
+                    }
+                    break;
+                case 3:
+                    for (int i = 0; i < frames; i++, from += sourceFrame, to += targetFrame) {
+                        output.putShort(to, input.getShort(from));
+                        output.put(to + 2, input.get(from + 2));
+                    }
+                    break;
+                case 4:
+                    for (int i = 0; i < frames; i++, from += sourceFrame, to += targetFrame) {
+                        output.putInt(to, input.getInt(from));
+                    }
+                    break;
+                case 8:
+                    for (int i = 0; i < frames; i++, from += sourceFrame, to += targetFrame) {
+                        output.putLong(to, input.getLong(from));
+                    }
+                    break;
+                default:
+                    for (int i = 0; i < frames; i++, from += sourceFrame, to += targetFrame) {
+                        for (int b = 0; b < sampleSize; b++) {
+                            output.put(to + b, input.get(from + b));
+                        }
+                    }
+            }
+        }
+        target.position(target.position() + frames * targetFrame);
+    }
+
+    /**
+     * Returns audio data with the specified channels of the audio data, in the specified order.
+     *
+     * @param audio the audio data
+     * @param channels the indexes of the channels to be kept
+     * @return the audio data with the selected channels
+     * @throws IllegalArgumentException if the audio data does not have a selected channel
+     */
+    public static AudioData extract(Audio audio, int... channels) {
+        return remap(audio, channels);
+    }
+
+    /**
+     * Returns audio data whose channels are copied from the channels of the audio data.
+     *
+     * @param audio the audio data
+     * @param map the index of the source channel of each new channel, or -1 for silence
+     * @return the audio data with the new channels
+     * @throws IllegalArgumentException if the map refers to a channel the audio data does not have
+     */
+    public static AudioData remap(Audio audio, int[] map) {
+        int bitsPerSample = audio.getBitsPerSample();
+        short blockAlign = (short) (PCMConverter.getSampleSize(bitsPerSample) * map.length);
+        int frames = PCMConverter.getFrames(audio);
+        byte[] data = new byte[frames * blockAlign];
+        remap(audio.getDataBuffer(), audio.getAudioCodec(), bitsPerSample, audio.getNumberAudioChanel(),
+                map, ByteBuffer.wrap(data), frames);
+        return new AudioData(audio.getAudioCodec(), (short) map.length, audio.getSampleRate(),
+                            audio.getSampleRate() * blockAlign, blockAlign, (short) bitsPerSample, data);
+    }
+
+    /**
+     * Returns the byte of silence of the data compression format.
+     *
+     * @param audioFormat data compression format registration index
+     * @param bitsPerSample number of bits in the sample
+     * @return the byte repeated in each byte of a silent sample
+     */
+    private static byte getSilence(int audioFormat, int bitsPerSample) {
+        if (audioFormat == WAVCodecRegistries.FORMAT_ALAW.getIndex()) {
+            return (byte) 0xD5;
+        }
+        if (audioFormat == WAVCodecRegistries.FORMAT_MULAW.getIndex()) {
+            return (byte) 0xFF;
+        }
+        if (audioFormat == WAVCodecRegistries.FORMAT_PCM.getIndex() && bitsPerSample <= 8) {
+            // 8-bit samples are unsigned
+            return (byte) 0x80;
+        }
+        return 0;
+    }
+
+    /**
+     * Checks that the map refers only to the channels of the source.
+     *
+     * @param map the index of the source channel of each target channel, or -1 for silence
+     * @param numChannels number of audio channels of the source
+     * @throws IllegalArgumentException if the map refers to a channel the source does not have
+     */
+    private static void checkMap(int[] map, int numChannels) {
+        for (int channel : map) {
+            if (channel < -1 || channel >= numChannels) {
+                throw new IllegalArgumentException("No channel " + channel + " in " + numChannels + " channels.");
+            }
+        }
+    }
+
+}
@@ -0,0 +1,300 @@
+/*
+ * Copyright © 2021 Shcherbina Daniil
+ * License: http://opensource.org/licenses/MIT
+ */
+
+package ausf.software.codecs;
+
+import ausf.software.constants.audio.wav.WAVCodecRegistries;
+import ausf.software.containers.AudioData;
+import ausf.software.file.Audio;
+
+import java.nio.ByteBuffer;
+
+/**
+ *
+ * A class containing implementations of the G.711 A-law and μ-law codecs
+ * ({@link WAVCodecRegistries#FORMAT_ALAW}, {@link WAVCodecRegistries#FORMAT_MULAW}).
+ *
+ * <p>Each 8-bit code is expanded to a 16-bit PCM sample through a table of
+ * 256 samples built when the class is loaded. A 16-bit sample is compressed
+ * by finding its segment from the position of its highest set bit, without
+ * searching through the segment boundaries.
+ *
+ * <p>The methods working on arrays and buffers passed by the caller do not
+ * create any objects. {@link #decode(int, byte[], int, byte[], int, int)} can
+ * expand the codes in place when they are stored in the second half of the
+ * target range.
+ *
+ * @author  Shcherbina Daniil
+ * @see     PCMConverter
+ * @since   0.2.0
+ * @version 0.2.0
+ */
+public class G711 {
+
+    /**
+     * The bias added to the magnitude of a sample before μ-law compression.
+     */
+    private static final int MULAW_BIAS = 0x84;
+    /**
+     * The largest magnitude of a sample that can be compressed with μ-law.
+     */
+    private static final int MULAW_CLIP = 32635;
+    private static final float SCALE_16 = 1f / 32768;
+
+    private static final short[] ALAW_TO_LINEAR = new short[256];
+    private static final short[] MULAW_TO_LINEAR = new short[256];
+
+    static {
+        for (int code = 0; code < 256; code++) {
+            ALAW_TO_LINEAR[code] = expandALaw(code);
+            MULAW_TO_LINEAR[code] = expandMuLaw(code);
+        }
+    }
+
+    /**
+     * Returns true if the data compression format is A-law or μ-law.
+     *
+     * @param audioFormat data compression format registration index
+     * @return true if the format is A-law or μ-law
+     */
+    public static boolean isG711(int audioFormat) {
+        return audioFormat == WAVCodecRegistries.FORMAT_ALAW.getIndex()
+                || audioFormat == WAVCodecRegistries.FORMAT_MULAW.getIndex();
+    }
+
+    /**
+     * Returns the 16-bit sample of the A-law code.
+     *
+     * @param code the A-law code
+     * @return the 16-bit sample
+     */
+    public static short aLawToLinear(byte code) {
+        return ALAW_TO_LINEAR[code & 0xFF];
+    }
+
+    /**
+     * Returns the 16-bit sample of the μ-law code.
+     *
+     * @param code the μ-law code
+     * @return the 16-bit sample
+     */
+    public static short muLawToLinear(byte code) {
+        return MULAW_TO_LINEAR[code & 0xFF];
+    }
+
+    /**
+     * Compresses a 16-bit sample into an A-law code.
+     *
+     * @param sample the 16-bit sample
+     * @return the A-law code
+     */
+    public static byte linearToALaw(short sample) {
+        int value = sample >> 3;
+        int mask;
+        if (value >= 0) {
+            mask = 0xD5;
+        } else {
+            mask = 0x55;
+            value = -value - 1;
+        }
+        // segment 0 covers 5 bits, each next segment one bit more
+        int segment = Math.max(0, 27 - Integer.numberOfLeadingZeros(value));
+        if (segment >= 8) {
+            return (byte) (0x7F ^ mask);
+        }
+        int mantissa = (value >> (segment < 2 ? 1 : segment)) & 0x0F;
+        return (byte) ((segment << 4 | mantissa) ^ mask);
+    }
+
+    /**
+     * Compresses a 16-bit sample into a μ-law code.
+     *
+     * @param sample the 16-bit sample
+     * @return the μ-law code
+     */
+    public static byte linearToMuLaw(short sample) {
+        int value = sample;
+        int sign = 0;
+        if (value < 0) {
+            sign = 0x80;
+            value = -value;
+        }
+        value = Math.min(value, MULAW_CLIP) + MULAW_BIAS;
+        // the bias sets bit 7, so the segment is the position of the highest bit above it
+        int segment = 24 - Integer.numberOfLeadingZeros(value);
+        int mantissa = (value >> (segment + 3)) & 0x0F;
+        return (byte) ~(sign | segment << 4 | mantissa);
+    }
+
+    /**
+     * Expands codes into 16-bit signed little-endian PCM samples. The codes may be
+     * stored in the second half of the target range, to be expanded in place.
+     *
+     * @param audioFormat {@link WAVCodecRegistries#FORMAT_ALAW} or {@link WAVCodecRegistries#FORMAT_MULAW}
+     * @param source the array of codes
+     * @param offset the offset of the first code
+     * @param target the array into which the samples are written
+     * @param targetOffset the offset in the target array from which to write
+     * @param samples the number of samples
+     * @throws IllegalArgumentException if the format is not A-law or μ-law
+     */
+    public static void decode(int audioFormat, byte[] source, int offset,
+                              byte[] target, int targetOffset, int samples) {
+        short[] table = table(audioFormat);
+        for (int i = 0; i < samples; i++) {
+            short value = table[source[offset + i] & 0xFF];
+            target[targetOffset + 2 * i] = (byte) value;
+            target[targetOffset + 2 * i + 1] = (byte) (value >> 8);
+        }
+    }
+
+    /**
+     * Compresses 16-bit signed little-endian PCM samples into codes. The target range
+     * may overlap the samples if it does not start after them.
+     *
+     * @param audioFormat {@link WAVCodecRegistries#FORMAT_ALAW} or {@link WAVCodecRegistries#FORMAT_MULAW}
+     * @param source the array of samples
+     * @param offset the offset of the first sample
+     * @param target the array into which the codes are written
+     * @param targetOffset the offset in the target array from which to write
+     * @param samples the number of samples
+     * @throws IllegalArgumentException if the format is not A-law or μ-law
+     */
+    public static void encode(int audioFormat, byte[] source, int offset,
+                              byte[] target, int targetOffset, int samples) {
+        // rejects the formats other than G.711
+        table(audioFormat);
+        boolean aLaw = audioFormat == WAVCodecRegistries.FORMAT_ALAW.getIndex();
+        for (int i = 0; i < samples; i++) {
+            short value = (short) ((source[offset + 2 * i] & 0xFF) | source[offset + 2 * i + 1] << 8);
+            target[targetOffset + i] = aLaw ? linearToALaw(value) : linearToMuLaw(value);
+        }
+    }
+
+    /**
+     * Expands frames of interleaved codes into the arrays of float samples.
+     *
+     * @param source the buffer with the codes, starting at its position
+     * @param audioFormat {@link WAVCodecRegistries#FORMAT_ALAW} or {@link WAVCodecRegistries#FORMAT_MULAW}
+     * @param numChannels number of audio channels
+     * @param target arrays of samples, one for each channel
+     * @param offset the offset in the arrays of samples from which to write
+     * @param frames the number of frames to be converted
+     * @throws IllegalArgumentException if the format is not A-law or μ-law
+     */
+    public static void toFloat(ByteBuffer source, int audioFormat, int numChannels,
+                               float[][] target, int offset, int frames) {
+        short[] table = table(audioFormat);
+        for (int channel = 0; channel < numChannels; channel++) {
+            float[] plane = target[channel];
+            int position = source.position() + channel;
+            int end = offset + frames;
+            for (int i = offset; i < end; i++, position += numChannels) {
+                plane[i] = table[source.get(position) & 0xFF] * SCALE_16;
+            }
+        }
+    }
+
+    /**
+     * Expands frames of interleaved codes into the arrays of short samples.
+     *
+     * @param source the buffer with the codes, starting at its position
+     * @param audioFormat {@link WAVCodecRegistries#FORMAT_ALAW} or {@link WAVCodecRegistries#FORMAT_MULAW}
+     * @param numChannels number of audio channels
+     * @param target arrays of samples, one for each channel
+     * @param offset the offset in the arrays of samples from which to write
+     * @param frames the number of frames to be converted
+     * @throws IllegalArgumentException if the format is not A-law or μ-law
+     */
+    public static void toShort(ByteBuffer source, int audioFormat, int numChannels,
+                               short[][] target, int offset, int frames) {
+        short[] table = table(audioFormat);
+        for (int channel = 0; channel < numChannels; channel++) {
+            short[] plane = target[channel];
+            int position = source.position() + channel;
+            int end = offset + frames;
+            for (int i = offset; i < end; i++, position += numChannels) {
+                plane[i] = table[source.get(position) & 0xFF];
+            }
+        }
+    }
+
+    /**
+     * Expands A-law or μ-law audio data into 16-bit PCM audio data.
+     *
+     * @param audio the A-law or μ-law audio data
+     * @return the 16-bit PCM audio data
+     * @throws IllegalArgumentException if the format is not A-law or μ-law
+     */
+    public static AudioData decode(Audio audio) {
+        int samples = (int) audio.getDataSize();
+        byte[] data = new byte[samples * 2];
+        decode(audio.getAudioCodec(), audio.getData(), 0, data, 0, samples);
+        short numChannels = audio.getNumberAudioChanel();
+        return new AudioData(WAVCodecRegistries.FORMAT_PCM.getIndex(), numChannels, audio.getSampleRate(),
+                            audio.getSampleRate() * numChannels * 2, (short) (numChannels * 2), (short) 16, data);
+    }
+
+    /**
+     * Compresses PCM audio data of any supported sample size into A-law or μ-law audio data.
+     *
+     * @param audio the PCM audio data
+     * @param format {@link WAVCodecRegistries#FORMAT_ALAW} or {@link WAVCodecRegistries#FORMAT_MULAW}
+     * @return the A-law or μ-law audio data
+     * @throws IllegalArgumentException if the format is not A-law or μ-law
+     */
+    public static AudioData encode(Audio audio, WAVCodecRegistries format) {
+        boolean aLaw = format == WAVCodecRegistries.FORMAT_ALAW;
+        table(format.getIndex());
+        short[][] planes = PCMConverter.toShort(audio);
+        short numChannels = audio.getNumberAudioChanel();
+        int frames = numChannels == 0 ? 0 : planes[0].length;
+        byte[] data = new byte[frames * numChannels];
+        for (int channel = 0; channel < numChannels; channel++) {
+            short[] plane = planes[channel];
+            for (int i = 0, position = channel; i < frames; i++, position += numChannels) {
+                data[position] = aLaw ? linearToALaw(plane[i]) : linearToMuLaw(plane[i]);
+            }
+        }
+        return new AudioData(format.getIndex(), numChannels, audio.getSampleRate(),
+                            audio.getSampleRate() * numChannels, numChannels, (short) 8, data);
+    }
+
+    /**
+     * Returns the expansion table of the format.
+     *
+     * @param audioFormat data compression format registration index
+     * @return the expansion table of the format
+     * @throws IllegalArgumentException if the format is not A-law or μ-law
+     */
+    private static short[] table(int audioFormat) {
+        if (audioFormat == WAVCodecRegistries.FORMAT_ALAW.getIndex()) {
+            return ALAW_TO_LINEAR;
+        }
+        if (audioFormat == WAVCodecRegistries.FORMAT_MULAW.getIndex()) {
+            return MULAW_TO_LINEAR;
+        }
+        throw new IllegalArgumentException("Not a G.711 data compression format: " + audioFormat);
+    }
+
+    private static short expandALaw(int code) {
+        code ^= 0x55;
+        int value = (code & 0x0F) << 4;
+        int segment = (code & 0x70) >> 4;
+        if (segment == 0) {
+            value += 8;
+        } else {
+            value = (value + 0x108) << (segment - 1);
+        }
+        return (short) ((code & 0x80) != 0 ? value : -value);
+    }
+
+    private static short expandMuLaw(int code) {
+        code = ~code & 0xFF;
+        int value = (((code & 0x0F) << 3) + MULAW_BIAS) << ((code & 0x70) >> 4);
+        return (short) ((code & 0x80) != 0 ? MULAW_BIAS - value : value - MULAW_BIAS);
+    }
+
+}
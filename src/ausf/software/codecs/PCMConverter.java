@@ -0,0 +1,509 @@
+/*
+ * Copyright © 2021 Shcherbina Daniil
+ * License: http://opensource.org/licenses/MIT
+ */
+
+package ausf.software.codecs;
+
+import ausf.software.constants.audio.wav.WAVCodecRegistries;
+import ausf.software.containers.AudioData;
+import ausf.software.file.Audio;
+
+import javax.sound.sampled.AudioFormat;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ *
+ * A class containing implementations of methods for converting interleaved
+ * PCM audio data into separate arrays of samples for each channel, and
+ * arrays of float samples back into interleaved PCM audio data.
+ *
+ * <p>8-bit samples are unsigned, 16, 24 and 32-bit samples are signed
+ * little-endian; 24-bit samples are packed into three bytes. A sample size
+ * that is not a multiple of 8 is stored in the next whole number of bytes.
+ * IEEE float audio data ({@link WAVCodecRegistries#FORMAT_IEEE_FLOAT}) has
+ * 32 or 64-bit samples. Each sample size has its own conversion loop. Float
+ * samples are scaled into the range from -1 to 1, short samples keep the 16
+ * most significant bits.
+ *
+ * <p>The methods taking a data compression format also handle IEEE float and,
+ * through {@link G711}, A-law and μ-law audio data; the methods taking only
+ * the sample size handle integer PCM.
+ *
+ * <p>The methods that fill arrays or buffers passed by the caller do not create
+ * any objects, and do not change the position of the buffers.
+ *
+ * @author  Shcherbina Daniil
+ * @see     Audio
+ * @since   0.2.0
+ * @version 0.2.0
+ */
+public class PCMConverter {
+
+    private static final float SCALE_8 = 1f / 128;
+    private static final float SCALE_16 = 1f / 32768;
+    private static final float SCALE_24 = 1f / 8388608;
+    private static final float SCALE_32 = 1f / 2147483648f;
+
+    /**
+     * Returns the number of whole frames in the audio data.
+     *
+     * @param audio the audio data
+     * @return the number of whole frames in the audio data
+     */
+    public static int getFrames(Audio audio) {
+        return (int) (audio.getDataSize() / (getSampleSize(audio.getBitsPerSample()) * audio.getNumberAudioChanel()));
+    }
+
+    /**
+     * Returns the number of bytes in which a sample of the specified size is stored.
+     *
+     * @param bitsPerSample the number of bits in the sample
+     * @return the number of bytes of the sample
+     */
+    public static int getSampleSize(int bitsPerSample) {
+        return (bitsPerSample + 7) / 8;
+    }
+
+    /**
+     * Returns the data compression format registration index of the Java Sound format.
+     *
+     * @param format the Java Sound format
+     * @return data compression format registration index
+     */
+    public static short getAudioFormat(AudioFormat format) {
+        AudioFormat.Encoding encoding = format.getEncoding();
+        if (AudioFormat.Encoding.PCM_FLOAT.equals(encoding)) {
+            return WAVCodecRegistries.FORMAT_IEEE_FLOAT.getIndex();
+        }
+        if (AudioFormat.Encoding.ALAW.equals(encoding)) {
+            return WAVCodecRegistries.FORMAT_ALAW.getIndex();
+        }
+        if (AudioFormat.Encoding.ULAW.equals(encoding)) {
+            return WAVCodecRegistries.FORMAT_MULAW.getIndex();
+        }
+        return WAVCodecRegistries.FORMAT_PCM.getIndex();
+    }
+
+    /**
+     * Returns true if audio data of the data compression format and sample size can be converted.
+     *
+     * @param audioFormat data compression format registration index
+     * @param bitsPerSample the number of bits in the sample
+     * @return true if the audio data can be converted
+     */
+    public static boolean isSupported(int audioFormat, int bitsPerSample) {
+        if (audioFormat == WAVCodecRegistries.FORMAT_PCM.getIndex()) {
+            return bitsPerSample > 0 && bitsPerSample <= 32;
+        }
+        if (audioFormat == WAVCodecRegistries.FORMAT_IEEE_FLOAT.getIndex()) {
+            return bitsPerSample == 32 || bitsPerSample == 64;
+        }
+        return G711.isG711(audioFormat) && bitsPerSample == 8;
+    }
+
+    /**
+     * Converts the audio data into arrays of float samples, one for each channel.
+     * IEEE float, A-law and μ-law audio data is also converted.
+     *
+     * @param audio the audio data
+     * @return arrays of float samples, one for each channel
+     */
+    public static float[][] toFloat(Audio audio) {
+        int frames = getFrames(audio);
+        float[][] planes = new float[audio.getNumberAudioChanel()][frames];
+        toFloat(audio.getDataBuffer(), audio.getAudioCodec(), audio.getBitsPerSample(),
+                audio.getNumberAudioChanel(), planes, 0, frames);
+        return planes;
+    }
+
+    /**
+     * Converts the audio data into arrays of short samples, one for each channel.
+     * IEEE float, A-law and μ-law audio data is also converted.
+     *
+     * @param audio the audio data
+     * @return arrays of short samples, one for each channel
+     */
+    public static short[][] toShort(Audio audio) {
+        int frames = getFrames(audio);
+        short[][] planes = new short[audio.getNumberAudioChanel()][frames];
+        toShort(audio.getDataBuffer(), audio.getAudioCodec(), audio.getBitsPerSample(),
+                audio.getNumberAudioChanel(), planes, 0, frames);
+        return planes;
+    }
+
+    /**
+     * Converts frames of interleaved PCM data into the arrays of float samples.
+     *
+     * @param source the buffer with interleaved PCM data, starting at its position
+     * @param bitsPerSample the number of bits in the sample
+     * @param numChannels number of audio channels
+     * @param target arrays of samples, one for each channel
+     * @param offset the offset in the arrays of samples from which to write
+     * @param frames the number of frames to be converted
+     * @throws IllegalArgumentException if the sample size is not supported
+     */
+    public static void toFloat(ByteBuffer source, int bitsPerSample, int numChannels,
+                               float[][] target, int offset, int frames) {
+        ByteBuffer in = littleEndian(source);
+        int bytes = getSampleSize(bitsPerSample);
+        int blockAlign = bytes * numChannels;
+
+        for (int channel = 0; channel < numChannels; channel++) {
+            float[] plane = target[channel];
+            int position = in.position() + channel * bytes;
+            int end = offset + frames;
+            switch (bytes) {
+                case 1:
+                    for (int i = offset; i < end; i++, position += blockAlign) {
+                        plane[i] = ((in.get(position) & 0xFF) - 128) * SCALE_8;
+                    }
+                    break;
+                case 2:
+                    for (int i = offset; i < end; i++, position += blockAlign) {
+                        plane[i] = in.getShort(position) * SCALE_16;
+                    }
+                    break;
+                case 3:
+                    for (int i = offset; i < end; i++, position += blockAlign) {
+                        plane[i] = getInt24(in, position) * SCALE_24;
+                    }
+                    break;
+                case 4:
+                    for (int i = offset; i < end; i++, position += blockAlign) {
+                        plane[i] = in.getInt(position) * SCALE_32;
+                    }
+                    break;
+                default:
+                    throw unsupported(bitsPerSample);
+            }
+        }
+    }
+
+    /**
+     * Converts frames of interleaved PCM data into the arrays of short samples.
+     *
+     * @param source the buffer with interleaved PCM data, starting at its position
+     * @param bitsPerSample the number of bits in the sample
+     * @param numChannels number of audio channels
+     * @param target arrays of samples, one for each channel
+     * @param offset the offset in the arrays of samples from which to write
+     * @param frames the number of frames to be converted
+     * @throws IllegalArgumentException if the sample size is not supported
+     */
+    public static void toShort(ByteBuffer source, int bitsPerSample, int numChannels,
+                               short[][] target, int offset, int frames) {
+        ByteBuffer in = littleEndian(source);
+        int bytes = getSampleSize(bitsPerSample);
+        int blockAlign = bytes * numChannels;
+
+        for (int channel = 0; channel < numChannels; channel++) {
+            short[] plane = target[channel];
+            int position = in.position() + channel * bytes;
+            int end = offset + frames;
+            switch (bytes) {
+                case 1:
+                    for (int i = offset; i < end; i++, position += blockAlign) {
+                        plane[i] = (short) (((in.get(position) & 0xFF) - 128) << 8);
+                    }
+                    break;
+                case 2:
+                    for (int i = offset; i < end; i++, position += blockAlign) {
+                        plane[i] = in.getShort(position);
+                    }
+                    break;
+                case 3:
+                    for (int i = offset; i < end; i++, position += blockAlign) {
+                        plane[i] = (short) (getInt24(in, position) >> 8);
+                    }
+                    break;
+                case 4:
+                    for (int i = offset; i < end; i++, position += blockAlign) {
+                        plane[i] = (short) (in.getInt(position) >> 16);
+                    }
+                    break;
+                default:
+                    throw unsupported(bitsPerSample);
+            }
+        }
+    }
+
+    /**
+     * Converts frames of interleaved audio data of the data compression format
+     * into the arrays of float samples.
+     *
+     * @param source the buffer with interleaved audio data, starting at its position
+     * @param audioFormat data compression format registration index
+     * @param bitsPerSample the number of bits in the sample
+     * @param numChannels number of audio channels
+     * @param target arrays of samples, one for each channel
+     * @param offset the offset in the arrays of samples from which to write
+     * @param frames the number of frames to be converted
+     * @throws IllegalArgumentException if the format or the sample size is not supported
+     */
+    public static void toFloat(ByteBuffer source, int audioFormat, int bitsPerSample, int numChannels,
+                               float[][] target, int offset, int frames) {
+        if (G711.isG711(audioFormat)) {
+            G711.toFloat(source, audioFormat, numChannels, target, offset, frames);
+            return;
+        }
+        if (audioFormat != WAVCodecRegistries.FORMAT_IEEE_FLOAT.getIndex()) {
+            toFloat(source, bitsPerSample, numChannels, target, offset, frames);
+            return;
+        }
+        ByteBuffer in = littleEndian(source);
+        int bytes = bitsPerSample / 8;
+        int blockAlign = bytes * numChannels;
+
+        for (int channel = 0; channel < numChannels; channel++) {
+            float[] plane = target[channel];
+            int position = in.position() + channel * bytes;
+            int end = offset + frames;
+            switch (bitsPerSample) {
+                case 32:
+                    for (int i = offset; i < end; i++, position += blockAlign) {
+                        plane[i] = in.getFloat(position);
+                    }
+                    break;
+                case 64:
+                    for (int i = offset; i < end; i++, position += blockAlign) {
+                        plane[i] = (float) in.getDouble(position);
+                    }
+                    break;
+                default:
+                    throw unsupported(bitsPerSample);
+            }
+        }
+    }
+
+    /**
+     * Converts frames of interleaved audio data of the data compression format
+     * into the arrays of short samples. Float samples outside the range from
+     * -1 to 1 are clipped.
+     *
+     * @param source the buffer with interleaved audio data, starting at its position
+     * @param audioFormat data compression format registration index
+     * @param bitsPerSample the number of bits in the sample
+     * @param numChannels number of audio channels
+     * @param target arrays of samples, one for each channel
+     * @param offset the offset in the arrays of samples from which to write
+     * @param frames the number of frames to be converted
+     * @throws IllegalArgumentException if the format or the sample size is not supported
+     */
+    public static void toShort(ByteBuffer source, int audioFormat, int bitsPerSample, int numChannels,
+                               short[][] target, int offset, int frames) {
+        if (G711.isG711(audioFormat)) {
+            G711.toShort(source, audioFormat, numChannels, target, offset, frames);
+            return;
+        }
+        if (audioFormat != WAVCodecRegistries.FORMAT_IEEE_FLOAT.getIndex()) {
+            toShort(source, bitsPerSample, numChannels, target, offset, frames);
+            return;
+        }
+        ByteBuffer in = littleEndian(source);
+        int bytes = bitsPerSample / 8;
+        int blockAlign = bytes * numChannels;
+
+        for (int channel = 0; channel < numChannels; channel++) {
+            short[] plane = target[channel];
+            int position = in.position() + channel * bytes;
+            int end = offset + frames;
+            switch (bitsPerSample) {
+                case 32:
+                    for (int i = offset; i < end; i++, position += blockAlign) {
+                        plane[i] = (short) quantize(in.getFloat(position), 32768);
+                    }
+                    break;
+                case 64:
+                    for (int i = offset; i < end; i++, position += blockAlign) {
+                        plane[i] = (short) quantize((float) in.getDouble(position), 32768);
+                    }
+                    break;
+                default:
+                    throw unsupported(bitsPerSample);
+            }
+        }
+    }
+
+    /**
+     * Converts the arrays of float samples into frames of interleaved audio data of
+     * the data compression format. IEEE float samples are written without clipping,
+     * integer samples outside the range from -1 to 1 are clipped.
+     *
+     * @param source arrays of samples, one for each channel
+     * @param offset the offset in the arrays of samples from which to read
+     * @param frames the number of frames to be converted
+     * @param audioFormat data compression format registration index
+     * @param bitsPerSample the number of bits in the sample
+     * @param target the buffer into which the interleaved audio data is written, starting at its position
+     * @throws IllegalArgumentException if the format or the sample size is not supported
+     */
+    public static void fromFloat(float[][] source, int offset, int frames,
+                                 int audioFormat, int bitsPerSample, ByteBuffer target) {
+        ByteBuffer out = littleEndian(target);
+        int numChannels = source.length;
+        int end = offset + frames;
+        if (G711.isG711(audioFormat)) {
+            boolean aLaw = audioFormat == WAVCodecRegistries.FORMAT_ALAW.getIndex();
+            for (int channel = 0; channel < numChannels; channel++) {
+                float[] plane = source[channel];
+                int position = out.position() + channel;
+                for (int i = offset; i < end; i++, position += numChannels) {
+                    short sample = (short) quantize(plane[i], 32768);
+                    out.put(position, aLaw ? G711.linearToALaw(sample) : G711.linearToMuLaw(sample));
+                }
+            }
+            return;
+        }
+        if (audioFormat != WAVCodecRegistries.FORMAT_IEEE_FLOAT.getIndex()) {
+            fromFloat(source, offset, frames, bitsPerSample, target);
+            return;
+        }
+        int bytes = bitsPerSample / 8;
+        int blockAlign = bytes * numChannels;
+
+        for (int channel = 0; channel < numChannels; channel++) {
+            float[] plane = source[channel];
+            int position = out.position() + channel * bytes;
+            switch (bitsPerSample) {
+                case 32:
+                    for (int i = offset; i < end; i++, position += blockAlign) {
+                        out.putFloat(position, plane[i]);
+                    }
+                    break;
+                case 64:
+                    for (int i = offset; i < end; i++, position += blockAlign) {
+                        out.putDouble(position, plane[i]);
+                    }
+                    break;
+                default:
+                    throw unsupported(bitsPerSample);
+            }
+        }
+    }
+
+    /**
+     * Converts the audio data into another data compression format or sample size.
+     *
+     * @param audio the audio data
+     * @param format the data compression format of the result
+     * @param bitsPerSample the number of bits in the sample of the result
+     * @return the converted audio data
+     * @throws IllegalArgumentException if the format or the sample size is not supported
+     */
+    public static AudioData convert(Audio audio, WAVCodecRegistries format, int bitsPerSample) {
+        if (isSupported(format.getIndex(), bitsPerSample) == false) {
+            throw unsupported(bitsPerSample);
+        }
+        float[][] planes = toFloat(audio);
+        short numChannels = audio.getNumberAudioChanel();
+        int frames = numChannels == 0 ? 0 : planes[0].length;
+        short blockAlign = (short) (getSampleSize(bitsPerSample) * numChannels);
+        byte[] data = new byte[frames * blockAlign];
+        fromFloat(planes, 0, frames, format.getIndex(), bitsPerSample, ByteBuffer.wrap(data));
+        return new AudioData(format.getIndex(), numChannels, audio.getSampleRate(),
+                            audio.getSampleRate() * blockAlign, blockAlign, (short) bitsPerSample, data);
+    }
+
+    /**
+     * Converts the arrays of float samples into frames of interleaved PCM data.
+     * Samples outside the range from -1 to 1 are clipped.
+     *
+     * @param source arrays of samples, one for each channel
+     * @param offset the offset in the arrays of samples from which to read
+     * @param frames the number of frames to be converted
+     * @param bitsPerSample the number of bits in the sample
+     * @param target the buffer into which the interleaved PCM data is written, starting at its position
+     * @throws IllegalArgumentException if the sample size is not supported
+     */
+    public static void fromFloat(float[][] source, int offset, int frames,
+                                 int bitsPerSample, ByteBuffer target) {
+        ByteBuffer out = littleEndian(target);
+        int numChannels = source.length;
+        int bytes = getSampleSize(bitsPerSample);
+        int blockAlign = bytes * numChannels;
+
+        for (int channel = 0; channel < numChannels; channel++) {
+            float[] plane = source[channel];
+            int position = out.position() + channel * bytes;
+            int end = offset + frames;
+            switch (bytes) {
+                case 1:
+                    for (int i = offset; i < end; i++, position += blockAlign) {
+                        out.put(position, (byte) (quantize(plane[i], 128) + 128));
+                    }
+                    break;
+                case 2:
+                    for (int i = offset; i < end; i++, position += blockAlign) {
+                        out.putShort(position, (short) quantize(plane[i], 32768));
+                    }
+                    break;
+                case 3:
+                    for (int i = offset; i < end; i++, position += blockAlign) {
+                        int value = quantize(plane[i], 8388608);
+                        out.put(position, (byte) value);
+                        out.put(position + 1, (byte) (value >> 8));
+                        out.put(position + 2, (byte) (value >> 16));
+                    }
+                    break;
+                case 4:
+                    for (int i = offset; i < end; i++, position += blockAlign) {
+                        long value = Math.round((double) plane[i] * 2147483648.0);
+                        out.putInt(position, (int) Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE, value)));
+                    }
+                    break;
+                default:
+                    throw unsupported(bitsPerSample);
+            }
+        }
+    }
+
+    /**
+     * Scales a float sample to an integer of the specified full scale, clipping it.
+     * The scale is the one used for decoding, so integer samples converted to float
+     * and back are not changed.
+     *
+     * @param sample the float sample
+     * @param fullScale the magnitude of the smallest integer sample, for example 32768
+     * @return the integer sample, from -fullScale to fullScale - 1
+     */
+    private static int quantize(float sample, int fullScale) {
+        int value = Math.round(sample * fullScale);
+        return Math.max(-fullScale, Math.min(fullScale - 1, value));
+    }
+
+    /**
+     * Reads a signed 24-bit little-endian number at the specified position.
+     *
+     * @param buffer the buffer with the number
+     * @param position the position of the number in the buffer
+     * @return the read number
+     */
+    static int getInt24(ByteBuffer buffer, int position) {
+        return (buffer.get(position) & 0xFF)
+                | (buffer.get(position + 1) & 0xFF) << 8
+                | buffer.get(position + 2) << 16;
+    }
+
+    /**
+     * Returns the buffer itself if it is little-endian, or a little-endian view of it.
+     *
+     * @param buffer the buffer
+     * @return a little-endian buffer with the same content and position
+     */
+    static ByteBuffer littleEndian(ByteBuffer buffer) {
+        return buffer.order() == ByteOrder.LITTLE_ENDIAN ? buffer : buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Returns the exception for an unsupported sample size.
+     *
+     * @param bitsPerSample the number of bits in the sample
+     * @return the exception for an unsupported sample size
+     */
+    static IllegalArgumentException unsupported(int bitsPerSample) {
+        return new IllegalArgumentException("Unsupported number of bits in the sample: " + bitsPerSample);
+    }
+
+}
@@ -0,0 +1,173 @@
+/*
+ * Copyright © 2021 Shcherbina Daniil
+ * License: http://opensource.org/licenses/MIT
+ */
+
+package ausf.software.codecs;
+
+import ausf.software.constants.ResamplerQuality;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ *
+ * Precomputed table of a windowed-sinc interpolation filter split into phases.
+ *
+ * <p>The ratio of the sample rates is reduced to {@code up / down}. Each output
+ * sample lies at one of {@code up} fractional positions between two input samples,
+ * and each position has its own row of coefficients, so the converter only
+ * multiplies and adds. When {@code up} is too large, the table holds
+ * {@link #MAX_PHASES} rows and the converter interpolates between two rows.
+ *
+ * <p>The tables are immutable and cached for each pair of sample rates and quality,
+ * so every converter for the same pair shares one table.
+ *
+ * @author  Shcherbina Daniil
+ * @see     Resampler
+ * @since   0.2.0
+ * @version 0.2.0
+ */
+final class PolyphaseFilter {
+
+    /**
+     * The largest number of rows of a table.
+     */
+    static final int MAX_PHASES = 1024;
+
+    /**
+     * The tables built so far, by the pair of sample rates and quality.
+     */
+    private static final Map<String, PolyphaseFilter> CACHE = new ConcurrentHashMap<>();
+
+    /**
+     * The number of output samples in a period of the ratio.
+     */
+    final int up;
+    /**
+     * The number of input samples in a period of the ratio.
+     */
+    final int down;
+    /**
+     * The number of input samples before and after the center used for one output sample.
+     */
+    final int halfLength;
+    /**
+     * The number of rows of the table.
+     */
+    final int phases;
+    /**
+     * True if the table has a row for every position, so no interpolation between rows is needed.
+     */
+    final boolean exact;
+    /**
+     * The coefficients, {@code phases + 1} rows of {@code 2 * halfLength} taps.
+     * The last row is the first row shifted by one sample.
+     */
+    final float[][] rows;
+
+    private PolyphaseFilter(int up, int down, ResamplerQuality quality) {
+        this.up = up;
+        this.down = down;
+        // the cutoff is lowered below the output Nyquist frequency when decimating
+        double cutoff = Math.min(1.0, (double) up / down);
+        halfLength = quality == ResamplerQuality.LINEAR
+                ? 1 : (int) Math.ceil(quality.getZeroCrossings() / cutoff);
+        exact = up <= MAX_PHASES;
+        phases = exact ? up : MAX_PHASES;
+        rows = new float[phases + 1][2 * halfLength];
+
+        for (int phase = 0; phase <= phases; phase++) {
+            double fraction = (double) phase / phases;
+            float[] row = rows[phase];
+            double sum = 0;
+            for (int tap = 0; tap < row.length; tap++) {
+                double t = tap - halfLength + 1 - fraction;
+                double value = quality == ResamplerQuality.LINEAR
+                        ? Math.max(0, 1 - Math.abs(t))
+                        : cutoff * sinc(cutoff * t) * kaiser(t / halfLength, quality.getBeta());
+                row[tap] = (float) value;
+                sum += value;
+            }
+            // unity gain at zero frequency for every phase
+            for (int tap = 0; tap < row.length; tap++) {
+                row[tap] /= sum;
+            }
+        }
+    }
+
+    /**
+     * Returns the table for the pair of sample rates, building it on the first request.
+     *
+     * @param inputRate the sample rate of the input
+     * @param outputRate the sample rate of the output
+     * @param quality the interpolation filter
+     * @return the table for the pair of sample rates
+     */
+    static PolyphaseFilter get(int inputRate, int outputRate, ResamplerQuality quality) {
+        int divisor = gcd(inputRate, outputRate);
+        int up = outputRate / divisor;
+        int down = inputRate / divisor;
+        return CACHE.computeIfAbsent(up + ":" + down + ":" + quality, key -> new PolyphaseFilter(up, down, quality));
+    }
+
+    /**
+     * Removes all cached tables.
+     */
+    static void clearCache() {
+        CACHE.clear();
+    }
+
+    private static double sinc(double x) {
+        if (x == 0) {
+            return 1;
+        }
+        double angle = Math.PI * x;
+        return Math.sin(angle) / angle;
+    }
+
+    /**
+     * Returns the Kaiser window at the point from -1 to 1.
+     *
+     * @param x the point of the window
+     * @param beta the shape parameter
+     * @return the value of the window
+     */
+    private static double kaiser(double x, double beta) {
+        if (x <= -1 || x >= 1) {
+            return 0;
+        }
+        return bessel(beta * Math.sqrt(1 - x * x)) / bessel(beta);
+    }
+
+    /**
+     * Returns the modified Bessel function of the first kind of order zero.
+     *
+     * @param x the argument
+     * @return the value of the function
+     */
+    private static double bessel(double x) {
+        double sum = 1;
+        double term = 1;
+        double half = x / 2;
+        for (int k = 1; k < 50; k++) {
+            term *= half / k;
+            double square = term * term;
+            sum += square;
+            if (square < sum * 1e-21) {
+                break;
+            }
+        }
+        return sum;
+    }
+
+    private static int gcd(int a, int b) {
+        while (b != 0) {
+            int r = a % b;
+            a = b;
+            b = r;
+        }
+        return a;
+    }
+
+}
@@ -0,0 +1,332 @@
+/*
+ * Copyright © 2021 Shcherbina Daniil
+ * License: http://opensource.org/licenses/MIT
+ */
+
+package ausf.software.codecs;
+
+import ausf.software.constants.ResamplerQuality;
+import ausf.software.containers.AudioData;
+import ausf.software.file.Audio;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ *
+ * Implementation of a sample rate converter with a polyphase windowed-sinc filter
+ * or linear interpolation.
+ *
+ * <p>A converter is created for one pair of sample rates and converts a stream
+ * of blocks of float samples: {@link #process} takes the next input block and
+ * writes as many output samples as the input allows, keeping the samples still
+ * needed by the filter for the next block; {@link #flush} writes the remaining
+ * samples at the end of the stream. The output is aligned with the input, the
+ * delay of the filter is compensated.
+ *
+ * <pre>{@code
+ * Resampler resampler = new Resampler(44100, 48000, 2, ResamplerQuality.HIGH);
+ * float[][] output = new float[2][resampler.getOutputCapacity(blockFrames)];
+ * while (...) {
+ *     int frames = resampler.process(input, 0, blockFrames, output, 0);
+ *     ...
+ * }
+ * int frames = resampler.flush(output, 0);
+ * }</pre>
+ *
+ * <p>The filter coefficients are computed once for each pair of sample rates and
+ * shared by all converters. {@link #resample(Audio, int, ResamplerQuality, boolean)}
+ * converts whole audio data, optionally processing the channels in parallel.
+ *
+ * <p>A converter is not safe for use by multiple threads.
+ *
+ * @author  Shcherbina Daniil
+ * @see     ResamplerQuality
+ * @since   0.2.0
+ * @version 0.2.0
+ */
+public class Resampler {
+
+    private final int inputRate;
+    private final int outputRate;
+    private final int numChannels;
+    private final ResamplerQuality quality;
+    private final PolyphaseFilter filter;
+
+    /**
+     * The input samples still needed by the filter, one array for each channel.
+     */
+    private float[][] history;
+    /**
+     * The number of samples in the history.
+     */
+    private int length;
+    /**
+     * The index in the history of the input sample preceding the next output sample.
+     */
+    private int index;
+    /**
+     * The position of the next output sample after the input sample at {@link #index},
+     * in units of {@code 1 / up} of the input sample.
+     */
+    private int fraction;
+    /**
+     * The number of input frames received since the start of the stream.
+     */
+    private long inputFrames;
+    /**
+     * The number of output frames written since the start of the stream.
+     */
+    private long outputFrames;
+
+    /**
+     * Creates a converter between two sample rates.
+     *
+     * @param inputRate the sample rate of the input
+     * @param outputRate the sample rate of the output
+     * @param numChannels number of audio channels
+     * @param quality the interpolation filter
+     * @throws IllegalArgumentException if a sample rate or the number of channels is not positive
+     */
+    public Resampler(int inputRate, int outputRate, int numChannels, ResamplerQuality quality) {
+        if (inputRate <= 0 || outputRate <= 0 || numChannels <= 0) {
+            throw new IllegalArgumentException("The sample rates and the number of channels must be positive.");
+        }
+        this.inputRate = inputRate;
+        this.outputRate = outputRate;
+        this.numChannels = numChannels;
+        this.quality = quality;
+        filter = PolyphaseFilter.get(inputRate, outputRate, quality);
+        history = new float[numChannels][4 * filter.halfLength];
+        reset();
+    }
+
+    /**
+     * Discards the buffered samples and starts a new stream.
+     */
+    public void reset() {
+        // the samples before the start of the stream are silence
+        for (float[] channel : history) {
+            Arrays.fill(channel, 0);
+        }
+        length = filter.halfLength - 1;
+        index = length;
+        fraction = 0;
+        inputFrames = 0;
+        outputFrames = 0;
+    }
+
+    /**
+     * Returns the largest number of output frames written by one call to
+     * {@link #process} or {@link #flush} for the specified number of input frames.
+     *
+     * @param inputFrames the number of input frames
+     * @return the largest number of output frames
+     */
+    public int getOutputCapacity(int inputFrames) {
+        return (int) (((long) inputFrames + 2 * filter.halfLength) * filter.up / filter.down) + 2;
+    }
+
+    /**
+     * Converts the next block of the stream.
+     *
+     * @param input arrays of input samples, one for each channel
+     * @param offset the offset in the input arrays from which to read
+     * @param frames the number of input frames
+     * @param output arrays of output samples, one for each channel
+     * @param outputOffset the offset in the output arrays from which to write
+     * @return the number of output frames written
+     */
+    public int process(float[][] input, int offset, int frames, float[][] output, int outputOffset) {
+        append(input, offset, frames);
+        inputFrames += frames;
+        return render(output, outputOffset, Long.MAX_VALUE);
+    }
+
+    /**
+     * Writes the output samples remaining at the end of the stream
+     * and starts a new stream.
+     *
+     * @param output arrays of output samples, one for each channel
+     * @param outputOffset the offset in the output arrays from which to write
+     * @return the number of output frames written
+     */
+    public int flush(float[][] output, int outputOffset) {
+        // the samples after the end of the stream are silence
+        append(null, 0, filter.halfLength);
+        long total = (inputFrames * filter.up + filter.down - 1) / filter.down;
+        int written = render(output, outputOffset, total - outputFrames);
+        reset();
+        return written;
+    }
+
+    /**
+     * Returns the sample rate of the input.
+     *
+     * @return the sample rate of the input
+     */
+    public int getInputRate() {
+        return inputRate;
+    }
+
+    /**
+     * Returns the sample rate of the output.
+     *
+     * @return the sample rate of the output
+     */
+    public int getOutputRate() {
+        return outputRate;
+    }
+
+    /**
+     * Returns the interpolation filter of the converter.
+     *
+     * @return the interpolation filter
+     */
+    public ResamplerQuality getQuality() {
+        return quality;
+    }
+
+    /**
+     * Converts the audio data to another sample rate. The sample size and the number
+     * of channels are kept.
+     *
+     * @param audio the PCM audio data
+     * @param outputRate the sample rate of the result
+     * @param quality the interpolation filter
+     * @return the converted audio data
+     */
+    public static AudioData resample(Audio audio, int outputRate, ResamplerQuality quality) {
+        return resample(audio, outputRate, quality, false);
+    }
+
+    /**
+     * Converts the audio data to another sample rate. The data compression format,
+     * the sample size and the number of channels are kept; IEEE float samples are
+     * not clipped.
+     *
+     * @param audio the audio data
+     * @param outputRate the sample rate of the result
+     * @param quality the interpolation filter
+     * @param parallel true to convert each channel in its own task of the common pool
+     * @return the converted audio data
+     */
+    public static AudioData resample(Audio audio, int outputRate, ResamplerQuality quality, boolean parallel) {
+        int numChannels = audio.getNumberAudioChanel();
+        int bitsPerSample = audio.getBitsPerSample();
+        short blockAlign = (short) (numChannels * PCMConverter.getSampleSize(bitsPerSample));
+        float[][] input = PCMConverter.toFloat(audio);
+        int frames = input.length == 0 ? 0 : input[0].length;
+        float[][] output = new float[numChannels][];
+
+        IntStream channels = IntStream.range(0, numChannels);
+        (parallel ? channels.parallel() : channels).forEach(channel -> {
+            Resampler resampler = new Resampler(audio.getSampleRate(), outputRate, 1, quality);
+            float[][] target = new float[1][resampler.getOutputCapacity(frames)];
+            int written = resampler.process(new float[][] {input[channel]}, 0, frames, target, 0);
+            written += resampler.flush(target, written);
+            output[channel] = Arrays.copyOf(target[0], written);
+        });
+
+        int outputFrames = numChannels == 0 ? 0 : output[0].length;
+        byte[] data = new byte[outputFrames * blockAlign];
+        PCMConverter.fromFloat(output, 0, outputFrames, audio.getAudioCodec(), bitsPerSample, ByteBuffer.wrap(data));
+        return new AudioData(audio.getAudioCodec(), (short) numChannels, outputRate,
+                             outputRate * blockAlign, blockAlign, (short) bitsPerSample, data);
+    }
+
+    /**
+     * Appends input samples to the history, or silence if the input is null.
+     * Samples no longer needed by the filter are discarded first.
+     *
+     * @param input arrays of input samples, or null for silence
+     * @param offset the offset in the input arrays from which to read
+     * @param frames the number of input frames
+     */
+    private void append(float[][] input, int offset, int frames) {
+        // when decimating, the next window may start beyond the received samples
+        int keep = Math.min(index - filter.halfLength + 1, length);
+        if (keep > 0) {
+            for (float[] channel : history) {
+                System.arraycopy(channel, keep, channel, 0, length - keep);
+            }
+            length -= keep;
+            index -= keep;
+        }
+        if (length + frames > history[0].length) {
+            int capacity = Math.max(length + frames, 2 * history[0].length);
+            for (int channel = 0; channel < numChannels; channel++) {
+                history[channel] = Arrays.copyOf(history[channel], capacity);
+            }
+        }
+        for (int channel = 0; channel < numChannels; channel++) {
+            if (input == null) {
+                Arrays.fill(history[channel], length, length + frames, 0);
+            } else {
+                System.arraycopy(input[channel], offset, history[channel], length, frames);
+            }
+        }
+        length += frames;
+    }
+
+    /**
+     * Writes the output samples whose filter window lies within the history.
+     *
+     * @param output arrays of output samples, one for each channel
+     * @param outputOffset the offset in the output arrays from which to write
+     * @param limit the largest number of output frames to be written
+     * @return the number of output frames written
+     */
+    private int render(float[][] output, int outputOffset, long limit) {
+        int half = filter.halfLength;
+        int taps = 2 * half;
+        int up = filter.up;
+        int down = filter.down;
+        int written = 0;
+        int nextIndex = index;
+        int nextFraction = fraction;
+
+        for (int channel = 0; channel < numChannels; channel++) {
+            float[] samples = history[channel];
+            float[] target = output[channel];
+            int position = index;
+            int phase = fraction;
+            int count = 0;
+            while (position + half < length && count < limit) {
+                int start = position - half + 1;
+                float value;
+                if (filter.exact) {
+                    value = dot(filter.rows[phase], samples, start, taps);
+                } else {
+                    double exactRow = (double) phase * filter.phases / up;
+                    int row = (int) exactRow;
+                    float weight = (float) (exactRow - row);
+                    float first = dot(filter.rows[row], samples, start, taps);
+                    float second = dot(filter.rows[row + 1], samples, start, taps);
+                    value = first + (second - first) * weight;
+                }
+                target[outputOffset + count++] = value;
+                phase += down;
+                position += phase / up;
+                phase %= up;
+            }
+            written = count;
+            nextIndex = position;
+            nextFraction = phase;
+        }
+        index = nextIndex;
+        fraction = nextFraction;
+        outputFrames += written;
+        return written;
+    }
+
+    private static float dot(float[] row, float[] samples, int start, int taps) {
+        float sum = 0;
+        for (int tap = 0; tap < taps; tap++) {
+            sum += row[tap] * samples[start + tap];
+        }
+        return sum;
+    }
+
+}
@@ -20,6 +20,18 @@ public enum BufferSizes {
      * The size of the buffer readable for the WAV file.
      */
     WAVE_BUFFER_SIZE ( 10240),
+    /**
+     * The size of one window of a file region mapped into memory.
+     */
+    MAPPED_WINDOW_SIZE ( 1 << 30),
+    /**
+     * The largest size of the "INFO" list that is read from a WAV file.
+     */
+    INFO_LIST_MAX_SIZE ( 1 << 20),
+    /**
+     * The size of one block of a file held by the block cache.
+     */
+    CACHE_BLOCK_SIZE ( 1 << 16),
     ;
 
     private int index;
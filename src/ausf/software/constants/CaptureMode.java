@@ -0,0 +1,32 @@
+/*
+ * Copyright © 2021 Shcherbina Daniil
+ * License: http://opensource.org/licenses/MIT
+ */
+
+package ausf.software.constants;
+
+/**
+ * Storage of the ways in which the microphone
+ * passes on the captured audio data.
+ *
+ * @see     ausf.software.util.recorders.audio.Microphone
+ * @author  Shcherbina Daniil
+ * @since   0.2.0
+ * @version 0.2.0
+ */
+public enum CaptureMode {
+
+    /**
+     * Collects the whole recording in memory, where it is
+     * available after the recording is stopped.
+     */
+    BUFFERED,
+    /**
+     * Passes the audio data to the subscribers in blocks through
+     * a ring buffer of a constant size. The recording is not kept
+     * in memory.
+     */
+    STREAMING,
+    ;
+
+}
@@ -32,6 +32,10 @@ public enum ErrorMessage {
      * Error message if the chunk identifier "data"is not found.
      */
     WAV_NOT_FIND_DATA (new Error("File does not contain 'data' chunk.")),
+    /**
+     * Error message if the sample size or the block alignment does not match the data compression format.
+     */
+    WAV_UNSUPPORTED_FORMAT (new Error("File has an unsupported combination of format, sample size and block alignment.")),
     ;
 
     private Error index;
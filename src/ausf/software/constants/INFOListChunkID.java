@@ -5,6 +5,8 @@
 
 package ausf.software.constants;
 
+import java.util.Arrays;
+
 /**
  *
  * Storage of byte values for metadata field identifiers.
@@ -145,12 +147,31 @@ public enum INFOListChunkID {
     ITCH (new byte[]{73, 84, 67, 72}),
     ;
 
+    private static final INFOListChunkID[] VALUES = values();
+
     private byte[] index;
 
     INFOListChunkID(byte[] bytes) {
         index = bytes;
     }
 
+    /**
+     * Returns the metadata field identifier stored at the specified offset
+     * in the array, or null if the identifier is unknown.
+     *
+     * @param array an array of bytes
+     * @param offset the offset of the identifier in the array
+     * @return the metadata field identifier, or null if the identifier is unknown
+     */
+    public static INFOListChunkID find(byte[] array, int offset) {
+        for (INFOListChunkID id : VALUES) {
+            if (Arrays.equals(array, offset, offset + id.index.length, id.index, 0, id.index.length)) {
+                return id;
+            }
+        }
+        return null;
+    }
+
     /**
      * Returns an array of byte with the identifier of the metadata field.
      *
@@ -0,0 +1,61 @@
+/*
+ * Copyright © 2021 Shcherbina Daniil
+ * License: http://opensource.org/licenses/MIT
+ */
+
+package ausf.software.constants;
+
+/**
+ * Storage of the interpolation filters of the sample rate
+ * converter, from the fastest to the most accurate.
+ *
+ * @see     ausf.software.codecs.Resampler
+ * @author  Shcherbina Daniil
+ * @since   0.2.0
+ * @version 0.2.0
+ */
+public enum ResamplerQuality {
+
+    /**
+     * Linear interpolation between two neighbouring samples.
+     * Does not remove aliasing; suitable for speech and previews.
+     */
+    LINEAR (1, 0),
+    /**
+     * Windowed-sinc filter with 16 zero crossings on each side
+     * and a stopband attenuation of about 60 dB.
+     */
+    MEDIUM (16, 6),
+    /**
+     * Windowed-sinc filter with 32 zero crossings on each side
+     * and a stopband attenuation of about 90 dB.
+     */
+    HIGH (32, 9),
+    ;
+
+    private int zeroCrossings;
+    private double beta;
+
+    ResamplerQuality(int zeroCrossings, double beta) {
+        this.zeroCrossings = zeroCrossings;
+        this.beta = beta;
+    }
+
+    /**
+     * Returns the number of zero crossings of the filter on each side of its center.
+     *
+     * @return the number of zero crossings on each side
+     */
+    public int getZeroCrossings() {
+        return zeroCrossings;
+    }
+
+    /**
+     * Returns the shape parameter of the Kaiser window of the filter.
+     *
+     * @return the shape parameter of the Kaiser window
+     */
+    public double getBeta() {
+        return beta;
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright © 2021 Shcherbina Daniil
+ * License: http://opensource.org/licenses/MIT
+ */
+
+package ausf.software.constants;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Storage of the window functions applied to a frame of samples
+ * before its spectrum is computed.
+ *
+ * <p>The table of a window is computed once for each frame size
+ * and shared by all threads.
+ *
+ * @see     ausf.software.analysis.STFT
+ * @author  Shcherbina Daniil
+ * @since   0.2.0
+ * @version 0.2.0
+ */
+public enum WindowFunction {
+
+    /**
+     * No window; the best frequency resolution and the most leakage.
+     */
+    RECTANGULAR (1, 0, 0),
+    /**
+     * Hann window; the usual choice for spectrograms.
+     */
+    HANN (0.5, 0.5, 0),
+    /**
+     * Hamming window; a lower first side lobe than the Hann window.
+     */
+    HAMMING (0.54, 0.46, 0),
+    /**
+     * Blackman window; low leakage at the cost of a wider main lobe.
+     */
+    BLACKMAN (0.42, 0.5, 0.08),
+    ;
+
+    private final double a0;
+    private final double a1;
+    private final double a2;
+    /**
+     * The tables of the window computed so far, by frame size.
+     */
+    private final Map<Integer, float[]> tables = new ConcurrentHashMap<>();
+
+    WindowFunction(double a0, double a1, double a2) {
+        this.a0 = a0;
+        this.a1 = a1;
+        this.a2 = a2;
+    }
+
+    /**
+     * Multiplies the samples of a frame by the window.
+     *
+     * @param input the array with the samples of the frame
+     * @param offset the index of the first sample of the frame
+     * @param output the array receiving the weighted samples, at least as long as the frame
+     * @param size the number of samples in the frame
+     */
+    public void apply(float[] input, int offset, float[] output, int size) {
+        float[] table = getTable(size);
+        for (int i = 0; i < size; i++) {
+            output[i] = input[offset + i] * table[i];
+        }
+    }
+
+    /**
+     * Returns the sum of the window over a frame: the gain of the window
+     * for a constant signal, used to scale the spectrum.
+     *
+     * @param size the number of samples in the frame
+     * @return the sum of the window
+     */
+    public double getSum(int size) {
+        double sum = 0;
+        for (float value : getTable(size)) {
+            sum += value;
+        }
+        return sum;
+    }
+
+    /**
+     * Returns the table of the window for the frame size, computing it on first use.
+     * The window is periodic, as suited to overlapping frames.
+     *
+     * @param size the number of samples in the frame
+     * @return the table of the window
+     */
+    private float[] getTable(int size) {
+        return tables.computeIfAbsent(size, n -> {
+            float[] table = new float[n];
+            for (int i = 0; i < n; i++) {
+                double phase = 2 * Math.PI * i / n;
+                table[i] = (float) (a0 - a1 * Math.cos(phase) + a2 * Math.cos(2 * phase));
+            }
+            return table;
+        });
+    }
+}
@@ -11,27 +11,44 @@ package ausf.software.constants.audio.wav;
  *
  * @author  Shcherbina Daniil
  * @since   0.1.0
- * @version 0.1.0
+ * @version 0.2.0
  */
 public enum WAVCodecRegistries {
 
     /**
      * Pulse-code modulation
      */
-   FORMAT_PCM ((byte) 1),
+   FORMAT_PCM ((short) 1),
+    /**
+     * IEEE 754 floating-point samples
+     */
+   FORMAT_IEEE_FLOAT ((short) 3),
     /**
      * A-law algorithm
      */
-   FORMAT_ALAW ((byte) 6),
+   FORMAT_ALAW ((short) 6),
     /**
      * μ-law algorithm
      */
-   FORMAT_MULAW ((byte) 7)
+   FORMAT_MULAW ((short) 7),
+    /**
+     * The format is given by the subformat GUID of the extended "ftm " chunk
+     */
+   FORMAT_EXTENSIBLE ((short) 0xFFFE)
     ;
 
-   private byte index;
+    /**
+     * The bytes of the subformat GUID after the first two, which are the same
+     * for all registered formats (KSDATAFORMAT_SUBTYPE_PCM and others).
+     */
+    private static final byte[] SUB_FORMAT_TAIL = {
+            0x00, 0x00, 0x00, 0x00, 0x10, 0x00, (byte) 0x80, 0x00,
+            0x00, (byte) 0xAA, 0x00, 0x38, (byte) 0x9B, 0x71
+    };
+
+   private short index;
 
-    WAVCodecRegistries(byte i) {
+    WAVCodecRegistries(short i) {
         index = i;
     }
 
@@ -40,8 +57,53 @@ public enum WAVCodecRegistries {
      *
      * @return data compression format registration index
      */
-    public byte getIndex() {
+    public short getIndex() {
             return index;
     }
-}
 
+    /**
+     * Returns the data compression format with the registration index.
+     *
+     * @param index data compression format registration index
+     * @return the data compression format, or null if the index is not in the storage
+     */
+    public static WAVCodecRegistries fromIndex(short index) {
+        for (WAVCodecRegistries format : values()) {
+            if (format.index == index) {
+                return format;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Writes the subformat GUID of the data compression format into the array,
+     * as it is stored in the extended "ftm " chunk.
+     *
+     * @param audioFormat data compression format registration index
+     * @param target the array of bytes
+     * @param offset the offset of the GUID in the array
+     */
+    public static void putSubFormat(int audioFormat, byte[] target, int offset) {
+        target[offset] = (byte) audioFormat;
+        target[offset + 1] = (byte) (audioFormat >> 8);
+        System.arraycopy(SUB_FORMAT_TAIL, 0, target, offset + 2, SUB_FORMAT_TAIL.length);
+    }
+
+    /**
+     * Returns the data compression format of the subformat GUID stored in the array,
+     * or {@link #FORMAT_EXTENSIBLE} if the GUID is not one of the registered formats.
+     *
+     * @param source the array of bytes
+     * @param offset the offset of the GUID in the array
+     * @return data compression format registration index
+     */
+    public static short getSubFormat(byte[] source, int offset) {
+        for (int i = 0; i < SUB_FORMAT_TAIL.length; i++) {
+            if (source[offset + 2 + i] != SUB_FORMAT_TAIL[i]) {
+                return FORMAT_EXTENSIBLE.getIndex();
+            }
+        }
+        return (short) ((source[offset] & 0xFF) | (source[offset + 1] & 0xFF) << 8);
+    }
+}
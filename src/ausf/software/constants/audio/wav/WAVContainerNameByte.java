@@ -15,6 +15,14 @@ package ausf.software.constants.audio.wav;
 public enum WAVContainerNameByte {
 
     CONTAINER_RIFF (new byte[]{82, 73, 70, 70}),
+    /**
+     * Container RF64 (EBU Tech 3306) of files whose sizes do not fit in 32 bits
+     */
+    CONTAINER_RF64 (new byte[]{82, 70, 54, 52}),
+    /**
+     * Container BW64 (ITU-R BS.2088), with the same layout as RF64
+     */
+    CONTAINER_BW64 (new byte[]{66, 87, 54, 52}),
     /**
      * FourCC that defines the form type
      */
@@ -32,6 +40,18 @@ public enum WAVContainerNameByte {
      * The chunk stores the metadata of the file
      */
     CHUNK_INFO (new byte[]{73, 78, 70, 79}),
+    /**
+     * The container chunk that holds a list of subchunks, such as INFO
+     */
+    CHUNK_LIST (new byte[]{76, 73, 83, 84}),
+    /**
+     * A chunk whose content is ignored, used to fill unused space in the file
+     */
+    CHUNK_JUNK (new byte[]{74, 85, 78, 75}),
+    /**
+     * The chunk stores the 64-bit sizes of the RF64 or BW64 container and of the "data" chunk
+     */
+    CHUNK_DS64 (new byte[]{100, 115, 54, 52}),
     ;
 
     private byte[] index;
@@ -31,6 +31,40 @@ public enum WAVField {
      */
     FORMAT_TAG          (new DataField(4, 8)),
 
+    /**
+     * Identifier of an arbitrary chunk
+     */
+    CHUNK_ID            (new DataField(4, 0)),
+    /**
+     * Size of an arbitrary chunk, not including its identifier and size fields
+     */
+    CHUNK_SIZE          (new DataField(4, 4)),
+
+    /**
+     * The chunk stores the 64-bit sizes of an RF64 or BW64 file
+     */
+    CHUNK_DS64          (new DataField(4, 0)),
+    /**
+     * The size of the "ds64" chunk
+     */
+    DS64_SIZE           (new DataField(4, 4)),
+    /**
+     * The 64-bit size of the RF64 or BW64 container
+     */
+    DS64_RIFF_SIZE      (new DataField(8, 8)),
+    /**
+     * The 64-bit size of the "data" chunk
+     */
+    DS64_DATA_SIZE      (new DataField(8, 16)),
+    /**
+     * The number of samples for each channel
+     */
+    DS64_SAMPLE_COUNT   (new DataField(8, 24)),
+    /**
+     * The number of entries in the table of sizes of other chunks
+     */
+    DS64_TABLE_LENGTH   (new DataField(4, 32)),
+
     /**
      * The chunk stories information about the form in
      * which audio data is stored in the file and how it should be play
@@ -66,6 +100,22 @@ public enum WAVField {
      * The number of bits in the sample.
      */
     BITS_PER_SAMPLE     (new DataField(2, 22)),
+    /**
+     * The size of the extension of the "ftm " chunk.
+     */
+    FTM_EXTENSION_SIZE  (new DataField(2, 24)),
+    /**
+     * The number of bits of the sample that hold the signal, in the extended "ftm " chunk.
+     */
+    VALID_BITS_PER_SAMPLE (new DataField(2, 26)),
+    /**
+     * The speaker positions of the channels, in the extended "ftm " chunk.
+     */
+    CHANNEL_MASK        (new DataField(4, 28)),
+    /**
+     * The GUID of the data compression format, in the extended "ftm " chunk.
+     */
+    SUB_FORMAT          (new DataField(16, 32)),
 
     /**
      * A chunk that stores data from digital samples of the audio signal
@@ -0,0 +1,33 @@
+/*
+ * Copyright © 2021 Shcherbina Daniil
+ * License: http://opensource.org/licenses/MIT
+ */
+
+package ausf.software.constants.audio.wav;
+
+/**
+ * Storage of the ways in which the WAV file reader
+ * can find chunks in a file.
+ *
+ * @see     ausf.software.io.readers.WAVFileReader
+ * @author  Shcherbina Daniil
+ * @since   0.2.0
+ * @version 0.2.0
+ */
+public enum WAVParserMode {
+
+    /**
+     * Reads the identifier and size of each chunk and moves
+     * straight to the next one without reading the chunk body.
+     */
+    CHUNK_DIRECTED,
+    /**
+     * Reads the whole file page by page and searches for chunk
+     * identifiers at every offset. Slow, but tolerates chunks
+     * with damaged size fields. The metadata fields of the
+     * "INFO" list are not read.
+     */
+    SIGNATURE_SCAN,
+    ;
+
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright © 2021 Shcherbina Daniil
+ * License: http://opensource.org/licenses/MIT
+ */
+
+package ausf.software.constants.audio.wav;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Storage of the speaker positions of the channel mask of the
+ * extended "ftm " chunk. The channels of the audio data follow
+ * the order of the positions set in the mask.
+ *
+ * @author  Shcherbina Daniil
+ * @since   0.2.0
+ * @version 0.2.0
+ */
+public enum WAVSpeakerPosition {
+
+    FRONT_LEFT            (0x1),
+    FRONT_RIGHT           (0x2),
+    FRONT_CENTER          (0x4),
+    LOW_FREQUENCY         (0x8),
+    BACK_LEFT             (0x10),
+    BACK_RIGHT            (0x20),
+    FRONT_LEFT_OF_CENTER  (0x40),
+    FRONT_RIGHT_OF_CENTER (0x80),
+    BACK_CENTER           (0x100),
+    SIDE_LEFT             (0x200),
+    SIDE_RIGHT            (0x400),
+    TOP_CENTER            (0x800),
+    TOP_FRONT_LEFT        (0x1000),
+    TOP_FRONT_CENTER      (0x2000),
+    TOP_FRONT_RIGHT       (0x4000),
+    TOP_BACK_LEFT         (0x8000),
+    TOP_BACK_CENTER       (0x10000),
+    TOP_BACK_RIGHT        (0x20000),
+    ;
+
+    private int mask;
+
+    WAVSpeakerPosition(int mask) {
+        this.mask = mask;
+    }
+
+    /**
+     * Returns the bit of the position in the channel mask.
+     *
+     * @return the bit of the position in the channel mask
+     */
+    public int getMask() {
+        return mask;
+    }
+
+    /**
+     * Returns the positions set in the channel mask, in the order of the channels.
+     *
+     * @param channelMask the channel mask
+     * @return the positions set in the channel mask
+     */
+    public static List<WAVSpeakerPosition> fromMask(int channelMask) {
+        List<WAVSpeakerPosition> positions = new ArrayList<>();
+        for (WAVSpeakerPosition position : values()) {
+            if ((channelMask & position.mask) != 0) {
+                positions.add(position);
+            }
+        }
+        return positions;
+    }
+
+    /**
+     * Returns the channel mask of the selected channels. The channels of a mask follow
+     * the order of its positions, so the mask is 0 (no positions) if the channels are
+     * not selected in their order or if the mask does not give the position of a channel.
+     *
+     * @param channelMask the channel mask of all channels
+     * @param channels the indexes of the selected channels
+     * @return the channel mask of the selected channels
+     */
+    public static int selectMask(int channelMask, int... channels) {
+        List<WAVSpeakerPosition> positions = fromMask(channelMask);
+        int mask = 0;
+        int previous = -1;
+        for (int channel : channels) {
+            if (channel <= previous || channel >= positions.size()) {
+                return 0;
+            }
+            mask |= positions.get(channel).mask;
+            previous = channel;
+        }
+        return mask;
+    }
+
+    /**
+     * Returns the usual channel mask for the number of channels: mono, stereo,
+     * 3.0, quadraphonic, 5.0, 5.1, 6.1 and 7.1; 0 (no positions) for other numbers.
+     *
+     * @param numChannels number of audio channels
+     * @return the channel mask
+     */
+    public static int getDefaultMask(int numChannels) {
+        switch (numChannels) {
+            case 1: return 0x4;
+            case 2: return 0x3;
+            case 3: return 0x7;
+            case 4: return 0x33;
+            case 5: return 0x37;
+            case 6: return 0x3F;
+            case 7: return 0x70F;
+            case 8: return 0x63F;
+            default: return 0;
+        }
+    }
+}
@@ -57,12 +57,14 @@ public class INFOChunkField {
     }
 
     /**
-     * Return the estimated size of the metadata field.
+     * Return the size of the metadata field in the file, including its identifier,
+     * size, the terminating zero and the alignment byte.
      *
-     * @return the estimated size of the metadata field
+     * @return the size of the metadata field in the file
      */
     public int getSize() {
-        return 4 + text.length() + 1;
+        int size = text.getBytes(INFOMetadata.CHARSET).length + 1;
+        return 8 + size + (size & 1);
     }
 
 }
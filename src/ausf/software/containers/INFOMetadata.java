@@ -0,0 +1,255 @@
+/*
+ * Copyright © 2021 Shcherbina Daniil
+ * License: http://opensource.org/licenses/MIT
+ */
+
+package ausf.software.containers;
+
+import ausf.software.constants.INFOListChunkID;
+import ausf.software.constants.audio.wav.WAVContainerNameByte;
+import ausf.software.constants.audio.wav.WAVField;
+import ausf.software.util.LittleEndian;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Implementation of a container for storing the metadata fields of
+ * the "INFO" list of a file.
+ *
+ * <p>Each field is stored in an array cell with the number of its identifier,
+ * so finding a field does not require a search. The fields read from a file
+ * are kept as bytes and are converted to text only when it is requested for
+ * the first time. The text is stored in UTF-8.
+ *
+ * <p>Note that working with the object is not synchronized.
+ *
+ * @author  Shcherbina Daniil
+ * @see     INFOListChunkID
+ * @see     ausf.software.file.audio.WAVFile
+ * @since   0.2.0
+ * @version 0.2.0
+ */
+public class INFOMetadata {
+
+    /**
+     * The encoding of the text of the fields.
+     */
+    public static final Charset CHARSET = StandardCharsets.UTF_8;
+
+    private static final INFOListChunkID[] IDS = INFOListChunkID.values();
+
+    /**
+     * The bytes of the text of each field, without the terminating zero.
+     */
+    private final byte[][] values = new byte[IDS.length][];
+    /**
+     * The text of each field that has already been decoded.
+     */
+    private final String[] texts = new String[IDS.length];
+    /**
+     * The number of fields.
+     */
+    private int count;
+
+    /**
+     * Returns the text of the metadata field, or null if there is no such field.
+     *
+     * @param chunkId the identifier of the metadata field
+     * @return the text of the metadata field, or null if there is no such field
+     */
+    public String get(INFOListChunkID chunkId) {
+        int index = chunkId.ordinal();
+        if (texts[index] == null && values[index] != null) {
+            texts[index] = new String(values[index], CHARSET);
+        }
+        return texts[index];
+    }
+
+    /**
+     * Sets the text of the metadata field. The null text removes the field.
+     *
+     * @param chunkId the identifier of the metadata field
+     * @param text the text of the metadata field
+     */
+    public void set(INFOListChunkID chunkId, String text) {
+        if (text == null) {
+            remove(chunkId);
+            return;
+        }
+        put(chunkId.ordinal(), text.getBytes(CHARSET));
+        texts[chunkId.ordinal()] = text;
+    }
+
+    /**
+     * Sets the text of the metadata field from a fragment of an array of bytes
+     * in UTF-8. The fragment is copied, and is decoded only when requested.
+     *
+     * @param chunkId the identifier of the metadata field
+     * @param array an array of bytes
+     * @param offset the offset of the text in the array
+     * @param length the length of the text
+     */
+    public void setBytes(INFOListChunkID chunkId, byte[] array, int offset, int length) {
+        put(chunkId.ordinal(), Arrays.copyOfRange(array, offset, offset + length));
+        texts[chunkId.ordinal()] = null;
+    }
+
+    /**
+     * Removes the metadata field.
+     *
+     * @param chunkId the identifier of the metadata field
+     */
+    public void remove(INFOListChunkID chunkId) {
+        int index = chunkId.ordinal();
+        if (values[index] != null) {
+            count--;
+        }
+        values[index] = null;
+        texts[index] = null;
+    }
+
+    /**
+     * Returns true if the metadata field is present.
+     *
+     * @param chunkId the identifier of the metadata field
+     * @return true if the metadata field is present
+     */
+    public boolean contains(INFOListChunkID chunkId) {
+        return values[chunkId.ordinal()] != null;
+    }
+
+    /**
+     * Returns the number of metadata fields.
+     *
+     * @return the number of metadata fields
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Returns true if there are no metadata fields.
+     *
+     * @return true if there are no metadata fields
+     */
+    public boolean isEmpty() {
+        return count == 0;
+    }
+
+    /**
+     * Returns a copy of the metadata with the same bytes of each field.
+     *
+     * @return a copy of the metadata
+     */
+    public INFOMetadata copy() {
+        INFOMetadata copy = new INFOMetadata();
+        for (int index = 0; index < values.length; index++) {
+            if (values[index] != null) {
+                copy.put(index, values[index].clone());
+            }
+        }
+        return copy;
+    }
+
+    /**
+     * Returns the size of the "LIST" chunk with all metadata fields, including
+     * its identifier and size field, or 0 if there are no fields.
+     *
+     * @return the size of the "LIST" chunk with all metadata fields
+     */
+    public int getChunkSize() {
+        if (count == 0) {
+            return 0;
+        }
+        int size = WAVField.CHUNK_SIZE.getFieldEnd() + WAVField.CHUNK_INFO.getSize();
+        for (byte[] value : values) {
+            if (value != null) {
+                size += getFieldSize(value);
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Writes the "LIST" chunk with all metadata fields into the array. Each text
+     * ends with a zero byte, and each field is aligned to an even number of bytes.
+     *
+     * @param target the array of at least {@link #getChunkSize()} bytes from the offset
+     * @param offset the offset of the chunk in the array
+     * @return the number of bytes written
+     */
+    public int encode(byte[] target, int offset) {
+        int size = getChunkSize();
+        if (size == 0) {
+            return 0;
+        }
+        int headerSize = WAVField.CHUNK_SIZE.getFieldEnd();
+        byte[] list = WAVContainerNameByte.CHUNK_LIST.getByte();
+        byte[] info = WAVContainerNameByte.CHUNK_INFO.getByte();
+
+        System.arraycopy(list, 0, target, offset, list.length);
+        LittleEndian.putInt(target, offset + WAVField.CHUNK_SIZE.getOffset(), size - headerSize);
+        System.arraycopy(info, 0, target, offset + headerSize, info.length);
+
+        int position = offset + headerSize + info.length;
+        for (int i = 0; i < values.length; i++) {
+            byte[] value = values[i];
+            if (value == null) {
+                continue;
+            }
+            int fieldSize = getFieldSize(value);
+            byte[] id = IDS[i].getByte();
+            System.arraycopy(id, 0, target, position, id.length);
+            LittleEndian.putInt(target, position + WAVField.CHUNK_SIZE.getOffset(), value.length + 1);
+            System.arraycopy(value, 0, target, position + headerSize, value.length);
+            Arrays.fill(target, position + headerSize + value.length, position + fieldSize, (byte) 0);
+            position += fieldSize;
+        }
+        return size;
+    }
+
+    /**
+     * Returns a list of all metadata fields in the order of their identifiers.
+     *
+     * @return a list of all metadata fields
+     */
+    public List<INFOChunkField> toList() {
+        List<INFOChunkField> fields = new ArrayList<>(count);
+        for (INFOListChunkID id : IDS) {
+            if (contains(id)) {
+                fields.add(new INFOChunkField(id, get(id)));
+            }
+        }
+        return fields;
+    }
+
+    /**
+     * Stores the bytes of the field.
+     *
+     * @param index the number of the identifier of the field
+     * @param value the bytes of the text of the field
+     */
+    private void put(int index, byte[] value) {
+        if (values[index] == null) {
+            count++;
+        }
+        values[index] = value;
+    }
+
+    /**
+     * Returns the size of the field with the specified text, including its header,
+     * the terminating zero and the alignment byte.
+     *
+     * @param value the bytes of the text of the field
+     * @return the size of the field
+     */
+    private static int getFieldSize(byte[] value) {
+        int size = value.length + 1;
+        return WAVField.CHUNK_SIZE.getFieldEnd() + size + (size & 1);
+    }
+
+}
@@ -0,0 +1,205 @@
+/*
+ * Copyright © 2021 Shcherbina Daniil
+ * License: http://opensource.org/licenses/MIT
+ */
+
+package ausf.software.containers;
+
+import ausf.software.constants.INFOListChunkID;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Implementation of an immutable container with the parameters and metadata
+ * of a WAV file, obtained without reading its audio data.
+ *
+ * @author  Shcherbina Daniil
+ * @see     ausf.software.io.readers.WAVFileProbe
+ * @since   0.2.0
+ * @version 0.2.0
+ */
+public final class WAVFileDescriptor {
+
+    /**
+     * File path.
+     */
+    private final String path;
+    /**
+     * Total file size.
+     */
+    private final long fileSize;
+    /**
+     * Data compression format registration index
+     */
+    private final short audioFormat;
+    /**
+     * Number of audio channels.
+     */
+    private final short numChannels;
+    /**
+     * Audio sample rate.
+     */
+    private final int sampleRate;
+    /**
+     * The number of bytes transferred per second of playback.
+     */
+    private final int byteRate;
+    /**
+     * The number of bytes for one sample, including all channels.
+     */
+    private final short blockAlign;
+    /**
+     * The number of bits in the sample.
+     */
+    private final short bitsPerSample;
+    /**
+     * Size of the audio data chunk.
+     */
+    private final long dataSize;
+    /**
+     * The file metadata.
+     */
+    private final Map<INFOListChunkID, String> info;
+
+    /**
+     * Creates a container with the specified parameters of the WAV file.
+     *
+     * @param path file path
+     * @param fileSize total file size
+     * @param audioFormat data compression format registration index
+     * @param numChannels number of audio channels
+     * @param sampleRate audio sample rate
+     * @param byteRate the number of bytes transferred per second of playback
+     * @param blockAlign the number of bytes for one sample
+     * @param bitsPerSample the number of bits in the sample
+     * @param dataSize size of the audio data chunk
+     * @param info the file metadata
+     */
+    public WAVFileDescriptor(String path, long fileSize, short audioFormat, short numChannels, int sampleRate,
+                             int byteRate, short blockAlign, short bitsPerSample, long dataSize,
+                             Map<INFOListChunkID, String> info) {
+        this.path = path;
+        this.fileSize = fileSize;
+        this.audioFormat = audioFormat;
+        this.numChannels = numChannels;
+        this.sampleRate = sampleRate;
+        this.byteRate = byteRate;
+        this.blockAlign = blockAlign;
+        this.bitsPerSample = bitsPerSample;
+        this.dataSize = dataSize;
+        this.info = info.isEmpty() ? Collections.<INFOListChunkID, String>emptyMap()
+                                    : Collections.unmodifiableMap(new EnumMap<>(info));
+    }
+
+    /**
+     * Returns the path to the file.
+     *
+     * @return the path to the file
+     */
+    public String getPath() {
+        return path;
+    }
+
+    /**
+     * Returns file size.
+     *
+     * @return file size
+     */
+    public long getFileSize() {
+        return fileSize;
+    }
+
+    /**
+     * Returns data compression format registration index.
+     *
+     * @return data compression format registration index
+     */
+    public short getAudioCodec() {
+        return audioFormat;
+    }
+
+    /**
+     * Returns number of audio channels.
+     *
+     * @return number of audio channels
+     */
+    public short getNumberAudioChanel() {
+        return numChannels;
+    }
+
+    /**
+     * Returns audio sample rate.
+     *
+     * @return audio sample rate
+     */
+    public int getSampleRate() {
+        return sampleRate;
+    }
+
+    /**
+     * Returns the number of bytes transferred per second of playback.
+     *
+     * @return the number of bytes transferred per second of playback
+     */
+    public int getByteRate() {
+        return byteRate;
+    }
+
+    /**
+     * Returns the number of bytes for one sample.
+     *
+     * @return the number of bytes for one sample
+     */
+    public short getBlockAlign() {
+        return blockAlign;
+    }
+
+    /**
+     * Returns the number of bits in the sample.
+     *
+     * @return the number of bits in the sample
+     */
+    public short getBitsPerSample() {
+        return bitsPerSample;
+    }
+
+    /**
+     * Returns the size of the audio data chunk.
+     *
+     * @return the size of the audio data chunk
+     */
+    public long getDataSize() {
+        return dataSize;
+    }
+
+    /**
+     * Calculates and returns the duration of the audio data in seconds.
+     *
+     * @return the value of the duration of the audio data
+     */
+    public double getAudioDuration() {
+        return byteRate == 0 ? 0 : (double) dataSize / byteRate;
+    }
+
+    /**
+     * Returns the text of the metadata field, or null if the file does not contain it.
+     *
+     * @param chunkId the identifier of the metadata field
+     * @return the text of the metadata field, or null if the file does not contain it
+     */
+    public String getInfo(INFOListChunkID chunkId) {
+        return info.get(chunkId);
+    }
+
+    /**
+     * Returns an unmodifiable map with all metadata fields of the file.
+     *
+     * @return an unmodifiable map with all metadata fields of the file
+     */
+    public Map<INFOListChunkID, String> getInfoMap() {
+        return info;
+    }
+
+}
@@ -5,6 +5,8 @@
 
 package ausf.software.file;
 
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.util.Arrays;
 
 /**
@@ -107,7 +109,7 @@ public abstract class Audio {
      *
      * @return the size of the audio data chunk of the file
      */
-    public int getDataSize() {
+    public long getDataSize() {
         return data.length;
     }
 
@@ -118,7 +120,7 @@ public abstract class Audio {
      *
      */
     public double getAudioDuration() {
-        return (double) data.length / (numChannels * sampleRate * (bitsPerSample / 8));
+        return (double) getDataSize() / ((long) sampleRate * getFrameSize());
     }
 
     /**
@@ -130,6 +132,15 @@ public abstract class Audio {
         return data;
     }
 
+    /**
+     * Returns a read-only little-endian buffer with the audio data.
+     *
+     * @return a read-only buffer with the audio data
+     */
+    public ByteBuffer getDataBuffer() {
+        return ByteBuffer.wrap(data).asReadOnlyBuffer().order(ByteOrder.LITTLE_ENDIAN);
+    }
+
     /**
      * Returns an array of audio data for the specified frame interval.
      *
@@ -138,8 +149,22 @@ public abstract class Audio {
      * @param stopPoint end frame
      */
     public byte[] getBytesTimeInterval(int startPoint, int stopPoint) {
-        return Arrays.copyOfRange(data, startPoint * numChannels * sampleRate * (bitsPerSample / 8),
-                stopPoint * numChannels * sampleRate * (bitsPerSample / 8));
+        long bytesPerSecond = (long) sampleRate * getFrameSize();
+        return Arrays.copyOfRange(data, (int) (startPoint * bytesPerSecond), (int) (stopPoint * bytesPerSecond));
+    }
+
+    /**
+     * Returns the number of bytes of one frame, including all channels. The block
+     * alignment is used when it is set, so packed 24-bit and float samples are
+     * measured by the size in which they are stored.
+     *
+     * @return the number of bytes of one frame
+     */
+    protected int getFrameSize() {
+        if (blockAlign > 0) {
+            return blockAlign;
+        }
+        return (bitsPerSample + 7) / 8 * numChannels;
     }
 
 }
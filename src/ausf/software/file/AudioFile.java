@@ -25,7 +25,7 @@ public abstract class AudioFile extends Audio {
     /**
      * Total file size.
      */
-    protected int fileSize;
+    protected long fileSize;
 
     /**
      * Returns the path to the file.
@@ -41,7 +41,7 @@ public abstract class AudioFile extends Audio {
      *
      * @return file size
      */
-    public int getFileSize() {
+    public long getFileSize() {
         return fileSize;
     }
 }
@@ -9,14 +9,29 @@ import ausf.software.constants.INFOListChunkID;
 import ausf.software.constants.audio.wav.WAVCodecRegistries;
 import ausf.software.constants.audio.wav.WAVContainerNameByte;
 import ausf.software.constants.audio.wav.WAVField;
+import ausf.software.constants.audio.wav.WAVSpeakerPosition;
 import ausf.software.containers.AudioData;
 import ausf.software.file.AudioFile;
 import ausf.software.containers.INFOChunkField;
+import ausf.software.containers.INFOMetadata;
+import ausf.software.util.BlockCache;
+import ausf.software.util.MappedFileRegion;
 import ausf.software.util.Math;
 
-import java.io.FileInputStream;
-import java.io.FileNotFoundException;
+import java.io.Closeable;
+import java.io.EOFException;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.ClosedByInterruptException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
 import java.util.*;
 
 /**
@@ -35,6 +50,9 @@ import java.util.*;
  * <p>Note that working with the object is not synchronized.
  * If several threads access an instance at the same time and at least one of the
  * threads changes the structure of the list, it must be synchronized from the outside.
+ * The positioned reads ({@link #read(long, ByteBuffer)} and the methods built on it)
+ * may be called by many threads at once: they share one file channel and do not
+ * change the state of the object.
  *
  * @author  Shcherbina Daniil
  * @see     ausf.software.io.writers.WAVFileWriter
@@ -46,26 +64,64 @@ import java.util.*;
  * @version 0.1.0
  */
 
-public class WAVFile extends AudioFile {
+public class WAVFile extends AudioFile implements Closeable {
 
     /**
      *  The value of the offset of the audio data chunk in the file.
      */
-    protected int dataOffset;
+    protected long dataOffset;
 
     /**
      * Size of the audio data array
      */
-    protected int dataSize;
+    protected long dataSize;
+
+    /**
+     * The identifier of the container of the file: RIFF, or RF64 and BW64
+     * for files whose sizes are stored in the "ds64" chunk.
+     */
+    protected WAVContainerNameByte container = WAVContainerNameByte.CONTAINER_RIFF;
+
+    /**
+     * True if the "ftm " chunk has the WAVE_FORMAT_EXTENSIBLE layout.
+     */
+    protected boolean extensible;
+    /**
+     * The speaker positions of the channels from the extended "ftm " chunk.
+     */
+    protected int channelMask;
+    /**
+     * The number of bits of the sample that hold the signal.
+     */
+    protected short validBitsPerSample;
 
     /**
      * A list containing objects of WAV chunk identifiers found in the read file.
      */
     protected List<WAVContainerNameByte> chunks = new ArrayList<>();
     /**
-     * A list containing objects of the INFOChunkField type containing the file metadata.
+     * The file metadata.
+     */
+    protected INFOMetadata info = new INFOMetadata();
+
+    /**
+     * The value of the offset of the "LIST" chunk with the file metadata in the file,
+     * or 0 if the file does not contain it.
+     */
+    protected long infoOffset;
+
+    /**
+     * A view of the audio data chunk of the read file mapped into memory.
+     */
+    private MappedFileRegion dataRegion;
+    /**
+     * The channel of the read file used by the positioned reads, opened on first use.
+     */
+    private volatile FileChannel dataChannel;
+    /**
+     * The identity of the read file in the block cache, found each time the channel is opened.
      */
-    protected List<INFOChunkField> infoFields = new ArrayList();
+    private volatile Object fileIdentity;
 
     /**
      * Creates a WAV file using an instance of the specified builder class.
@@ -82,10 +138,15 @@ public class WAVFile extends AudioFile {
         blockAlign = builder.blockAlign;
         bitsPerSample = builder.bitsPerSample;
         chunks = builder.chunks;
-        infoFields = builder.infoFields;
+        info = builder.info;
+        infoOffset = builder.infoOffset;
+        container = builder.container;
+        extensible = builder.extensible;
+        channelMask = builder.channelMask;
+        validBitsPerSample = builder.validBitsPerSample;
 
-        if (!builder.filePath.equals("") || builder.filePath != null) {
-            path = builder.filePath;
+        path = builder.filePath;
+        if (builder.data.length == 0 && path != null && !path.equals("")) {
             dataOffset = builder.dataOffset;
             data = new byte[0];
             dataSize = builder.dataSize;
@@ -113,34 +174,414 @@ public class WAVFile extends AudioFile {
      *
      * @return the value of the offset of the audio data chunk in the file
      */
-    public int getDataOffset() {
+    public long getDataOffset() {
         return dataOffset;
     }
 
-    // TODO: optimize - get rid of storage in memory of two almost identical arrays
     /**
-     * Returns an array of audio data bytes.
+     * Returns the size of the audio data chunk of the file.
+     *
+     * @return the size of the audio data chunk of the file
+     */
+    @Override
+    public long getDataSize() {
+        return dataSize;
+    }
+
+    /**
+     * Returns the identifier of the container of the file. Files larger than 4 GB
+     * are stored in the RF64 or BW64 container.
+     *
+     * @return the identifier of the container of the file
+     */
+    public WAVContainerNameByte getContainer() {
+        return container;
+    }
+
+    /**
+     * Returns true if the "ftm " chunk has the WAVE_FORMAT_EXTENSIBLE layout. The data
+     * compression format of such a file is taken from its subformat GUID.
+     *
+     * @return true if the "ftm " chunk has the extensible layout
+     */
+    public boolean isExtensible() {
+        return extensible;
+    }
+
+    /**
+     * Returns the channel mask of the extended "ftm " chunk, with one bit set for the
+     * speaker position of each channel, or 0 if the positions are not given.
+     *
+     * @return the channel mask
+     * @see WAVSpeakerPosition
+     */
+    public int getChannelMask() {
+        return channelMask;
+    }
+
+    /**
+     * Returns the speaker positions of the channels in the order of the channels.
+     *
+     * @return the speaker positions of the channels
+     */
+    public List<WAVSpeakerPosition> getSpeakerPositions() {
+        return WAVSpeakerPosition.fromMask(channelMask);
+    }
+
+    /**
+     * Returns the number of bits of the sample that hold the signal, for example 20
+     * for 20-bit samples stored in 24 bits. Equals the number of bits in the sample
+     * unless the extended "ftm " chunk gives another number.
+     *
+     * @return the number of bits of the sample that hold the signal
+     */
+    public short getValidBitsPerSample() {
+        return validBitsPerSample;
+    }
+
+    /**
+     * Returns the subformat GUID of the extended "ftm " chunk, derived from
+     * the data compression format.
+     *
+     * @return the 16 bytes of the subformat GUID
+     */
+    public byte[] getSubFormat() {
+        byte[] guid = new byte[WAVField.SUB_FORMAT.getSize()];
+        WAVCodecRegistries.putSubFormat(audioFormat, guid, 0);
+        return guid;
+    }
+
+    /**
+     * Returns an array of audio data bytes. If the data has not been loaded yet,
+     * only the audio data chunk is read from the file.
      *
      * @return an array of audio data bytes
      */
     @Override
     public byte[] getData() {
         if (data == null || data.length == 0) {
-            byte[] tmp = new byte[0];
+            ByteBuffer buffer = getDataBuffer();
+            byte[] tmp = new byte[buffer.remaining()];
+            buffer.get(tmp);
+            data = tmp;
+        }
+        return data;
+    }
+
+    /**
+     * Returns a read-only buffer with the audio data. For a read file the buffer
+     * is mapped into memory and the file is not loaded into the heap.
+     *
+     * @return a read-only buffer with the audio data
+     * @throws IllegalStateException if the audio data is larger than a single buffer can hold
+     */
+    @Override
+    public ByteBuffer getDataBuffer() {
+        if (!isFileBacked()) {
+            return ByteBuffer.wrap(data).asReadOnlyBuffer().order(ByteOrder.LITTLE_ENDIAN);
+        }
+        try {
+            return getDataRegion().getBuffer();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        return ByteBuffer.allocate(0).asReadOnlyBuffer().order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Returns a read-only buffer with the fragment of the audio data. For a read file
+     * only the pages of the fragment are read, which allows working with files larger
+     * than 2 GB.
+     *
+     * @param position the position of the fragment in the audio data
+     * @param size the size of the fragment
+     * @return a read-only buffer with the fragment of the audio data
+     */
+    public ByteBuffer getDataBuffer(long position, int size) {
+        if (!isFileBacked()) {
+            ByteBuffer buffer = ByteBuffer.wrap(data, (int) position, size).slice();
+            return buffer.asReadOnlyBuffer().order(ByteOrder.LITTLE_ENDIAN);
+        }
+        try {
+            return getDataRegion().getBuffer(position, size);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        return ByteBuffer.allocate(0).asReadOnlyBuffer().order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Returns an array of audio data for the specified time interval. For a read file
+     * only the requested fragment is read.
+     *
+     * @return an array of audio data bytes for the specified time interval
+     * @param startPoint initial second
+     * @param stopPoint end second
+     */
+    @Override
+    public byte[] getBytesTimeInterval(int startPoint, int stopPoint) {
+        long bytesPerSecond = (long) sampleRate * getFrameSize();
+        long start = startPoint * bytesPerSecond;
+        int size = (int) ((stopPoint - startPoint) * bytesPerSecond);
+
+        byte[] interval = new byte[size];
+        getDataBuffer(start, size).get(interval);
+        return interval;
+    }
+
+    /**
+     * Returns the number of frames of the audio data.
+     *
+     * @return the number of frames of the audio data
+     */
+    public long getFrameCount() {
+        return getDataSize() / getFrameSize();
+    }
+
+    /**
+     * Returns the number of the frame at the specified time from the beginning of the audio data.
+     *
+     * @param time the time from the beginning of the audio data
+     * @return the number of the frame
+     */
+    public long getFrame(Duration time) {
+        return time.getSeconds() * sampleRate + (long) time.getNano() * sampleRate / 1_000_000_000L;
+    }
+
+    /**
+     * Returns the time of the frame from the beginning of the audio data.
+     *
+     * @param frame the number of the frame
+     * @return the time from the beginning of the audio data
+     */
+    public Duration getTime(long frame) {
+        return Duration.ofSeconds(frame / sampleRate, frame % sampleRate * 1_000_000_000L / sampleRate);
+    }
+
+    /**
+     * Reads whole frames starting from the specified frame into the buffer, as many as
+     * fit into its remaining space, up to the end of the audio data. For a read file the
+     * frames are read with a positioned read of the file channel, without mapping or
+     * loading the file, so many threads can read different parts of the file at once.
+     * The blocks of the file are taken from the shared {@link BlockCache} when it is on,
+     * so the parts of the file read often are read from the disk once for all readers.
+     * A change of the file is detected by its size and modification time only when this
+     * instance opens its channel, on the first read and after {@link #close()}; an open
+     * instance keeps reading the blocks of the version of the file it found, so it
+     * should be closed after the file is changed.
+     *
+     * @param frame the number of the first frame
+     * @param target the buffer receiving the frames at its position
+     * @return the number of frames read, or -1 if the frame is the end of the audio data
+     * @throws IOException if the file can not be read
+     * @throws IndexOutOfBoundsException if the frame is outside the audio data
+     */
+    public int read(long frame, ByteBuffer target) throws IOException {
+        long frames = getFrameCount();
+        if (frame < 0 || frame > frames) {
+            throw new IndexOutOfBoundsException("Frame " + frame + " outside 0.." + frames + ".");
+        }
+        if (frame == frames) {
+            return -1;
+        }
+        int frameSize = getFrameSize();
+        int count = (int) java.lang.Math.min(target.remaining() / frameSize, frames - frame);
+        int size = count * frameSize;
+        if (!isFileBacked()) {
+            target.put(data, (int) (frame * frameSize), size);
+            return count;
+        }
+        int limit = target.limit();
+        target.limit(target.position() + size);
+        try {
+            readFully(dataOffset + WAVField.CHUNK_SIZE.getFieldEnd() + frame * frameSize, target);
+        } finally {
+            target.limit(limit);
+        }
+        return count;
+    }
+
+    /**
+     * Reads whole frames starting from the frame at the specified time into the buffer.
+     *
+     * @param time the time of the first frame from the beginning of the audio data
+     * @param target the buffer receiving the frames at its position
+     * @return the number of frames read, or -1 if the time is the end of the audio data
+     * @throws IOException if the file can not be read
+     * @throws IndexOutOfBoundsException if the time is outside the audio data
+     * @see #read(long, ByteBuffer)
+     */
+    public int read(Duration time, ByteBuffer target) throws IOException {
+        return read(getFrame(time), target);
+    }
+
+    /**
+     * Returns an array of audio data for the specified range of frames, read with
+     * a positioned read. The range is limited to the audio data.
+     *
+     * @param startFrame the first frame
+     * @param stopFrame the frame after the last frame
+     * @return an array of audio data bytes for the range of frames
+     * @throws IOException if the file can not be read
+     */
+    public byte[] getFrameInterval(long startFrame, long stopFrame) throws IOException {
+        long frames = getFrameCount();
+        long first = java.lang.Math.min(java.lang.Math.max(startFrame, 0), frames);
+        long last = java.lang.Math.min(java.lang.Math.max(stopFrame, first), frames);
+        ByteBuffer interval = ByteBuffer.allocate(java.lang.Math.toIntExact((last - first) * getFrameSize()));
+        if (last > first) {
+            read(first, interval);
+        }
+        return interval.array();
+    }
+
+    /**
+     * Returns an array of audio data for the specified time interval, aligned to whole frames.
+     *
+     * @param start the start of the interval
+     * @param stop the end of the interval
+     * @return an array of audio data bytes for the time interval
+     * @throws IOException if the file can not be read
+     */
+    public byte[] getBytesTimeInterval(Duration start, Duration stop) throws IOException {
+        return getFrameInterval(getFrame(start), getFrame(stop));
+    }
+
+    /**
+     * Closes the file channel used by the positioned reads. The channel is opened
+     * again by the next read, which also checks whether the file has changed.
+     *
+     * @throws IOException if the channel can not be closed
+     */
+    @Override
+    public void close() throws IOException {
+        FileChannel channel;
+        synchronized (this) {
+            channel = dataChannel;
+            dataChannel = null;
+        }
+        if (channel != null) {
+            channel.close();
+        }
+    }
+
+    /**
+     * Fills the remaining space of the buffer from the file at the specified position,
+     * through the shared block cache when it is on.
+     *
+     * @param position the position in the file
+     * @param target the buffer to be filled
+     * @throws IOException if the file can not be read or ends before the buffer is filled
+     */
+    private void readFully(long position, ByteBuffer target) throws IOException {
+        BlockCache cache = BlockCache.getShared();
+        if (cache != null) {
+            cache.read(getFileIdentity(), this::readFile, position, target);
+        } else {
+            readFile(position, target);
+        }
+        if (target.hasRemaining()) {
+            throw new EOFException("Unexpected end of " + path + ".");
+        }
+    }
+
+    /**
+     * Fills the remaining space of the buffer from the file at the specified position,
+     * stopping early only at the end of the file. A channel closed by another thread
+     * being interrupted is opened again.
+     *
+     * @param position the position in the file
+     * @param target the buffer to be filled
+     * @throws IOException if the file can not be read
+     */
+    private void readFile(long position, ByteBuffer target) throws IOException {
+        int start = target.position();
+        boolean reopened = false;
+        while (target.hasRemaining()) {
             try {
-                FileInputStream inputStream = new FileInputStream(path);
-                tmp = new byte[inputStream.available()];
-                inputStream.read(tmp);
-            } catch (FileNotFoundException e) {
-                e.printStackTrace();
-            } catch (IOException e) {
-                e.printStackTrace();
+                if (getDataChannel().read(target, position + target.position() - start) < 0) {
+                    return;
+                }
+            } catch (ClosedChannelException e) {
+                if (e instanceof ClosedByInterruptException || reopened) {
+                    throw e;
+                }
+                reopened = true;
+            }
+        }
+    }
+
+    /**
+     * Returns the identity of the file in the block cache: the key of the file in the
+     * file system, or its real path, with its size and modification time, so that a
+     * changed file is not read from the blocks of its previous version. The identity
+     * is found again each time the channel of the file is opened.
+     *
+     * @return the identity of the file
+     * @throws IOException if the file can not be opened or its attributes can not be read
+     */
+    private Object getFileIdentity() throws IOException {
+        getDataChannel();
+        return fileIdentity;
+    }
+
+    /**
+     * Returns the open channel of the file, opening it if necessary. Opening the
+     * channel finds the identity of the file again; the blocks of a previous version
+     * of the file are removed from the shared block cache.
+     *
+     * @return the channel of the file
+     * @throws IOException if the file can not be opened or its attributes can not be read
+     */
+    private FileChannel getDataChannel() throws IOException {
+        FileChannel channel = dataChannel;
+        if (channel != null && channel.isOpen()) {
+            return channel;
+        }
+        synchronized (this) {
+            if (dataChannel == null || !dataChannel.isOpen()) {
+                Path file = Paths.get(path);
+                FileChannel opened = FileChannel.open(file, StandardOpenOption.READ);
+                Object identity;
+                try {
+                    BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+                    Object key = attributes.fileKey() != null ? attributes.fileKey() : file.toRealPath().toString();
+                    identity = Arrays.asList(key, attributes.size(), attributes.lastModifiedTime().toMillis());
+                } catch (IOException e) {
+                    opened.close();
+                    throw e;
+                }
+                Object previous = fileIdentity;
+                BlockCache cache = BlockCache.getShared();
+                if (previous != null && !previous.equals(identity) && cache != null) {
+                    cache.invalidate(previous);
+                }
+                fileIdentity = identity;
+                dataChannel = opened;
             }
+            return dataChannel;
+        }
+    }
+
+    /**
+     * Returns true if the audio data is in the file and has not been loaded into memory.
+     *
+     * @return true if the audio data is in the file and has not been loaded into memory
+     */
+    private boolean isFileBacked() {
+        return (data == null || data.length == 0) && path != null && dataSize != 0;
+    }
 
-            data = Arrays.copyOfRange(tmp, dataOffset + 8, dataOffset + dataSize);
-            tmp = new byte[0];
+    /**
+     * Returns the view of the audio data chunk of the file, creating it if necessary.
+     *
+     * @return the view of the audio data chunk of the file
+     */
+    private MappedFileRegion getDataRegion() {
+        if (dataRegion == null) {
+            dataRegion = new MappedFileRegion(path, dataOffset + WAVField.CHUNK_SIZE.getFieldEnd(), dataSize);
         }
-        return data;
+        return dataRegion;
     }
 
     /**
@@ -150,29 +591,61 @@ public class WAVFile extends AudioFile {
      * @param text the text of the file information field to be added
      */
     public void addInfo(INFOListChunkID chunkId, String text) {
-        infoFields.add(new INFOChunkField(chunkId, text));
+        info.set(chunkId, text);
+    }
+
+    /**
+     * Returns the text of the field with information about the file,
+     * or null if the file does not contain it.
+     *
+     * @param chunkId id of the type of line with information about the file
+     * @return the text of the field, or null if the file does not contain it
+     */
+    public String getInfo(INFOListChunkID chunkId) {
+        return info.get(chunkId);
+    }
+
+    /**
+     * Returns the file metadata. Changes to the returned object change the metadata of this file.
+     *
+     * @return the file metadata
+     * @see INFOMetadata
+     */
+    public INFOMetadata getInfo() {
+        return info;
+    }
+
+    /**
+     * Returns the value of the offset of the "LIST" chunk with the file metadata
+     * in the file, or 0 if the file does not contain it.
+     *
+     * @return the value of the offset of the "LIST" chunk with the file metadata in the file
+     */
+    public long getInfoOffset() {
+        return infoOffset;
     }
 
     /**
      * Returns a list containing objects of the INFOChunkField type containing the file metadata.
+     * The list is a copy; use {@link #addInfo} to change the metadata.
      *
      * @return a list containing objects of the INFOChunkField type containing the file metadata
      * @see INFOChunkField
      */
     public List getInfoList() {
-        return infoFields;
+        return info.toList();
     }
 
-    // TODO: optimize - get rid of storage in memory of two almost identical arrays
     /**
      * Converts a WAV File type object to an Audio Data type object and returns it.
+     * The returned object shares the array of audio data bytes with this file.
      *
      * @return an object of the AudioData type created from the WAVFile object
      * @see AudioData
      */
     public AudioData getAudioData() {
         return new AudioData(audioFormat, numChannels, sampleRate, byteRate, blockAlign, bitsPerSample,
-                            Arrays.copyOfRange(getData(), dataOffset + 8, dataOffset + data.length));
+                            getData());
     }
 
     /**
@@ -181,22 +654,23 @@ public class WAVFile extends AudioFile {
      * @return calculated the estimated file size
      */
     //TODO: review algorithm
-    private int initFileSize() {
-        int tmp = 0;
-        if (audioFormat == WAVCodecRegistries.FORMAT_PCM.getIndex()) {
+    private long initFileSize() {
+        long tmp = 0;
+        if (audioFormat == WAVCodecRegistries.FORMAT_PCM.getIndex()
+                || audioFormat == WAVCodecRegistries.FORMAT_IEEE_FLOAT.getIndex()
+                || audioFormat == WAVCodecRegistries.FORMAT_ALAW.getIndex()
+                || audioFormat == WAVCodecRegistries.FORMAT_MULAW.getIndex()) {
             tmp = data.length + WAVField.CONTAINER_RIFF.getSize() + WAVField.RIFF_CONTAINER_SIZE.getSize()
                     + WAVField.FORMAT_TAG.getSize() + WAVField.CHUNK_FTM.getSize() + WAVField.CHUNK_FTM_SIZE.getSize()
                     + WAVField.AUDIO_FORMAT.getSize() + WAVField.NUMBER_CHANNELS.getSize() + WAVField.SAMPLE_RATE.getSize()
                     + WAVField.BYTE_RATE.getSize() + WAVField.BLOCK_ALIGN.getSize() + WAVField.BITS_PER_SAMPLE.getSize()
                     + WAVField.CHUNK_DATA.getSize() + WAVField.DATA_SIZE.getSize();
-
-            if (infoFields.size() != 0) {
-                tmp += WAVField.CHUNK_INFO.getSize() + WAVField.LIST_CONTAINER.getSize();
-                for (int i = 0; i < infoFields.size(); i++) {
-                    tmp += infoFields.get(i).getSize();
-                }
+            if (extensible) {
+                tmp += WAVField.SUB_FORMAT.getFieldEnd() - WAVField.BITS_PER_SAMPLE.getFieldEnd();
             }
 
+            tmp += info.getChunkSize();
+
         }
 
         return tmp;
@@ -231,7 +705,7 @@ public class WAVFile extends AudioFile {
         /**
          * Total file size.
          */
-        private int fileSize;
+        private long fileSize;
 
         /**
          * Audio data to be placed in the file
@@ -271,12 +745,12 @@ public class WAVFile extends AudioFile {
         /**
          *  The value of the offset of the audio data chunk in the file.
          */
-        private int dataOffset;
+        private long dataOffset;
 
         /**
          * Size of the audio data array.
          */
-        private int dataSize;
+        private long dataSize;
 
         /**
          * Returns an instance of the WAV file builder class with a modified audio data size field
@@ -284,7 +758,7 @@ public class WAVFile extends AudioFile {
          * @return an instance of the WAV file builder class with a modified audio data size field
          * @param dataSize Size of the audio data array.
          */
-        public WAVFileBuilder dataSize(int dataSize) {
+        public WAVFileBuilder dataSize(long dataSize) {
             this.dataSize = dataSize;
             return this;
         }
@@ -294,9 +768,32 @@ public class WAVFile extends AudioFile {
          */
         private List<WAVContainerNameByte> chunks = new ArrayList<>();
         /**
-         * A list containing objects of the INFOChunkField type containing the file metadata.
+         * The file metadata.
+         */
+        private INFOMetadata info = new INFOMetadata();
+
+        /**
+         * The value of the offset of the "LIST" chunk with the file metadata in the file.
+         */
+        private long infoOffset;
+
+        /**
+         * The identifier of the container of the file.
+         */
+        private WAVContainerNameByte container = WAVContainerNameByte.CONTAINER_RIFF;
+
+        /**
+         * True if the "ftm " chunk has the WAVE_FORMAT_EXTENSIBLE layout.
+         */
+        private boolean extensible;
+        /**
+         * The speaker positions of the channels.
+         */
+        private int channelMask = -1;
+        /**
+         * The number of bits of the sample that hold the signal.
          */
-        private List<INFOChunkField> infoFields = new ArrayList();
+        private short validBitsPerSample;
 
         /**
          * Returns an instance of the WAVFileBuilder class with the modified file path field
@@ -315,7 +812,7 @@ public class WAVFile extends AudioFile {
          * @return an instance of the WAVFileBuilder class with the modified file size field
          * @param fileSize file size
          */
-        public WAVFileBuilder fileSize(int fileSize) {
+        public WAVFileBuilder fileSize(long fileSize) {
             this.fileSize = fileSize;
             return this;
         }
@@ -413,7 +910,7 @@ public class WAVFile extends AudioFile {
          * @return returns an instance of WAV File Builder with the changed offset position in the audio data file
          * @param dataOffset offset position in the audio data file
          */
-        public WAVFileBuilder dataOffset(int dataOffset) {
+        public WAVFileBuilder dataOffset(long dataOffset) {
             this.dataOffset = dataOffset;
             return this;
         }
@@ -438,7 +935,86 @@ public class WAVFile extends AudioFile {
          * @param infoFields list of INFO chunk information fields
          */
         public WAVFileBuilder infoFields(List<INFOChunkField> infoFields) {
-            this.infoFields = infoFields;
+            info = new INFOMetadata();
+            for (INFOChunkField field : infoFields) {
+                info.set(field.getChunkID(), field.getText());
+            }
+            return this;
+        }
+
+        /**
+         * Returns an instance of the WAVFileBuilder class with the modified file metadata
+         *
+         * @return an instance of the WAVFileBuilder class with the modified file metadata
+         * @param info the file metadata
+         */
+        public WAVFileBuilder info(INFOMetadata info) {
+            this.info = info;
+            return this;
+        }
+
+        /**
+         * Returns an instance of the WAVFileBuilder class with the modified offset
+         * of the "LIST" chunk with the file metadata in the file
+         *
+         * @return an instance of the WAVFileBuilder class with the modified offset
+         * of the "LIST" chunk with the file metadata in the file
+         * @param infoOffset offset of the "LIST" chunk with the file metadata in the file
+         */
+        public WAVFileBuilder infoOffset(long infoOffset) {
+            this.infoOffset = infoOffset;
+            return this;
+        }
+
+        /**
+         * Returns an instance of the WAVFileBuilder class with the modified identifier
+         * of the container of the file
+         *
+         * @return an instance of the WAVFileBuilder class with the modified identifier
+         * of the container of the file
+         * @param container the identifier of the container: RIFF, RF64 or BW64
+         */
+        public WAVFileBuilder container(WAVContainerNameByte container) {
+            this.container = container;
+            return this;
+        }
+
+        /**
+         * Returns an instance of the WAVFileBuilder class with the modified layout of the
+         * "ftm " chunk. The writers use the extensible layout for files with more than
+         * two channels even if it is not selected; read files keep the layout they have.
+         *
+         * @return an instance of the WAVFileBuilder class with the modified layout of the "ftm " chunk
+         * @param extensible true to write the WAVE_FORMAT_EXTENSIBLE layout
+         */
+        public WAVFileBuilder extensible(boolean extensible) {
+            this.extensible = extensible;
+            return this;
+        }
+
+        /**
+         * Returns an instance of the WAVFileBuilder class with the modified channel mask.
+         * Setting the mask selects the extensible layout of the "ftm " chunk.
+         *
+         * @return an instance of the WAVFileBuilder class with the modified channel mask
+         * @param channelMask the speaker positions of the channels, 0 if they are not given
+         * @see WAVSpeakerPosition
+         */
+        public WAVFileBuilder channelMask(int channelMask) {
+            this.channelMask = channelMask;
+            extensible = true;
+            return this;
+        }
+
+        /**
+         * Returns an instance of the WAVFileBuilder class with the modified number of
+         * bits of the sample that hold the signal.
+         *
+         * @return an instance of the WAVFileBuilder class with the modified number of valid bits
+         * @param validBitsPerSample the number of bits of the sample that hold the signal
+         */
+        public WAVFileBuilder validBitsPerSample(short validBitsPerSample) {
+            this.validBitsPerSample = validBitsPerSample;
             return this;
         }
 
@@ -479,6 +1055,12 @@ public class WAVFile extends AudioFile {
                 if(byteRate == 0) {
                     byteRate = Math.getByteRate(sampleRate, blockAlign);
                 }
+                if(channelMask == -1) {
+                    channelMask = extensible ? WAVSpeakerPosition.getDefaultMask(numChannels) : 0;
+                }
+                if(validBitsPerSample == 0) {
+                    validBitsPerSample = bitsPerSample;
+                }
                 if(data == null){
                     data = new byte[0];
                 }
@@ -6,6 +6,7 @@
 package ausf.software.io;
 
 import ausf.software.util.ByteBufferReader;
+import ausf.software.util.LittleEndian;
 
 import java.nio.ByteBuffer;
 import java.util.Arrays;
@@ -41,13 +42,90 @@ public abstract class Reader {
      */
     protected String path;
 
+    /**
+     * Reads a little-endian 16-bit number at the specified offset in the buffer byte array.
+     *
+     * @param offset the offset of the field in the buffer byte array
+     * @return the read number
+     */
+    protected short readShort(int offset) {
+        return LittleEndian.getShort(buffer, offset);
+    }
+
+    /**
+     * Reads a little-endian 32-bit number at the specified offset in the buffer byte array.
+     *
+     * @param offset the offset of the field in the buffer byte array
+     * @return the read number
+     */
+    protected int readInt(int offset) {
+        return LittleEndian.getInt(buffer, offset);
+    }
+
+    /**
+     * Reads a little-endian unsigned 32-bit number at the specified offset in the buffer byte array.
+     *
+     * @param offset the offset of the field in the buffer byte array
+     * @return the read number
+     */
+    protected long readUnsignedInt(int offset) {
+        return LittleEndian.getUnsignedInt(buffer, offset);
+    }
+
+    /**
+     * Reads a little-endian 64-bit number at the specified offset in the buffer byte array.
+     *
+     * @param offset the offset of the field in the buffer byte array
+     * @return the read number
+     */
+    protected long readLong(int offset) {
+        return LittleEndian.getLong(buffer, offset);
+    }
+
+    /**
+     * Returns true if the buffer byte array contains the identifier at the specified offset.
+     * The buffer is compared in place, without copying.
+     *
+     * @param offset the offset of the identifier in the buffer byte array
+     * @param identifier an array of bytes of the identifier
+     * @return true if the buffer byte array contains the identifier at the specified offset
+     */
+    protected boolean isBufferArea(int offset, byte[] identifier) {
+        return offset + identifier.length <= buffer.length
+                && Arrays.equals(buffer, offset, offset + identifier.length, identifier, 0, identifier.length);
+    }
+
+    /**
+     * Extends the buffer byte array with the bytes that follow it in the file, if the
+     * fragment at the specified offset does not fit into it. A field found near the
+     * end of one page of the file is then read whole, and not past the end of the
+     * array. The bytes after the end of the file are zeros.
+     *
+     * @param bufferPosition the position in the file of the first byte of the buffer byte array
+     * @param offset the offset of the fragment in the buffer byte array
+     * @param endArea the end point of the fragment in the buffer byte array
+     */
+    protected void extendBuffer(long bufferPosition, int offset, int endArea) {
+        if (offset < 0 || endArea <= buffer.length) {
+            return;
+        }
+        byte[] following = new byte[endArea - buffer.length];
+        reader.read(bufferPosition + buffer.length, following, following.length);
+
+        byte[] extended = Arrays.copyOf(buffer, endArea);
+        System.arraycopy(following, 0, extended, buffer.length, following.length);
+        buffer = extended;
+    }
+
     /**
      * Converting an array to a buffer to further convert the buffer to a number.
      *
      * @param offset the offset of the fragment in the buffer byte array
      * @param endField the end point of the fragment in the buffer byte array
      * @return the ByteBuffer received during the conversion of the input array
+     * @deprecated copies the fragment twice; use {@link #readShort(int)} or {@link #readInt(int)}
      */
+    @Deprecated
     protected ByteBuffer convertAreaArrayToBuffer(int offset, int endField) {
         return ByteBuffer.wrap(getByteArrayField(offset, endField));
     }
@@ -0,0 +1,142 @@
+/*
+ * Copyright © 2021 Shcherbina Daniil
+ * License: http://opensource.org/licenses/MIT
+ */
+
+package ausf.software.io.readers;
+
+import ausf.software.constants.INFOListChunkID;
+import ausf.software.containers.WAVFileDescriptor;
+import ausf.software.file.audio.WAVFile;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Implementation of reading the parameters and metadata of WAV files
+ * without reading their audio data.
+ *
+ * <p>Only the RIFF header, the "ftm " chunk and the "INFO" list are read;
+ * the "data" chunk is skipped by its size. Directory trees are probed in
+ * parallel on a fixed number of threads, and the queue of files waiting
+ * to be probed is bounded, so the walk over the tree never runs far ahead
+ * of the threads.
+ *
+ * @see     WAVFileReader
+ * @see     WAVFileDescriptor
+ * @author  Shcherbina Daniil
+ * @since   0.2.0
+ * @version 0.2.0
+ */
+public class WAVFileProbe {
+
+    /**
+     * The extension of the files probed in a directory tree.
+     */
+    private static final String EXTENSION = ".wav";
+
+    /**
+     * The number of threads probing files.
+     */
+    private final int parallelism;
+
+    /**
+     * Creates an instance that probes directory trees on as many threads as there are processors.
+     */
+    public WAVFileProbe() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Creates an instance that probes directory trees on the specified number of threads.
+     *
+     * @param parallelism the number of threads probing files
+     */
+    public WAVFileProbe(int parallelism) {
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Reads the parameters and metadata of the WAV file.
+     *
+     * @param path file path
+     * @return the parameters and metadata of the file, or null if the file is not a correct WAV file
+     */
+    public WAVFileDescriptor probe(String path) {
+        WAVFile wavFile = new WAVFileReader(path).read();
+        if (wavFile == null) {
+            return null;
+        }
+
+        Map<INFOListChunkID, String> info = new EnumMap<>(INFOListChunkID.class);
+        for (INFOListChunkID id : INFOListChunkID.values()) {
+            if (wavFile.getInfo().contains(id)) {
+                info.put(id, wavFile.getInfo(id));
+            }
+        }
+
+        return new WAVFileDescriptor(path, wavFile.getFileSize(), wavFile.getAudioCodec(),
+                wavFile.getNumberAudioChanel(), wavFile.getSampleRate(), wavFile.getByteRate(),
+                wavFile.getBlockAlign(), wavFile.getBitsPerSample(), wavFile.getDataSize(), info);
+    }
+
+    /**
+     * Reads the parameters and metadata of all WAV files in the directory tree.
+     *
+     * @param directory the path to the root of the directory tree
+     * @return a list with the parameters and metadata of the correct WAV files
+     * @throws IOException if the directory tree can not be walked
+     */
+    public List<WAVFileDescriptor> probeTree(String directory) throws IOException {
+        List<WAVFileDescriptor> descriptors = Collections.synchronizedList(new ArrayList<>());
+        probeTree(directory, descriptors::add);
+        return new ArrayList<>(descriptors);
+    }
+
+    /**
+     * Reads the parameters and metadata of all WAV files in the directory tree and
+     * passes each of them to the consumer as soon as it is read. The consumer is
+     * called from several threads at once.
+     *
+     * @param directory the path to the root of the directory tree
+     * @param consumer the receiver of the parameters and metadata of the correct WAV files
+     * @throws IOException if the directory tree can not be walked
+     */
+    public void probeTree(String directory, Consumer<WAVFileDescriptor> consumer) throws IOException {
+        // when the queue is full the walking thread probes the file itself
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(parallelism, parallelism, 0, TimeUnit.MILLISECONDS,
+                                                            new ArrayBlockingQueue<>(parallelism * 4),
+                                                            new ThreadPoolExecutor.CallerRunsPolicy());
+        try (Stream<Path> files = Files.walk(Paths.get(directory))) {
+            files.filter(Files::isRegularFile)
+                    .filter(file -> file.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(EXTENSION))
+                    .forEach(file -> executor.execute(() -> {
+                        WAVFileDescriptor descriptor = probe(file.toString());
+                        if (descriptor != null) {
+                            consumer.accept(descriptor);
+                        }
+                    }));
+        } finally {
+            executor.shutdown();
+            try {
+                executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+}
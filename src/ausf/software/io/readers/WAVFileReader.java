@@ -5,10 +5,13 @@
 
 package ausf.software.io.readers;
 
+import ausf.software.codecs.PCMConverter;
 import ausf.software.constants.*;
+import ausf.software.constants.audio.wav.WAVCodecRegistries;
 import ausf.software.constants.audio.wav.WAVContainerNameByte;
 import ausf.software.constants.audio.wav.WAVField;
-import ausf.software.containers.INFOChunkField;
+import ausf.software.constants.audio.wav.WAVParserMode;
+import ausf.software.containers.INFOMetadata;
 import ausf.software.file.audio.WAVFile;
 import ausf.software.io.Reader;
 import ausf.software.util.ByteBufferReader;
@@ -25,38 +28,81 @@ import java.util.List;
  * @see     ausf.software.file.audio.WAVFile.WAVFileBuilder
  * @author  Shcherbina Daniil
  * @since   0.1.0
- * @version 0.1.0
+ * @version 0.2.0
  */
 public class WAVFileReader extends Reader {
 
+    /**
+     * The initial size of the buffer for reading chunk headers.
+     */
+    private static final int HEADER_BUFFER_SIZE = 64;
+    /**
+     * The value of a 32-bit size field whose actual value is stored in the "ds64" chunk.
+     */
+    private static final long DS64_SIZE_PLACEHOLDER = 0xFFFFFFFFL;
+
     /**
      * A list containing objects of WAV chunk identifiers found in the read file.
      */
     protected List<WAVContainerNameByte> chunks = new ArrayList<>();
     /**
-     * A list containing objects of the INFOChunkField type containing the file metadata.
+     * The file metadata.
+     */
+    protected INFOMetadata info = new INFOMetadata();
+
+    /**
+     *  The value of the offset of the "LIST" chunk with the file metadata in the file.
      */
-    protected List<INFOChunkField> infoFields = new ArrayList();
+    private long infoOffset;
 
     /**
      * Size of the audio data array
      */
-    private int dataSize;
+    private long dataSize;
 
     /**
      *  The value of the offset of the audio data chunk in the file.
      */
-    private int dataOffset;
+    private long dataOffset;
+
+    /**
+     * The identifier of the container of the file.
+     */
+    private WAVContainerNameByte container = WAVContainerNameByte.CONTAINER_RIFF;
+
+    /**
+     * The 64-bit size of the "data" chunk read from the "ds64" chunk.
+     */
+    private long ds64DataSize;
+
+    /**
+     * The way in which the reader finds chunks in the file.
+     */
+    private WAVParserMode parserMode;
 
     private WAVFile.WAVFileBuilder wavFileBuilder;
 
     /**
      * Creates an instance of a WAV file reader with the specified path to the file to be read.
+     * Chunks are found by their headers.
      *
      * @param path file path
+     * @see WAVParserMode#CHUNK_DIRECTED
      */
     public WAVFileReader(String path) {
+        this(path, WAVParserMode.CHUNK_DIRECTED);
+    }
+
+    /**
+     * Creates an instance of a WAV file reader with the specified path to the file to be read
+     * and the way of finding chunks in it.
+     *
+     * @param path file path
+     * @param parserMode the way of finding chunks in the file
+     */
+    public WAVFileReader(String path, WAVParserMode parserMode) {
         this.path = path;
+        this.parserMode = parserMode;
         reader = new ByteBufferReader(path);
         wavFileBuilder = new WAVFile.WAVFileBuilder();
     }
@@ -67,21 +113,41 @@ public class WAVFileReader extends Reader {
      * @return returns a WAV file object created based on the read data
      */
     public WAVFile read() {
-        buffer = reader.getBuffer(BufferSizes.WAVE_BUFFER_SIZE.getSize());
+        if (parserMode == WAVParserMode.CHUNK_DIRECTED) {
+            buffer = new byte[HEADER_BUFFER_SIZE];
+            fillBuffer(0, WAVField.FORMAT_TAG.getFieldEnd());
+        } else {
+            buffer = reader.getBuffer(BufferSizes.WAVE_BUFFER_SIZE.getSize());
+        }
         if(checkHeader()){
             readFileSize();
-            findChunkID();
-            reader.close();
+            if (parserMode == WAVParserMode.CHUNK_DIRECTED) {
+                walkChunks();
+            } else {
+                // the "ds64" chunk must follow the form type of an RF64 file
+                if (isDS64Chunk(WAVField.FORMAT_TAG.getFieldEnd())) {
+                    extendBuffer(0, WAVField.FORMAT_TAG.getFieldEnd(),
+                                    WAVField.FORMAT_TAG.getFieldEnd() + WAVField.DS64_TABLE_LENGTH.getFieldEnd());
+                    readDS64Fields(WAVField.FORMAT_TAG.getFieldEnd());
+                }
+                findChunkID();
+                readListChunk();
+            }
         }
+        reader.close();
         checkChunks();
 
         wavFileBuilder = wavFileBuilder.chunks(chunks);
-        wavFileBuilder = wavFileBuilder.infoFields(infoFields);
+        wavFileBuilder = wavFileBuilder.info(info);
+        wavFileBuilder = wavFileBuilder.infoOffset(infoOffset);
+        wavFileBuilder = wavFileBuilder.container(container);
         wavFileBuilder = wavFileBuilder.filePath(path);
         wavFileBuilder = wavFileBuilder.dataOffset(dataOffset);
         wavFileBuilder = wavFileBuilder.dataSize(dataSize);
 
-        return wavFileBuilder.build();
+        WAVFile wavFile = wavFileBuilder.build();
+        checkFormat(wavFile);
+        return wavFile;
     }
 
     /**
@@ -105,12 +171,50 @@ public class WAVFileReader extends Reader {
      */
     private void readFTMChunk(int offset) {
         chunks.add(0, WAVContainerNameByte.CHUNK_FTM);
-            readAudioCodec(offset);
-            readNumberAudioChanel(offset);
-            readSampleRate(offset);
-            readByteRate(offset);
-            readBlockAlign(offset);
-            readBitsPerSample(offset);
+        extendBuffer((long) bufferPageNumber * BufferSizes.WAVE_BUFFER_SIZE.getSize(),
+                        offset, offset + WAVField.SUB_FORMAT.getFieldEnd());
+        readFTMFields(offset);
+    }
+
+    /**
+     * Reads the fields of the "ftm " chunk.
+     *
+     * @param offset the chunk offset in the buffer array
+     */
+    private void readFTMFields(int offset) {
+        readAudioCodec(offset);
+        readNumberAudioChanel(offset);
+        readSampleRate(offset);
+        readByteRate(offset);
+        readBlockAlign(offset);
+        readBitsPerSample(offset);
+        if (readShort(offset + WAVField.AUDIO_FORMAT.getOffset()) == WAVCodecRegistries.FORMAT_EXTENSIBLE.getIndex()) {
+            readFTMExtension(offset);
+        }
+    }
+
+    /**
+     * Reads the fields of the extended "ftm " chunk of the WAVE_FORMAT_EXTENSIBLE layout
+     * and replaces the data compression format with the one given by the subformat GUID.
+     * A chunk too short for the extension is left with the extensible format, which
+     * is reported as unsupported.
+     *
+     * @param offset the chunk offset in the buffer array
+     */
+    private void readFTMExtension(int offset) {
+        long chunkEnd = WAVField.CHUNK_FTM_SIZE.getFieldEnd()
+                        + readUnsignedInt(offset + WAVField.CHUNK_FTM_SIZE.getOffset());
+        if (chunkEnd < WAVField.SUB_FORMAT.getFieldEnd()
+                || offset + WAVField.SUB_FORMAT.getFieldEnd() > buffer.length) {
+            return;
+        }
+        wavFileBuilder = wavFileBuilder.extensible(true);
+        wavFileBuilder = wavFileBuilder.validBitsPerSample(
+                            readShort(offset + WAVField.VALID_BITS_PER_SAMPLE.getOffset()));
+        wavFileBuilder = wavFileBuilder.channelMask(
+                            readInt(offset + WAVField.CHANNEL_MASK.getOffset()));
+        wavFileBuilder = wavFileBuilder.fileAudioFormat(
+                            WAVCodecRegistries.getSubFormat(buffer, offset + WAVField.SUB_FORMAT.getOffset()));
     }
 
     /**
@@ -119,20 +223,46 @@ public class WAVFileReader extends Reader {
      * @param offset the chunk offset in the buffer array
      */
     private void readDataChunk (int offset) {
-        chunks.add(1, WAVContainerNameByte.CHUNK_DATA);
-        dataOffset = offset + (bufferPageNumber * BufferSizes.WAVE_BUFFER_SIZE.getSize());
-        dataSize = convertAreaArrayToBuffer( offset + WAVField.CHUNK_DATA.getSize(),
-                WAVField.DATA_SIZE.getFieldEnd() + offset).getInt();
+        chunks.add(Math.min(1, chunks.size()), WAVContainerNameByte.CHUNK_DATA);
+        dataOffset = offset + ((long) bufferPageNumber * BufferSizes.WAVE_BUFFER_SIZE.getSize());
+        extendBuffer(dataOffset - offset, offset, offset + WAVField.DATA_SIZE.getFieldEnd());
+        dataSize = getChunkSize(readUnsignedInt(offset + WAVField.DATA_SIZE.getOffset()));
         jumpBuffer();
     }
 
     /**
-     * Reads the "INFO" chunk.
+     * Reads the "INFO" chunk. The fields are read by {@link #readListChunk()}
+     * after the search, which needs the buffer array.
      *
      * @param offset the chunk offset in the buffer array
      */
     private void readInfoChunk(int offset) {
-        chunks.add(2, WAVContainerNameByte.CHUNK_INFO);
+        chunks.add(WAVContainerNameByte.CHUNK_INFO);
+        // the "INFO" list type follows the header of the "LIST" chunk
+        infoOffset = offset + ((long) bufferPageNumber * BufferSizes.WAVE_BUFFER_SIZE.getSize())
+                        - WAVField.CHUNK_SIZE.getFieldEnd();
+    }
+
+    /**
+     * Reads the fields of the "INFO" list found by the search for chunk identifiers.
+     * An "INFO" identifier that does not follow the header of a "LIST" chunk is not a list.
+     */
+    private void readListChunk() {
+        if (chunks.contains(WAVContainerNameByte.CHUNK_INFO) == false) {
+            return;
+        }
+        int headerSize = WAVField.CHUNK_SIZE.getFieldEnd();
+        if (infoOffset >= WAVField.FORMAT_TAG.getFieldEnd()) {
+            fillBuffer(infoOffset, headerSize);
+            if (isListChunk(0)) {
+                long chunkSize = readUnsignedInt(WAVField.CHUNK_SIZE.getOffset());
+                readInfoFields(infoOffset + headerSize + WAVField.CHUNK_INFO.getSize(),
+                                chunkSize - WAVField.CHUNK_INFO.getSize());
+                return;
+            }
+        }
+        chunks.remove(WAVContainerNameByte.CHUNK_INFO);
+        infoOffset = 0;
     }
 
     /**
@@ -140,8 +270,35 @@ public class WAVFileReader extends Reader {
      */
     private void readFileSize() {
         wavFileBuilder = wavFileBuilder.fileSize(
-                            convertAreaArrayToBuffer(WAVField.RIFF_CONTAINER_SIZE.getOffset(),
-                                                        WAVField.RIFF_CONTAINER_SIZE.getFieldEnd()).getInt());
+                            readUnsignedInt(WAVField.RIFF_CONTAINER_SIZE.getOffset()));
+    }
+
+    /**
+     * Reads the fields of the "ds64" chunk with the 64-bit sizes of the
+     * container and of the "data" chunk of an RF64 or BW64 file.
+     *
+     * @param offset the chunk offset in the buffer array
+     */
+    private void readDS64Fields(int offset) {
+        if (container == WAVContainerNameByte.CONTAINER_RIFF) {
+            return;
+        }
+        wavFileBuilder = wavFileBuilder.fileSize(readLong(offset + WAVField.DS64_RIFF_SIZE.getOffset()));
+        ds64DataSize = readLong(offset + WAVField.DS64_DATA_SIZE.getOffset());
+    }
+
+    /**
+     * Returns the size of the "data" chunk, taking it from the "ds64" chunk
+     * if the 32-bit size field refers to it.
+     *
+     * @param size the value of the 32-bit size field
+     * @return the size of the "data" chunk
+     */
+    private long getChunkSize(long size) {
+        if (size == DS64_SIZE_PLACEHOLDER && container != WAVContainerNameByte.CONTAINER_RIFF) {
+            return ds64DataSize;
+        }
+        return size;
     }
 
     /**
@@ -152,8 +309,7 @@ public class WAVFileReader extends Reader {
      */
     private void readAudioCodec(int offset) {
         wavFileBuilder = wavFileBuilder.fileAudioFormat(
-                            convertAreaArrayToBuffer(offset + WAVField.AUDIO_FORMAT.getOffset(),
-                                                    offset + WAVField.AUDIO_FORMAT.getFieldEnd()).getShort());
+                            readShort(offset + WAVField.AUDIO_FORMAT.getOffset()));
     }
 
     /**
@@ -163,8 +319,7 @@ public class WAVFileReader extends Reader {
      */
     private void readNumberAudioChanel(int offset) {
         wavFileBuilder = wavFileBuilder.numChannels(
-                            convertAreaArrayToBuffer(offset + WAVField.NUMBER_CHANNELS.getOffset(),
-                                                    offset +WAVField.NUMBER_CHANNELS.getFieldEnd()).getShort());
+                            readShort(offset + WAVField.NUMBER_CHANNELS.getOffset()));
     }
 
     /**
@@ -174,8 +329,7 @@ public class WAVFileReader extends Reader {
      */
     private void readSampleRate(int offset) {
         wavFileBuilder = wavFileBuilder.fileSampleRate(
-                            convertAreaArrayToBuffer(offset + WAVField.SAMPLE_RATE.getOffset(),
-                                                    offset + WAVField.SAMPLE_RATE.getFieldEnd()).getInt());
+                            readInt(offset + WAVField.SAMPLE_RATE.getOffset()));
     }
 
     /**
@@ -185,8 +339,7 @@ public class WAVFileReader extends Reader {
      */
     private void readByteRate(int offset) {
         wavFileBuilder = wavFileBuilder.byteRate(
-                            convertAreaArrayToBuffer(offset + WAVField.BYTE_RATE.getOffset(),
-                                                    offset + WAVField.BYTE_RATE.getFieldEnd()).getInt());
+                            readInt(offset + WAVField.BYTE_RATE.getOffset()));
     }
 
     /**
@@ -196,8 +349,7 @@ public class WAVFileReader extends Reader {
      */
     private void readBlockAlign(int offset) {
         wavFileBuilder = wavFileBuilder.blockAlign(
-                            convertAreaArrayToBuffer(offset + WAVField.BLOCK_ALIGN.getOffset(),
-                                                    offset + WAVField.BLOCK_ALIGN.getFieldEnd()).getShort());
+                            readShort(offset + WAVField.BLOCK_ALIGN.getOffset()));
     }
 
     /**
@@ -207,8 +359,7 @@ public class WAVFileReader extends Reader {
      */
     private void readBitsPerSample(int offset) {
         wavFileBuilder = wavFileBuilder.bitsPerSample(
-                            convertAreaArrayToBuffer(offset + WAVField.BITS_PER_SAMPLE.getOffset(),
-                                                    offset + WAVField.BITS_PER_SAMPLE.getFieldEnd()).getShort());
+                            readShort(offset + WAVField.BITS_PER_SAMPLE.getOffset()));
     }
 
     /**
@@ -234,9 +385,16 @@ public class WAVFileReader extends Reader {
      * @return true if the RIFF container is present in the file
      */
     private boolean isAvailabilityRIFF() {
-        return Arrays.equals(
-                        getBufferArea(WAVField.CONTAINER_RIFF.getOffset(), WAVField.CONTAINER_RIFF.getFieldEnd()),
-                        WAVContainerNameByte.CONTAINER_RIFF.getByte());
+        WAVContainerNameByte[] containers = {WAVContainerNameByte.CONTAINER_RIFF,
+                                             WAVContainerNameByte.CONTAINER_RF64,
+                                             WAVContainerNameByte.CONTAINER_BW64};
+        for (WAVContainerNameByte id : containers) {
+            if (isBufferArea(WAVField.CONTAINER_RIFF.getOffset(), id.getByte())) {
+                container = id;
+                return true;
+            }
+        }
+        return false;
     }
 
     /**
@@ -245,9 +403,7 @@ public class WAVFileReader extends Reader {
      * @return true if the file format identifier is WAV
      */
     private boolean isAvailabilityWAVE() {
-        return Arrays.equals(
-                getBufferArea(WAVField.FORMAT_TAG.getOffset(), WAVField.FORMAT_TAG.getFieldEnd()),
-                WAVContainerNameByte.CHUNK_WAVE.getByte());
+        return isBufferArea(WAVField.FORMAT_TAG.getOffset(), WAVContainerNameByte.CHUNK_WAVE.getByte());
     }
 
     /**
@@ -257,8 +413,7 @@ public class WAVFileReader extends Reader {
      * @return true if the chunk identifier "data" is found by the offset in the array
      */
     private boolean isDataChunk (int offset) {
-        return Arrays.equals(getBufferArea(offset, offset + WAVField.CHUNK_DATA.getFieldEnd()),
-                                WAVContainerNameByte.CHUNK_DATA.getByte());
+        return isBufferArea(offset, WAVContainerNameByte.CHUNK_DATA.getByte());
     }
 
     /**
@@ -268,8 +423,7 @@ public class WAVFileReader extends Reader {
      * @return true if the chunk identifier "ftm " is found by the offset in the array
      */
     private boolean isFTMChunk (int offset) {
-        return Arrays.equals(getBufferArea(offset, offset + WAVField.CHUNK_FTM.getFieldEnd()),
-                                WAVContainerNameByte.CHUNK_FTM.getByte());
+        return isBufferArea(offset, WAVContainerNameByte.CHUNK_FTM.getByte());
     }
 
     /**
@@ -279,61 +433,227 @@ public class WAVFileReader extends Reader {
      * @return true if the chunk identifier "INFO" is found by the offset in the array
      */
     private boolean isInfoChunk (int offset) {
-        return Arrays.equals(getBufferArea(offset, offset + WAVField.CHUNK_INFO.getSize()),
-                                WAVContainerNameByte.CHUNK_INFO.getByte());
+        return isBufferArea(offset, WAVContainerNameByte.CHUNK_INFO.getByte());
+    }
+
+    /**
+     * Returns true if the chunk identifier "LIST" is found by the offset in the array.
+     *
+     * @param offset the field offset in the buffer array
+     * @return true if the chunk identifier "LIST" is found by the offset in the array
+     */
+    private boolean isListChunk (int offset) {
+        return isBufferArea(offset, WAVContainerNameByte.CHUNK_LIST.getByte());
+    }
+
+    /**
+     * Returns true if the chunk identifier "ds64" is found by the offset in the array.
+     *
+     * @param offset the field offset in the buffer array
+     * @return true if the chunk identifier "ds64" is found by the offset in the array
+     */
+    private boolean isDS64Chunk (int offset) {
+        return isBufferArea(offset, WAVContainerNameByte.CHUNK_DS64.getByte());
     }
 
     /**
      * Searches for chunk identifiers in the file.
      */
     private void findChunkID () {
-        // search for the offset of the chunk id by iterating through the buffer
-        for(int i = 0; i < buffer.length; i++) {
-            if (isFTMChunk(i)) {
-                readFTMChunk(i);
+        extendPage();
+        while (true) {
+            // search for the offset of the chunk id by iterating through the buffer
+            for(int i = 0; i < buffer.length; i++) {
+                // only the first identifiers are taken, later ones may be a part of the text or data
+                if (isFTMChunk(i) && chunks.contains(WAVContainerNameByte.CHUNK_FTM) == false) {
+                    readFTMChunk(i);
+                }
+                if (isDataChunk(i) && chunks.contains(WAVContainerNameByte.CHUNK_DATA) == false) {
+                    int page = bufferPageNumber;
+                    readDataChunk(i);
+                    // continue after the audio data, or from the beginning of the new page
+                    long dataEnd = dataOffset + WAVField.DATA_SIZE.getFieldEnd() + dataSize;
+                    long pageStart = (long) bufferPageNumber * BufferSizes.WAVE_BUFFER_SIZE.getSize();
+                    i = page == bufferPageNumber
+                            ? (int) Math.min(dataEnd - pageStart, buffer.length) - 1
+                            : -1;
+                    continue;
+                }
+                if (isInfoChunk(i) && chunks.contains(WAVContainerNameByte.CHUNK_INFO) == false) {
+                    readInfoChunk(i);
+                }
             }
-            if (isDataChunk(i)) {
-                readDataChunk(i);
-                i = 0;
+            // checking for a complete file analysis
+            if(reader.getRemnant() == 0) {
+                return;
             }
-            if (isInfoChunk(i)) {
-                readInfoChunk(i);
+            // uploading the remaining part of the file and starting re-analysis
+            buffer = reader.getBuffer(BufferSizes.WAVE_BUFFER_SIZE.getSize());
+            bufferPageNumber++;
+            extendPage();
+        }
+    }
+
+    /**
+     * Extends the current page with the first bytes of the next one, so that
+     * an identifier crossing the border of the pages is found in the current page.
+     */
+    private void extendPage() {
+        extendBuffer((long) bufferPageNumber * BufferSizes.WAVE_BUFFER_SIZE.getSize(),
+                        0, buffer.length + WAVField.CHUNK_DATA.getSize() - 1);
+    }
+
+    /**
+     * Goes through the chunks of the file one after another, reading only
+     * the chunk headers and the bodies of the chunks that are needed.
+     * The chunks are listed in the same order as when searching for
+     * identifiers: "ftm ", "data", "INFO".
+     */
+    private void walkChunks() {
+        long fileLength = reader.getSize();
+        long position = WAVField.FORMAT_TAG.getFieldEnd();
+        int headerSize = WAVField.CHUNK_SIZE.getFieldEnd();
+        boolean ftmFound = false;
+        boolean dataFound = false;
+        boolean infoFound = false;
+
+        while (position + headerSize <= fileLength) {
+            fillBuffer(position, headerSize);
+            long chunkSize = readUnsignedInt(WAVField.CHUNK_SIZE.getOffset());
+
+            if (isDS64Chunk(0)) {
+                fillBuffer(position, WAVField.DS64_TABLE_LENGTH.getFieldEnd());
+                readDS64Fields(0);
+            } else if (isFTMChunk(0)) {
+                fillBuffer(position, WAVField.SUB_FORMAT.getFieldEnd());
+                readFTMFields(0);
+                ftmFound = true;
+            } else if (isDataChunk(0)) {
+                chunkSize = getChunkSize(chunkSize);
+                dataOffset = position;
+                dataSize = chunkSize;
+                dataFound = true;
+            } else if (isListChunk(0)) {
+                fillBuffer(position + headerSize, WAVField.CHUNK_INFO.getSize());
+                if (isInfoChunk(0)) {
+                    infoFound = true;
+                    infoOffset = position;
+                    readInfoFields(position + headerSize + WAVField.CHUNK_INFO.getSize(),
+                                    chunkSize - WAVField.CHUNK_INFO.getSize());
+                }
             }
+
+            // chunks are aligned to an even number of bytes
+            position += headerSize + chunkSize + (chunkSize & 1);
+        }
+
+        if (ftmFound) {
+            chunks.add(WAVContainerNameByte.CHUNK_FTM);
+        }
+        if (dataFound) {
+            chunks.add(WAVContainerNameByte.CHUNK_DATA);
         }
-        // checking for a complete file analysis
-        if(reader.getRemnant() == 0) {
+        if (infoFound) {
+            chunks.add(WAVContainerNameByte.CHUNK_INFO);
+        }
+    }
+
+    /**
+     * Reads the metadata fields of the "INFO" list. Fields with unknown
+     * identifiers are skipped.
+     *
+     * @param position the position of the first field in the file
+     * @param size the total size of the fields
+     */
+    private void readInfoFields(long position, long size) {
+        if (size <= 0 || size > BufferSizes.INFO_LIST_MAX_SIZE.getSize()) {
             return;
         }
-        // uploading the remaining part of the file and starting re-analysis
-        buffer = reader.getBuffer(BufferSizes.WAVE_BUFFER_SIZE.getSize());
-        bufferPageNumber++;
-        findChunkID();
+        int end = (int) size;
+        int headerSize = WAVField.CHUNK_SIZE.getFieldEnd();
+        fillBuffer(position, end);
+
+        int offset = 0;
+        while (offset + headerSize <= end) {
+            long fieldSize = readUnsignedInt(offset + WAVField.CHUNK_SIZE.getOffset());
+            if (offset + headerSize + fieldSize > end) {
+                break;
+            }
+            INFOListChunkID id = INFOListChunkID.find(buffer, offset);
+            if (id != null) {
+                // the text ends with a zero byte
+                int length = 0;
+                while (length < fieldSize && buffer[offset + headerSize + length] != 0) {
+                    length++;
+                }
+                info.setBytes(id, buffer, offset + headerSize, length);
+            }
+            offset += headerSize + fieldSize + (fieldSize & 1);
+        }
     }
 
     /**
      * Checks for the presence of all required chunks.
      */
     private void checkChunks () {
-        if (chunks.get(0).equals(WAVContainerNameByte.CHUNK_FTM) == false) {
+        if (chunks.contains(WAVContainerNameByte.CHUNK_FTM) == false) {
             ErrorMessage.WAV_NOT_FIND_FTM.printError();
         }
-        if (chunks.get(1).equals(WAVContainerNameByte.CHUNK_DATA) == false) {
+        if (chunks.contains(WAVContainerNameByte.CHUNK_DATA) == false) {
             ErrorMessage.WAV_NOT_FIND_DATA.printError();
         }
     }
 
+    /**
+     * Checks that the sample size and the block alignment of the read file match
+     * its data compression format: 1 to 32-bit integer PCM, 32 or 64-bit IEEE float,
+     * or 8-bit A-law and μ-law, with each sample stored in whole bytes.
+     *
+     * @param wavFile the read WAV file
+     */
+    private void checkFormat(WAVFile wavFile) {
+        if (wavFile == null || chunks.contains(WAVContainerNameByte.CHUNK_FTM) == false) {
+            return;
+        }
+        int bitsPerSample = wavFile.getBitsPerSample();
+        if (PCMConverter.isSupported(wavFile.getAudioCodec(), bitsPerSample) == false
+                || wavFile.getBlockAlign() != PCMConverter.getSampleSize(bitsPerSample) * wavFile.getNumberAudioChanel()) {
+            ErrorMessage.WAV_UNSUPPORTED_FORMAT.printError();
+        }
+    }
+
+    /**
+     * Reads the fragment of the file at the specified position into the beginning of
+     * the buffer byte array. The array is created again only if it is too small,
+     * and the bytes after the end of the file are filled with zeros.
+     *
+     * @param position the position of the fragment in the file
+     * @param size the size of the fragment
+     */
+    private void fillBuffer(long position, int size) {
+        if (buffer.length < size) {
+            buffer = new byte[size];
+        }
+        int read = reader.read(position, buffer, size);
+        Arrays.fill(buffer, read, size, (byte) 0);
+    }
+
     /**
      * Jump buffer page after data chunk
      */
     private void jumpBuffer() {
-        int endData = dataOffset + dataSize;
+        long endData = dataOffset + dataSize;
 
-        int startInBuffer = (int) Math.floor(((double) endData) / ((double) BufferSizes.WAVE_BUFFER_SIZE.getSize()));
+        long startInBuffer = endData / BufferSizes.WAVE_BUFFER_SIZE.getSize();
 
+        if (bufferPageNumber >= startInBuffer) {
+            return;
+        }
         for(int i = bufferPageNumber; i < startInBuffer; i++) {
             buffer = reader.getBuffer(BufferSizes.WAVE_BUFFER_SIZE.getSize());
             bufferPageNumber ++;
         }
+        extendPage();
     }
 
 
@@ -0,0 +1,259 @@
+/*
+ * Copyright © 2021 Shcherbina Daniil
+ * License: http://opensource.org/licenses/MIT
+ */
+
+package ausf.software.io.transcoders;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ *
+ * Implementation of the conversion of many WAV files in parallel within a fixed
+ * memory budget.
+ *
+ * <p>The jobs run on a work-stealing {@link ForkJoinPool}, each one streaming its
+ * file in blocks with a {@link WAVTranscoder}. Before a job is handed to the pool
+ * the memory of its buffers is reserved from the budget; when the budget is used
+ * up, {@link #submit} blocks the calling thread until running jobs finish. The
+ * memory used by the jobs therefore stays within the budget whatever the sizes
+ * of the files and however many jobs are submitted. A job needing more than the
+ * whole budget runs alone.
+ *
+ * <pre>{@code
+ * try (BatchTranscoder batch = new BatchTranscoder()) {
+ *     List<CompletableFuture<TranscodeJob>> results = batch.submitAll(jobs);
+ *     for (CompletableFuture<TranscodeJob> result : results) {
+ *         result.join();
+ *     }
+ * }
+ * }</pre>
+ *
+ * <p>A job whose source can not be read or converted completes exceptionally;
+ * the other jobs are not affected.
+ *
+ * @author  Shcherbina Daniil
+ * @see     TranscodeJob
+ * @see     WAVTranscoder
+ * @since   0.2.0
+ * @version 0.2.0
+ */
+public class BatchTranscoder implements AutoCloseable {
+
+    /**
+     * The memory budget of the jobs, unless another budget is set.
+     */
+    public static final long DEFAULT_MEMORY_BUDGET = 64L << 20;
+
+    private final ForkJoinPool pool;
+    private final long memoryBudget;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    /**
+     * Signalled when a job returns its memory to the budget.
+     */
+    private final Condition released = lock.newCondition();
+    /**
+     * The memory reserved by the submitted jobs that have not finished.
+     */
+    private long reserved;
+    /**
+     * The largest memory reserved at one time.
+     */
+    private long peakReserved;
+
+    private final AtomicLong completedJobs = new AtomicLong();
+    private final AtomicLong failedJobs = new AtomicLong();
+
+    /**
+     * Creates a transcoder with one thread for each processor and the default memory budget.
+     */
+    public BatchTranscoder() {
+        this(Runtime.getRuntime().availableProcessors(), DEFAULT_MEMORY_BUDGET);
+    }
+
+    /**
+     * Creates a transcoder with the specified number of threads and memory budget.
+     * More threads than processors help when the files are read from slow storage.
+     *
+     * @param parallelism the number of threads converting the files
+     * @param memoryBudget the largest number of bytes of buffers used by the jobs at one time
+     * @throws IllegalArgumentException if the number of threads or the budget is not positive
+     */
+    public BatchTranscoder(int parallelism, long memoryBudget) {
+        if (parallelism <= 0 || memoryBudget <= 0) {
+            throw new IllegalArgumentException("The number of threads and the memory budget must be positive.");
+        }
+        this.memoryBudget = memoryBudget;
+        pool = new ForkJoinPool(parallelism);
+    }
+
+    /**
+     * Reads the header of the source of the job and hands the job to the pool,
+     * waiting until the memory of its buffers is available.
+     *
+     * @param job the description of the conversion
+     * @return the result of the job, completed with the job when the new file is written
+     * @throws InterruptedException if the thread is interrupted while waiting for memory
+     */
+    public CompletableFuture<TranscodeJob> submit(TranscodeJob job) throws InterruptedException {
+        CompletableFuture<TranscodeJob> result = new CompletableFuture<>();
+        WAVTranscoder transcoder;
+        try {
+            transcoder = new WAVTranscoder(job);
+        } catch (Exception e) {
+            failedJobs.incrementAndGet();
+            result.completeExceptionally(e);
+            return result;
+        }
+
+        long size = Math.min(transcoder.getWorkingSetSize(), memoryBudget);
+        reserve(size);
+        try {
+            pool.execute(() -> {
+                try {
+                    transcoder.transcode();
+                    completedJobs.incrementAndGet();
+                    result.complete(job);
+                } catch (Throwable e) {
+                    failedJobs.incrementAndGet();
+                    result.completeExceptionally(e);
+                } finally {
+                    release(size);
+                }
+            });
+        } catch (RuntimeException e) {
+            release(size);
+            throw e;
+        }
+        return result;
+    }
+
+    /**
+     * Submits the jobs one after another, waiting for memory as needed.
+     *
+     * @param jobs the descriptions of the conversions
+     * @return the results of the jobs, in the order of the jobs
+     * @throws InterruptedException if the thread is interrupted while waiting for memory
+     * @see #submit(TranscodeJob)
+     */
+    public List<CompletableFuture<TranscodeJob>> submitAll(List<TranscodeJob> jobs) throws InterruptedException {
+        List<CompletableFuture<TranscodeJob>> results = new ArrayList<>(jobs.size());
+        for (TranscodeJob job : jobs) {
+            results.add(submit(job));
+        }
+        return results;
+    }
+
+    /**
+     * Returns the largest number of bytes of buffers used by the jobs at one time.
+     *
+     * @return the memory budget
+     */
+    public long getMemoryBudget() {
+        return memoryBudget;
+    }
+
+    /**
+     * Returns the memory reserved by the submitted jobs that have not finished.
+     *
+     * @return the reserved memory in bytes
+     */
+    public long getReservedMemory() {
+        lock.lock();
+        try {
+            return reserved;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the largest memory reserved at one time.
+     *
+     * @return the largest reserved memory in bytes
+     */
+    public long getPeakReservedMemory() {
+        lock.lock();
+        try {
+            return peakReserved;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of jobs whose new file has been written.
+     *
+     * @return the number of completed jobs
+     */
+    public long getCompletedJobs() {
+        return completedJobs.get();
+    }
+
+    /**
+     * Returns the number of jobs that completed exceptionally.
+     *
+     * @return the number of failed jobs
+     */
+    public long getFailedJobs() {
+        return failedJobs.get();
+    }
+
+    /**
+     * Waits for the submitted jobs to finish and stops the threads.
+     */
+    @Override
+    public void close() {
+        pool.shutdown();
+        try {
+            while (!pool.awaitTermination(1, TimeUnit.MINUTES)) {
+                // the jobs are still running
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Reserves memory from the budget, waiting until it is available.
+     *
+     * @param size the number of bytes, not more than the budget
+     * @throws InterruptedException if the thread is interrupted while waiting
+     */
+    private void reserve(long size) throws InterruptedException {
+        lock.lock();
+        try {
+            while (reserved + size > memoryBudget) {
+                released.await();
+            }
+            reserved += size;
+            peakReserved = Math.max(peakReserved, reserved);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns memory to the budget.
+     *
+     * @param size the number of bytes
+     */
+    private void release(long size) {
+        lock.lock();
+        try {
+            reserved -= size;
+            released.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+}
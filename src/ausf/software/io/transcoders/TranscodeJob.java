@@ -0,0 +1,274 @@
+/*
+ * Copyright © 2021 Shcherbina Daniil
+ * License: http://opensource.org/licenses/MIT
+ */
+
+package ausf.software.io.transcoders;
+
+import ausf.software.constants.ResamplerQuality;
+import ausf.software.constants.audio.wav.WAVCodecRegistries;
+
+/**
+ *
+ * Description of the conversion of one WAV file into a new WAV file: the
+ * sample rate, the data compression format, the sample size and the channels
+ * of the new file. The parameters that are not set are taken from the source.
+ *
+ * <pre>{@code
+ * TranscodeJob job = TranscodeJob.builder()
+ *         .source("in.wav")
+ *         .target("out.wav")
+ *         .sampleRate(48000)
+ *         .audioFormat(WAVCodecRegistries.FORMAT_PCM)
+ *         .bitsPerSample((short) 16)
+ *         .channels(0, 1)
+ *         .build();
+ * }</pre>
+ *
+ * @author  Shcherbina Daniil
+ * @see     WAVTranscoder
+ * @see     BatchTranscoder
+ * @since   0.2.0
+ * @version 0.2.0
+ */
+public class TranscodeJob {
+
+    /**
+     * The number of frames converted at a time, unless another number is set.
+     */
+    public static final int DEFAULT_BLOCK_FRAMES = 8192;
+
+    private final String sourcePath;
+    private final String targetPath;
+    private final int sampleRate;
+    private final WAVCodecRegistries audioFormat;
+    private final short bitsPerSample;
+    private final int[] channels;
+    private final ResamplerQuality quality;
+    private final int blockFrames;
+
+    /**
+     * Creates a job using an instance of the specified builder class.
+     *
+     * @param builder an instance builder class
+     */
+    private TranscodeJob(TranscodeJobBuilder builder) {
+        sourcePath = builder.sourcePath;
+        targetPath = builder.targetPath;
+        sampleRate = builder.sampleRate;
+        audioFormat = builder.audioFormat;
+        bitsPerSample = builder.bitsPerSample;
+        channels = builder.channels;
+        quality = builder.quality;
+        blockFrames = builder.blockFrames;
+    }
+
+    /**
+     * Returns an instance TranscodeJobBuilder.
+     *
+     * @return an instance TranscodeJobBuilder
+     */
+    public static TranscodeJobBuilder builder() {
+        return new TranscodeJobBuilder();
+    }
+
+    /**
+     * Returns the path of the file to be converted.
+     *
+     * @return the path of the file to be converted
+     */
+    public String getSourcePath() {
+        return sourcePath;
+    }
+
+    /**
+     * Returns the path of the new file.
+     *
+     * @return the path of the new file
+     */
+    public String getTargetPath() {
+        return targetPath;
+    }
+
+    /**
+     * Returns the sample rate of the new file, 0 to keep the sample rate of the source.
+     *
+     * @return the sample rate of the new file
+     */
+    public int getSampleRate() {
+        return sampleRate;
+    }
+
+    /**
+     * Returns the data compression format of the new file, null to keep the format of the source.
+     *
+     * @return the data compression format of the new file
+     */
+    public WAVCodecRegistries getAudioFormat() {
+        return audioFormat;
+    }
+
+    /**
+     * Returns the number of bits in the sample of the new file, 0 to choose it
+     * from the source and the data compression format.
+     *
+     * @return the number of bits in the sample of the new file
+     */
+    public short getBitsPerSample() {
+        return bitsPerSample;
+    }
+
+    /**
+     * Returns the index of the source channel of each channel of the new file,
+     * -1 for a silent channel, or null to keep all channels.
+     *
+     * @return the channels of the new file
+     */
+    public int[] getChannels() {
+        return channels == null ? null : channels.clone();
+    }
+
+    /**
+     * Returns the interpolation filter used when the sample rate is changed.
+     *
+     * @return the interpolation filter
+     */
+    public ResamplerQuality getQuality() {
+        return quality;
+    }
+
+    /**
+     * Returns the number of frames converted at a time.
+     *
+     * @return the number of frames converted at a time
+     */
+    public int getBlockFrames() {
+        return blockFrames;
+    }
+
+    /**
+     * Class for creating TranscodeJob class objects.
+     *
+     * @author  Shcherbina Daniil
+     * @see     TranscodeJob
+     * @since   0.2.0
+     * @version 0.2.0
+     */
+    public static class TranscodeJobBuilder {
+
+        private String sourcePath;
+        private String targetPath;
+        private int sampleRate;
+        private WAVCodecRegistries audioFormat;
+        private short bitsPerSample;
+        private int[] channels;
+        private ResamplerQuality quality = ResamplerQuality.MEDIUM;
+        private int blockFrames = DEFAULT_BLOCK_FRAMES;
+
+        /**
+         * Returns an instance of the TranscodeJobBuilder class with the modified path of the source.
+         *
+         * @param sourcePath the path of the file to be converted
+         * @return an instance of the TranscodeJobBuilder class with the modified path of the source
+         */
+        public TranscodeJobBuilder source(String sourcePath) {
+            this.sourcePath = sourcePath;
+            return this;
+        }
+
+        /**
+         * Returns an instance of the TranscodeJobBuilder class with the modified path of the new file.
+         *
+         * @param targetPath the path of the new file
+         * @return an instance of the TranscodeJobBuilder class with the modified path of the new file
+         */
+        public TranscodeJobBuilder target(String targetPath) {
+            this.targetPath = targetPath;
+            return this;
+        }
+
+        /**
+         * Returns an instance of the TranscodeJobBuilder class with the modified sample rate.
+         *
+         * @param sampleRate the sample rate of the new file
+         * @return an instance of the TranscodeJobBuilder class with the modified sample rate
+         */
+        public TranscodeJobBuilder sampleRate(int sampleRate) {
+            this.sampleRate = sampleRate;
+            return this;
+        }
+
+        /**
+         * Returns an instance of the TranscodeJobBuilder class with the modified data compression format.
+         *
+         * @param audioFormat the data compression format of the new file
+         * @return an instance of the TranscodeJobBuilder class with the modified data compression format
+         */
+        public TranscodeJobBuilder audioFormat(WAVCodecRegistries audioFormat) {
+            this.audioFormat = audioFormat;
+            return this;
+        }
+
+        /**
+         * Returns an instance of the TranscodeJobBuilder class with the modified sample size.
+         *
+         * @param bitsPerSample the number of bits in the sample of the new file
+         * @return an instance of the TranscodeJobBuilder class with the modified sample size
+         */
+        public TranscodeJobBuilder bitsPerSample(short bitsPerSample) {
+            this.bitsPerSample = bitsPerSample;
+            return this;
+        }
+
+        /**
+         * Returns an instance of the TranscodeJobBuilder class with the modified channels.
+         *
+         * @param channels the index of the source channel of each channel of the new file, or -1 for silence
+         * @return an instance of the TranscodeJobBuilder class with the modified channels
+         */
+        public TranscodeJobBuilder channels(int... channels) {
+            this.channels = channels.clone();
+            return this;
+        }
+
+        /**
+         * Returns an instance of the TranscodeJobBuilder class with the modified interpolation filter.
+         *
+         * @param quality the interpolation filter used when the sample rate is changed
+         * @return an instance of the TranscodeJobBuilder class with the modified interpolation filter
+         */
+        public TranscodeJobBuilder quality(ResamplerQuality quality) {
+            this.quality = quality;
+            return this;
+        }
+
+        /**
+         * Returns an instance of the TranscodeJobBuilder class with the modified block size.
+         *
+         * @param blockFrames the number of frames converted at a time
+         * @return an instance of the TranscodeJobBuilder class with the modified block size
+         */
+        public TranscodeJobBuilder blockFrames(int blockFrames) {
+            this.blockFrames = blockFrames;
+            return this;
+        }
+
+        /**
+         * Returns the TranscodeJob object assembled based on the specified parameters.
+         *
+         * @return the TranscodeJob object
+         * @throws IllegalArgumentException if a path is not set or the block size is not positive
+         */
+        public TranscodeJob build() {
+            if (sourcePath == null || targetPath == null) {
+                throw new IllegalArgumentException("The source and the target paths must be set.");
+            }
+            if (blockFrames <= 0) {
+                throw new IllegalArgumentException("The block size must be positive.");
+            }
+            return new TranscodeJob(this);
+        }
+
+    }
+
+}
@@ -0,0 +1,350 @@
+/*
+ * Copyright © 2021 Shcherbina Daniil
+ * License: http://opensource.org/licenses/MIT
+ */
+
+package ausf.software.io.transcoders;
+
+import ausf.software.codecs.ChannelRemapper;
+import ausf.software.codecs.G711;
+import ausf.software.codecs.PCMConverter;
+import ausf.software.codecs.Resampler;
+import ausf.software.constants.audio.wav.WAVCodecRegistries;
+import ausf.software.constants.audio.wav.WAVField;
+import ausf.software.constants.audio.wav.WAVSpeakerPosition;
+import ausf.software.file.audio.WAVFile;
+import ausf.software.io.readers.WAVFileReader;
+import ausf.software.io.writers.WAVStreamWriter;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ *
+ * Implementation of the conversion of one WAV file described by a {@link TranscodeJob}.
+ *
+ * <p>The audio data is read from the file in blocks of a fixed number of frames
+ * and each block is written to the new file before the next one is read, so the
+ * memory used does not depend on the size of the file. Creating a transcoder only
+ * reads the header of the source; the buffers are allocated when the conversion
+ * starts and dropped when it ends, and their total size is known in advance
+ * ({@link #getWorkingSetSize()}). The channels are selected before the samples
+ * are decoded; a job that only selects channels copies the samples without
+ * decoding them.
+ *
+ * <p>A transcoder converts its file once and is not safe for use by multiple threads.
+ *
+ * @author  Shcherbina Daniil
+ * @see     TranscodeJob
+ * @see     BatchTranscoder
+ * @since   0.2.0
+ * @version 0.2.0
+ */
+public class WAVTranscoder {
+
+    private final TranscodeJob job;
+    private final WAVFile source;
+    private final WAVFile target;
+    /**
+     * The index of the source channel of each target channel, or null to keep all channels.
+     */
+    private final int[] map;
+    /**
+     * True if only the channels are changed and the samples are copied as they are.
+     */
+    private final boolean copy;
+    /**
+     * The number of bytes of the buffers used by the conversion.
+     */
+    private final long workingSetSize;
+    /**
+     * The sample rate converter, or null if the sample rate is kept.
+     */
+    private final Resampler resampler;
+
+    private ByteBuffer input;
+    private ByteBuffer remapped;
+    private float[][] planes;
+    private float[][] resampled;
+    private ByteBuffer output;
+
+    /**
+     * Reads the header of the source file and checks the parameters of the conversion.
+     *
+     * @param job the description of the conversion
+     * @throws IOException if the source is not a WAV file with a supported format
+     * @throws IllegalArgumentException if the parameters of the new file are not supported
+     */
+    public WAVTranscoder(TranscodeJob job) throws IOException {
+        this.job = job;
+        if (Files.isRegularFile(Paths.get(job.getSourcePath())) == false) {
+            throw new NoSuchFileException(job.getSourcePath());
+        }
+        source = new WAVFileReader(job.getSourcePath()).read();
+        if (source == null || source.getDataOffset() == 0 || source.getNumberAudioChanel() == 0
+                || PCMConverter.isSupported(source.getAudioCodec(), source.getBitsPerSample()) == false) {
+            throw new IOException("Can not transcode " + job.getSourcePath() + ": not a supported WAV file.");
+        }
+        map = job.getChannels();
+        if (map != null) {
+            for (int channel : map) {
+                if (channel < -1 || channel >= source.getNumberAudioChanel()) {
+                    throw new IllegalArgumentException("No channel " + channel + " in " + job.getSourcePath() + ".");
+                }
+            }
+        }
+        int numChannels = map == null ? source.getNumberAudioChanel() : map.length;
+        short audioFormat = job.getAudioFormat() == null ? source.getAudioCodec() : job.getAudioFormat().getIndex();
+        short bitsPerSample = getBitsPerSample(audioFormat);
+        int sampleRate = job.getSampleRate() == 0 ? source.getSampleRate() : job.getSampleRate();
+        if (numChannels == 0 || PCMConverter.isSupported(audioFormat, bitsPerSample) == false) {
+            throw new IllegalArgumentException("Unsupported target of " + job.getSourcePath() + ": format "
+                                                + audioFormat + ", " + bitsPerSample + " bits, "
+                                                + numChannels + " channels.");
+        }
+        copy = audioFormat == source.getAudioCodec() && bitsPerSample == source.getBitsPerSample()
+                && sampleRate == source.getSampleRate();
+        target = buildTarget(audioFormat, bitsPerSample, sampleRate, numChannels);
+        resampler = copy || sampleRate == source.getSampleRate() ? null
+                : new Resampler(source.getSampleRate(), sampleRate, numChannels, job.getQuality());
+
+
+        long blockFrames = job.getBlockFrames();
+        long size = blockFrames * source.getBlockAlign();
+        if (map != null) {
+            size += blockFrames * PCMConverter.getSampleSize(source.getBitsPerSample()) * numChannels;
+        }
+        if (!copy) {
+            long outputFrames = getOutputFrames();
+            size += 4 * blockFrames * numChannels + outputFrames * target.getBlockAlign();
+            if (resampler != null) {
+                // the output planes and the history of the resampler, which grows to hold a block
+                size += 4 * outputFrames * numChannels + 4 * (blockFrames + outputFrames) * numChannels;
+            }
+        }
+        workingSetSize = size;
+    }
+
+    /**
+     * Returns the number of bytes of the buffers used by the conversion. The size
+     * does not depend on the size of the source file.
+     *
+     * @return the number of bytes of the buffers
+     */
+    public long getWorkingSetSize() {
+        return workingSetSize;
+    }
+
+    /**
+     * Returns the description of the conversion.
+     *
+     * @return the description of the conversion
+     */
+    public TranscodeJob getJob() {
+        return job;
+    }
+
+    /**
+     * Returns the source WAV file, with the parameters read from its header.
+     *
+     * @return the source WAV file
+     */
+    public WAVFile getSource() {
+        return source;
+    }
+
+    /**
+     * Returns the new WAV file, with the parameters of the conversion.
+     *
+     * @return the new WAV file
+     */
+    public WAVFile getTarget() {
+        return target;
+    }
+
+    /**
+     * Converts the source file and writes the new file.
+     *
+     * @throws IOException if the source file can not be read or the new file can not be written
+     */
+    public void transcode() throws IOException {
+        int blockAlign = source.getBlockAlign();
+        long frames = source.getDataSize() / blockAlign;
+        long position = source.getDataOffset() + WAVField.CHUNK_SIZE.getFieldEnd();
+        int blockFrames = job.getBlockFrames();
+
+        allocate();
+        try (FileChannel channel = FileChannel.open(Paths.get(source.getPath()), StandardOpenOption.READ);
+             WAVStreamWriter writer = new WAVStreamWriter(target)) {
+            for (long done = 0; done < frames; done += blockFrames) {
+                int count = (int) Math.min(blockFrames, frames - done);
+                input.clear().limit(count * blockAlign);
+                while (input.hasRemaining()) {
+                    if (channel.read(input, position + input.position()) < 0) {
+                        throw new IOException("Unexpected end of " + source.getPath() + ".");
+                    }
+                }
+                input.flip();
+                position += input.limit();
+                writeBlock(writer, select(count), count);
+            }
+            if (resampler != null) {
+                writeFrames(writer, resampler.flush(resampled, 0));
+            }
+        } finally {
+            free();
+        }
+    }
+
+    /**
+     * Allocates the buffers of the conversion.
+     */
+    private void allocate() {
+        int blockFrames = job.getBlockFrames();
+        int numChannels = target.getNumberAudioChanel();
+        input = littleEndian(blockFrames * source.getBlockAlign());
+        if (map != null) {
+            remapped = littleEndian(blockFrames * PCMConverter.getSampleSize(source.getBitsPerSample()) * numChannels);
+        }
+        if (copy) {
+            return;
+        }
+        planes = new float[numChannels][blockFrames];
+        resampled = resampler == null ? planes : new float[numChannels][getOutputFrames()];
+        output = littleEndian(getOutputFrames() * target.getBlockAlign());
+    }
+
+    /**
+     * Drops the buffers of the conversion.
+     */
+    private void free() {
+        input = null;
+        remapped = null;
+        planes = null;
+        resampled = null;
+        output = null;
+    }
+
+    /**
+     * Returns the largest number of frames converted from one block.
+     *
+     * @return the largest number of frames converted from one block
+     */
+    private int getOutputFrames() {
+        int blockFrames = job.getBlockFrames();
+        return resampler == null ? blockFrames : resampler.getOutputCapacity(blockFrames);
+    }
+
+    /**
+     * Returns the block with the selected channels.
+     *
+     * @param frames the number of frames in the block
+     * @return the buffer with the frames of the selected channels
+     */
+    private ByteBuffer select(int frames) {
+        if (map == null) {
+            return input;
+        }
+        remapped.clear();
+        ChannelRemapper.remap(input, source.getAudioCodec(), source.getBitsPerSample(),
+                              source.getNumberAudioChanel(), map, remapped, frames);
+        return remapped.flip();
+    }
+
+    /**
+     * Converts the block of frames with the selected channels and writes it to the new file.
+     *
+     * @param writer the writer of the new file
+     * @param block the buffer with the frames of the selected channels
+     * @param frames the number of frames in the block
+     * @throws IOException if the new file can not be written
+     */
+    private void writeBlock(WAVStreamWriter writer, ByteBuffer block, int frames) throws IOException {
+        if (copy) {
+            writer.append(block);
+            return;
+        }
+        PCMConverter.toFloat(block, source.getAudioCodec(), source.getBitsPerSample(), planes.length,
+                            planes, 0, frames);
+        writeFrames(writer, resampler == null ? frames : resampler.process(planes, 0, frames, resampled, 0));
+    }
+
+    /**
+     * Encodes the converted frames and writes them to the new file.
+     *
+     * @param writer the writer of the new file
+     * @param frames the number of converted frames
+     * @throws IOException if the new file can not be written
+     */
+    private void writeFrames(WAVStreamWriter writer, int frames) throws IOException {
+        output.clear();
+        PCMConverter.fromFloat(resampled, 0, frames, target.getAudioCodec(), target.getBitsPerSample(), output);
+        output.limit(frames * target.getBlockAlign());
+        writer.append(output);
+    }
+
+    /**
+     * Returns the sample size of the new file: the size set in the job, the size of the
+     * source if the format is kept, otherwise the usual size of the format.
+     *
+     * @param audioFormat data compression format registration index of the new file
+     * @return the number of bits in the sample of the new file
+     */
+    private short getBitsPerSample(short audioFormat) {
+        if (job.getBitsPerSample() != 0) {
+            return job.getBitsPerSample();
+        }
+        if (G711.isG711(audioFormat)) {
+            return 8;
+        }
+        if (audioFormat == source.getAudioCodec()) {
+            return source.getBitsPerSample();
+        }
+        if (audioFormat == WAVCodecRegistries.FORMAT_IEEE_FLOAT.getIndex()) {
+            return 32;
+        }
+        // decoded A-law and μ-law samples have 16 bits
+        return (short) (G711.isG711(source.getAudioCodec()) ? 16 : 24);
+    }
+
+    /**
+     * Returns the new WAV file with the parameters of the conversion and the metadata
+     * of the source. The speaker positions of the selected channels are kept.
+     *
+     * @param audioFormat data compression format registration index
+     * @param bitsPerSample the number of bits in the sample
+     * @param sampleRate the sample rate
+     * @param numChannels the number of channels
+     * @return the new WAV file
+     */
+    private WAVFile buildTarget(short audioFormat, short bitsPerSample, int sampleRate, int numChannels) {
+        WAVFile.WAVFileBuilder builder = WAVFile.builder()
+                .filePath(job.getTargetPath())
+                .fileAudioFormat(audioFormat)
+                .numChannels((short) numChannels)
+                .fileSampleRate(sampleRate)
+                .bitsPerSample(bitsPerSample)
+                .extensible(source.isExtensible())
+                .info(source.getInfo())
+                .container(source.getContainer());
+        if (bitsPerSample == source.getBitsPerSample()) {
+            builder = builder.validBitsPerSample(source.getValidBitsPerSample());
+        }
+        if (source.isExtensible()) {
+            builder = builder.channelMask(map == null ? source.getChannelMask()
+                                        : WAVSpeakerPosition.selectMask(source.getChannelMask(), map));
+        }
+        return builder.build();
+    }
+
+    private static ByteBuffer littleEndian(int capacity) {
+        return ByteBuffer.allocate(capacity).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+}
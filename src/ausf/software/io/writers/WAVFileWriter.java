@@ -5,15 +5,12 @@
 
 package ausf.software.io.writers;
 
-import ausf.software.constants.audio.wav.WAVContainerNameByte;
 import ausf.software.file.audio.WAVFile;
 
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
 
-import ausf.software.util.Math;
-
 /**
  *
  * Implementation of the WAV file writer.
@@ -52,8 +49,8 @@ public class WAVFileWriter {
      */
     public void write() {
         writeHeader();
-        writeFTM();
         writeDATA();
+        writeINFO();
         try {
             outputStream.close();
         } catch (IOException e) {
@@ -62,13 +59,17 @@ public class WAVFileWriter {
     }
 
     /**
-     * Writes the WAV file header to the file.
+     * Writes the WAV file header and the "ftm " chunk to the file.
      */
     private void writeHeader() {
+        long dataSize = wavFile.getDataSize();
+        int listSize = wavFile.getInfo().getChunkSize();
+        // the "ds64" chunk is written only if the sizes do not fit in 32 bits
+        boolean ds64 = WAVHeader.getRiffSize(wavFile, dataSize, listSize, false) > WAVHeader.MAX_SIZE;
+        byte[] header = new byte[WAVHeader.getSize(wavFile, ds64)];
+        WAVHeader.encode(header, wavFile, dataSize, listSize, ds64);
         try {
-            outputStream.write(WAVContainerNameByte.CONTAINER_RIFF.getByte());
-            outputStream.write(Math.toBytes(Integer.reverseBytes(wavFile.getFileSize())));
-            outputStream.write(WAVContainerNameByte.CHUNK_WAVE.getByte());
+            outputStream.write(header);
             outputStream.flush();
         } catch (IOException e) {
             e.printStackTrace();
@@ -76,32 +77,27 @@ public class WAVFileWriter {
     }
 
     /**
-     * Writes the "ftm " chunk to the file.
+     * Writes the audio data of the "data" chunk to the file.
      */
-    private void writeFTM () {
+    private void writeDATA() {
         try {
-            outputStream.write(WAVContainerNameByte.CHUNK_FTM.getByte());
-            outputStream.write(Math.toBytes(Integer.reverseBytes(16)));
-            outputStream.write(Math.toBytes(Short.reverseBytes(wavFile.getAudioCodec())));
-            outputStream.write(Math.toBytes(Short.reverseBytes(wavFile.getNumberAudioChanel())));
-            outputStream.write(Math.toBytes(Integer.reverseBytes(wavFile.getSampleRate())));
-            outputStream.write(Math.toBytes(Integer.reverseBytes(wavFile.getByteRate())));
-            outputStream.write(Math.toBytes(Short.reverseBytes(wavFile.getBlockAlign())));
-            outputStream.write(Math.toBytes(Short.reverseBytes(wavFile.getBitsPerSample())));
-            outputStream.flush();
+            outputStream.write(wavFile.getData());
+            if ((wavFile.getDataSize() & 1) != 0) {
+                outputStream.write(0);
+            }
         } catch (IOException e) {
             e.printStackTrace();
         }
     }
 
     /**
-     * Writes the "data" chunk to the file.
+     * Writes the "LIST" chunk with the file metadata to the file, if there is any.
      */
-    private void writeDATA() {
+    private void writeINFO() {
+        byte[] list = new byte[wavFile.getInfo().getChunkSize()];
+        wavFile.getInfo().encode(list, 0);
         try {
-            outputStream.write(WAVContainerNameByte.CHUNK_DATA.getByte());
-            outputStream.write(Math.toBytes(Integer.reverseBytes(wavFile.getDataSize())));
-            outputStream.write(wavFile.getData());
+            outputStream.write(list);
         } catch (IOException e) {
             e.printStackTrace();
         }
@@ -0,0 +1,197 @@
+/*
+ * Copyright © 2021 Shcherbina Daniil
+ * License: http://opensource.org/licenses/MIT
+ */
+
+package ausf.software.io.writers;
+
+import ausf.software.constants.audio.wav.WAVCodecRegistries;
+import ausf.software.constants.audio.wav.WAVContainerNameByte;
+import ausf.software.constants.audio.wav.WAVField;
+import ausf.software.constants.audio.wav.WAVSpeakerPosition;
+import ausf.software.file.audio.WAVFile;
+import ausf.software.util.LittleEndian;
+
+import java.util.Arrays;
+
+/**
+ *
+ * Encoder of the header written by the WAV file writers before the audio data:
+ * the RIFF container, the "ftm " chunk and the beginning of the "data" chunk.
+ * The "ftm " chunk has the WAVE_FORMAT_EXTENSIBLE layout if the WAV file is
+ * {@link WAVFile#isExtensible() extensible} or has more than two channels; a file
+ * with more than two channels that is not extensible is written with the usual
+ * channel mask for its number of channels.
+ * The "LIST" chunk with the file metadata is written after the audio data.
+ * The fields are written directly into the array with {@link LittleEndian}.
+ *
+ * <p>The header can reserve space for a "ds64" chunk after the form type. While the
+ * sizes fit in 32 bits the space is a "JUNK" chunk; when they no longer fit, the
+ * container becomes RF64, the "ds64" chunk is written in place of the "JUNK" chunk,
+ * and the 32-bit size fields are set to 0xFFFFFFFF (EBU Tech 3306). The audio data
+ * does not move, so a file can be promoted to RF64 after it has been written.
+ *
+ * @author  Shcherbina Daniil
+ * @see     WAVFileWriter
+ * @see     WAVStreamWriter
+ * @since   0.2.0
+ * @version 0.2.0
+ */
+final class WAVHeader {
+
+    /**
+     * The size of the header without the "ds64" chunk.
+     */
+    static final int SIZE = WAVField.FORMAT_TAG.getFieldEnd()
+                            + WAVField.BITS_PER_SAMPLE.getFieldEnd()
+                            + WAVField.DATA_SIZE.getFieldEnd();
+    /**
+     * The size of the extension of the "ftm " chunk in the WAVE_FORMAT_EXTENSIBLE layout.
+     */
+    static final int EXTENSION_SIZE = WAVField.SUB_FORMAT.getFieldEnd() - WAVField.BITS_PER_SAMPLE.getFieldEnd();
+    /**
+     * The size of the "ds64" chunk, or of the "JUNK" chunk reserving space for it.
+     */
+    static final int DS64_CHUNK_SIZE = WAVField.DS64_TABLE_LENGTH.getFieldEnd();
+    /**
+     * The largest value of a 32-bit size field. In RF64 files the field has this
+     * value and the actual size is stored in the "ds64" chunk.
+     */
+    static final long MAX_SIZE = 0xFFFFFFFFL;
+
+    private WAVHeader() {}
+
+    /**
+     * Returns the size of the header.
+     *
+     * @param wavFile the WAV file whose parameters are written
+     * @param ds64 true if the header reserves space for the "ds64" chunk
+     * @return the size of the header
+     */
+    static int getSize(WAVFile wavFile, boolean ds64) {
+        return SIZE + getExtensionSize(wavFile) + (ds64 ? DS64_CHUNK_SIZE : 0);
+    }
+
+    /**
+     * Writes the header into the beginning of the array.
+     *
+     * @param target the array of at least {@link #getSize} bytes
+     * @param wavFile the WAV file whose parameters are written
+     * @param dataSize the size of the audio data
+     * @param listSize the size of the "LIST" chunk written after the audio data
+     * @param ds64 true if the header reserves space for the "ds64" chunk
+     * @throws IllegalArgumentException if the sizes do not fit in 32 bits and there is no space for "ds64"
+     */
+    static void encode(byte[] target, WAVFile wavFile, long dataSize, int listSize, boolean ds64) {
+        long riffSize = getRiffSize(wavFile, dataSize, listSize, ds64);
+        boolean rf64 = riffSize > MAX_SIZE;
+        if (rf64 && !ds64) {
+            throw new IllegalArgumentException("Audio data does not fit in a 4 GB WAV file.");
+        }
+        int ftm = WAVField.FORMAT_TAG.getFieldEnd() + (ds64 ? DS64_CHUNK_SIZE : 0);
+        int extension = getExtensionSize(wavFile);
+        int data = ftm + WAVField.BITS_PER_SAMPLE.getFieldEnd() + extension;
+
+        putId(target, WAVField.CONTAINER_RIFF.getOffset(), rf64 ? getRF64Container(wavFile)
+                                                                : WAVContainerNameByte.CONTAINER_RIFF);
+        LittleEndian.putInt(target, WAVField.RIFF_CONTAINER_SIZE.getOffset(), (int) Math.min(riffSize, MAX_SIZE));
+        putId(target, WAVField.FORMAT_TAG.getOffset(), WAVContainerNameByte.CHUNK_WAVE);
+
+        if (ds64) {
+            int chunk = WAVField.FORMAT_TAG.getFieldEnd();
+            Arrays.fill(target, chunk, ftm, (byte) 0);
+            putId(target, chunk + WAVField.CHUNK_DS64.getOffset(),
+                    rf64 ? WAVContainerNameByte.CHUNK_DS64 : WAVContainerNameByte.CHUNK_JUNK);
+            LittleEndian.putInt(target, chunk + WAVField.DS64_SIZE.getOffset(),
+                                DS64_CHUNK_SIZE - WAVField.CHUNK_SIZE.getFieldEnd());
+            if (rf64) {
+                LittleEndian.putLong(target, chunk + WAVField.DS64_RIFF_SIZE.getOffset(), riffSize);
+                LittleEndian.putLong(target, chunk + WAVField.DS64_DATA_SIZE.getOffset(), dataSize);
+                LittleEndian.putLong(target, chunk + WAVField.DS64_SAMPLE_COUNT.getOffset(),
+                                    wavFile.getBlockAlign() == 0 ? 0 : dataSize / wavFile.getBlockAlign());
+            }
+        }
+
+        putId(target, ftm + WAVField.CHUNK_FTM.getOffset(), WAVContainerNameByte.CHUNK_FTM);
+        LittleEndian.putInt(target, ftm + WAVField.CHUNK_FTM_SIZE.getOffset(),
+                            WAVField.BITS_PER_SAMPLE.getFieldEnd() + extension - WAVField.CHUNK_SIZE.getFieldEnd());
+        LittleEndian.putShort(target, ftm + WAVField.AUDIO_FORMAT.getOffset(),
+                            extension == 0 ? wavFile.getAudioCodec() : WAVCodecRegistries.FORMAT_EXTENSIBLE.getIndex());
+        LittleEndian.putShort(target, ftm + WAVField.NUMBER_CHANNELS.getOffset(), wavFile.getNumberAudioChanel());
+        LittleEndian.putInt(target, ftm + WAVField.SAMPLE_RATE.getOffset(), wavFile.getSampleRate());
+        LittleEndian.putInt(target, ftm + WAVField.BYTE_RATE.getOffset(), wavFile.getByteRate());
+        LittleEndian.putShort(target, ftm + WAVField.BLOCK_ALIGN.getOffset(), wavFile.getBlockAlign());
+        LittleEndian.putShort(target, ftm + WAVField.BITS_PER_SAMPLE.getOffset(), wavFile.getBitsPerSample());
+        if (extension != 0) {
+            LittleEndian.putShort(target, ftm + WAVField.FTM_EXTENSION_SIZE.getOffset(),
+                                (short) (EXTENSION_SIZE - WAVField.FTM_EXTENSION_SIZE.getSize()));
+            LittleEndian.putShort(target, ftm + WAVField.VALID_BITS_PER_SAMPLE.getOffset(),
+                                wavFile.getValidBitsPerSample());
+            LittleEndian.putInt(target, ftm + WAVField.CHANNEL_MASK.getOffset(), getChannelMask(wavFile));
+            WAVCodecRegistries.putSubFormat(wavFile.getAudioCodec(), target, ftm + WAVField.SUB_FORMAT.getOffset());
+        }
+
+        putId(target, data + WAVField.CHUNK_DATA.getOffset(), WAVContainerNameByte.CHUNK_DATA);
+        LittleEndian.putInt(target, data + WAVField.DATA_SIZE.getOffset(), (int) (rf64 ? MAX_SIZE : dataSize));
+    }
+
+    /**
+     * Returns the size of the RIFF container for the specified size of audio data.
+     *
+     * @param wavFile the WAV file whose parameters are written
+     * @param dataSize the size of the audio data
+     * @param listSize the size of the "LIST" chunk written after the audio data
+     * @param ds64 true if the header reserves space for the "ds64" chunk
+     * @return the size of the RIFF container
+     */
+    static long getRiffSize(WAVFile wavFile, long dataSize, int listSize, boolean ds64) {
+        return getSize(wavFile, ds64) - WAVField.CHUNK_SIZE.getFieldEnd() + dataSize + (dataSize & 1) + listSize;
+    }
+
+    /**
+     * Returns the size of the extension of the "ftm " chunk, 0 if the chunk
+     * does not have the WAVE_FORMAT_EXTENSIBLE layout.
+     *
+     * @param wavFile the WAV file whose parameters are written
+     * @return the size of the extension of the "ftm " chunk
+     */
+    private static int getExtensionSize(WAVFile wavFile) {
+        return wavFile.isExtensible() || wavFile.getNumberAudioChanel() > 2 ? EXTENSION_SIZE : 0;
+    }
+
+    /**
+     * Returns the channel mask written into the extension of the "ftm " chunk: the mask
+     * of an extensible WAV file, or the usual mask for the number of channels.
+     *
+     * @param wavFile the WAV file whose parameters are written
+     * @return the channel mask
+     */
+    private static int getChannelMask(WAVFile wavFile) {
+        return wavFile.isExtensible() ? wavFile.getChannelMask()
+                                      : WAVSpeakerPosition.getDefaultMask(wavFile.getNumberAudioChanel());
+    }
+
+    /**
+     * Returns the identifier of the container used when the file no longer fits in RIFF:
+     * BW64 if the WAV file was read from a BW64 file, otherwise RF64.
+     *
+     * @param wavFile the WAV file whose parameters are written
+     * @return the identifier of the container
+     */
+    private static WAVContainerNameByte getRF64Container(WAVFile wavFile) {
+        return wavFile.getContainer() == WAVContainerNameByte.CONTAINER_BW64 ? WAVContainerNameByte.CONTAINER_BW64
+                                                                            : WAVContainerNameByte.CONTAINER_RF64;
+    }
+
+    /**
+     * Writes the identifier into the array.
+     *
+     * @param target the array of bytes
+     * @param offset the offset of the identifier in the array
+     * @param id the identifier
+     */
+    private static void putId(byte[] target, int offset, WAVContainerNameByte id) {
+        System.arraycopy(id.getByte(), 0, target, offset, id.getByte().length);
+    }
+
+}
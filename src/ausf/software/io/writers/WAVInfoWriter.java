@@ -0,0 +1,213 @@
+/*
+ * Copyright © 2021 Shcherbina Daniil
+ * License: http://opensource.org/licenses/MIT
+ */
+
+package ausf.software.io.writers;
+
+import ausf.software.constants.audio.wav.WAVContainerNameByte;
+import ausf.software.constants.audio.wav.WAVField;
+import ausf.software.file.audio.WAVFile;
+import ausf.software.util.LittleEndian;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ *
+ * Implementation of rewriting the metadata of a read WAV file in place,
+ * without touching its audio data.
+ *
+ * <p>The new "LIST" chunk is written over the old one if the old one is the
+ * last chunk of the file or if the new one fits into it; the rest of the old
+ * chunk then becomes a "JUNK" chunk. Otherwise the old chunk is turned into a
+ * "JUNK" chunk and the new one is added to the end of the file.
+ *
+ * <pre>{@code
+ * WAVFile wavFile = new WAVFileReader(path).read();
+ * wavFile.addInfo(INFOListChunkID.INAM, "Title");
+ * new WAVInfoWriter(wavFile).write();
+ * }</pre>
+ *
+ * <p>After writing, the WAV file object should be read again.
+ *
+ * @author  Shcherbina Daniil
+ * @see     WAVFile#getInfo()
+ * @see     WAVFileWriter
+ * @since   0.2.0
+ * @version 0.2.0
+ */
+public class WAVInfoWriter {
+
+    /**
+     * The read WAV file whose metadata is written.
+     */
+    private final WAVFile wavFile;
+
+    /**
+     * Creates an instance of the metadata writer for the read WAV file.
+     *
+     * @param wavFile the read WAV file whose metadata is written
+     */
+    public WAVInfoWriter(WAVFile wavFile) {
+        this.wavFile = wavFile;
+    }
+
+    /**
+     * Writes the metadata of the WAV file object into the file.
+     *
+     * @throws IOException if the file can not be read or written, or if it is not a WAV file
+     */
+    public void write() throws IOException {
+        int headerSize = WAVField.CHUNK_SIZE.getFieldEnd();
+        byte[] list = new byte[wavFile.getInfo().getChunkSize()];
+        wavFile.getInfo().encode(list, 0);
+
+        try (FileChannel channel = FileChannel.open(Paths.get(wavFile.getPath()),
+                                                    StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            boolean riff = isRiff(channel);
+            long position = channel.size();
+            long infoOffset = wavFile.getInfoOffset();
+
+            if (infoOffset > 0) {
+                byte[] header = new byte[headerSize];
+                read(channel, header, infoOffset);
+                long oldSize = LittleEndian.getUnsignedInt(header, WAVField.CHUNK_SIZE.getOffset());
+                long oldSpan = headerSize + oldSize + (oldSize & 1);
+
+                if (infoOffset + oldSpan >= channel.size()) {
+                    // the old chunk is the last one, it is simply replaced
+                    position = infoOffset;
+                } else if (list.length == oldSpan || (list.length != 0 && list.length + headerSize <= oldSpan)) {
+                    write(channel, list, infoOffset);
+                    if (list.length < oldSpan) {
+                        writeJunkHeader(channel, infoOffset + list.length, oldSpan - list.length - headerSize);
+                    }
+                    return;
+                } else {
+                    checkRiffSize(riff, position + (position & 1) + list.length);
+                    writeJunkHeader(channel, infoOffset, oldSize);
+                }
+            } else if (list.length == 0) {
+                return;
+            }
+            checkRiffSize(riff, position + (position & 1) + list.length);
+
+            if ((position & 1) != 0) {
+                write(channel, new byte[1], position++);
+            }
+            write(channel, list, position);
+            channel.truncate(position + list.length);
+
+            writeRiffSize(channel, riff, position + list.length - headerSize);
+        }
+    }
+
+    /**
+     * Reads the identifier of the container from the file, which may differ from
+     * the one of the WAV file object if the file has been rewritten since it was read.
+     *
+     * @param channel the channel of the file
+     * @return true for a RIFF container, false for an RF64 or BW64 container
+     * @throws IOException if the file can not be read or it is not a WAV file
+     */
+    private boolean isRiff(FileChannel channel) throws IOException {
+        byte[] id = new byte[WAVField.CONTAINER_RIFF.getSize()];
+        read(channel, id, WAVField.CONTAINER_RIFF.getOffset());
+        if (Arrays.equals(id, WAVContainerNameByte.CONTAINER_RIFF.getByte())) {
+            return true;
+        }
+        if (Arrays.equals(id, WAVContainerNameByte.CONTAINER_RF64.getByte())
+                || Arrays.equals(id, WAVContainerNameByte.CONTAINER_BW64.getByte())) {
+            return false;
+        }
+        throw new IOException(wavFile.getPath() + " is not a WAV file.");
+    }
+
+    /**
+     * Writes the size of the RIFF container. The size of an RF64 or BW64 container is
+     * written into the "ds64" chunk that follows the form type.
+     *
+     * @param channel the channel of the file
+     * @param riff true for a RIFF container, false for an RF64 or BW64 container
+     * @param size the size of the container
+     * @throws IOException if the file can not be written
+     */
+    private void writeRiffSize(FileChannel channel, boolean riff, long size) throws IOException {
+        if (riff) {
+            byte[] riffSize = new byte[WAVField.RIFF_CONTAINER_SIZE.getSize()];
+            LittleEndian.putInt(riffSize, 0, (int) size);
+            write(channel, riffSize, WAVField.RIFF_CONTAINER_SIZE.getOffset());
+        } else {
+            byte[] riffSize = new byte[WAVField.DS64_RIFF_SIZE.getSize()];
+            LittleEndian.putLong(riffSize, 0, size);
+            write(channel, riffSize, WAVField.FORMAT_TAG.getFieldEnd() + WAVField.DS64_RIFF_SIZE.getOffset());
+        }
+    }
+
+    /**
+     * Checks that the RIFF container still fits in 32 bits if the file ends at the specified position.
+     *
+     * @param riff true for a RIFF container, false for an RF64 or BW64 container
+     * @param end the position of the end of the file
+     * @throws IOException if the file is a RIFF file and it would exceed 4 GB
+     */
+    private void checkRiffSize(boolean riff, long end) throws IOException {
+        if (riff && end - WAVField.CHUNK_SIZE.getFieldEnd() > 0xFFFFFFFFL) {
+            throw new IOException("Metadata does not fit in a 4 GB WAV file.");
+        }
+    }
+
+    /**
+     * Writes the header of a "JUNK" chunk at the specified position.
+     *
+     * @param channel the channel of the file
+     * @param position the position of the chunk in the file
+     * @param size the size of the chunk body
+     * @throws IOException if the file can not be written
+     */
+    private void writeJunkHeader(FileChannel channel, long position, long size) throws IOException {
+        byte[] header = new byte[WAVField.CHUNK_SIZE.getFieldEnd()];
+        System.arraycopy(WAVContainerNameByte.CHUNK_JUNK.getByte(), 0, header, WAVField.CHUNK_ID.getOffset(),
+                            WAVField.CHUNK_ID.getSize());
+        LittleEndian.putInt(header, WAVField.CHUNK_SIZE.getOffset(), (int) size);
+        write(channel, header, position);
+    }
+
+    /**
+     * Reads the array from the specified position of the file.
+     *
+     * @param channel the channel of the file
+     * @param target the array to be filled
+     * @param position the position in the file
+     * @throws IOException if the file can not be read
+     */
+    private void read(FileChannel channel, byte[] target, long position) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(target);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * Writes the array at the specified position of the file.
+     *
+     * @param channel the channel of the file
+     * @param source the array to be written
+     * @param position the position in the file
+     * @throws IOException if the file can not be written
+     */
+    private void write(FileChannel channel, byte[] source, long position) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(source);
+        while (buffer.hasRemaining()) {
+            channel.write(buffer, position + buffer.position());
+        }
+    }
+
+}
@@ -0,0 +1,223 @@
+/*
+ * Copyright © 2021 Shcherbina Daniil
+ * License: http://opensource.org/licenses/MIT
+ */
+
+package ausf.software.io.writers;
+
+import ausf.software.codecs.ChannelRemapper;
+import ausf.software.constants.audio.wav.WAVField;
+import ausf.software.constants.audio.wav.WAVSpeakerPosition;
+import ausf.software.containers.INFOMetadata;
+import ausf.software.file.audio.WAVFile;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+
+/**
+ *
+ * Implementation of copying a WAV file into a new WAV file with a new header,
+ * optionally keeping only a range of frames.
+ *
+ * <p>The audio data is copied from the "data" chunk of the read file to the new
+ * file with {@link FileChannel#transferTo}, so the samples do not pass through the
+ * heap. The metadata of the read file, or the metadata set with {@link #info}, is
+ * written to the new file; other chunks are not copied. The borders of the range
+ * are aligned to whole frames.
+ *
+ * <p>With {@link #channels} only the selected channels are written. They are copied
+ * from windows of the audio data with {@link ChannelRemapper}, sample by sample
+ * without decoding, and the channel mask of an extensible file keeps the speaker
+ * positions of the selected channels.
+ *
+ * <pre>{@code
+ * new WAVRemuxer(new WAVFileReader(source).read(), target)
+ *         .trim(Duration.ofSeconds(10), Duration.ofSeconds(70))
+ *         .remux();
+ * }</pre>
+ *
+ * @author  Shcherbina Daniil
+ * @see     WAVStreamWriter
+ * @see     WAVFile
+ * @since   0.2.0
+ * @version 0.2.0
+ */
+public class WAVRemuxer {
+
+    /**
+     * The number of frames copied at a time when selecting channels.
+     */
+    private static final int WINDOW_FRAMES = 65536;
+
+    /**
+     * The WAV file to be copied.
+     */
+    private final WAVFile source;
+    /**
+     * The path of the new file.
+     */
+    private final String targetPath;
+    /**
+     * The metadata written to the new file.
+     */
+    private INFOMetadata info;
+    /**
+     * The first frame to be copied.
+     */
+    private long startFrame;
+    /**
+     * The frame after the last frame to be copied, or -1 to copy to the end.
+     */
+    private long stopFrame = -1;
+    /**
+     * The channels to be copied, or null to copy all channels.
+     */
+    private int[] channels;
+
+    /**
+     * Creates an instance that copies the whole WAV file to the specified path.
+     *
+     * @param source the WAV file to be copied
+     * @param targetPath the path of the new file
+     */
+    public WAVRemuxer(WAVFile source, String targetPath) {
+        this.source = source;
+        this.targetPath = targetPath;
+        info = source.getInfo();
+    }
+
+    /**
+     * Returns this instance with the metadata to be written to the new file
+     * instead of the metadata of the read file.
+     *
+     * @param info the metadata to be written to the new file
+     * @return this instance with the metadata to be written to the new file
+     */
+    public WAVRemuxer info(INFOMetadata info) {
+        this.info = info;
+        return this;
+    }
+
+    /**
+     * Returns this instance with the range of frames to be copied.
+     *
+     * @param startFrame the first frame to be copied
+     * @param stopFrame the frame after the last frame to be copied
+     * @return this instance with the range of frames to be copied
+     */
+    public WAVRemuxer trim(long startFrame, long stopFrame) {
+        this.startFrame = startFrame;
+        this.stopFrame = stopFrame;
+        return this;
+    }
+
+    /**
+     * Returns this instance with the time interval to be copied.
+     *
+     * @param start the start of the interval
+     * @param stop the end of the interval
+     * @return this instance with the time interval to be copied
+     */
+    public WAVRemuxer trim(Duration start, Duration stop) {
+        return trim(source.getFrame(start), source.getFrame(stop));
+    }
+
+    /**
+     * Returns this instance with the channels to be copied, in the order in which
+     * they are written to the new file.
+     *
+     * @param channels the indexes of the channels to be copied
+     * @return this instance with the channels to be copied
+     * @throws IllegalArgumentException if the file does not have a selected channel
+     */
+    public WAVRemuxer channels(int... channels) {
+        for (int channel : channels) {
+            if (channel < 0 || channel >= source.getNumberAudioChanel()) {
+                throw new IllegalArgumentException("No channel " + channel + " in "
+                                                    + source.getNumberAudioChanel() + " channels.");
+            }
+        }
+        this.channels = channels.clone();
+        return this;
+    }
+
+    /**
+     * Writes the new file.
+     *
+     * @throws IOException if the source file can not be read or the new file can not be written
+     */
+    public void remux() throws IOException {
+        long blockAlign = source.getBlockAlign();
+        long frames = source.getDataSize() / blockAlign;
+        long first = java.lang.Math.min(java.lang.Math.max(startFrame, 0), frames);
+        long last = stopFrame < 0 ? frames : java.lang.Math.min(java.lang.Math.max(stopFrame, first), frames);
+        long position = first * blockAlign;
+        long count = (last - first) * blockAlign;
+
+        WAVFile.WAVFileBuilder builder = WAVFile.builder()
+                .filePath(targetPath)
+                .fileAudioFormat(source.getAudioCodec())
+                .fileSampleRate(source.getSampleRate())
+                .bitsPerSample(source.getBitsPerSample())
+                .validBitsPerSample(source.getValidBitsPerSample())
+                .extensible(source.isExtensible())
+                .info(info)
+                .container(source.getContainer());
+        if (channels == null) {
+            builder = builder.numChannels(source.getNumberAudioChanel())
+                    .byteRate(source.getByteRate())
+                    .blockAlign(source.getBlockAlign());
+        } else {
+            // the block alignment and the byte rate are derived from the new number of channels
+            builder = builder.numChannels((short) channels.length);
+        }
+        if (source.isExtensible()) {
+            builder = builder.channelMask(channels == null ? source.getChannelMask()
+                                        : WAVSpeakerPosition.selectMask(source.getChannelMask(), channels));
+        }
+        WAVFile target = builder.build();
+
+        try (WAVStreamWriter writer = new WAVStreamWriter(target)) {
+            if (channels != null) {
+                appendChannels(writer, target, position, last - first);
+            } else if (source.getDataOffset() > 0) {
+                try (FileChannel channel = FileChannel.open(Paths.get(source.getPath()), StandardOpenOption.READ)) {
+                    writer.append(channel, source.getDataOffset() + WAVField.CHUNK_SIZE.getFieldEnd() + position,
+                                    count);
+                }
+            } else {
+                // the source has not been read from a file
+                writer.append(source.getDataBuffer(position, (int) count));
+            }
+        }
+    }
+
+    /**
+     * Writes the selected channels of the frames, copying a window of frames at a time.
+     *
+     * @param writer the writer of the new file
+     * @param target the new file
+     * @param position the position of the first frame in the audio data
+     * @param frames the number of frames to be copied
+     * @throws IOException if the new file can not be written
+     */
+    private void appendChannels(WAVStreamWriter writer, WAVFile target, long position, long frames) throws IOException {
+        int blockAlign = source.getBlockAlign();
+        int window = (int) java.lang.Math.min(WINDOW_FRAMES, frames);
+        ByteBuffer buffer = ByteBuffer.allocate(window * target.getBlockAlign());
+        for (long done = 0; done < frames; done += window) {
+            int count = (int) java.lang.Math.min(window, frames - done);
+            ByteBuffer data = source.getDataBuffer(position + done * blockAlign, count * blockAlign);
+            buffer.clear();
+            ChannelRemapper.remap(data, source.getAudioCodec(), source.getBitsPerSample(),
+                                  source.getNumberAudioChanel(), channels, buffer, count);
+            buffer.flip();
+            writer.append(buffer);
+        }
+    }
+
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright © 2021 Shcherbina Daniil
+ * License: http://opensource.org/licenses/MIT
+ */
+
+package ausf.software.io.writers;
+
+import ausf.software.analysis.AudioSegment;
+import ausf.software.file.audio.WAVFile;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ *
+ * Implementation of splitting a WAV file into one new WAV file for each segment.
+ *
+ * <p>Each segment is written by a {@link WAVRemuxer}, which copies its range of
+ * bytes from the "data" chunk of the read file without decoding the samples; the
+ * new files have the format and the metadata of the read file.
+ *
+ * <pre>{@code
+ * List<String> paths = new WAVSplitter(wavFile).split(segments, "out/call-%03d.wav");
+ * }</pre>
+ *
+ * @author  Shcherbina Daniil
+ * @see     WAVRemuxer
+ * @see     ausf.software.analysis.SilenceDetector
+ * @since   0.2.0
+ * @version 0.2.0
+ */
+public class WAVSplitter {
+
+    /**
+     * The WAV file to be split.
+     */
+    private final WAVFile source;
+
+    /**
+     * Creates an instance splitting the specified WAV file.
+     *
+     * @param source the WAV file to be split
+     */
+    public WAVSplitter(WAVFile source) {
+        this.source = source;
+    }
+
+    /**
+     * Writes each segment to a new file. The path of a new file is the pattern
+     * formatted with the number of the segment, from 1, as by {@link String#format}.
+     *
+     * @param segments the segments to be written
+     * @param pathPattern the pattern of the paths of the new files, for example "part-%03d.wav"
+     * @return the paths of the new files, in the order of the segments
+     * @throws IOException if the source file can not be read or a new file can not be written
+     */
+    public List<String> split(List<AudioSegment> segments, String pathPattern) throws IOException {
+        List<String> paths = new ArrayList<>(segments.size());
+        for (AudioSegment segment : segments) {
+            String path = String.format(pathPattern, paths.size() + 1);
+            new WAVRemuxer(source, path)
+                    .trim(segment.getStartFrame(), segment.getStopFrame())
+                    .remux();
+            paths.add(path);
+        }
+        return paths;
+    }
+
+}
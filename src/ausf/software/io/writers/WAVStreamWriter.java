@@ -0,0 +1,231 @@
+/*
+ * Copyright © 2021 Shcherbina Daniil
+ * License: http://opensource.org/licenses/MIT
+ */
+
+package ausf.software.io.writers;
+
+import ausf.software.constants.audio.wav.WAVField;
+import ausf.software.file.audio.WAVFile;
+import ausf.software.util.LittleEndian;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ *
+ * Implementation of the WAV file writer that receives audio data in parts.
+ *
+ * <p>When the writer is created, a header with zero sizes is written to the file.
+ * Each call to {@code append} writes the audio data straight to the file through
+ * a FileChannel, so the data is never collected in memory. When the writer is
+ * closed, the "LIST" chunk with the metadata of the WAV file object is written
+ * after the audio data, and the size of the RIFF container and of the "data"
+ * chunk are written into the header.
+ *
+ * <p>The header reserves space for a "ds64" chunk with a "JUNK" chunk. If the
+ * recording grows beyond 4 GB, the file is promoted to RF64 when the sizes are
+ * written: the "JUNK" chunk is replaced with the "ds64" chunk holding the 64-bit
+ * sizes, and the audio data stays where it is.
+ *
+ * <pre>{@code
+ * try (WAVStreamWriter writer = new WAVStreamWriter(wavFile)) {
+ *     while (...) {
+ *         writer.append(buffer);
+ *     }
+ * }
+ * }</pre>
+ *
+ * <p>The writer is not safe for use by multiple threads.
+ *
+ * @author  Shcherbina Daniil
+ * @see     WAVFileWriter
+ * @see     WAVFile
+ * @since   0.2.0
+ * @version 0.2.0
+ */
+public class WAVStreamWriter implements Closeable {
+
+    /**
+     * An instance of the WAVE file whose parameters are written
+     */
+    private final WAVFile wavFile;
+    /**
+     * File recording channel
+     */
+    private final FileChannel channel;
+    /**
+     * Buffer for writing the header
+     */
+    private final byte[] header;
+    /**
+     * The number of bytes of audio data written
+     */
+    private long dataSize;
+    /**
+     * The size of the "LIST" chunk written after the audio data
+     */
+    private int listSize;
+    /**
+     * True if the writer is closed
+     */
+    private boolean closed;
+
+    /**
+     * Creates the file at the path of the WAV file and writes a header with
+     * the parameters of the WAV file to it. The audio data of the WAV file
+     * object is not written.
+     *
+     * @param wavFile the object of the WAV file whose parameters are written
+     * @throws IOException if the file can not be created or written
+     */
+    public WAVStreamWriter(WAVFile wavFile) throws IOException {
+        this.wavFile = wavFile;
+        header = new byte[WAVHeader.getSize(wavFile, true)];
+        channel = FileChannel.open(Paths.get(wavFile.getPath()), StandardOpenOption.CREATE,
+                                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        writeHeader();
+    }
+
+    /**
+     * Writes the remaining bytes of the buffer to the end of the "data" chunk.
+     *
+     * @param buffer the buffer with audio data
+     * @throws IOException if the data can not be written
+     * @throws IllegalStateException if the writer is closed
+     */
+    public void append(ByteBuffer buffer) throws IOException {
+        if (closed) {
+            throw new IllegalStateException("Writer is closed.");
+        }
+        int size = buffer.remaining();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        dataSize += size;
+    }
+
+    /**
+     * Writes a fragment of the array to the end of the "data" chunk.
+     *
+     * @param data an array of audio data bytes
+     * @param offset the offset of the fragment in the array
+     * @param length the length of the fragment
+     * @throws IOException if the data can not be written
+     */
+    public void append(byte[] data, int offset, int length) throws IOException {
+        append(ByteBuffer.wrap(data, offset, length));
+    }
+
+    /**
+     * Copies a fragment of another file to the end of the "data" chunk with
+     * {@link FileChannel#transferTo}, so the bytes do not pass through the heap.
+     *
+     * @param source the channel of the file from which the data is copied
+     * @param position the position of the fragment in the source file
+     * @param count the length of the fragment
+     * @throws EOFException if the source file ends before the end of the fragment;
+     *                      the bytes copied before are kept
+     * @throws IOException if the data can not be copied
+     * @throws IllegalStateException if the writer is closed
+     */
+    public void append(FileChannel source, long position, long count) throws IOException {
+        if (closed) {
+            throw new IllegalStateException("Writer is closed.");
+        }
+        long transferred = 0;
+        while (transferred < count) {
+            long size = source.transferTo(position + transferred, count - transferred, channel);
+            if (size <= 0) {
+                throw new EOFException("The source file ends " + (count - transferred)
+                                        + " bytes before the end of the fragment.");
+            }
+            transferred += size;
+            dataSize += size;
+        }
+    }
+
+    /**
+     * Returns the number of bytes of audio data written.
+     *
+     * @return the number of bytes of audio data written
+     */
+    public long getDataSize() {
+        return dataSize;
+    }
+
+    /**
+     * Writes the current sizes into the header and forces the written data to the
+     * storage device, so the file stays readable if the recording is interrupted.
+     *
+     * @throws IOException if the data can not be written
+     */
+    public void flush() throws IOException {
+        writeSizes();
+        channel.force(false);
+    }
+
+    /**
+     * Aligns the "data" chunk to an even number of bytes, writes the "LIST" chunk
+     * with the file metadata, writes the final sizes into the header and closes the file.
+     *
+     * @throws IOException if the data can not be written
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            if ((dataSize & 1) != 0) {
+                channel.write(ByteBuffer.allocate(1));
+            }
+            byte[] list = new byte[wavFile.getInfo().getChunkSize()];
+            wavFile.getInfo().encode(list, 0);
+            ByteBuffer buffer = ByteBuffer.wrap(list);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            listSize = list.length;
+            writeSizes();
+        } finally {
+            channel.close();
+        }
+    }
+
+    /**
+     * Writes the WAV file header with zero sizes to the file.
+     *
+     * @throws IOException if the data can not be written
+     */
+    private void writeHeader() throws IOException {
+        WAVHeader.encode(header, wavFile, 0, 0, true);
+        LittleEndian.putInt(header, WAVField.RIFF_CONTAINER_SIZE.getOffset(), 0);
+        ByteBuffer buffer = ByteBuffer.wrap(header);
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    /**
+     * Writes the header with the current size of the RIFF container and of the "data"
+     * chunk without moving the channel. If the sizes no longer fit in 32 bits, the
+     * header of an RF64 file with the "ds64" chunk is written.
+     *
+     * @throws IOException if the data can not be written
+     */
+    private void writeSizes() throws IOException {
+        WAVHeader.encode(header, wavFile, dataSize, listSize, true);
+        ByteBuffer buffer = ByteBuffer.wrap(header);
+        while (buffer.hasRemaining()) {
+            channel.write(buffer, buffer.position());
+        }
+    }
+
+}
@@ -0,0 +1,448 @@
+/*
+ * Copyright © 2021 Shcherbina Daniil
+ * License: http://opensource.org/licenses/MIT
+ */
+
+package ausf.software.util;
+
+import ausf.software.constants.BufferSizes;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ *
+ * Implementation of a bounded cache of blocks of files shared by all readers,
+ * so that the popular parts of files read by many threads are read from the
+ * disk once and kept in memory once.
+ *
+ * <p>The cache is divided into slots of a fixed block size, each holding one block
+ * of a file in a direct buffer outside the heap; the buffer of a slot is allocated
+ * on first use and reused for other blocks afterwards, so the cache never holds more
+ * memory than its capacity. The blocks are found by the identity of the file and
+ * the number of the block in a {@link ConcurrentHashMap}, so a hit takes no lock.
+ * A miss takes a slot with the CLOCK algorithm: a slot used since the hand last
+ * passed it gets a second chance, and a slot being copied by a reader is never
+ * taken. Only the choice of the slot is done under a lock; the block is read
+ * outside it.
+ *
+ * <p>A process-wide cache, used by the positioned reads of
+ * {@link ausf.software.file.audio.WAVFile}, is returned by {@link #getShared()}.
+ * Its capacity is 64 MB unless the system property {@code ausf.software.blockCacheSize}
+ * sets another number of bytes; a capacity of 0 turns the shared cache off.
+ *
+ * @author  Shcherbina Daniil
+ * @see     ausf.software.file.audio.WAVFile#read(long, ByteBuffer)
+ * @since   0.2.0
+ * @version 0.2.0
+ */
+public class BlockCache {
+
+    /**
+     * The capacity of the shared cache, unless the system property sets another capacity.
+     */
+    public static final long DEFAULT_CAPACITY = 64L << 20;
+
+    /**
+     * The number of times the hand may pass all slots looking for a slot to take.
+     */
+    private static final int CLOCK_ROUNDS = 3;
+
+    private static volatile BlockCache shared = createShared();
+
+    private final int blockSize;
+    private final Entry[] slots;
+    private final Map<Key, Entry> blocks = new ConcurrentHashMap<>();
+    private final ReentrantLock clockLock = new ReentrantLock();
+    /**
+     * The slot examined next by the CLOCK algorithm.
+     */
+    private int hand;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final AtomicLong allocated = new AtomicLong();
+
+    /**
+     * Reader of a part of a file, used to load the blocks that are not in the cache.
+     *
+     * @author  Shcherbina Daniil
+     * @since   0.2.0
+     * @version 0.2.0
+     */
+    @FunctionalInterface
+    public interface Loader {
+
+        /**
+         * Fills the remaining space of the buffer from the file at the specified position,
+         * stopping early only at the end of the file.
+         *
+         * @param position the position in the file
+         * @param target the buffer to be filled
+         * @throws IOException if the file can not be read
+         */
+        void load(long position, ByteBuffer target) throws IOException;
+
+    }
+
+    /**
+     * Creates a cache with the specified capacity and the default block size.
+     *
+     * @param capacity the largest number of bytes held by the cache
+     */
+    public BlockCache(long capacity) {
+        this(capacity, BufferSizes.CACHE_BLOCK_SIZE.getSize());
+    }
+
+    /**
+     * Creates a cache with the specified capacity and block size.
+     *
+     * @param capacity the largest number of bytes held by the cache
+     * @param blockSize the number of bytes of one block
+     * @throws IllegalArgumentException if the capacity is less than one block
+     */
+    public BlockCache(long capacity, int blockSize) {
+        if (blockSize <= 0 || capacity < blockSize) {
+            throw new IllegalArgumentException("The capacity must hold at least one block of " + blockSize + " bytes.");
+        }
+        this.blockSize = blockSize;
+        slots = new Entry[(int) java.lang.Math.min(capacity / blockSize, Integer.MAX_VALUE - 8)];
+    }
+
+    /**
+     * Returns the process-wide cache.
+     *
+     * @return the process-wide cache, or null if it is turned off
+     */
+    public static BlockCache getShared() {
+        return shared;
+    }
+
+    /**
+     * Replaces the process-wide cache. The blocks of the previous cache are not moved.
+     *
+     * @param cache the new process-wide cache, or null to turn it off
+     */
+    public static void setShared(BlockCache cache) {
+        shared = cache;
+    }
+
+    /**
+     * Fills the remaining space of the buffer with the bytes of the file starting at
+     * the specified position, taking the blocks from the cache and loading the missing
+     * ones. Stops early only at the end of the file. Safe for use by many threads.
+     *
+     * @param file the identity of the file, equal for all readers of the same version of the file
+     * @param loader the reader of the file, used for the missing blocks
+     * @param position the position in the file
+     * @param target the buffer to be filled
+     * @throws IOException if a missing block can not be read
+     */
+    public void read(Object file, Loader loader, long position, ByteBuffer target) throws IOException {
+        while (target.hasRemaining()) {
+            long index = position / blockSize;
+            int offset = (int) (position % blockSize);
+            Entry entry = acquire(new Key(file, index), loader);
+            try {
+                int count = java.lang.Math.min(entry.length - offset, target.remaining());
+                if (count <= 0) {
+                    return;
+                }
+                ByteBuffer block = entry.buffer.duplicate();
+                block.limit(offset + count).position(offset);
+                target.put(block);
+                position += count;
+            } finally {
+                release(entry);
+            }
+        }
+    }
+
+    /**
+     * Removes the blocks of the file from the cache, for example after the file is changed.
+     *
+     * @param file the identity of the file
+     */
+    public void invalidate(Object file) {
+        blocks.keySet().removeIf(key -> key.file.equals(file));
+    }
+
+    /**
+     * Removes all blocks from the cache. The memory of the slots is kept for reuse.
+     */
+    public void clear() {
+        blocks.clear();
+    }
+
+    /**
+     * Returns the number of bytes of one block.
+     *
+     * @return the block size
+     */
+    public int getBlockSize() {
+        return blockSize;
+    }
+
+    /**
+     * Returns the largest number of bytes held by the cache.
+     *
+     * @return the capacity in bytes
+     */
+    public long getCapacity() {
+        return (long) slots.length * blockSize;
+    }
+
+    /**
+     * Returns the number of bytes of the buffers allocated so far, not more than the capacity.
+     *
+     * @return the allocated memory in bytes
+     */
+    public long getAllocatedMemory() {
+        return allocated.get();
+    }
+
+    /**
+     * Returns the number of blocks found in the cache.
+     *
+     * @return the number of hits
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * Returns the number of blocks read from the files.
+     *
+     * @return the number of misses
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * Returns the number of blocks removed to make room for other blocks.
+     *
+     * @return the number of evictions
+     */
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    /**
+     * Returns the share of the blocks found in the cache.
+     *
+     * @return the hit rate, from 0 to 1
+     */
+    public double getHitRate() {
+        long hit = hits.sum();
+        long total = hit + misses.sum();
+        return total == 0 ? 0 : (double) hit / total;
+    }
+
+    /**
+     * Returns the block pinned for reading, loading it if it is not in the cache.
+     *
+     * @param key the identity of the file and the number of the block
+     * @param loader the reader of the file
+     * @return the pinned block
+     * @throws IOException if the block can not be read
+     */
+    private Entry acquire(Key key, Loader loader) throws IOException {
+        while (true) {
+            Entry entry = blocks.get(key);
+            if (entry != null) {
+                if (pin(entry, key)) {
+                    if (!entry.referenced) {
+                        entry.referenced = true;
+                    }
+                    hits.increment();
+                    return entry;
+                }
+                // the slot is being taken for another block
+                Thread.onSpinWait();
+                continue;
+            }
+
+            misses.increment();
+            Entry slot = claimSlot();
+            try {
+                slot.buffer.clear();
+                loader.load(key.index * blockSize, slot.buffer);
+                slot.length = slot.buffer.position();
+            } catch (IOException | RuntimeException e) {
+                free(slot);
+                throw e;
+            }
+            if (slot.temporary) {
+                return slot;
+            }
+            slot.key = key;
+            slot.referenced = true;
+            if (blocks.putIfAbsent(key, slot) == null) {
+                return slot;
+            }
+            // another reader has loaded the block at the same time
+            free(slot);
+        }
+    }
+
+    /**
+     * Pins the entry if it still holds the block.
+     *
+     * @param entry the entry found for the block
+     * @param key the identity of the block
+     * @return true if the entry is pinned and holds the block
+     */
+    private static boolean pin(Entry entry, Key key) {
+        int pins;
+        do {
+            pins = entry.pins.get();
+            if (pins < 0) {
+                return false;
+            }
+        } while (!entry.pins.compareAndSet(pins, pins + 1));
+        if (key.equals(entry.key)) {
+            return true;
+        }
+        entry.pins.decrementAndGet();
+        return false;
+    }
+
+    private void release(Entry entry) {
+        if (!entry.temporary) {
+            entry.pins.decrementAndGet();
+        }
+    }
+
+    /**
+     * Makes the slot free for the next miss.
+     *
+     * @param slot the slot pinned by this reader only
+     */
+    private void free(Entry slot) {
+        slot.key = null;
+        slot.referenced = false;
+        // a reader that found the slot under its previous block unpins it at once
+        while (!slot.pins.compareAndSet(1, -1)) {
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * Returns a slot pinned by this reader only, taking a free slot or the slot of
+     * the block chosen by the CLOCK algorithm. If all slots are being read, returns
+     * a temporary block that is not kept in the cache.
+     *
+     * @return the pinned slot
+     */
+    private Entry claimSlot() {
+        clockLock.lock();
+        try {
+            for (int step = 0; step < CLOCK_ROUNDS * slots.length; step++) {
+                int index = hand;
+                hand = hand + 1 == slots.length ? 0 : hand + 1;
+                Entry entry = slots[index];
+                if (entry == null) {
+                    entry = new Entry(blockSize, false);
+                    allocated.addAndGet(blockSize);
+                    slots[index] = entry;
+                    return entry;
+                }
+                int pins = entry.pins.get();
+                if (pins < 0) {
+                    if (entry.pins.compareAndSet(-1, 1)) {
+                        return entry;
+                    }
+                } else if (pins == 0) {
+                    if (entry.referenced) {
+                        entry.referenced = false;
+                    } else if (entry.pins.compareAndSet(0, -1)) {
+                        if (entry.key != null && blocks.remove(entry.key, entry)) {
+                            evictions.increment();
+                        }
+                        entry.key = null;
+                        entry.pins.set(1);
+                        return entry;
+                    }
+                }
+            }
+        } finally {
+            clockLock.unlock();
+        }
+        return new Entry(blockSize, true);
+    }
+
+    private static BlockCache createShared() {
+        long capacity = DEFAULT_CAPACITY;
+        String property = System.getProperty("ausf.software.blockCacheSize");
+        if (property != null) {
+            try {
+                capacity = Long.parseLong(property.trim());
+            } catch (NumberFormatException e) {
+                e.printStackTrace();
+            }
+        }
+        return capacity < BufferSizes.CACHE_BLOCK_SIZE.getSize() ? null : new BlockCache(capacity);
+    }
+
+    /**
+     * The identity of a file and the number of a block of the file.
+     */
+    private static final class Key {
+
+        private final Object file;
+        private final long index;
+
+        private Key(Object file, long index) {
+            this.file = file;
+            this.index = index;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) o;
+            return index == key.index && file.equals(key.file);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * file.hashCode() + Long.hashCode(index);
+        }
+
+    }
+
+    /**
+     * A slot of the cache: the buffer of a block, the number of bytes of the block,
+     * and the number of readers copying from it, or -1 if the slot is free or being
+     * taken.
+     */
+    private static final class Entry {
+
+        private final ByteBuffer buffer;
+        private final boolean temporary;
+        private final AtomicInteger pins = new AtomicInteger(1);
+        private volatile Key key;
+        private volatile int length;
+        private volatile boolean referenced;
+
+        private Entry(int blockSize, boolean temporary) {
+            buffer = temporary ? ByteBuffer.allocate(blockSize) : ByteBuffer.allocateDirect(blockSize);
+            this.temporary = temporary;
+        }
+
+    }
+
+}
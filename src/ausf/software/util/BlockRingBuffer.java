@@ -0,0 +1,183 @@
+/*
+ * Copyright © 2021 Shcherbina Daniil
+ * License: http://opensource.org/licenses/MIT
+ */
+
+package ausf.software.util;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ *
+ * Implementation of a ring buffer of preallocated blocks of bytes for exactly
+ * one producer thread and one consumer thread.
+ *
+ * <p>The producer fills a block in place: {@link #claim()} returns the next free
+ * block and {@link #publish(int)} hands it over with the number of bytes written.
+ * The consumer takes the oldest block with {@link #peek()} and returns it with
+ * {@link #release()}. Neither side takes a lock or allocates memory, and the
+ * producer is never blocked: when all blocks are full, {@code claim} returns null
+ * and the producer decides what to do with the data.
+ *
+ * <pre>{@code
+ * byte[] block = ring.claim();            // producer
+ * if (block != null) {
+ *     int length = line.read(block, 0, block.length);
+ *     ring.publish(length);
+ * }
+ *
+ * ByteBuffer block = ring.peek();         // consumer
+ * if (block != null) {
+ *     consume(block);
+ *     ring.release();
+ * }
+ * }</pre>
+ *
+ * <p>Each method may only be called by its own side; the buffer is not safe for
+ * several producers or several consumers.
+ *
+ * @author  Shcherbina Daniil
+ * @since   0.2.0
+ * @version 0.2.0
+ */
+public class BlockRingBuffer {
+
+    /**
+     * The blocks of bytes.
+     */
+    private final byte[][] blocks;
+    /**
+     * The number of bytes written to each block.
+     */
+    private final int[] lengths;
+    /**
+     * A read-only little-endian view of each block given to the consumer.
+     */
+    private final ByteBuffer[] views;
+    /**
+     * The number of the next block to be published by the producer.
+     */
+    private final AtomicLong head = new AtomicLong();
+    /**
+     * The number of the next block to be released by the consumer.
+     */
+    private final AtomicLong tail = new AtomicLong();
+
+    /**
+     * Creates a ring buffer with the specified number of blocks of the specified size.
+     *
+     * @param blockCount the number of blocks
+     * @param blockSize the size of each block in bytes
+     * @throws IllegalArgumentException if the number or the size of blocks is not positive
+     */
+    public BlockRingBuffer(int blockCount, int blockSize) {
+        if (blockCount <= 0 || blockSize <= 0) {
+            throw new IllegalArgumentException("The number and the size of blocks must be positive.");
+        }
+        blocks = new byte[blockCount][blockSize];
+        lengths = new int[blockCount];
+        views = new ByteBuffer[blockCount];
+        for (int i = 0; i < blockCount; i++) {
+            views[i] = ByteBuffer.wrap(blocks[i]).asReadOnlyBuffer().order(ByteOrder.LITTLE_ENDIAN);
+        }
+    }
+
+    /**
+     * Returns the next free block to be filled by the producer,
+     * or null if all blocks are full.
+     *
+     * @return the next free block, or null if all blocks are full
+     */
+    public byte[] claim() {
+        long next = head.get();
+        if (next - tail.get() == blocks.length) {
+            return null;
+        }
+        return blocks[index(next)];
+    }
+
+    /**
+     * Hands the block returned by the last call to {@link #claim()} over to the consumer.
+     *
+     * @param length the number of bytes written to the block
+     */
+    public void publish(int length) {
+        long next = head.get();
+        lengths[index(next)] = length;
+        head.lazySet(next + 1);
+    }
+
+    /**
+     * Returns a read-only view of the oldest published block, or null if there are none.
+     * The view is positioned at the beginning of the block, is limited by the
+     * number of bytes written to it, and is valid until {@link #release()}.
+     *
+     * @return a read-only view of the oldest published block, or null if there are none
+     */
+    public ByteBuffer peek() {
+        long next = tail.get();
+        if (next == head.get()) {
+            return null;
+        }
+        int index = index(next);
+        ByteBuffer view = views[index];
+        view.clear().limit(lengths[index]);
+        return view;
+    }
+
+    /**
+     * Returns the block returned by the last call to {@link #peek()} to the producer.
+     */
+    public void release() {
+        tail.lazySet(tail.get() + 1);
+    }
+
+    /**
+     * Returns the number of published blocks that have not been released yet.
+     *
+     * @return the number of published blocks that have not been released yet
+     */
+    public int size() {
+        return (int) (head.get() - tail.get());
+    }
+
+    /**
+     * Returns true if there are no published blocks.
+     *
+     * @return true if there are no published blocks
+     */
+    public boolean isEmpty() {
+        return head.get() == tail.get();
+    }
+
+    /**
+     * Returns the number of blocks.
+     *
+     * @return the number of blocks
+     */
+    public int getBlockCount() {
+        return blocks.length;
+    }
+
+    /**
+     * Returns the size of each block in bytes.
+     *
+     * @return the size of each block in bytes
+     */
+    public int getBlockSize() {
+        return blocks[0].length;
+    }
+
+    /**
+     * Returns the index of the block with the specified number.
+     *
+     * @param sequence the number of the block
+     * @return the index of the block in the array
+     */
+    private int index(long sequence) {
+        return (int) (sequence % blocks.length);
+    }
+
+}
@@ -8,6 +8,9 @@ package ausf.software.util;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
 
 /**
  * Implementation of a file reader of a fixed size of the readable buffer.
@@ -27,6 +30,10 @@ public class ByteBufferReader {
      * Read data buffer array
      */
     private byte[] buffer;
+    /**
+     * Wrapper of the last array passed to {@link #read(long, byte[], int)}
+     */
+    private ByteBuffer wrapper;
 
     /**
      * Creating an instance of the reader with the specified file path.
@@ -63,6 +70,86 @@ public class ByteBufferReader {
         return buffer;
     }
 
+    /**
+     * Reads the data fragment at the specified position in the file and
+     * returns an array of bytes of the read buffer. The position of the
+     * stream used by {@link #getBuffer(int)} does not change.
+     *
+     * <p>If the file ends before the fragment, the returned array is shorter
+     * than the requested size.
+     *
+     * @param position the position in the file from which to read
+     * @param bufferSize the size of the buffer to be read
+     * @return an array of bytes of the read buffer
+     */
+    public byte[] getBuffer(long position, int bufferSize) {
+        buffer = new byte[bufferSize];
+        ByteBuffer target = ByteBuffer.wrap(buffer);
+
+        try {
+            FileChannel channel = stream.getChannel();
+            while (target.hasRemaining()) {
+                if (channel.read(target, position + target.position()) < 0) {
+                    break;
+                }
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+
+        if (target.position() < bufferSize) {
+            buffer = Arrays.copyOf(buffer, target.position());
+        }
+        return buffer;
+    }
+
+    /**
+     * Reads the data fragment at the specified position in the file into the
+     * specified array without creating a new one. The position of the stream
+     * used by {@link #getBuffer(int)} does not change.
+     *
+     * @param position the position in the file from which to read
+     * @param target the array into which the data is read
+     * @param size the number of bytes to be read
+     * @return the number of bytes read, less than the size if the file ends before
+     */
+    public int read(long position, byte[] target, int size) {
+        if (wrapper == null || wrapper.array() != target) {
+            wrapper = ByteBuffer.wrap(target);
+        }
+        wrapper.limit(size);
+        wrapper.position(0);
+
+        int read = 0;
+        try {
+            FileChannel channel = stream.getChannel();
+            while (wrapper.hasRemaining()) {
+                int count = channel.read(wrapper, position + read);
+                if (count < 0) {
+                    break;
+                }
+                read += count;
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        return read;
+    }
+
+    /**
+     * Returns the total size of the file.
+     *
+     * @return the total size of the file
+     */
+    public long getSize() {
+        try {
+            return stream.getChannel().size();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        return 0;
+    }
+
     /**
      * Sets the buffer size and reads data from the stream.
      *
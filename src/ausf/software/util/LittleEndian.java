@@ -0,0 +1,122 @@
+/*
+ * Copyright © 2021 Shcherbina Daniil
+ * License: http://opensource.org/licenses/MIT
+ */
+
+package ausf.software.util;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+
+/**
+ *
+ * A class containing implementations of methods for reading and writing
+ * little-endian numbers directly in an array of bytes.
+ *
+ * <p>The methods do not copy the array and do not create any objects,
+ * so they can be used to read and write the fields of file headers
+ * without producing garbage.
+ *
+ * @author  Shcherbina Daniil
+ * @since   0.2.0
+ * @version 0.2.0
+ */
+public class LittleEndian {
+
+    private static final VarHandle SHORT = MethodHandles.byteArrayViewVarHandle(short[].class,
+                                                                                ByteOrder.LITTLE_ENDIAN);
+    private static final VarHandle INT = MethodHandles.byteArrayViewVarHandle(int[].class,
+                                                                              ByteOrder.LITTLE_ENDIAN);
+    private static final VarHandle LONG = MethodHandles.byteArrayViewVarHandle(long[].class,
+                                                                               ByteOrder.LITTLE_ENDIAN);
+
+    /**
+     * Reads a 16-bit number at the specified offset in the array.
+     *
+     * @param array an array of bytes
+     * @param offset the offset of the number in the array
+     * @return the read number
+     */
+    public static short getShort(byte[] array, int offset) {
+        return (short) SHORT.get(array, offset);
+    }
+
+    /**
+     * Reads an unsigned 16-bit number at the specified offset in the array.
+     *
+     * @param array an array of bytes
+     * @param offset the offset of the number in the array
+     * @return the read number
+     */
+    public static int getUnsignedShort(byte[] array, int offset) {
+        return getShort(array, offset) & 0xFFFF;
+    }
+
+    /**
+     * Reads a 32-bit number at the specified offset in the array.
+     *
+     * @param array an array of bytes
+     * @param offset the offset of the number in the array
+     * @return the read number
+     */
+    public static int getInt(byte[] array, int offset) {
+        return (int) INT.get(array, offset);
+    }
+
+    /**
+     * Reads an unsigned 32-bit number at the specified offset in the array.
+     *
+     * @param array an array of bytes
+     * @param offset the offset of the number in the array
+     * @return the read number
+     */
+    public static long getUnsignedInt(byte[] array, int offset) {
+        return getInt(array, offset) & 0xFFFFFFFFL;
+    }
+
+    /**
+     * Reads a 64-bit number at the specified offset in the array.
+     *
+     * @param array an array of bytes
+     * @param offset the offset of the number in the array
+     * @return the read number
+     */
+    public static long getLong(byte[] array, int offset) {
+        return (long) LONG.get(array, offset);
+    }
+
+    /**
+     * Writes a 16-bit number at the specified offset in the array.
+     *
+     * @param array an array of bytes
+     * @param offset the offset of the number in the array
+     * @param value the number to be written
+     */
+    public static void putShort(byte[] array, int offset, short value) {
+        SHORT.set(array, offset, value);
+    }
+
+    /**
+     * Writes a 32-bit number at the specified offset in the array.
+     *
+     * @param array an array of bytes
+     * @param offset the offset of the number in the array
+     * @param value the number to be written
+     */
+    public static void putInt(byte[] array, int offset, int value) {
+        INT.set(array, offset, value);
+    }
+
+    /**
+     * Writes a 64-bit number at the specified offset in the array.
+     *
+     * @param array an array of bytes
+     * @param offset the offset of the number in the array
+     * @param value the number to be written
+     */
+    public static void putLong(byte[] array, int offset, long value) {
+        LONG.set(array, offset, value);
+    }
+
+}
@@ -0,0 +1,173 @@
+/*
+ * Copyright © 2021 Shcherbina Daniil
+ * License: http://opensource.org/licenses/MIT
+ */
+
+package ausf.software.util;
+
+import ausf.software.constants.BufferSizes;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Implementation of a read-only view of a region of a file mapped into memory.
+ *
+ * <p>The region is divided into windows of a fixed size, each of which is mapped
+ * only on first access, so regions larger than 2 GB can be read without loading
+ * them into the heap. The operating system reads only the pages that are touched.
+ * A fragment that crosses the border of two windows is mapped separately.
+ *
+ * <p>All returned buffers are read-only, have little-endian byte order and
+ * an independent position, so one region can be read by several threads.
+ *
+ * @see     ausf.software.file.audio.WAVFile
+ * @author  Shcherbina Daniil
+ * @since   0.2.0
+ * @version 0.2.0
+ */
+public class MappedFileRegion {
+
+    /**
+     * File path.
+     */
+    private final String path;
+    /**
+     * The offset of the region in the file.
+     */
+    private final long offset;
+    /**
+     * The length of the region.
+     */
+    private final long length;
+    /**
+     * The size of one mapped window.
+     */
+    private final int windowSize;
+    /**
+     * Windows that have already been mapped.
+     */
+    private final AtomicReferenceArray<MappedByteBuffer> windows;
+
+    /**
+     * Creates a view of the region of the file with the default window size.
+     *
+     * @param path file path
+     * @param offset the offset of the region in the file
+     * @param length the length of the region
+     */
+    public MappedFileRegion(String path, long offset, long length) {
+        this(path, offset, length, BufferSizes.MAPPED_WINDOW_SIZE.getSize());
+    }
+
+    /**
+     * Creates a view of the region of the file with the specified window size.
+     *
+     * @param path file path
+     * @param offset the offset of the region in the file
+     * @param length the length of the region
+     * @param windowSize the size of one mapped window
+     */
+    public MappedFileRegion(String path, long offset, long length, int windowSize) {
+        this.path = path;
+        this.offset = offset;
+        this.length = length;
+        this.windowSize = windowSize;
+        windows = new AtomicReferenceArray<>((int) ((length + windowSize - 1) / windowSize));
+    }
+
+    /**
+     * Returns the length of the region.
+     *
+     * @return the length of the region
+     */
+    public long getLength() {
+        return length;
+    }
+
+    /**
+     * Returns a buffer with the whole region.
+     *
+     * @return a read-only buffer with the whole region
+     * @throws IOException if the file can not be mapped
+     * @throws IllegalStateException if the region is larger than a single buffer can hold
+     */
+    public ByteBuffer getBuffer() throws IOException {
+        if (length > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Region of " + length + " bytes does not fit in one buffer.");
+        }
+        return getBuffer(0, (int) length);
+    }
+
+    /**
+     * Returns a buffer with the fragment of the region.
+     *
+     * @param position the position of the fragment in the region
+     * @param size the size of the fragment
+     * @return a read-only buffer with the fragment of the region
+     * @throws IOException if the file can not be mapped
+     */
+    public ByteBuffer getBuffer(long position, int size) throws IOException {
+        if (position < 0 || size < 0 || position + size > length) {
+            throw new IndexOutOfBoundsException("Fragment " + position + "+" + size
+                                                + " is outside the region of " + length + " bytes.");
+        }
+        if (size == 0) {
+            return ByteBuffer.allocate(0).asReadOnlyBuffer().order(ByteOrder.LITTLE_ENDIAN);
+        }
+
+        int index = (int) (position / windowSize);
+        long windowStart = (long) index * windowSize;
+        if (position + size > windowStart + windowSize) {
+            return map(offset + position, size);
+        }
+
+        ByteBuffer window = getWindow(index).duplicate();
+        window.position((int) (position - windowStart));
+        window.limit((int) (position - windowStart) + size);
+        return window.slice().order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Returns the window with the specified number, mapping it if necessary.
+     *
+     * @param index the number of the window
+     * @return the mapped window
+     * @throws IOException if the file can not be mapped
+     */
+    private MappedByteBuffer getWindow(int index) throws IOException {
+        MappedByteBuffer window = windows.get(index);
+        if (window == null) {
+            long windowStart = (long) index * windowSize;
+            window = map(offset + windowStart, (int) java.lang.Math.min(windowSize, length - windowStart));
+            if (!windows.compareAndSet(index, null, window)) {
+                window = windows.get(index);
+            }
+        }
+        return window;
+    }
+
+    /**
+     * Maps the fragment of the file into memory.
+     *
+     * @param position the position of the fragment in the file
+     * @param size the size of the fragment
+     * @return the mapped fragment
+     * @throws IOException if the file can not be mapped
+     */
+    private MappedByteBuffer map(long position, int size) throws IOException {
+        // the mapping stays valid after the channel is closed
+        try (FileChannel channel = FileChannel.open(Paths.get(path), StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, size);
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            return buffer;
+        }
+    }
+
+}
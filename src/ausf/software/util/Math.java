@@ -75,25 +75,27 @@ public class Math {
     }
 
     /**
-     * Calculates and returns the number of bytes for a single sample, including all channels
+     * Calculates and returns the number of bytes for a single sample, including all channels.
+     * A sample size that is not a multiple of 8 is stored in the next whole number of bytes.
      *
      * @param bitsPerSample the number of bits in the sample
      * @param numChannels number of audio channels
      * @return calculated number of bytes for one sample, including all channels
      */
     public static short getBlockAlign(int bitsPerSample, int numChannels) {
-        return (short) (bitsPerSample / 8 * numChannels);
+        return (short) ((bitsPerSample + 7) / 8 * numChannels);
     }
 
     /**
-     * Calculates and returns the number of bytes for a single sample, including all channels
+     * Calculates and returns the number of bytes for a single sample, including all channels.
+     * A sample size that is not a multiple of 8 is stored in the next whole number of bytes.
      *
      * @param bitsPerSample the number of bits in the sample
      * @param numChannels number of audio channels
      * @return calculated number of bytes for one sample, including all channels
      */
     public static short getBlockAlign(short bitsPerSample, short numChannels) {
-        return (short) (bitsPerSample / 8 * numChannels);
+        return (short) ((bitsPerSample + 7) / 8 * numChannels);
     }
 
 
@@ -0,0 +1,132 @@
+/*
+ * Copyright © 2021 Shcherbina Daniil
+ * License: http://opensource.org/licenses/MIT
+ */
+
+package ausf.software.util.pipeline;
+
+/**
+ *
+ * A block of whole frames passed through a {@link Pipeline}: one array of float
+ * samples for each channel, in the range from -1 to 1, and the number of frames
+ * currently held. The arrays are allocated once and reused for every block, so
+ * a pipeline needs memory for one block at each stage whatever the length of
+ * the audio data.
+ *
+ * @author  Shcherbina Daniil
+ * @see     BlockSource
+ * @see     BlockSink
+ * @since   0.2.0
+ * @version 0.2.0
+ */
+public final class AudioBlock {
+
+    /**
+     * The samples of the block, one array for each channel.
+     */
+    private final float[][] samples;
+    /**
+     * The largest number of frames in the block, at most the length of the arrays.
+     */
+    private int capacity;
+    /**
+     * The number of frames held in the block.
+     */
+    private int frames;
+
+    /**
+     * Creates an empty block.
+     *
+     * @param numChannels number of audio channels
+     * @param capacity the largest number of frames in the block
+     * @throws IllegalArgumentException if the number of channels or the capacity is not positive
+     */
+    public AudioBlock(int numChannels, int capacity) {
+        if (numChannels <= 0 || capacity <= 0) {
+            throw new IllegalArgumentException("The number of channels and the capacity must be positive.");
+        }
+        samples = new float[numChannels][capacity];
+        this.capacity = capacity;
+    }
+
+    /**
+     * Returns the arrays of samples, one for each channel. Only the first
+     * {@link #getFrames()} samples of each array belong to the block, and
+     * the arrays may be longer than the capacity.
+     *
+     * @return the arrays of samples
+     */
+    public float[][] getSamples() {
+        return samples;
+    }
+
+    /**
+     * Returns the array of samples of the channel.
+     *
+     * @param channel the number of the channel
+     * @return the array of samples of the channel
+     */
+    public float[] getChannel(int channel) {
+        return samples[channel];
+    }
+
+    /**
+     * Returns the number of audio channels.
+     *
+     * @return the number of audio channels
+     */
+    public int getNumberChannels() {
+        return samples.length;
+    }
+
+    /**
+     * Returns the largest number of frames in the block.
+     *
+     * @return the largest number of frames in the block
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Returns the number of frames held in the block.
+     *
+     * @return the number of frames held in the block
+     */
+    public int getFrames() {
+        return frames;
+    }
+
+    /**
+     * Sets the number of frames held in the block.
+     *
+     * @param frames the number of frames, from 0 to the capacity
+     * @throws IllegalArgumentException if the number is outside the capacity
+     */
+    public void setFrames(int frames) {
+        if (frames < 0 || frames > getCapacity()) {
+            throw new IllegalArgumentException("The block holds from 0 to " + getCapacity() + " frames.");
+        }
+        this.frames = frames;
+    }
+
+    /**
+     * Returns an empty block with the specified number of channels and capacity: the block
+     * itself if its arrays are long enough, otherwise a new block. The capacity of a reused
+     * block is reduced to the specified one, so a source never fills more frames than asked.
+     *
+     * @param block the block to be reused, or null
+     * @param numChannels number of audio channels
+     * @param capacity the capacity
+     * @return a block with the number of channels and the capacity
+     */
+    static AudioBlock reuse(AudioBlock block, int numChannels, int capacity) {
+        if (block != null && block.getNumberChannels() == numChannels && block.samples[0].length >= capacity) {
+            block.capacity = capacity;
+            block.frames = 0;
+            return block;
+        }
+        return new AudioBlock(numChannels, capacity);
+    }
+
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright © 2021 Shcherbina Daniil
+ * License: http://opensource.org/licenses/MIT
+ */
+
+package ausf.software.util.pipeline;
+
+import ausf.software.codecs.PCMConverter;
+import ausf.software.constants.audio.wav.WAVCodecRegistries;
+import ausf.software.util.player.audio.AudioPlayer;
+import ausf.software.util.player.audio.PlaybackSource;
+
+import javax.sound.sampled.AudioFormat;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ *
+ * A playback source encoding the blocks pulled from a pipeline, so that the
+ * pipeline can be played by an {@link AudioPlayer} or mixed by an
+ * {@link ausf.software.util.player.audio.AudioMixer}. The pipeline runs on the
+ * thread of the player, one block for each read.
+ *
+ * @author  Shcherbina Daniil
+ * @see     Pipeline#play(int)
+ * @since   0.2.0
+ * @version 0.2.0
+ */
+public class BlockPlaybackSource implements PlaybackSource {
+
+    private final BlockSource source;
+    private final short audioFormat;
+    private final int bitsPerSample;
+    private final AudioFormat format;
+    private AudioBlock block;
+    /**
+     * A little-endian view of the last array into which the blocks were encoded.
+     */
+    private ByteBuffer view = ByteBuffer.allocate(0);
+    /**
+     * The index of the first frame of the block not yet encoded.
+     */
+    private int pendingOffset;
+    /**
+     * The number of frames of the block not yet encoded.
+     */
+    private int pendingFrames;
+    private boolean finished;
+
+    /**
+     * Creates a playback source encoding the blocks as integer PCM samples of the specified size.
+     *
+     * @param source the last stage of the pipeline
+     * @param bitsPerSample the number of bits in the sample, 8 to 32
+     * @throws IllegalArgumentException if the sample size is not supported
+     */
+    public BlockPlaybackSource(BlockSource source, int bitsPerSample) {
+        this(source, WAVCodecRegistries.FORMAT_PCM, bitsPerSample);
+    }
+
+    /**
+     * Creates a playback source encoding the blocks as integer PCM or IEEE float samples.
+     *
+     * @param source the last stage of the pipeline
+     * @param audioFormat {@link WAVCodecRegistries#FORMAT_PCM} or {@link WAVCodecRegistries#FORMAT_IEEE_FLOAT}
+     * @param bitsPerSample the number of bits in the sample
+     * @throws IllegalArgumentException if the format or the sample size is not supported
+     */
+    public BlockPlaybackSource(BlockSource source, WAVCodecRegistries audioFormat, int bitsPerSample) {
+        boolean isFloat = audioFormat == WAVCodecRegistries.FORMAT_IEEE_FLOAT;
+        if (isFloat == false && audioFormat != WAVCodecRegistries.FORMAT_PCM
+                || PCMConverter.isSupported(audioFormat.getIndex(), bitsPerSample) == false) {
+            throw new IllegalArgumentException("Unsupported format " + audioFormat + " with " + bitsPerSample + " bits.");
+        }
+        this.source = source;
+        this.audioFormat = audioFormat.getIndex();
+        this.bitsPerSample = bitsPerSample;
+        int numChannels = source.getNumberChannels();
+        int frameSize = PCMConverter.getSampleSize(bitsPerSample) * numChannels;
+        // 8-bit PCM samples are unsigned
+        AudioFormat.Encoding encoding = isFloat ? AudioFormat.Encoding.PCM_FLOAT
+                : bitsPerSample > 8 ? AudioFormat.Encoding.PCM_SIGNED : AudioFormat.Encoding.PCM_UNSIGNED;
+        format = new AudioFormat(encoding, source.getSampleRate(), bitsPerSample, numChannels,
+                                frameSize, source.getSampleRate(), false);
+    }
+
+    @Override
+    public AudioFormat getFormat() {
+        return format;
+    }
+
+    @Override
+    public int read(byte[] target, int offset, int length) {
+        int frameSize = format.getFrameSize();
+        int frames = length / frameSize;
+        if (view.array() != target) {
+            view = ByteBuffer.wrap(target).order(ByteOrder.LITTLE_ENDIAN);
+        }
+        int written = 0;
+        // the player expects a short read only at the end
+        while (written < frames) {
+            if (pendingFrames == 0) {
+                if (finished) {
+                    break;
+                }
+                block = AudioBlock.reuse(block, source.getNumberChannels(), frames);
+                int read = source.read(block);
+                if (read < 0) {
+                    finished = true;
+                    break;
+                }
+                pendingOffset = 0;
+                pendingFrames = read;
+            }
+            int count = Math.min(pendingFrames, frames - written);
+            view.position(offset + written * frameSize);
+            PCMConverter.fromFloat(block.getSamples(), pendingOffset, count, audioFormat, bitsPerSample, view);
+            pendingOffset += count;
+            pendingFrames -= count;
+            written += count;
+        }
+        return written == 0 && finished ? -1 : written * frameSize;
+    }
+
+    @Override
+    public void close() {
+        source.close();
+    }
+
+}
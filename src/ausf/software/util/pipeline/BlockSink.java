@@ -0,0 +1,46 @@
+/*
+ * Copyright © 2021 Shcherbina Daniil
+ * License: http://opensource.org/licenses/MIT
+ */
+
+package ausf.software.util.pipeline;
+
+import java.io.IOException;
+
+/**
+ *
+ * The end of a {@link Pipeline}, receiving the processed blocks of frames.
+ *
+ * @author  Shcherbina Daniil
+ * @see     Pipeline#run(BlockSink)
+ * @see     WAVFileBlockSink
+ * @since   0.2.0
+ * @version 0.2.0
+ */
+public interface BlockSink {
+
+    /**
+     * Called once before the first block.
+     *
+     * @param sampleRate the sample rate of the blocks
+     * @param numChannels number of audio channels of the blocks
+     * @throws IOException if the sink can not be opened
+     */
+    void open(int sampleRate, int numChannels) throws IOException;
+
+    /**
+     * Called for each block. The block is valid only until the method returns.
+     *
+     * @param block the processed block
+     * @throws IOException if the block can not be written
+     */
+    void write(AudioBlock block) throws IOException;
+
+    /**
+     * Called once after the last block, also when the pipeline fails.
+     *
+     * @throws IOException if the sink can not be closed
+     */
+    void close() throws IOException;
+
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright © 2021 Shcherbina Daniil
+ * License: http://opensource.org/licenses/MIT
+ */
+
+package ausf.software.util.pipeline;
+
+/**
+ *
+ * The beginning of a {@link Pipeline} or a stage of it: blocks of frames are
+ * pulled from it one after another, each stage pulling from the one before.
+ *
+ * <p>A source is read by one thread only, so it does not have to be safe
+ * for use by multiple threads.
+ *
+ * @author  Shcherbina Daniil
+ * @see     Pipeline
+ * @see     BlockStage
+ * @since   0.2.0
+ * @version 0.2.0
+ */
+public interface BlockSource extends AutoCloseable {
+
+    /**
+     * Returns the sample rate of the blocks.
+     *
+     * @return the sample rate of the blocks
+     */
+    int getSampleRate();
+
+    /**
+     * Returns the number of audio channels of the blocks.
+     *
+     * @return the number of audio channels of the blocks
+     */
+    int getNumberChannels();
+
+    /**
+     * Fills the block with the next frames, at most its capacity, and sets the
+     * number of frames held in it. Fewer frames than the capacity do not mean
+     * that the end is reached.
+     *
+     * @param block a block with the number of channels of the source
+     * @return the number of frames read, or -1 if the end of the source is reached
+     */
+    int read(AudioBlock block);
+
+    /**
+     * Releases the resources of the source. Does nothing by default.
+     */
+    @Override
+    default void close() {}
+
+}
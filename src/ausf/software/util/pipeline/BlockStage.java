@@ -0,0 +1,50 @@
+/*
+ * Copyright © 2021 Shcherbina Daniil
+ * License: http://opensource.org/licenses/MIT
+ */
+
+package ausf.software.util.pipeline;
+
+/**
+ *
+ * A stage of a {@link Pipeline} processing the blocks pulled from the stage
+ * before it. By default the stage keeps the sample rate and the channels,
+ * and closing it closes the stage before it.
+ *
+ * @author  Shcherbina Daniil
+ * @see     Pipeline#then
+ * @since   0.2.0
+ * @version 0.2.0
+ */
+public abstract class BlockStage implements BlockSource {
+
+    /**
+     * The stage or source the blocks are pulled from.
+     */
+    protected final BlockSource upstream;
+
+    /**
+     * Creates a stage pulling the blocks from the specified source.
+     *
+     * @param upstream the stage or source the blocks are pulled from
+     */
+    protected BlockStage(BlockSource upstream) {
+        this.upstream = upstream;
+    }
+
+    @Override
+    public int getSampleRate() {
+        return upstream.getSampleRate();
+    }
+
+    @Override
+    public int getNumberChannels() {
+        return upstream.getNumberChannels();
+    }
+
+    @Override
+    public void close() {
+        upstream.close();
+    }
+
+}
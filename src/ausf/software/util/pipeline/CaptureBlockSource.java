@@ -0,0 +1,150 @@
+/*
+ * Copyright © 2021 Shcherbina Daniil
+ * License: http://opensource.org/licenses/MIT
+ */
+
+package ausf.software.util.pipeline;
+
+import ausf.software.codecs.PCMConverter;
+import ausf.software.util.BlockRingBuffer;
+import ausf.software.util.recorders.audio.CaptureSubscriber;
+import ausf.software.util.recorders.audio.Microphone;
+
+import javax.sound.sampled.AudioFormat;
+import java.nio.ByteBuffer;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ *
+ * A block source reading the audio data captured by a {@link Microphone} in the
+ * streaming mode. The source subscribes to the microphone when it is created;
+ * the captured blocks are copied into a ring buffer by the delivery thread that
+ * the microphone runs for this source and decoded by the thread running the pipeline. Reading waits
+ * for captured audio data, and the end of the source is reached when the
+ * recording stops.
+ *
+ * <p>When the pipeline does not keep up and the ring buffer is full, the captured
+ * audio data is dropped and counted by {@link #getDroppedFrames()}.
+ *
+ * @author  Shcherbina Daniil
+ * @see     Microphone#subscribe(CaptureSubscriber)
+ * @since   0.2.0
+ * @version 0.2.0
+ */
+public class CaptureBlockSource implements BlockSource, CaptureSubscriber {
+
+    /**
+     * The time the reading thread sleeps while waiting for captured audio data.
+     */
+    private static final long PARK_NANOS = 1_000_000;
+    /**
+     * The number of blocks of the ring buffer, about five seconds of blocks of 10 milliseconds.
+     */
+    private static final int BLOCK_COUNT = 512;
+
+    private final Microphone microphone;
+    private final short audioFormat;
+    private final int bitsPerSample;
+    private final int numChannels;
+    private final int frameSize;
+    private final int sampleRate;
+    private final BlockRingBuffer ringBuffer;
+
+    /**
+     * True when the recording has stopped.
+     */
+    private volatile boolean stopped;
+    private volatile long droppedFrames;
+    /**
+     * The position of the first byte not yet read in the oldest block of the ring buffer.
+     */
+    private int blockPosition;
+
+    /**
+     * Creates a source reading the audio data captured by the microphone and subscribes
+     * it to the microphone. The microphone must be created in the streaming mode.
+     *
+     * @param microphone the microphone capturing the audio data
+     */
+    public CaptureBlockSource(Microphone microphone) {
+        AudioFormat format = microphone.getAudioFormat();
+        this.microphone = microphone;
+        audioFormat = PCMConverter.getAudioFormat(format);
+        bitsPerSample = format.getSampleSizeInBits();
+        numChannels = format.getChannels();
+        frameSize = format.getFrameSize();
+        sampleRate = (int) format.getSampleRate();
+        ringBuffer = new BlockRingBuffer(BLOCK_COUNT, Math.max(sampleRate / 100, 1) * frameSize);
+        microphone.subscribe(this);
+    }
+
+    @Override
+    public int getSampleRate() {
+        return sampleRate;
+    }
+
+    @Override
+    public int getNumberChannels() {
+        return numChannels;
+    }
+
+    /**
+     * Returns the number of captured frames dropped because the ring buffer was full.
+     *
+     * @return the number of dropped frames
+     */
+    public long getDroppedFrames() {
+        return droppedFrames;
+    }
+
+    @Override
+    public void onBlock(ByteBuffer block) {
+        while (block.hasRemaining()) {
+            byte[] target = ringBuffer.claim();
+            if (target == null) {
+                droppedFrames += block.remaining() / frameSize;
+                return;
+            }
+            int length = Math.min(block.remaining(), target.length);
+            block.get(target, 0, length);
+            ringBuffer.publish(length);
+        }
+    }
+
+    @Override
+    public void onStop() {
+        stopped = true;
+    }
+
+    @Override
+    public int read(AudioBlock block) {
+        ByteBuffer captured;
+        while ((captured = ringBuffer.peek()) == null) {
+            if (stopped && ringBuffer.isEmpty()) {
+                block.setFrames(0);
+                return -1;
+            }
+            LockSupport.parkNanos(PARK_NANOS);
+        }
+        int available = (captured.limit() - blockPosition) / frameSize;
+        int frames = Math.min(available, block.getCapacity());
+        captured.position(blockPosition);
+        PCMConverter.toFloat(captured, audioFormat, bitsPerSample, numChannels, block.getSamples(), 0, frames);
+        blockPosition += frames * frameSize;
+        if (captured.limit() - blockPosition < frameSize) {
+            blockPosition = 0;
+            ringBuffer.release();
+        }
+        block.setFrames(frames);
+        return frames;
+    }
+
+    /**
+     * Unsubscribes the source from the microphone.
+     */
+    @Override
+    public void close() {
+        microphone.unsubscribe(this);
+    }
+
+}
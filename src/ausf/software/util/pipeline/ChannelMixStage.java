@@ -0,0 +1,120 @@
+/*
+ * Copyright © 2021 Shcherbina Daniil
+ * License: http://opensource.org/licenses/MIT
+ */
+
+package ausf.software.util.pipeline;
+
+import java.util.Arrays;
+
+/**
+ *
+ * A stage mixing the channels of the blocks into new channels with a matrix of
+ * gains: each output channel is the sum of the input channels multiplied by the
+ * gains of its row. Matrices for the usual downmix to mono and for copying a mono
+ * channel into several channels are provided.
+ *
+ * <pre>{@code
+ * // 5.1 to stereo, the center and the surround channels at -3 dB
+ * float c = 0.7071f;
+ * float[][] matrix = {{1, 0, c, 0, c, 0},
+ *                     {0, 1, c, 0, 0, c}};
+ * }</pre>
+ *
+ * @author  Shcherbina Daniil
+ * @see     Pipeline#mix(float[][])
+ * @since   0.2.0
+ * @version 0.2.0
+ */
+public class ChannelMixStage extends BlockStage {
+
+    /**
+     * The gains of the input channels for each output channel.
+     */
+    private final float[][] matrix;
+    /**
+     * The block into which the input channels are read.
+     */
+    private AudioBlock input;
+
+    /**
+     * Creates a stage mixing the channels with the specified matrix.
+     *
+     * @param upstream the stage or source the blocks are pulled from
+     * @param matrix a row of gains of the input channels for each output channel
+     * @throws IllegalArgumentException if a row does not have a gain for each input channel
+     */
+    public ChannelMixStage(BlockSource upstream, float[][] matrix) {
+        super(upstream);
+        if (matrix.length == 0) {
+            throw new IllegalArgumentException("The matrix must have at least one row.");
+        }
+        this.matrix = new float[matrix.length][];
+        for (int row = 0; row < matrix.length; row++) {
+            if (matrix[row].length != upstream.getNumberChannels()) {
+                throw new IllegalArgumentException("Each row of the matrix must have "
+                                                    + upstream.getNumberChannels() + " gains.");
+            }
+            this.matrix[row] = matrix[row].clone();
+        }
+    }
+
+    @Override
+    public int getNumberChannels() {
+        return matrix.length;
+    }
+
+    @Override
+    public int read(AudioBlock block) {
+        input = AudioBlock.reuse(input, upstream.getNumberChannels(), block.getCapacity());
+        int frames = upstream.read(input);
+        if (frames < 0) {
+            return frames;
+        }
+        float[][] in = input.getSamples();
+        for (int row = 0; row < matrix.length; row++) {
+            float[] out = block.getChannel(row);
+            float[] gains = matrix[row];
+            Arrays.fill(out, 0, frames, 0);
+            for (int channel = 0; channel < gains.length; channel++) {
+                float gain = gains[channel];
+                if (gain == 0) {
+                    continue;
+                }
+                float[] samples = in[channel];
+                for (int i = 0; i < frames; i++) {
+                    out[i] += samples[i] * gain;
+                }
+            }
+        }
+        block.setFrames(frames);
+        return frames;
+    }
+
+    /**
+     * Returns the matrix mixing all channels into one with equal gains.
+     *
+     * @param numChannels number of input channels
+     * @return the matrix of the downmix to mono
+     */
+    public static float[][] getDownmixMatrix(int numChannels) {
+        float[][] matrix = new float[1][numChannels];
+        Arrays.fill(matrix[0], 1f / numChannels);
+        return matrix;
+    }
+
+    /**
+     * Returns the matrix copying one channel into the specified number of channels.
+     *
+     * @param numChannels number of output channels
+     * @return the matrix copying a mono channel
+     */
+    public static float[][] getDuplicateMatrix(int numChannels) {
+        float[][] matrix = new float[numChannels][1];
+        for (float[] row : matrix) {
+            row[0] = 1;
+        }
+        return matrix;
+    }
+
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright © 2021 Shcherbina Daniil
+ * License: http://opensource.org/licenses/MIT
+ */
+
+package ausf.software.util.pipeline;
+
+/**
+ *
+ * A stage multiplying the samples by a gain. The gain can be changed by any
+ * thread while the pipeline is running; a change is applied smoothly over
+ * the next block.
+ *
+ * @author  Shcherbina Daniil
+ * @see     Pipeline#gain(float)
+ * @since   0.2.0
+ * @version 0.2.0
+ */
+public class GainStage extends BlockStage {
+
+    private volatile float gain;
+    /**
+     * The gain applied at the end of the last block.
+     */
+    private float appliedGain;
+
+    /**
+     * Creates a stage with the specified linear gain.
+     *
+     * @param upstream the stage or source the blocks are pulled from
+     * @param gain the linear gain
+     */
+    public GainStage(BlockSource upstream, float gain) {
+        super(upstream);
+        this.gain = gain;
+        appliedGain = gain;
+    }
+
+    /**
+     * Sets the linear gain.
+     *
+     * @param gain the linear gain
+     */
+    public void setGain(float gain) {
+        this.gain = gain;
+    }
+
+    /**
+     * Sets the gain in decibels.
+     *
+     * @param decibels the gain in decibels
+     */
+    public void setGainDecibels(float decibels) {
+        setGain(fromDecibels(decibels));
+    }
+
+    /**
+     * Returns the linear gain.
+     *
+     * @return the linear gain
+     */
+    public float getGain() {
+        return gain;
+    }
+
+    @Override
+    public int read(AudioBlock block) {
+        int frames = upstream.read(block);
+        if (frames <= 0) {
+            return frames;
+        }
+        float target = gain;
+        float start = appliedGain;
+        float step = (target - start) / frames;
+        for (float[] channel : block.getSamples()) {
+            if (step == 0) {
+                if (target != 1) {
+                    for (int i = 0; i < frames; i++) {
+                        channel[i] *= target;
+                    }
+                }
+            } else {
+                for (int i = 0; i < frames; i++) {
+                    channel[i] *= start + step * (i + 1);
+                }
+            }
+        }
+        appliedGain = target;
+        return frames;
+    }
+
+    /**
+     * Converts the gain in decibels into the linear gain.
+     *
+     * @param decibels the gain in decibels
+     * @return the linear gain
+     */
+    public static float fromDecibels(float decibels) {
+        return (float) Math.pow(10, decibels / 20);
+    }
+
+}
@@ -0,0 +1,201 @@
+/*
+ * Copyright © 2021 Shcherbina Daniil
+ * License: http://opensource.org/licenses/MIT
+ */
+
+package ausf.software.util.pipeline;
+
+import ausf.software.constants.ResamplerQuality;
+import ausf.software.file.Audio;
+import ausf.software.file.audio.WAVFile;
+import ausf.software.util.player.audio.AudioDataSource;
+import ausf.software.util.player.audio.AudioPlayer;
+import ausf.software.util.player.audio.WAVFileSource;
+import ausf.software.util.recorders.audio.Microphone;
+
+import java.io.IOException;
+import java.util.function.Function;
+
+/**
+ *
+ * A chain of processing of audio data in blocks: a source, any number of stages
+ * and a sink. The blocks are pulled through the stages by the thread running the
+ * pipeline, and each stage reuses its buffers, so the memory needed depends on the
+ * size of a block and not on the length of the audio data.
+ *
+ * <p>Inside the pipeline the samples are floats in the range from -1 to 1. The
+ * sources decode the audio data of their format and the sinks encode it into the
+ * format of their output, so a conversion of the data compression format or of
+ * the sample size is the choice of the source and the sink.
+ *
+ * <pre>{@code
+ * Pipeline.from(new WAVFileReader("in.wav").read())
+ *         .mix(ChannelMixStage.getDownmixMatrix(2))
+ *         .resample(16000, ResamplerQuality.HIGH)
+ *         .gain(GainStage.fromDecibels(-3))
+ *         .run(new WAVFileBlockSink("out.wav"));
+ * }</pre>
+ *
+ * @author  Shcherbina Daniil
+ * @see     BlockSource
+ * @see     BlockStage
+ * @see     BlockSink
+ * @since   0.2.0
+ * @version 0.2.0
+ */
+public class Pipeline {
+
+    /**
+     * The number of frames in a block, unless another number is set.
+     */
+    public static final int DEFAULT_BLOCK_FRAMES = 4096;
+
+    /**
+     * The last stage of the pipeline.
+     */
+    private BlockSource source;
+
+    private Pipeline(BlockSource source) {
+        this.source = source;
+    }
+
+    /**
+     * Returns a pipeline starting with the specified source.
+     *
+     * @param source the source of the blocks
+     * @return a pipeline starting with the source
+     */
+    public static Pipeline from(BlockSource source) {
+        return new Pipeline(source);
+    }
+
+    /**
+     * Returns a pipeline reading the audio data. A read WAV file is read from
+     * the file one block at a time.
+     *
+     * @param audio the audio data
+     * @return a pipeline reading the audio data
+     */
+    public static Pipeline from(Audio audio) {
+        return from(new PlaybackBlockSource(audio instanceof WAVFile ? new WAVFileSource((WAVFile) audio)
+                                                                     : new AudioDataSource(audio)));
+    }
+
+    /**
+     * Returns a pipeline reading the audio data captured by the microphone in
+     * the streaming mode, until the recording stops.
+     *
+     * @param microphone the microphone capturing the audio data
+     * @return a pipeline reading the captured audio data
+     */
+    public static Pipeline from(Microphone microphone) {
+        return from(new CaptureBlockSource(microphone));
+    }
+
+    /**
+     * Adds a stage to the end of the pipeline.
+     *
+     * @param stage the function creating the stage from the current last stage
+     * @return this pipeline
+     */
+    public Pipeline then(Function<BlockSource, ? extends BlockSource> stage) {
+        source = stage.apply(source);
+        return this;
+    }
+
+    /**
+     * Adds a stage multiplying the samples by the linear gain.
+     *
+     * @param gain the linear gain
+     * @return this pipeline
+     * @see GainStage
+     */
+    public Pipeline gain(float gain) {
+        return then(upstream -> new GainStage(upstream, gain));
+    }
+
+    /**
+     * Adds a stage mixing the channels with the matrix of gains.
+     *
+     * @param matrix a row of gains of the input channels for each output channel
+     * @return this pipeline
+     * @see ChannelMixStage
+     */
+    public Pipeline mix(float[][] matrix) {
+        return then(upstream -> new ChannelMixStage(upstream, matrix));
+    }
+
+    /**
+     * Adds a stage converting the blocks to the sample rate.
+     *
+     * @param sampleRate the sample rate of the output
+     * @param quality the interpolation filter
+     * @return this pipeline
+     * @see ResampleStage
+     */
+    public Pipeline resample(int sampleRate, ResamplerQuality quality) {
+        return then(upstream -> new ResampleStage(upstream, sampleRate, quality));
+    }
+
+    /**
+     * Returns the last stage of the pipeline, from which the processed blocks are pulled.
+     *
+     * @return the last stage of the pipeline
+     */
+    public BlockSource getSource() {
+        return source;
+    }
+
+    /**
+     * Pulls all blocks through the pipeline into the sink, in blocks of the default size.
+     *
+     * @param sink the sink of the processed blocks
+     * @return the number of frames written to the sink
+     * @throws IOException if the sink fails
+     */
+    public long run(BlockSink sink) throws IOException {
+        return run(sink, DEFAULT_BLOCK_FRAMES);
+    }
+
+    /**
+     * Pulls all blocks through the pipeline into the sink. The source and the sink
+     * are closed at the end, also when the pipeline fails.
+     *
+     * @param sink the sink of the processed blocks
+     * @param blockFrames the number of frames in a block
+     * @return the number of frames written to the sink
+     * @throws IOException if the sink fails
+     */
+    public long run(BlockSink sink, int blockFrames) throws IOException {
+        AudioBlock block = new AudioBlock(source.getNumberChannels(), blockFrames);
+        long frames = 0;
+        try {
+            sink.open(source.getSampleRate(), source.getNumberChannels());
+            int read;
+            while ((read = source.read(block)) >= 0) {
+                if (read > 0) {
+                    sink.write(block);
+                    frames += read;
+                }
+            }
+        } finally {
+            source.close();
+            sink.close();
+        }
+        return frames;
+    }
+
+    /**
+     * Starts playing the pipeline with an {@link AudioPlayer}, as integer PCM samples
+     * of the specified size. The pipeline runs on the thread of the player.
+     *
+     * @param bitsPerSample the number of bits in the sample sent to the line
+     * @return the player, already playing
+     */
+    public AudioPlayer play(int bitsPerSample) {
+        AudioPlayer player = new AudioPlayer(new BlockPlaybackSource(source, bitsPerSample));
+        player.playAudio();
+        return player;
+    }
+
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright © 2021 Shcherbina Daniil
+ * License: http://opensource.org/licenses/MIT
+ */
+
+package ausf.software.util.pipeline;
+
+import ausf.software.codecs.PCMConverter;
+import ausf.software.util.player.audio.PlaybackSource;
+
+import javax.sound.sampled.AudioFormat;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ *
+ * A block source decoding the audio data of a {@link PlaybackSource}, for example
+ * a {@link ausf.software.util.player.audio.WAVFileSource} reading a WAV file one
+ * block at a time. The samples are decoded according to the format of the source
+ * into a byte array allocated for the first block and reused afterwards.
+ *
+ * @author  Shcherbina Daniil
+ * @see     Pipeline#from(ausf.software.file.Audio)
+ * @since   0.2.0
+ * @version 0.2.0
+ */
+public class PlaybackBlockSource implements BlockSource {
+
+    private final PlaybackSource source;
+    /**
+     * The data compression format of the source.
+     */
+    private final short audioFormat;
+    private final int bitsPerSample;
+    private final int numChannels;
+    private final int frameSize;
+    private final int sampleRate;
+    /**
+     * The array into which the source is read.
+     */
+    private byte[] raw = new byte[0];
+    /**
+     * A little-endian view of the array into which the source is read.
+     */
+    private ByteBuffer rawView = ByteBuffer.wrap(raw);
+
+    /**
+     * Creates a block source decoding the audio data of the playback source.
+     *
+     * @param source the source of the audio data
+     */
+    public PlaybackBlockSource(PlaybackSource source) {
+        AudioFormat format = source.getFormat();
+        this.source = source;
+        audioFormat = PCMConverter.getAudioFormat(format);
+        bitsPerSample = format.getSampleSizeInBits();
+        numChannels = format.getChannels();
+        frameSize = format.getFrameSize();
+        sampleRate = (int) format.getSampleRate();
+    }
+
+    @Override
+    public int getSampleRate() {
+        return sampleRate;
+    }
+
+    @Override
+    public int getNumberChannels() {
+        return numChannels;
+    }
+
+    @Override
+    public int read(AudioBlock block) {
+        int size = block.getCapacity() * frameSize;
+        if (raw.length < size) {
+            raw = new byte[size];
+            rawView = ByteBuffer.wrap(raw).order(ByteOrder.LITTLE_ENDIAN);
+        }
+        int length = source.read(raw, 0, size);
+        if (length < 0) {
+            block.setFrames(0);
+            return -1;
+        }
+        int frames = length / frameSize;
+        PCMConverter.toFloat(rawView, audioFormat, bitsPerSample, numChannels, block.getSamples(), 0, frames);
+        block.setFrames(frames);
+        return frames;
+    }
+
+    @Override
+    public void close() {
+        source.close();
+    }
+
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright © 2021 Shcherbina Daniil
+ * License: http://opensource.org/licenses/MIT
+ */
+
+package ausf.software.util.pipeline;
+
+import ausf.software.codecs.Resampler;
+import ausf.software.constants.ResamplerQuality;
+
+/**
+ *
+ * A stage converting the blocks to another sample rate with a {@link Resampler}.
+ * The output of one input block may not fit in the block pulled from the stage;
+ * the rest is kept and passed on with the next block.
+ *
+ * @author  Shcherbina Daniil
+ * @see     Pipeline#resample(int, ResamplerQuality)
+ * @since   0.2.0
+ * @version 0.2.0
+ */
+public class ResampleStage extends BlockStage {
+
+    private final Resampler resampler;
+    /**
+     * The block into which the input frames are read.
+     */
+    private AudioBlock input;
+    /**
+     * The converted frames not yet passed on, one array for each channel.
+     */
+    private float[][] pending;
+    /**
+     * The index of the first converted frame not yet passed on.
+     */
+    private int pendingOffset;
+    /**
+     * The number of converted frames not yet passed on.
+     */
+    private int pendingFrames;
+    /**
+     * True when the end of the upstream is reached and the resampler is flushed.
+     */
+    private boolean flushed;
+
+    /**
+     * Creates a stage converting the blocks to the specified sample rate.
+     *
+     * @param upstream the stage or source the blocks are pulled from
+     * @param sampleRate the sample rate of the output
+     * @param quality the interpolation filter
+     */
+    public ResampleStage(BlockSource upstream, int sampleRate, ResamplerQuality quality) {
+        super(upstream);
+        resampler = new Resampler(upstream.getSampleRate(), sampleRate, upstream.getNumberChannels(), quality);
+    }
+
+    @Override
+    public int getSampleRate() {
+        return resampler.getOutputRate();
+    }
+
+    @Override
+    public int read(AudioBlock block) {
+        if (pendingFrames == 0) {
+            if (flushed) {
+                return -1;
+            }
+            fill(block.getCapacity());
+        }
+        int frames = Math.min(pendingFrames, block.getCapacity());
+        float[][] target = block.getSamples();
+        for (int channel = 0; channel < target.length; channel++) {
+            System.arraycopy(pending[channel], pendingOffset, target[channel], 0, frames);
+        }
+        pendingOffset += frames;
+        pendingFrames -= frames;
+        block.setFrames(frames);
+        return frames;
+    }
+
+    /**
+     * Converts the next input block, or flushes the resampler at the end of the upstream.
+     *
+     * @param capacity the capacity of the output block
+     */
+    private void fill(int capacity) {
+        // about one output block of input
+        int inputFrames = (int) Math.max(1, (long) capacity * resampler.getInputRate() / resampler.getOutputRate());
+        int numChannels = upstream.getNumberChannels();
+        input = AudioBlock.reuse(input, numChannels, inputFrames);
+        int outputCapacity = resampler.getOutputCapacity(input.getCapacity());
+        if (pending == null || pending[0].length < outputCapacity) {
+            pending = new float[numChannels][outputCapacity];
+        }
+        pendingOffset = 0;
+        int frames = upstream.read(input);
+        if (frames < 0) {
+            pendingFrames = resampler.flush(pending, 0);
+            flushed = true;
+        } else {
+            pendingFrames = resampler.process(input.getSamples(), 0, frames, pending, 0);
+        }
+    }
+
+}
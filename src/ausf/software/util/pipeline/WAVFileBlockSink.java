@@ -0,0 +1,146 @@
+/*
+ * Copyright © 2021 Shcherbina Daniil
+ * License: http://opensource.org/licenses/MIT
+ */
+
+package ausf.software.util.pipeline;
+
+import ausf.software.codecs.PCMConverter;
+import ausf.software.containers.INFOMetadata;
+import ausf.software.constants.audio.wav.WAVCodecRegistries;
+import ausf.software.file.audio.WAVFile;
+import ausf.software.io.writers.WAVStreamWriter;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ *
+ * A block sink encoding the blocks in the specified data compression format and
+ * sample size and appending them to a new WAV file with a {@link WAVStreamWriter}.
+ * A sink created from a read WAV file also keeps its channel layout, the layout
+ * of its "ftm " chunk and its metadata. The blocks are encoded into a byte array allocated for the first block and
+ * reused afterwards.
+ *
+ * @author  Shcherbina Daniil
+ * @see     WAVStreamWriter
+ * @since   0.2.0
+ * @version 0.2.0
+ */
+public class WAVFileBlockSink implements BlockSink {
+
+    private final String path;
+    private final WAVCodecRegistries format;
+    private final short bitsPerSample;
+    /**
+     * The file whose channel layout and metadata are written into the new file, or null.
+     */
+    private final WAVFile header;
+    private WAVFile wavFile;
+    private WAVStreamWriter writer;
+    /**
+     * The buffer into which the blocks are encoded.
+     */
+    private ByteBuffer encoded = ByteBuffer.allocate(0);
+
+    /**
+     * Creates a sink writing 16-bit PCM audio data to the file at the specified path.
+     *
+     * @param path the path of the new file
+     */
+    public WAVFileBlockSink(String path) {
+        this(path, WAVCodecRegistries.FORMAT_PCM, (short) 16);
+    }
+
+    /**
+     * Creates a sink writing audio data of the specified format to the file at the specified path.
+     *
+     * @param path the path of the new file
+     * @param format the data compression format of the new file
+     * @param bitsPerSample the number of bits in the sample of the new file
+     * @throws IllegalArgumentException if the format or the sample size is not supported
+     */
+    public WAVFileBlockSink(String path, WAVCodecRegistries format, short bitsPerSample) {
+        if (PCMConverter.isSupported(format.getIndex(), bitsPerSample) == false) {
+            throw new IllegalArgumentException("Unsupported format " + format + " with " + bitsPerSample + " bits.");
+        }
+        this.path = path;
+        this.format = format;
+        this.bitsPerSample = bitsPerSample;
+        this.header = null;
+    }
+
+    /**
+     * Creates a sink writing audio data in the format of the WAV file to the file at the
+     * specified path. The new file gets the data compression format, the sample size, the
+     * extensible layout and the metadata of the WAV file, and also its channel mask and
+     * number of valid bits if the number of channels of the written blocks is the same.
+     *
+     * @param path the path of the new file
+     * @param header the WAV file whose format and metadata are written
+     * @throws IllegalArgumentException if the format or the sample size is not supported
+     */
+    public WAVFileBlockSink(String path, WAVFile header) {
+        WAVCodecRegistries format = WAVCodecRegistries.fromIndex(header.getAudioCodec());
+        if (format == null || PCMConverter.isSupported(format.getIndex(), header.getBitsPerSample()) == false) {
+            throw new IllegalArgumentException("Unsupported format " + header.getAudioCodec()
+                                                + " with " + header.getBitsPerSample() + " bits.");
+        }
+        this.path = path;
+        this.format = format;
+        this.bitsPerSample = header.getBitsPerSample();
+        this.header = header;
+    }
+
+    @Override
+    public void open(int sampleRate, int numChannels) throws IOException {
+        WAVFile.WAVFileBuilder builder = WAVFile.builder()
+                .filePath(path)
+                .fileAudioFormat(format.getIndex())
+                .numChannels((short) numChannels)
+                .fileSampleRate(sampleRate)
+                .bitsPerSample(bitsPerSample);
+        if (header != null) {
+            builder.extensible(header.isExtensible())
+                    .info(header.getInfo().copy());
+            if (header.getNumberAudioChanel() == numChannels) {
+                builder.validBitsPerSample(header.getValidBitsPerSample());
+                if (header.isExtensible()) {
+                    builder.channelMask(header.getChannelMask());
+                }
+            }
+        }
+        wavFile = builder.build();
+        writer = new WAVStreamWriter(wavFile);
+    }
+
+    @Override
+    public void write(AudioBlock block) throws IOException {
+        int size = block.getFrames() * wavFile.getBlockAlign();
+        if (encoded.capacity() < size) {
+            encoded = ByteBuffer.allocate(block.getCapacity() * wavFile.getBlockAlign()).order(ByteOrder.LITTLE_ENDIAN);
+        }
+        encoded.clear();
+        PCMConverter.fromFloat(block.getSamples(), 0, block.getFrames(), format.getIndex(), bitsPerSample, encoded);
+        encoded.limit(size);
+        writer.append(encoded);
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (writer != null) {
+            writer.close();
+        }
+    }
+
+    /**
+     * Returns the new WAV file, with the parameters of the written audio data.
+     *
+     * @return the new WAV file, or null if the sink is not opened
+     */
+    public WAVFile getWAVFile() {
+        return wavFile;
+    }
+
+}
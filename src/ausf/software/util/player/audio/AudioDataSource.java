@@ -0,0 +1,114 @@
+/*
+ * Copyright © 2021 Shcherbina Daniil
+ * License: http://opensource.org/licenses/MIT
+ */
+
+package ausf.software.util.player.audio;
+
+import ausf.software.codecs.G711;
+import ausf.software.codecs.PCMConverter;
+import ausf.software.constants.audio.wav.WAVCodecRegistries;
+import ausf.software.file.Audio;
+
+import javax.sound.sampled.AudioFormat;
+
+/**
+ *
+ * A playback source reading audio data that is already in memory,
+ * for example a recording of the microphone.
+ *
+ * <p>A-law and μ-law audio data is expanded to 16-bit PCM samples while it is read,
+ * IEEE float audio data is passed on in the {@link AudioFormat.Encoding#PCM_FLOAT} encoding.
+ *
+ * @author  Shcherbina Daniil
+ * @see     PlaybackSource
+ * @since   0.2.0
+ * @version 0.2.0
+ */
+public class AudioDataSource implements PlaybackSource {
+
+    /**
+     * The array of audio data bytes.
+     */
+    private final byte[] data;
+    /**
+     * The format of the audio data.
+     */
+    private final AudioFormat format;
+    /**
+     * The data compression format of the audio data.
+     */
+    private final short audioFormat;
+    /**
+     * True if the audio data is A-law or μ-law and is expanded while it is read.
+     */
+    private final boolean expand;
+    /**
+     * The position of the next frame in the array.
+     */
+    private int position;
+
+    /**
+     * Creates a source reading the audio data from the beginning.
+     *
+     * @param audio the audio data
+     */
+    public AudioDataSource(Audio audio) {
+        data = audio.getData();
+        audioFormat = audio.getAudioCodec();
+        expand = G711.isG711(audioFormat);
+        format = expand
+                ? new AudioFormat(audio.getSampleRate(), 16, audio.getNumberAudioChanel(), true, false)
+                : getFormat(audio);
+    }
+
+    /**
+     * Returns the Java Sound format of integer PCM or IEEE float audio data.
+     *
+     * @param audio the audio data
+     * @return the Java Sound format of the audio data
+     */
+    static AudioFormat getFormat(Audio audio) {
+        int frameSize = PCMConverter.getSampleSize(audio.getBitsPerSample()) * audio.getNumberAudioChanel();
+        if (audio.getAudioCodec() == WAVCodecRegistries.FORMAT_IEEE_FLOAT.getIndex()) {
+            return new AudioFormat(AudioFormat.Encoding.PCM_FLOAT, audio.getSampleRate(), audio.getBitsPerSample(),
+                                   audio.getNumberAudioChanel(), frameSize, audio.getSampleRate(), false);
+        }
+        // 8-bit PCM samples are unsigned
+        AudioFormat.Encoding encoding = audio.getBitsPerSample() > 8
+                ? AudioFormat.Encoding.PCM_SIGNED : AudioFormat.Encoding.PCM_UNSIGNED;
+        return new AudioFormat(encoding, audio.getSampleRate(), audio.getBitsPerSample(),
+                               audio.getNumberAudioChanel(), frameSize, audio.getSampleRate(), false);
+    }
+
+    @Override
+    public AudioFormat getFormat() {
+        return format;
+    }
+
+    @Override
+    public int read(byte[] target, int offset, int length) {
+        int frameSize = format.getFrameSize();
+        if (expand) {
+            // a code of the array becomes two bytes of the target
+            int codeFrame = format.getChannels();
+            int remaining = data.length - position;
+            int size = Math.min(remaining - remaining % codeFrame, length / frameSize * codeFrame);
+            if (size <= 0) {
+                return -1;
+            }
+            G711.decode(audioFormat, data, position, target, offset, size);
+            position += size;
+            return size * 2;
+        }
+        int remaining = data.length - position;
+        int size = Math.min(remaining - remaining % frameSize, length - length % frameSize);
+        if (size <= 0) {
+            return -1;
+        }
+        System.arraycopy(data, position, target, offset, size);
+        position += size;
+        return size;
+    }
+
+}
@@ -0,0 +1,500 @@
+/*
+ * Copyright © 2021 Shcherbina Daniil
+ * License: http://opensource.org/licenses/MIT
+ */
+
+package ausf.software.util.player.audio;
+
+import ausf.software.file.Audio;
+import ausf.software.util.LittleEndian;
+
+import javax.sound.sampled.*;
+import java.util.Arrays;
+
+/**
+ *
+ * Implementation of a software mixer that sums any number of streams into
+ * a single output line in a single render thread.
+ *
+ * <p>Each stream is a {@link PlaybackSource} with its own gain, pan and schedule,
+ * see {@link MixerStream}. The render thread decodes a block of each playing stream
+ * into float samples, adds it to the mix with the gain and the pan, and converts the
+ * mix to 16-bit samples, clipping it or passing it through a peak limiter. All buffers
+ * are allocated when the mixer or a stream is created, so rendering does not allocate
+ * memory. The sample rate of the streams must match the sample rate of the mixer.
+ *
+ * <pre>{@code
+ * AudioMixer mixer = new AudioMixer(48000, 2);
+ * mixer.start();
+ * MixerStream prompt = mixer.add(new WAVFileSource(wavFile));
+ * prompt.setGain(0.5f);
+ * prompt.setPan(-0.3f);
+ * prompt.start();
+ * }</pre>
+ *
+ * <p>{@link #render(byte[], int, int)} can also be called directly, without a line,
+ * to mix the streams offline.
+ *
+ * @author  Shcherbina Daniil
+ * @see     MixerStream
+ * @see     AudioPlayer
+ * @since   0.2.0
+ * @version 0.2.0
+ */
+public class AudioMixer {
+
+    /**
+     * The duration of a rendered block in milliseconds.
+     */
+    private static final int BLOCK_MILLIS = 5;
+    /**
+     * The number of blocks in the buffer of the line by default.
+     */
+    private static final int BLOCK_COUNT = 4;
+    /**
+     * The largest level of the output of the limiter.
+     */
+    private static final float LIMITER_THRESHOLD = 0.98f;
+    /**
+     * The time in which the gain of the limiter recovers, in seconds.
+     */
+    private static final double LIMITER_RELEASE = 0.05;
+
+    /**
+     * The sample rate of the mix.
+     */
+    private final int sampleRate;
+    /**
+     * The number of audio channels of the mix, 1 or 2.
+     */
+    private final int numChannels;
+    /**
+     * The number of frames in a rendered block.
+     */
+    private final int blockFrames;
+    /**
+     * The mix of the block, one array for each channel.
+     */
+    private final float[][] mix;
+    /**
+     * The block of 16-bit samples written to the line.
+     */
+    private final byte[] output;
+    /**
+     * The coefficient of the recovery of the gain of the limiter for one frame.
+     */
+    private final float limiterRelease;
+
+    /**
+     * The streams of the mixer. The array is replaced on every change,
+     * so the render thread reads it without locking.
+     */
+    private volatile MixerStream[] streams = new MixerStream[0];
+    /**
+     * The number of frames rendered since the mixer was created.
+     */
+    private volatile long framePosition;
+    private volatile boolean limiter;
+    private volatile boolean isRunning;
+    private volatile long underruns;
+
+    /**
+     * The current gain of the limiter.
+     */
+    private float limiterGain = 1;
+    private int bufferFrames;
+    private SourceDataLine line;
+    private Thread renderThread;
+
+    /**
+     * Creates a mixer with the specified sample rate and number of channels. A rendered
+     * block lasts 5 milliseconds and the buffer of the line holds four blocks.
+     *
+     * @param sampleRate the sample rate of the mix
+     * @param numChannels the number of audio channels of the mix, 1 or 2
+     * @throws IllegalArgumentException if the number of channels is not 1 or 2
+     */
+    public AudioMixer(int sampleRate, int numChannels) {
+        this(sampleRate, numChannels, Math.max(1, sampleRate * BLOCK_MILLIS / 1000));
+    }
+
+    /**
+     * Creates a mixer with the specified sample rate, number of channels and size of a rendered block.
+     *
+     * @param sampleRate the sample rate of the mix
+     * @param numChannels the number of audio channels of the mix, 1 or 2
+     * @param blockFrames the number of frames in a rendered block
+     * @throws IllegalArgumentException if the number of channels is not 1 or 2
+     */
+    public AudioMixer(int sampleRate, int numChannels, int blockFrames) {
+        if (numChannels != 1 && numChannels != 2) {
+            throw new IllegalArgumentException("The mixer supports 1 or 2 channels: " + numChannels);
+        }
+        this.sampleRate = sampleRate;
+        this.numChannels = numChannels;
+        this.blockFrames = blockFrames;
+        mix = new float[numChannels][blockFrames];
+        output = new byte[blockFrames * numChannels * 2];
+        limiterRelease = (float) (1 - Math.exp(-1 / (LIMITER_RELEASE * sampleRate)));
+        bufferFrames = blockFrames * BLOCK_COUNT;
+    }
+
+    /**
+     * Adds a stream playing the source. The stream does not play until it is started.
+     *
+     * @param source the source of the audio data
+     * @return the added stream
+     * @throws IllegalArgumentException if the sample rate of the source differs from the mixer
+     */
+    public MixerStream add(PlaybackSource source) {
+        if ((int) source.getFormat().getSampleRate() != sampleRate) {
+            throw new IllegalArgumentException("The sample rate of the source " + source.getFormat().getSampleRate()
+                                                + " differs from the sample rate of the mixer " + sampleRate);
+        }
+        MixerStream stream = new MixerStream(this, source, blockFrames);
+        synchronized (this) {
+            MixerStream[] current = streams;
+            MixerStream[] next = Arrays.copyOf(current, current.length + 1);
+            next[current.length] = stream;
+            streams = next;
+        }
+        return stream;
+    }
+
+    /**
+     * Adds a stream playing the audio data from memory. The stream does not play until it is started.
+     *
+     * @param audio the audio data
+     * @return the added stream
+     * @throws IllegalArgumentException if the sample rate of the audio data differs from the mixer
+     */
+    public MixerStream add(Audio audio) {
+        return add(new AudioDataSource(audio));
+    }
+
+    /**
+     * Removes the stream from the mixer. The stream is silent from the next rendered
+     * block, which also closes its source, so the source is never closed while the
+     * render thread is reading it.
+     *
+     * @param stream the stream to be removed
+     */
+    public void remove(MixerStream stream) {
+        stream.remove();
+    }
+
+    /**
+     * Returns the number of streams in the mixer, including those not yet started
+     * and those removed after the last rendered block.
+     *
+     * @return the number of streams in the mixer
+     */
+    public int getStreamCount() {
+        return streams.length;
+    }
+
+    /**
+     * Returns the number of the next frame of the timeline of the mixer to be rendered.
+     *
+     * @return the number of the next frame to be rendered
+     */
+    public long getFramePosition() {
+        return framePosition;
+    }
+
+    /**
+     * Sets whether the mix is passed through a peak limiter. Without the limiter
+     * the samples outside the full scale are clipped.
+     *
+     * @param limiter true to pass the mix through the limiter
+     */
+    public void setLimiter(boolean limiter) {
+        this.limiter = limiter;
+    }
+
+    /**
+     * Sets the number of frames in the buffer of the output line.
+     * Takes effect at the next start of the mixer.
+     *
+     * @param bufferFrames the number of frames in the buffer of the line
+     */
+    public void setBufferFrames(int bufferFrames) {
+        this.bufferFrames = Math.max(blockFrames, bufferFrames);
+    }
+
+    /**
+     * Returns the number of times the buffer of the output line ran empty.
+     *
+     * @return the number of underruns
+     */
+    public long getUnderruns() {
+        return underruns;
+    }
+
+    /**
+     * Returns the format of the output of the mixer: 16-bit signed little-endian samples.
+     *
+     * @return the format of the output of the mixer
+     */
+    public AudioFormat getFormat() {
+        return new AudioFormat(sampleRate, 16, numChannels, true, false);
+    }
+
+    /**
+     * Opens the output line and starts the render thread.
+     */
+    public void start() {
+        try {
+            AudioFormat format = getFormat();
+            DataLine.Info dataLineInfo = new DataLine.Info(SourceDataLine.class, format);
+            line = (SourceDataLine) AudioSystem.getLine(dataLineInfo);
+            line.open(format, bufferFrames * format.getFrameSize());
+
+            isRunning = true;
+            renderThread = new Thread(new RenderThread(), "AudioMixer");
+            renderThread.setPriority(Thread.MAX_PRIORITY);
+            renderThread.start();
+        } catch (LineUnavailableException | IllegalArgumentException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Stops the render thread and closes the output line. The streams stay in the mixer.
+     */
+    public void stop() {
+        isRunning = false;
+        SourceDataLine current = line;
+        if (current != null) {
+            current.stop();
+            current.flush();
+        }
+        Thread thread = renderThread;
+        if (thread != null && thread != Thread.currentThread()) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Renders the next frames of the mix as 16-bit signed little-endian samples and
+     * advances the timeline. Called by the render thread; can be called directly to
+     * mix offline when the mixer is not started.
+     *
+     * @param target the array into which the samples are written
+     * @param offset the offset in the array from which to write
+     * @param frames the number of frames to be rendered
+     */
+    public void render(byte[] target, int offset, int frames) {
+        while (frames > 0) {
+            int block = Math.min(frames, blockFrames);
+            renderBlock(block);
+            encode(target, offset, block);
+            offset += block * numChannels * 2;
+            frames -= block;
+        }
+    }
+
+    /**
+     * Mixes the playing streams into {@link #mix} and advances the timeline.
+     *
+     * @param frames the number of frames in the block
+     */
+    private void renderBlock(int frames) {
+        for (float[] channel : mix) {
+            Arrays.fill(channel, 0, frames, 0);
+        }
+        long blockStart = framePosition;
+        long blockEnd = blockStart + frames;
+        boolean removed = false;
+
+        MixerStream[] current = streams;
+        for (MixerStream stream : current) {
+            long start = stream.getStartFrame();
+            long stop = stream.getStopFrame();
+            if (stop <= blockStart || stream.isRemoved() || stream.isFinished()) {
+                stream.finish();
+                removed = true;
+                continue;
+            }
+            if (start >= blockEnd) {
+                continue;
+            }
+            int from = (int) Math.max(0, start - blockStart);
+            int to = (int) Math.min(frames, stop - blockStart);
+            int decoded = stream.decode(to - from);
+            addStream(stream, from, decoded);
+            if (stop <= blockEnd) {
+                stream.finish();
+            }
+            removed |= stream.isFinished();
+        }
+        if (removed) {
+            removeFinished();
+        }
+        framePosition = blockEnd;
+    }
+
+    /**
+     * Adds the decoded samples of the stream to the mix with its gain and pan.
+     * The gain and the gains of the pan change linearly over the block from the
+     * values of the previous block.
+     *
+     * @param stream the stream
+     * @param from the first frame of the block where the stream plays
+     * @param frames the number of decoded frames of the stream
+     */
+    private void addStream(MixerStream stream, int from, int frames) {
+        float gain = stream.getGain();
+        float pan = stream.getPan();
+        float startGain = Float.isNaN(stream.appliedGain) ? gain : stream.appliedGain;
+        float startPan = Float.isNaN(stream.appliedPan) ? pan : stream.appliedPan;
+        stream.appliedGain = gain;
+        stream.appliedPan = pan;
+        if (frames == 0) {
+            return;
+        }
+
+        float[][] planes = stream.planes;
+        int sourceChannels = stream.getNumberChannels();
+        float[] first = planes[0];
+        float[] second = sourceChannels > 1 ? planes[1] : planes[0];
+        float gainStep = (gain - startGain) / frames;
+
+        if (numChannels == 1) {
+            // a stereo source is averaged, a mono source is added twice at half level
+            float[] out = mix[0];
+            for (int i = 0; i < frames; i++) {
+                float g = startGain + gainStep * i;
+                out[from + i] += (first[i] + second[i]) * 0.5f * g;
+            }
+            return;
+        }
+
+        float[] left = mix[0];
+        float[] right = mix[1];
+        boolean mono = sourceChannels == 1;
+        // the gains of the pan are computed for the ends of the block and interpolated between them
+        float startLeft = getLeftGain(startPan, mono);
+        float startRight = getRightGain(startPan, mono);
+        float leftStep = (getLeftGain(pan, mono) - startLeft) / frames;
+        float rightStep = (getRightGain(pan, mono) - startRight) / frames;
+        for (int i = 0; i < frames; i++) {
+            float g = startGain + gainStep * i;
+            left[from + i] += first[i] * (startLeft + leftStep * i) * g;
+            right[from + i] += second[i] * (startRight + rightStep * i) * g;
+        }
+    }
+
+    /**
+     * Returns the gain of the left channel for the pan. A mono source is panned
+     * with the constant power law, a stereo source is balanced.
+     *
+     * @param pan the pan, from -1 (left) to 1 (right)
+     * @param mono true if the source has one channel
+     * @return the gain of the left channel
+     */
+    private static float getLeftGain(float pan, boolean mono) {
+        return mono ? (float) Math.cos((pan + 1) * Math.PI / 4) : Math.min(1, 1 - pan);
+    }
+
+    /**
+     * Returns the gain of the right channel for the pan. A mono source is panned
+     * with the constant power law, a stereo source is balanced.
+     *
+     * @param pan the pan, from -1 (left) to 1 (right)
+     * @param mono true if the source has one channel
+     * @return the gain of the right channel
+     */
+    private static float getRightGain(float pan, boolean mono) {
+        return mono ? (float) Math.sin((pan + 1) * Math.PI / 4) : Math.min(1, 1 + pan);
+    }
+
+    /**
+     * Converts the mix into 16-bit samples, limiting or clipping it.
+     *
+     * @param target the array into which the samples are written
+     * @param offset the offset in the array from which to write
+     * @param frames the number of frames in the block
+     */
+    private void encode(byte[] target, int offset, int frames) {
+        boolean limit = limiter;
+        int position = offset;
+        for (int i = 0; i < frames; i++) {
+            float gain = 1;
+            if (limit) {
+                float peak = 0;
+                for (int channel = 0; channel < numChannels; channel++) {
+                    peak = Math.max(peak, Math.abs(mix[channel][i]));
+                }
+                float needed = peak > LIMITER_THRESHOLD ? LIMITER_THRESHOLD / peak : 1;
+                if (needed < limiterGain) {
+                    limiterGain = needed;
+                } else {
+                    limiterGain += (1 - limiterGain) * limiterRelease;
+                }
+                gain = limiterGain;
+            }
+            for (int channel = 0; channel < numChannels; channel++) {
+                float sample = Math.max(-1, Math.min(1, mix[channel][i] * gain));
+                LittleEndian.putShort(target, position, (short) Math.round(sample * Short.MAX_VALUE));
+                position += 2;
+            }
+        }
+    }
+
+    /**
+     * Removes the finished streams from the mixer.
+     */
+    private synchronized void removeFinished() {
+        MixerStream[] current = streams;
+        int count = 0;
+        for (MixerStream stream : current) {
+            if (!stream.isFinished()) {
+                count++;
+            }
+        }
+        MixerStream[] next = new MixerStream[count];
+        count = 0;
+        for (MixerStream stream : current) {
+            if (!stream.isFinished()) {
+                next[count++] = stream;
+            }
+        }
+        streams = next;
+    }
+
+    /**
+     * Renders blocks and writes them to the line until the mixer is stopped.
+     * The line is started after the first block.
+     */
+    private class RenderThread implements Runnable {
+        @Override
+        public void run() {
+            SourceDataLine current = line;
+            int bufferSize = current.getBufferSize();
+            boolean started = false;
+            try {
+                while (isRunning) {
+                    render(output, 0, blockFrames);
+                    if (started && current.available() >= bufferSize) {
+                        underruns++;
+                    }
+                    current.write(output, 0, output.length);
+                    if (!started) {
+                        current.start();
+                        started = true;
+                    }
+                }
+            } finally {
+                isRunning = false;
+                current.stop();
+                current.close();
+            }
+        }
+    }
+
+}
@@ -1,19 +1,94 @@
+/*
+ * Copyright © 2021 Shcherbina Daniil
+ * License: http://opensource.org/licenses/MIT
+ */
+
 package ausf.software.util.player.audio;
 
+import ausf.software.codecs.G711;
+import ausf.software.codecs.PCMConverter;
+import ausf.software.constants.audio.wav.WAVCodecRegistries;
 import ausf.software.containers.AudioData;
 
 import javax.sound.sampled.*;
 import java.io.ByteArrayInputStream;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 
+/**
+ *
+ * Implementation of audio playback through the system audio output.
+ *
+ * <p>A player created with a {@link PlaybackSource} streams the audio data: the
+ * playback thread pulls blocks of {@link #getPeriodFrames()} frames from the source
+ * and writes them to a line with a buffer of {@link #getBufferFrames()} frames.
+ * Playback starts as soon as the first block is written, so a long file starts
+ * playing without being loaded into memory, and the latency is set by the size of
+ * the buffer. Each time the buffer runs empty before the next block is written,
+ * an underrun is counted in {@link #getUnderruns()}. The source is closed when
+ * the playback ends.
+ *
+ * <pre>{@code
+ * AudioPlayer player = new AudioPlayer(new WAVFileSource(new WAVFileReader(path).read()));
+ * player.setPeriodFrames(240);
+ * player.setBufferFrames(960);
+ * player.playAudio();
+ * }</pre>
+ *
+ * @author  Shcherbina Daniil
+ * @see     PlaybackSource
+ * @since   0.1.0
+ * @version 0.2.0
+ */
 public class AudioPlayer {
 
+    /**
+     * The default duration of a block of the streaming playback in milliseconds.
+     */
+    private static final int PERIOD_MILLIS = 5;
+    /**
+     * The default number of blocks in the buffer of the line.
+     */
+    private static final int PERIOD_COUNT = 4;
+
     private AudioFormat audioFormat;
+    /**
+     * The format of the line of the streaming playback. Differs from the format
+     * of the source when the line does not support it.
+     */
+    private AudioFormat lineFormat;
 
     private AudioInputStream audioInputStream;
     private SourceDataLine sourceDataLine;
 
     private byte[] data;
+    /**
+     * The audio data given to the player, prepared for the line at the first playback.
+     */
+    private AudioData audioData;
+
+    /**
+     * The source of the streaming playback, or null if the audio data is in the array.
+     */
+    private PlaybackSource source;
+    /**
+     * The number of frames in a block written to the line.
+     */
+    private int periodFrames;
+    /**
+     * The number of frames in the buffer of the line.
+     */
+    private int bufferFrames;
+    /**
+     * True while the streaming playback is running.
+     */
+    private volatile boolean isPlaying;
+    /**
+     * The number of times the buffer of the line ran empty.
+     */
+    private volatile long underruns;
+    private Thread streamThread;
 
     public AudioPlayer(byte[] data, int sampleRate, int bitsPerSample,
                        int numChannels, boolean signed, boolean bigEndian) throws LineUnavailableException {
@@ -21,10 +96,114 @@ public class AudioPlayer {
         setAudioFormat(sampleRate, bitsPerSample, numChannels, signed, bigEndian);
     }
 
+    /**
+     * Creates a player for the audio data in memory. The audio data is prepared at
+     * the first playback: A-law and μ-law audio data is decoded, and IEEE float or
+     * 24-bit audio data is converted to 16-bit PCM samples only if the output line
+     * rejects its format.
+     *
+     * @param audioData the audio data
+     */
     public AudioPlayer(AudioData audioData){
-        data = audioData.getData();
-        setAudioFormat(audioData.getSampleRate(), audioData.getBitsPerSample(),
-                        audioData.getNumberAudioChanel(), true, false);
+        this.audioData = audioData;
+    }
+
+    /**
+     * Creates a player streaming the audio data from the source. By default a block
+     * lasts 5 milliseconds and the buffer of the line holds four blocks.
+     *
+     * @param source the source of the audio data
+     */
+    public AudioPlayer(PlaybackSource source) {
+        this.source = source;
+        audioFormat = source.getFormat();
+        periodFrames = Math.max(1, (int) audioFormat.getSampleRate() * PERIOD_MILLIS / 1000);
+        bufferFrames = periodFrames * PERIOD_COUNT;
+    }
+
+    /**
+     * Sets the number of frames in a block pulled from the source and written to the line.
+     * Takes effect at the next start of the playback.
+     *
+     * @param periodFrames the number of frames in a block
+     */
+    public void setPeriodFrames(int periodFrames) {
+        this.periodFrames = Math.max(1, periodFrames);
+    }
+
+    /**
+     * Returns the number of frames in a block pulled from the source and written to the line.
+     *
+     * @return the number of frames in a block
+     */
+    public int getPeriodFrames() {
+        return periodFrames;
+    }
+
+    /**
+     * Sets the number of frames in the buffer of the line. A smaller buffer lowers the
+     * latency, a larger one protects against underruns. Takes effect at the next start
+     * of the playback.
+     *
+     * @param bufferFrames the number of frames in the buffer of the line
+     */
+    public void setBufferFrames(int bufferFrames) {
+        this.bufferFrames = Math.max(1, bufferFrames);
+    }
+
+    /**
+     * Returns the number of frames in the buffer of the line.
+     *
+     * @return the number of frames in the buffer of the line
+     */
+    public int getBufferFrames() {
+        return bufferFrames;
+    }
+
+    /**
+     * Returns the number of times the buffer of the line ran empty during the streaming playback.
+     *
+     * @return the number of underruns
+     */
+    public long getUnderruns() {
+        return underruns;
+    }
+
+    /**
+     * Returns true while the streaming playback is running.
+     *
+     * @return true while the streaming playback is running
+     */
+    public boolean isPlaying() {
+        return isPlaying;
+    }
+
+    /**
+     * Stops the streaming playback and discards the audio data left in the line.
+     */
+    public void stopAudio() {
+        isPlaying = false;
+        SourceDataLine line = sourceDataLine;
+        if (line != null && source != null) {
+            line.stop();
+            line.flush();
+        }
+        awaitEnd();
+    }
+
+    /**
+     * Waits until the streaming playback ends.
+     */
+    public void awaitEnd() {
+        Thread thread = streamThread;
+        if (thread == null || thread == Thread.currentThread()) {
+            return;
+        }
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
     }
 
     public void setAudioFormat(int sampleRate, int sampleSizeInBits, int channels, boolean signed, boolean bigEndian){
@@ -37,16 +216,18 @@ public class AudioPlayer {
     }
 
     public void playAudio() {
+        if (source != null) {
+            playStream();
+            return;
+        }
         try{
+            sourceDataLine = getLine();
+
             InputStream byteArrayInputStream = new ByteArrayInputStream(data);
 
             audioInputStream = new AudioInputStream(byteArrayInputStream, audioFormat,
                                                 data.length/audioFormat.getFrameSize());
 
-            DataLine.Info dataLineInfo = new DataLine.Info(SourceDataLine.class, audioFormat);
-
-            sourceDataLine = (SourceDataLine) AudioSystem.getLine(dataLineInfo);
-
             sourceDataLine.open(audioFormat);
             sourceDataLine.start();
 
@@ -59,6 +240,125 @@ public class AudioPlayer {
         }
     }
 
+    /**
+     * Returns an output line for the audio data in memory. The audio data given to the
+     * constructor is prepared first: A-law and μ-law audio data is decoded, and audio
+     * data of a format that no output line supports is converted to 16-bit PCM samples.
+     *
+     * @return the output line
+     * @throws LineUnavailableException if no output line is available
+     */
+    private SourceDataLine getLine() throws LineUnavailableException {
+        if (audioData == null) {
+            return (SourceDataLine) AudioSystem.getLine(new DataLine.Info(SourceDataLine.class, audioFormat));
+        }
+        AudioData prepared = G711.isG711(audioData.getAudioCodec()) ? G711.decode(audioData) : audioData;
+        audioFormat = AudioDataSource.getFormat(prepared);
+        SourceDataLine line;
+        try {
+            line = (SourceDataLine) AudioSystem.getLine(new DataLine.Info(SourceDataLine.class, audioFormat));
+        } catch (IllegalArgumentException e) {
+            // no output line supports the format
+            prepared = PCMConverter.convert(prepared, WAVCodecRegistries.FORMAT_PCM, 16);
+            audioFormat = AudioDataSource.getFormat(prepared);
+            line = (SourceDataLine) AudioSystem.getLine(new DataLine.Info(SourceDataLine.class, audioFormat));
+        }
+        data = prepared.getData();
+        audioData = null;
+        return line;
+    }
+
+    /**
+     * Opens the line with the configured buffer and starts the streaming playback thread.
+     */
+    private void playStream() {
+        try {
+            lineFormat = getLineFormat(audioFormat);
+            DataLine.Info dataLineInfo = new DataLine.Info(SourceDataLine.class, lineFormat);
+            sourceDataLine = (SourceDataLine) AudioSystem.getLine(dataLineInfo);
+            sourceDataLine.open(lineFormat, Math.max(bufferFrames, periodFrames) * lineFormat.getFrameSize());
+
+            underruns = 0;
+            isPlaying = true;
+            streamThread = new Thread(new StreamThread(), "AudioPlayer");
+            streamThread.setPriority(Thread.MAX_PRIORITY);
+            streamThread.start();
+        } catch (LineUnavailableException | IllegalArgumentException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Returns the format itself if an output line supports it, otherwise
+     * the format of 16-bit PCM samples with the same sample rate and channels.
+     *
+     * @param format the format of the audio data
+     * @return the format of the output line
+     */
+    private static AudioFormat getLineFormat(AudioFormat format) {
+        if (AudioSystem.isLineSupported(new DataLine.Info(SourceDataLine.class, format))) {
+            return format;
+        }
+        return new AudioFormat(format.getSampleRate(), 16, format.getChannels(), true, false);
+    }
+
+    /**
+     * Pulls blocks from the source and writes them to the line. The line is started
+     * after the first block, and an underrun is counted when the buffer of the line
+     * is found empty before writing the next block. If the line has another format,
+     * each block is converted through float samples into 16-bit samples.
+     */
+    private class StreamThread implements Runnable {
+        @Override
+        public void run() {
+            SourceDataLine line = sourceDataLine;
+            byte[] period = new byte[periodFrames * audioFormat.getFrameSize()];
+            int bufferSize = line.getBufferSize();
+            boolean started = false;
+
+            boolean convert = lineFormat != audioFormat;
+            short codec = PCMConverter.getAudioFormat(audioFormat);
+            int bitsPerSample = audioFormat.getSampleSizeInBits();
+            int numChannels = audioFormat.getChannels();
+            ByteBuffer periodView = ByteBuffer.wrap(period).order(ByteOrder.LITTLE_ENDIAN);
+            float[][] planes = new float[convert ? numChannels : 0][periodFrames];
+            byte[] converted = new byte[convert ? periodFrames * lineFormat.getFrameSize() : 0];
+            ByteBuffer convertedView = ByteBuffer.wrap(converted).order(ByteOrder.LITTLE_ENDIAN);
+            try {
+                while (isPlaying) {
+                    int length = source.read(period, 0, period.length);
+                    if (length < 0) {
+                        break;
+                    }
+                    byte[] block = period;
+                    if (convert) {
+                        int frames = length / audioFormat.getFrameSize();
+                        PCMConverter.toFloat(periodView, codec, bitsPerSample, numChannels, planes, 0, frames);
+                        PCMConverter.fromFloat(planes, 0, frames, 16, convertedView);
+                        block = converted;
+                        length = frames * lineFormat.getFrameSize();
+                    }
+                    if (started && line.available() >= bufferSize) {
+                        underruns++;
+                    }
+                    line.write(block, 0, length);
+                    if (!started) {
+                        line.start();
+                        started = true;
+                    }
+                }
+                if (isPlaying) {
+                    line.drain();
+                }
+            } finally {
+                isPlaying = false;
+                line.stop();
+                line.close();
+                source.close();
+            }
+        }
+    }
+
     class PlayThread extends Thread{
         byte tempBuffer[] = new byte[10000];
 
@@ -0,0 +1,266 @@
+/*
+ * Copyright © 2021 Shcherbina Daniil
+ * License: http://opensource.org/licenses/MIT
+ */
+
+package ausf.software.util.player.audio;
+
+import ausf.software.codecs.PCMConverter;
+
+import javax.sound.sampled.AudioFormat;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ *
+ * A stream played by {@link AudioMixer}, with its own gain, pan and schedule.
+ *
+ * <p>The settings can be changed by any thread while the mixer is running. A change
+ * of the gain or the pan is applied smoothly over the next rendered block. The start
+ * and the stop are set in frames of the timeline of the mixer, so several streams
+ * can be aligned to the sample.
+ *
+ * @author  Shcherbina Daniil
+ * @see     AudioMixer#add(PlaybackSource)
+ * @since   0.2.0
+ * @version 0.2.0
+ */
+public final class MixerStream {
+
+    /**
+     * The frame value meaning that the event is not scheduled.
+     */
+    static final long NOT_SCHEDULED = Long.MAX_VALUE;
+
+    /**
+     * The mixer playing the stream.
+     */
+    private final AudioMixer mixer;
+    /**
+     * The source of the audio data.
+     */
+    private final PlaybackSource source;
+    /**
+     * The data compression format of the source.
+     */
+    private final short audioFormat;
+    /**
+     * The number of bits in the sample of the source.
+     */
+    private final int bitsPerSample;
+    /**
+     * The number of audio channels of the source.
+     */
+    private final int numChannels;
+    /**
+     * The size of a frame of the source in bytes.
+     */
+    private final int frameSize;
+    /**
+     * The array into which the source is read.
+     */
+    private final byte[] raw;
+    /**
+     * A little-endian view of the array into which the source is read.
+     */
+    private final ByteBuffer rawView;
+    /**
+     * The decoded samples of the block, one array for each channel of the source.
+     */
+    final float[][] planes;
+
+    private volatile float gain = 1;
+    private volatile float pan = 0;
+    private volatile long startFrame = NOT_SCHEDULED;
+    private volatile long stopFrame = NOT_SCHEDULED;
+    private volatile boolean finished;
+    /**
+     * True if the stream has been removed from the mixer and is to be finished by the next rendered block.
+     */
+    private volatile boolean removed;
+
+    /**
+     * The gain applied at the end of the last rendered block.
+     */
+    float appliedGain = Float.NaN;
+    /**
+     * The pan applied at the end of the last rendered block.
+     */
+    float appliedPan = Float.NaN;
+
+    /**
+     * Creates a stream of the mixer.
+     *
+     * @param mixer the mixer playing the stream
+     * @param source the source of the audio data
+     * @param blockFrames the largest number of frames rendered at once
+     */
+    MixerStream(AudioMixer mixer, PlaybackSource source, int blockFrames) {
+        AudioFormat format = source.getFormat();
+        this.mixer = mixer;
+        this.source = source;
+        audioFormat = PCMConverter.getAudioFormat(format);
+        bitsPerSample = format.getSampleSizeInBits();
+        numChannels = format.getChannels();
+        frameSize = format.getFrameSize();
+        raw = new byte[blockFrames * frameSize];
+        rawView = ByteBuffer.wrap(raw).order(ByteOrder.LITTLE_ENDIAN);
+        planes = new float[numChannels][blockFrames];
+    }
+
+    /**
+     * Sets the linear gain of the stream, 1 by default.
+     *
+     * @param gain the linear gain
+     */
+    public void setGain(float gain) {
+        this.gain = gain;
+    }
+
+    /**
+     * Returns the linear gain of the stream.
+     *
+     * @return the linear gain of the stream
+     */
+    public float getGain() {
+        return gain;
+    }
+
+    /**
+     * Sets the position of the stream between the left (-1) and the right (1) channel,
+     * 0 by default. A mono stream is panned with the constant power law, a stereo
+     * stream is balanced.
+     *
+     * @param pan the position from -1 to 1
+     */
+    public void setPan(float pan) {
+        this.pan = Math.max(-1, Math.min(1, pan));
+    }
+
+    /**
+     * Returns the position of the stream between the left and the right channel.
+     *
+     * @return the position from -1 to 1
+     */
+    public float getPan() {
+        return pan;
+    }
+
+    /**
+     * Starts the stream with the next rendered block.
+     */
+    public void start() {
+        startAt(mixer.getFramePosition());
+    }
+
+    /**
+     * Starts the stream at the specified frame of the timeline of the mixer.
+     *
+     * @param frame the frame of the timeline of the mixer
+     */
+    public void startAt(long frame) {
+        startFrame = frame;
+    }
+
+    /**
+     * Stops the stream with the next rendered block. A stopped stream is removed from the mixer.
+     */
+    public void stop() {
+        stopAt(mixer.getFramePosition());
+    }
+
+    /**
+     * Stops the stream at the specified frame of the timeline of the mixer.
+     * A stopped stream is removed from the mixer.
+     *
+     * @param frame the frame of the timeline of the mixer
+     */
+    public void stopAt(long frame) {
+        stopFrame = frame;
+    }
+
+    /**
+     * Returns true if the source has ended or the stream has been stopped.
+     *
+     * @return true if the stream is finished
+     */
+    public boolean isFinished() {
+        return finished;
+    }
+
+    /**
+     * Returns the frame of the timeline of the mixer at which the stream starts.
+     *
+     * @return the frame at which the stream starts, or {@link Long#MAX_VALUE} if it is not scheduled
+     */
+    public long getStartFrame() {
+        return startFrame;
+    }
+
+    /**
+     * Returns the frame of the timeline of the mixer at which the stream stops.
+     *
+     * @return the frame at which the stream stops, or {@link Long#MAX_VALUE} if it is not scheduled
+     */
+    public long getStopFrame() {
+        return stopFrame;
+    }
+
+    /**
+     * Marks the stream to be removed from the mixer with the next rendered block.
+     */
+    void remove() {
+        removed = true;
+    }
+
+    /**
+     * Returns true if the stream has been removed from the mixer.
+     *
+     * @return true if the stream has been removed
+     */
+    boolean isRemoved() {
+        return removed;
+    }
+
+    /**
+     * Returns the number of audio channels of the source.
+     *
+     * @return the number of audio channels of the source
+     */
+    int getNumberChannels() {
+        return numChannels;
+    }
+
+    /**
+     * Reads and decodes the next frames of the source into {@link #planes}.
+     * Marks the stream finished at the end of the source.
+     *
+     * @param frames the number of frames to be read
+     * @return the number of frames decoded
+     */
+    int decode(int frames) {
+        int length = source.read(raw, 0, frames * frameSize);
+        if (length <= 0) {
+            finish();
+            return 0;
+        }
+        int decoded = length / frameSize;
+        rawView.clear();
+        PCMConverter.toFloat(rawView, audioFormat, bitsPerSample, numChannels, planes, 0, decoded);
+        if (decoded < frames) {
+            finish();
+        }
+        return decoded;
+    }
+
+    /**
+     * Marks the stream finished and closes the source.
+     */
+    void finish() {
+        if (!finished) {
+            finished = true;
+            source.close();
+        }
+    }
+
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright © 2021 Shcherbina Daniil
+ * License: http://opensource.org/licenses/MIT
+ */
+
+package ausf.software.util.player.audio;
+
+import javax.sound.sampled.AudioFormat;
+
+/**
+ *
+ * A source of audio data pulled by the player in blocks of whole frames,
+ * for example a WAV file mapped into memory, a decoder or a generator.
+ *
+ * <p>The source is read by the playback thread only, so it does not
+ * have to be safe for use by multiple threads.
+ *
+ * @author  Shcherbina Daniil
+ * @see     AudioPlayer#AudioPlayer(PlaybackSource)
+ * @see     WAVFileSource
+ * @see     AudioDataSource
+ * @since   0.2.0
+ * @version 0.2.0
+ */
+public interface PlaybackSource extends AutoCloseable {
+
+    /**
+     * Returns the format of the audio data of the source.
+     *
+     * @return the format of the audio data of the source
+     */
+    AudioFormat getFormat();
+
+    /**
+     * Reads the next frames into the array. The number of bytes read is always
+     * a multiple of the frame size, and is less than the length only at the end
+     * of the source.
+     *
+     * @param target the array into which the audio data is read
+     * @param offset the offset in the array from which to write
+     * @param length the largest number of bytes to be read, a multiple of the frame size
+     * @return the number of bytes read, or -1 if the end of the source is reached
+     */
+    int read(byte[] target, int offset, int length);
+
+    /**
+     * Releases the resources of the source. Does nothing by default.
+     */
+    @Override
+    default void close() {}
+
+}
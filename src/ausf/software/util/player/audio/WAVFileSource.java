@@ -0,0 +1,113 @@
+/*
+ * Copyright © 2021 Shcherbina Daniil
+ * License: http://opensource.org/licenses/MIT
+ */
+
+package ausf.software.util.player.audio;
+
+import ausf.software.codecs.G711;
+import ausf.software.file.audio.WAVFile;
+
+import javax.sound.sampled.AudioFormat;
+
+/**
+ *
+ * A playback source reading the audio data of a WAV file. For a read file
+ * the data is taken from the file mapped into memory, one block at a time,
+ * so playback of a long file starts without loading it. A-law and μ-law
+ * audio data is expanded to 16-bit PCM samples while it is read, IEEE float
+ * audio data is passed on in the {@link AudioFormat.Encoding#PCM_FLOAT} encoding.
+ *
+ * @author  Shcherbina Daniil
+ * @see     PlaybackSource
+ * @see     WAVFile#getDataBuffer(long, int)
+ * @since   0.2.0
+ * @version 0.2.0
+ */
+public class WAVFileSource implements PlaybackSource {
+
+    /**
+     * The WAV file whose audio data is read.
+     */
+    private final WAVFile wavFile;
+    /**
+     * The format of the audio data.
+     */
+    private final AudioFormat format;
+    /**
+     * True if the audio data is A-law or μ-law and is expanded while it is read.
+     */
+    private final boolean expand;
+    /**
+     * The position of the next frame in the audio data.
+     */
+    private long position;
+
+    /**
+     * Creates a source reading the audio data of the WAV file from the beginning.
+     *
+     * @param wavFile the WAV file whose audio data is read
+     */
+    public WAVFileSource(WAVFile wavFile) {
+        this.wavFile = wavFile;
+        expand = G711.isG711(wavFile.getAudioCodec());
+        format = expand
+                ? new AudioFormat(wavFile.getSampleRate(), 16, wavFile.getNumberAudioChanel(), true, false)
+                : AudioDataSource.getFormat(wavFile);
+    }
+
+    @Override
+    public AudioFormat getFormat() {
+        return format;
+    }
+
+    @Override
+    public int read(byte[] target, int offset, int length) {
+        long remaining = wavFile.getDataSize() - position;
+        int blockAlign = wavFile.getBlockAlign();
+        // an expanded frame is twice as large as a frame of codes
+        int capacity = expand ? length / format.getFrameSize() * blockAlign : length - length % blockAlign;
+        int size = (int) Math.min(remaining - remaining % blockAlign, capacity);
+        if (size <= 0) {
+            return -1;
+        }
+        if (expand) {
+            // the codes are read into the second half of the target and expanded in place
+            wavFile.getDataBuffer(position, size).get(target, offset + size, size);
+            G711.decode(wavFile.getAudioCodec(), target, offset + size, target, offset, size);
+            position += size;
+            return size * 2;
+        }
+        wavFile.getDataBuffer(position, size).get(target, offset, size);
+        position += size;
+        return size;
+    }
+
+    /**
+     * Moves the source to the specified frame.
+     *
+     * @param frame the number of the frame from the beginning of the audio data
+     */
+    public void seek(long frame) {
+        position = Math.max(0, Math.min(frame * wavFile.getBlockAlign(), wavFile.getDataSize()));
+    }
+
+    /**
+     * Returns the number of the next frame to be read.
+     *
+     * @return the number of the next frame to be read
+     */
+    public long getFramePosition() {
+        return position / wavFile.getBlockAlign();
+    }
+
+    /**
+     * Returns the number of frames of the audio data.
+     *
+     * @return the number of frames of the audio data
+     */
+    public long getFrameLength() {
+        return wavFile.getDataSize() / wavFile.getBlockAlign();
+    }
+
+}
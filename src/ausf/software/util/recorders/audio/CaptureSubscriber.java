@@ -0,0 +1,51 @@
+/*
+ * Copyright © 2021 Shcherbina Daniil
+ * License: http://opensource.org/licenses/MIT
+ */
+
+package ausf.software.util.recorders.audio;
+
+import javax.sound.sampled.AudioFormat;
+import java.nio.ByteBuffer;
+
+/**
+ *
+ * A receiver of the audio data captured by a microphone in the streaming mode.
+ *
+ * <p>All methods of a subscriber are called by its own delivery thread, one
+ * after another, never by the thread that reads the line. A slow subscriber
+ * delays neither the capture nor the other subscribers: while it is busy its
+ * blocks are collected in its own ring buffer, and the blocks that do not fit
+ * are dropped and counted by {@link Microphone#getDroppedBlocks(CaptureSubscriber)}.
+ *
+ * @author  Shcherbina Daniil
+ * @see     Microphone#subscribe(CaptureSubscriber)
+ * @since   0.2.0
+ * @version 0.2.0
+ */
+public interface CaptureSubscriber {
+
+    /**
+     * Called once before the first block, when the recording starts
+     * or when the subscriber is added to a running recording.
+     *
+     * @param format the format of the audio data
+     */
+    default void onStart(AudioFormat format) {}
+
+    /**
+     * Called for each captured block of audio data. The block contains whole
+     * frames of interleaved little-endian samples. The buffer is read-only for
+     * the subscriber and is valid only until the method returns.
+     *
+     * @param block the buffer with the captured audio data
+     */
+    void onBlock(ByteBuffer block);
+
+    /**
+     * Called once after the last block, when the recording stops
+     * or when the subscriber is removed.
+     */
+    default void onStop() {}
+
+}
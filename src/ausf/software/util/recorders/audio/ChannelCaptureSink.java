@@ -0,0 +1,101 @@
+/*
+ * Copyright © 2021 Shcherbina Daniil
+ * License: http://opensource.org/licenses/MIT
+ */
+
+package ausf.software.util.recorders.audio;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ *
+ * A subscriber that forwards the captured audio data to a channel,
+ * for example to a {@link java.nio.channels.SocketChannel} in blocking mode.
+ * The raw interleaved samples are written without a header.
+ *
+ * <p>The blocks are written in the delivery thread of the sink, so a channel
+ * that blocks delays only this sink; the blocks captured meanwhile wait in its
+ * ring buffer or are dropped for this sink when it is full. If writing to the
+ * channel fails, the error is printed and the sink stops forwarding; the
+ * recording itself continues.
+ *
+ * @author  Shcherbina Daniil
+ * @see     Microphone
+ * @since   0.2.0
+ * @version 0.2.0
+ */
+public class ChannelCaptureSink implements CaptureSubscriber {
+
+    /**
+     * The channel to which the audio data is forwarded.
+     */
+    private final WritableByteChannel channel;
+    /**
+     * True if the channel is closed when the recording stops.
+     */
+    private final boolean closeOnStop;
+    /**
+     * True if writing to the channel has failed.
+     */
+    private volatile boolean failed;
+
+    /**
+     * Creates a sink forwarding the audio data to the channel.
+     * The channel is closed when the recording stops.
+     *
+     * @param channel the channel to which the audio data is forwarded
+     */
+    public ChannelCaptureSink(WritableByteChannel channel) {
+        this(channel, true);
+    }
+
+    /**
+     * Creates a sink forwarding the audio data to the channel.
+     *
+     * @param channel the channel to which the audio data is forwarded
+     * @param closeOnStop true if the channel is closed when the recording stops
+     */
+    public ChannelCaptureSink(WritableByteChannel channel, boolean closeOnStop) {
+        this.channel = channel;
+        this.closeOnStop = closeOnStop;
+    }
+
+    @Override
+    public void onBlock(ByteBuffer block) {
+        if (failed) {
+            return;
+        }
+        try {
+            while (block.hasRemaining()) {
+                channel.write(block);
+            }
+        } catch (IOException e) {
+            failed = true;
+            e.printStackTrace();
+        }
+    }
+
+    @Override
+    public void onStop() {
+        if (!closeOnStop) {
+            return;
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Returns true if writing to the channel has failed and the sink no longer forwards data.
+     *
+     * @return true if writing to the channel has failed
+     */
+    public boolean isFailed() {
+        return failed;
+    }
+
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright © 2021 Shcherbina Daniil
+ * License: http://opensource.org/licenses/MIT
+ */
+
+package ausf.software.util.recorders.audio;
+
+import ausf.software.codecs.PCMConverter;
+
+import javax.sound.sampled.AudioFormat;
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ *
+ * A subscriber that measures the peak and RMS level of each channel of the
+ * last captured block. The levels can be read by any thread, for example
+ * by a user interface, while the recording is running.
+ *
+ * <p>The levels are linear, from 0 to 1 of the full scale;
+ * {@link #toDecibels(float)} converts them to dBFS.
+ *
+ * @author  Shcherbina Daniil
+ * @see     Microphone
+ * @since   0.2.0
+ * @version 0.2.0
+ */
+public class LevelMeter implements CaptureSubscriber {
+
+    /**
+     * The peak level of each channel, followed by the RMS level of each channel,
+     * stored as the bits of float numbers.
+     */
+    private volatile AtomicIntegerArray levels = new AtomicIntegerArray(0);
+    /**
+     * The data compression format of the captured audio data.
+     */
+    private short audioFormat;
+    /**
+     * The number of bits in the sample.
+     */
+    private int bitsPerSample;
+    /**
+     * Arrays of samples of the block, one for each channel.
+     */
+    private float[][] planes = new float[0][0];
+
+    @Override
+    public void onStart(AudioFormat format) {
+        audioFormat = PCMConverter.getAudioFormat(format);
+        bitsPerSample = format.getSampleSizeInBits();
+        planes = new float[format.getChannels()][0];
+        levels = new AtomicIntegerArray(format.getChannels() * 2);
+    }
+
+    @Override
+    public void onBlock(ByteBuffer block) {
+        int numChannels = planes.length;
+        if (numChannels == 0) {
+            return;
+        }
+        int frames = block.remaining() / (PCMConverter.getSampleSize(bitsPerSample) * numChannels);
+        if (planes[0].length < frames) {
+            planes = new float[numChannels][frames];
+        }
+        PCMConverter.toFloat(block, audioFormat, bitsPerSample, numChannels, planes, 0, frames);
+
+        AtomicIntegerArray current = levels;
+        for (int channel = 0; channel < numChannels; channel++) {
+            float[] plane = planes[channel];
+            float peak = 0;
+            double sum = 0;
+            for (int i = 0; i < frames; i++) {
+                float sample = plane[i];
+                peak = Math.max(peak, Math.abs(sample));
+                sum += sample * sample;
+            }
+            float rms = frames == 0 ? 0 : (float) Math.sqrt(sum / frames);
+            current.lazySet(channel, Float.floatToIntBits(Math.min(peak, 1)));
+            current.lazySet(numChannels + channel, Float.floatToIntBits(Math.min(rms, 1)));
+        }
+    }
+
+    /**
+     * Returns the peak level of the channel in the last block.
+     *
+     * @param channel the number of the channel
+     * @return the peak level of the channel, from 0 to 1
+     */
+    public float getPeak(int channel) {
+        return Float.intBitsToFloat(levels.get(channel));
+    }
+
+    /**
+     * Returns the RMS level of the channel in the last block.
+     *
+     * @param channel the number of the channel
+     * @return the RMS level of the channel, from 0 to 1
+     */
+    public float getRMS(int channel) {
+        AtomicIntegerArray current = levels;
+        return Float.intBitsToFloat(current.get(current.length() / 2 + channel));
+    }
+
+    /**
+     * Returns the number of measured channels.
+     *
+     * @return the number of measured channels
+     */
+    public int getNumberChannels() {
+        return levels.length() / 2;
+    }
+
+    /**
+     * Converts a linear level to decibels relative to the full scale.
+     *
+     * @param level the linear level, from 0 to 1
+     * @return the level in dBFS, or negative infinity for silence
+     */
+    public static float toDecibels(float level) {
+        return (float) (20 * Math.log10(level));
+    }
+
+}
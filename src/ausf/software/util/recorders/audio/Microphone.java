@@ -5,21 +5,70 @@
 
 package ausf.software.util.recorders.audio;
 
+import ausf.software.constants.CaptureMode;
 import ausf.software.containers.AudioData;
+import ausf.software.util.BlockRingBuffer;
 import ausf.software.util.Math;
 
 import javax.sound.sampled.*;
 import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.LockSupport;
 
 /**
+ *
+ * Implementation of recording audio data from the system microphone.
+ *
+ * <p>In the {@link CaptureMode#BUFFERED} mode the whole recording is collected
+ * in memory and is available after the recording is stopped.
+ *
+ * <p>In the {@link CaptureMode#STREAMING} mode the capture thread reads the line
+ * straight into the blocks of a preallocated {@link BlockRingBuffer}, and a separate
+ * delivery thread copies the blocks into a ring buffer of each subscriber, such as
+ * {@link WAVCaptureSink}, {@link LevelMeter} or {@link ChannelCaptureSink}. Each
+ * subscriber receives its blocks in its own thread, so a subscriber blocked on a
+ * slow disk or network delays only itself. The memory used does not depend on the
+ * length of the recording, and neither the capture thread nor the delivery thread
+ * ever waits for the subscribers: if a ring buffer is full, the block is dropped and
+ * counted in {@link #getDroppedBlocks()} or {@link #getDroppedBlocks(CaptureSubscriber)}.
+ *
+ * <pre>{@code
+ * Microphone microphone = new Microphone(2, 48000, 16, CaptureMode.STREAMING);
+ * microphone.subscribe(new WAVCaptureSink("take.wav"));
+ * microphone.subscribe(levelMeter);
+ * microphone.startRecord();
+ * ...
+ * microphone.stopRecord();
+ * }</pre>
  *
  * @author  Shcherbina Daniil
  * @since   0.1.0
- * @version 0.1.0
+ * @version 0.2.0
  * @see AudioData
+ * @see CaptureSubscriber
  */
 public class Microphone {
 
+    /**
+     * The number of blocks captured per second in the streaming mode by default.
+     */
+    private static final int BLOCKS_PER_SECOND = 100;
+    /**
+     * The number of blocks in the ring buffer in the streaming mode by default.
+     */
+    private static final int BLOCK_COUNT = 512;
+    /**
+     * The time for which the delivery thread waits for new blocks.
+     */
+    private static final long DELIVERY_PARK_NANOS = 1_000_000;
+    /**
+     * The longest time for which {@link #stopRecord()} waits for the delivery of the captured blocks.
+     */
+    private static final long STOP_TIMEOUT_MILLIS = 5_000;
+
     /**
      * Number of audio channels.
      */
@@ -36,33 +85,169 @@ public class Microphone {
     final private boolean signed = true;
     final private boolean bigEndian = false;
 
+    /**
+     * The way in which the captured audio data is passed on.
+     */
+    final private CaptureMode captureMode;
+    /**
+     * The number of frames in a block of the ring buffer.
+     */
+    final private int blockFrames;
+    /**
+     * The number of blocks in the ring buffer.
+     */
+    final private int blockCount;
+
     /**
      * Current recording status.
      */
-    private boolean isRecord = false;
+    private volatile boolean isRecord = false;
+    /**
+     * True while the capture thread is reading the line.
+     */
+    private volatile boolean isCapturing = false;
+    /**
+     * True if the list of subscribers has changed since the delivery thread last checked it.
+     */
+    private volatile boolean subscribersChanged = false;
+    /**
+     * The number of blocks dropped because the ring buffer was full.
+     */
+    private volatile long droppedBlocks;
 
     private TargetDataLine line;
     private AudioFormat audioFormat;
     private DataLine.Info dataLineInfo;
     private ByteArrayOutputStream byteArrayOutputStream;
+    private BlockRingBuffer ringBuffer;
+    private Thread captureThread;
+    private Thread deliveryThread;
+    private final List<CaptureSubscriber> subscribers = new CopyOnWriteArrayList<>();
+    /**
+     * The deliveries to the subscribers of the current or last recording, including
+     * the finished ones, kept until the next recording is started.
+     */
+    private final List<Delivery> deliveries = new CopyOnWriteArrayList<>();
 
     /**
      * Creates an Microphone object with the specified audio data parameters.
+     * The recording is collected in memory.
      *
      * @param numChannels number of audio channels
      * @param sampleRate audio sample rate.
      * @param bitsPerSample the number of bits in the sample.
      */
     public Microphone (int numChannels, int sampleRate, int bitsPerSample) {
+        this(numChannels, sampleRate, bitsPerSample, CaptureMode.BUFFERED);
+    }
+
+    /**
+     * Creates an Microphone object with the specified audio data parameters and
+     * capture mode. In the streaming mode the ring buffer holds about five seconds
+     * of audio in blocks of 10 milliseconds.
+     *
+     * @param numChannels number of audio channels
+     * @param sampleRate audio sample rate.
+     * @param bitsPerSample the number of bits in the sample.
+     * @param captureMode the way in which the captured audio data is passed on
+     */
+    public Microphone (int numChannels, int sampleRate, int bitsPerSample, CaptureMode captureMode) {
+        this(numChannels, sampleRate, bitsPerSample, captureMode,
+                java.lang.Math.max(sampleRate / BLOCKS_PER_SECOND, 1), BLOCK_COUNT);
+    }
+
+    /**
+     * Creates an Microphone object with the specified audio data parameters
+     * and the size of the ring buffer of the streaming mode.
+     *
+     * @param numChannels number of audio channels
+     * @param sampleRate audio sample rate.
+     * @param bitsPerSample the number of bits in the sample.
+     * @param captureMode the way in which the captured audio data is passed on
+     * @param blockFrames the number of frames in a block of the ring buffer
+     * @param blockCount the number of blocks in the ring buffer
+     */
+    public Microphone (int numChannels, int sampleRate, int bitsPerSample, CaptureMode captureMode,
+                       int blockFrames, int blockCount) {
         this.numChannels = numChannels;
         this.sampleRate = sampleRate;
         this.bitsPerSample = bitsPerSample;
+        this.captureMode = captureMode;
+        this.blockFrames = blockFrames;
+        this.blockCount = blockCount;
+    }
+
+    /**
+     * Adds a subscriber receiving the captured audio data in the streaming mode.
+     * A subscriber can be added before or during the recording.
+     *
+     * @param subscriber the subscriber to be added
+     */
+    public void subscribe(CaptureSubscriber subscriber) {
+        subscribers.add(subscriber);
+        subscribersChanged = true;
+    }
+
+    /**
+     * Removes the subscriber. If the recording is running, the subscriber
+     * receives {@link CaptureSubscriber#onStop()} from its delivery thread
+     * after the blocks already passed to it.
+     *
+     * @param subscriber the subscriber to be removed
+     */
+    public void unsubscribe(CaptureSubscriber subscriber) {
+        subscribers.remove(subscriber);
+        subscribersChanged = true;
+    }
+
+    /**
+     * Returns the number of blocks dropped in the streaming mode because the
+     * delivery thread did not keep up and the ring buffer was full.
+     *
+     * @return the number of dropped blocks
+     */
+    public long getDroppedBlocks() {
+        return droppedBlocks;
+    }
+
+    /**
+     * Returns the number of blocks that the subscriber did not receive in the
+     * current or last recording because it did not keep up and its ring buffer
+     * was full.
+     *
+     * @param subscriber the subscriber
+     * @return the number of blocks dropped for the subscriber, 0 if it has not received blocks
+     */
+    public long getDroppedBlocks(CaptureSubscriber subscriber) {
+        long dropped = 0;
+        for (Delivery delivery : deliveries) {
+            if (delivery.subscriber == subscriber) {
+                dropped += delivery.dropped;
+            }
+        }
+        return dropped;
     }
 
     /**
-     * Enables audio recording.
+     * Returns the number of captured blocks waiting to be delivered to the subscribers.
+     *
+     * @return the number of captured blocks waiting to be delivered
+     */
+    public int getPendingBlocks() {
+        BlockRingBuffer current = ringBuffer;
+        return current == null ? 0 : current.size();
+    }
+
+    /**
+     * Enables audio recording. In the streaming mode first waits, not longer than
+     * five seconds, for the subscribers still busy with the last recording.
+     *
+     * @throws IllegalStateException if a subscriber is still receiving the blocks of the last recording
      */
     public void startRecord() {
+        if (captureMode == CaptureMode.STREAMING) {
+            joinDeliveries();
+        }
         try {
             audioFormat = new AudioFormat(sampleRate, bitsPerSample, numChannels, signed, bigEndian);
             dataLineInfo = new DataLine.Info(TargetDataLine.class, audioFormat);
@@ -73,7 +258,19 @@ public class Microphone {
 
             System.out.println("Start record...");
 
-            Thread captureThread = new Thread(new CaptureThread());
+            isRecord = true;
+            isCapturing = true;
+            if (captureMode == CaptureMode.STREAMING) {
+                ringBuffer = new BlockRingBuffer(blockCount, blockFrames * audioFormat.getFrameSize());
+                droppedBlocks = 0;
+                subscribersChanged = true;
+                deliveryThread = new Thread(new DeliveryThread(), "Microphone delivery");
+                deliveryThread.start();
+                captureThread = new Thread(new StreamingCaptureThread(), "Microphone capture");
+                captureThread.setPriority(Thread.MAX_PRIORITY);
+            } else {
+                captureThread = new Thread(new CaptureThread());
+            }
             captureThread.start();
 
         } catch (LineUnavailableException e) {
@@ -82,21 +279,59 @@ public class Microphone {
     }
 
     /**
-     * Stops audio recording.
+     * Stops audio recording. In the streaming mode waits until the subscribers
+     * have received the captured blocks, but not longer than five seconds in all;
+     * a subscriber that is still busy receives the rest of its blocks and
+     * {@link CaptureSubscriber#onStop()} in its own thread after the method returns,
+     * and the next {@link #startRecord()} waits for it.
      */
     public void stopRecord() {
         isRecord = false;
         line.stop();
+        join(captureThread, 0);
         line.close();
+        long deadline = System.currentTimeMillis() + STOP_TIMEOUT_MILLIS;
+        join(deliveryThread, deadline);
+        for (Delivery delivery : deliveries) {
+            join(delivery.thread, deadline);
+        }
         System.out.println("Finished record");
     }
 
     /**
-     * Returns an array of audio data bytes.
+     * Waits for the delivery threads of the last recording and forgets its deliveries,
+     * so that no subscriber receives a new recording while it still receives the old one.
+     *
+     * @throws IllegalStateException if a delivery thread is still running after five seconds
+     */
+    private void joinDeliveries() {
+        long deadline = System.currentTimeMillis() + STOP_TIMEOUT_MILLIS;
+        join(deliveryThread, deadline);
+        for (Delivery delivery : deliveries) {
+            join(delivery.thread, deadline);
+        }
+        if (deliveryThread != null && deliveryThread.isAlive()) {
+            throw new IllegalStateException("The last recording is still being delivered.");
+        }
+        for (Delivery delivery : deliveries) {
+            if (delivery.thread.isAlive()) {
+                throw new IllegalStateException("The subscriber " + delivery.subscriber
+                        + " is still receiving the last recording.");
+            }
+        }
+        deliveries.clear();
+    }
+
+    /**
+     * Returns an array of audio data bytes. In the streaming mode the
+     * recording is not kept in memory and the array is empty.
      *
      * @return an array of audio data bytes
      */
     public byte[] getDataArray() {
+        if (byteArrayOutputStream == null) {
+            return new byte[0];
+        }
         return byteArrayOutputStream.toByteArray();
     }
 
@@ -120,11 +355,31 @@ public class Microphone {
         return new AudioFormat(sampleRate, bitsPerSample, numChannels, signed, bigEndian);
     }
 
+    /**
+     * Waits for the thread to finish.
+     *
+     * @param thread the thread, or null
+     * @param deadline the time in milliseconds after which the thread is no longer waited for, or 0 to wait forever
+     */
+    private void join(Thread thread, long deadline) {
+        if (thread == null || thread == Thread.currentThread()) {
+            return;
+        }
+        try {
+            if (deadline == 0) {
+                thread.join();
+            } else {
+                thread.join(java.lang.Math.max(deadline - System.currentTimeMillis(), 1));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
     private class CaptureThread extends Thread {
         byte buffer[] = new byte[bitsPerSample * 1000];
         public void run(){
             byteArrayOutputStream = new ByteArrayOutputStream();
-            isRecord = true;
             try{
                 while(isRecord){
                     int length = line.read(buffer, 0, buffer.length);
@@ -140,4 +395,205 @@ public class Microphone {
         }
     }
 
+    /**
+     * Reads the line straight into the free blocks of the ring buffer. When the
+     * ring buffer is full, the line is read into a spare block that is dropped,
+     * so the line never overflows because of slow subscribers.
+     */
+    private class StreamingCaptureThread implements Runnable {
+        @Override
+        public void run() {
+            byte[] spare = new byte[ringBuffer.getBlockSize()];
+            try {
+                while (isRecord) {
+                    byte[] block = ringBuffer.claim();
+                    if (block == null) {
+                        if (line.read(spare, 0, spare.length) > 0) {
+                            droppedBlocks++;
+                        }
+                        continue;
+                    }
+                    int length = line.read(block, 0, block.length);
+                    if (length > 0) {
+                        ringBuffer.publish(length);
+                    }
+                }
+            } finally {
+                isCapturing = false;
+            }
+        }
+    }
+
+    /**
+     * Copies the captured blocks from the ring buffer into the ring buffers of the
+     * subscribers until the capture is finished and all captured blocks are copied.
+     * Never waits for a subscriber: a block that does not fit into the ring buffer
+     * of a subscriber is dropped for that subscriber only.
+     */
+    private class DeliveryThread implements Runnable {
+
+        /**
+         * The deliveries to the subscribers that have not been removed.
+         */
+        private final List<Delivery> active = new ArrayList<>();
+
+        @Override
+        public void run() {
+            AudioFormat format = getAudioFormat();
+            while (true) {
+                if (subscribersChanged) {
+                    subscribersChanged = false;
+                    updateSubscribers(format);
+                }
+                boolean finished = !isCapturing;
+                ByteBuffer block = ringBuffer.peek();
+                if (block == null) {
+                    if (finished) {
+                        break;
+                    }
+                    LockSupport.parkNanos(DELIVERY_PARK_NANOS);
+                    continue;
+                }
+                for (Delivery delivery : active) {
+                    delivery.offer(block);
+                }
+                ringBuffer.release();
+            }
+            for (Delivery delivery : active) {
+                delivery.finish();
+            }
+            active.clear();
+        }
+
+        /**
+         * Starts the deliveries to the added subscribers and finishes the deliveries to the
+         * removed ones. The finished deliveries stay in the list of deliveries, so that their
+         * threads are joined and their counters can be read. A subscriber added again while
+         * its finished delivery is still running is started on a later check.
+         *
+         * @param format the format of the audio data
+         */
+        private void updateSubscribers(AudioFormat format) {
+            for (int i = active.size() - 1; i >= 0; i--) {
+                if (!subscribers.contains(active.get(i).subscriber)) {
+                    active.remove(i).finish();
+                }
+            }
+            for (CaptureSubscriber subscriber : subscribers) {
+                if (isFinishing(subscriber)) {
+                    subscribersChanged = true;
+                } else if (!isActive(subscriber)) {
+                    Delivery delivery = new Delivery(subscriber, format);
+                    active.add(delivery);
+                    deliveries.add(delivery);
+                    delivery.thread.start();
+                }
+            }
+        }
+
+        private boolean isActive(CaptureSubscriber subscriber) {
+            for (Delivery delivery : active) {
+                if (delivery.subscriber == subscriber) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private boolean isFinishing(CaptureSubscriber subscriber) {
+            for (Delivery delivery : deliveries) {
+                if (delivery.subscriber == subscriber && delivery.finished && delivery.thread.isAlive()) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+    }
+
+    /**
+     * Passes the blocks to one subscriber in its own thread, from a ring buffer
+     * filled by the delivery thread. An exception thrown by the subscriber is
+     * printed and does not stop the delivery.
+     */
+    private class Delivery implements Runnable {
+
+        private final CaptureSubscriber subscriber;
+        private final AudioFormat format;
+        private final BlockRingBuffer blocks;
+        private final Thread thread;
+        /**
+         * True when no more blocks are passed to the ring buffer.
+         */
+        private volatile boolean finished;
+        /**
+         * The number of blocks that did not fit into the ring buffer, written by the delivery thread only.
+         */
+        private volatile long dropped;
+
+        private Delivery(CaptureSubscriber subscriber, AudioFormat format) {
+            this.subscriber = subscriber;
+            this.format = format;
+            blocks = new BlockRingBuffer(blockCount, ringBuffer.getBlockSize());
+            thread = new Thread(this, "Microphone delivery to " + subscriber.getClass().getSimpleName());
+        }
+
+        /**
+         * Copies the block into the ring buffer, or drops it if the ring buffer is full.
+         *
+         * @param block the captured block
+         */
+        private void offer(ByteBuffer block) {
+            byte[] target = blocks.claim();
+            if (target == null) {
+                dropped++;
+                return;
+            }
+            int length = block.limit();
+            block.position(0);
+            block.get(target, 0, length);
+            blocks.publish(length);
+        }
+
+        /**
+         * Lets the subscriber stop after the blocks already in the ring buffer.
+         */
+        private void finish() {
+            finished = true;
+        }
+
+        @Override
+        public void run() {
+            try {
+                subscriber.onStart(format);
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+                return;
+            }
+            while (true) {
+                boolean last = finished;
+                ByteBuffer block = blocks.peek();
+                if (block == null) {
+                    if (last) {
+                        break;
+                    }
+                    LockSupport.parkNanos(DELIVERY_PARK_NANOS);
+                    continue;
+                }
+                try {
+                    subscriber.onBlock(block);
+                } catch (RuntimeException e) {
+                    e.printStackTrace();
+                }
+                blocks.release();
+            }
+            try {
+                subscriber.onStop();
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+            }
+        }
+
+    }
+
 }
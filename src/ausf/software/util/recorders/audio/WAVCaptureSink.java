@@ -0,0 +1,128 @@
+/*
+ * Copyright © 2021 Shcherbina Daniil
+ * License: http://opensource.org/licenses/MIT
+ */
+
+package ausf.software.util.recorders.audio;
+
+import ausf.software.constants.audio.wav.WAVCodecRegistries;
+import ausf.software.file.audio.WAVFile;
+import ausf.software.io.writers.WAVStreamWriter;
+
+import javax.sound.sampled.AudioFormat;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ *
+ * A subscriber that writes the captured audio data to a WAV file with
+ * {@link WAVStreamWriter}, so the recording is never collected in memory.
+ * The sizes in the header are updated every {@code flushBlocks} blocks, so
+ * the file stays readable if the recording is interrupted.
+ *
+ * @author  Shcherbina Daniil
+ * @see     Microphone
+ * @see     WAVStreamWriter
+ * @since   0.2.0
+ * @version 0.2.0
+ */
+public class WAVCaptureSink implements CaptureSubscriber {
+
+    /**
+     * The path to the file being written.
+     */
+    private final String path;
+    /**
+     * The number of blocks after which the header is updated, or 0 to update it only at the end.
+     */
+    private final int flushBlocks;
+    /**
+     * The writer of the file.
+     */
+    private WAVStreamWriter writer;
+    /**
+     * The number of blocks written since the last update of the header.
+     */
+    private int unflushedBlocks;
+    /**
+     * The number of bytes of audio data written.
+     */
+    private volatile long dataSize;
+
+    /**
+     * Creates a sink writing to the file at the specified path.
+     * The header is updated only when the recording stops.
+     *
+     * @param path the path to the file being written
+     */
+    public WAVCaptureSink(String path) {
+        this(path, 0);
+    }
+
+    /**
+     * Creates a sink writing to the file at the specified path.
+     *
+     * @param path the path to the file being written
+     * @param flushBlocks the number of blocks after which the header is updated, or 0
+     */
+    public WAVCaptureSink(String path, int flushBlocks) {
+        this.path = path;
+        this.flushBlocks = flushBlocks;
+    }
+
+    @Override
+    public void onStart(AudioFormat format) {
+        WAVFile wavFile = WAVFile.builder()
+                .filePath(path)
+                .fileAudioFormat(WAVCodecRegistries.FORMAT_PCM.getIndex())
+                .numChannels((short) format.getChannels())
+                .fileSampleRate((int) format.getSampleRate())
+                .bitsPerSample((short) format.getSampleSizeInBits())
+                .build();
+        try {
+            writer = new WAVStreamWriter(wavFile);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    @Override
+    public void onBlock(ByteBuffer block) {
+        if (writer == null) {
+            return;
+        }
+        try {
+            writer.append(block);
+            dataSize = writer.getDataSize();
+            if (flushBlocks > 0 && ++unflushedBlocks >= flushBlocks) {
+                writer.flush();
+                unflushedBlocks = 0;
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    @Override
+    public void onStop() {
+        if (writer == null) {
+            return;
+        }
+        try {
+            writer.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        writer = null;
+    }
+
+    /**
+     * Returns the number of bytes of audio data written.
+     *
+     * @return the number of bytes of audio data written
+     */
+    public long getDataSize() {
+        return dataSize;
+    }
+
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright © 2021 Shcherbina Daniil
+ * License: http://opensource.org/licenses/MIT
+ */
+
+package ausf.software.analysis;
+
+import ausf.software.constants.INFOListChunkID;
+import ausf.software.file.audio.WAVFile;
+import ausf.software.io.readers.WAVFileReader;
+import ausf.software.io.writers.WAVStreamWriter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LoudnessNormalizerTest {
+
+    private static final int SAMPLE_RATE = 48000;
+    private static final int NUM_CHANNELS = 4;
+    private static final int CHANNEL_MASK = 0x33;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void keepsMetadataAndChannelLayout() throws IOException {
+        String sourcePath = directory.resolve("source.wav").toString();
+        String targetPath = directory.resolve("target.wav").toString();
+        writeSource(sourcePath);
+
+        WAVFile source = new WAVFileReader(sourcePath).read();
+        new LoudnessNormalizer(-23, -1).normalize(source, targetPath);
+        WAVFile target = new WAVFileReader(targetPath).read();
+
+        assertEquals(source.getAudioCodec(), target.getAudioCodec());
+        assertEquals(24, target.getBitsPerSample());
+        assertTrue(target.isExtensible());
+        assertEquals(CHANNEL_MASK, target.getChannelMask());
+        assertEquals(20, target.getValidBitsPerSample());
+        assertEquals("Normalized take", target.getInfo(INFOListChunkID.INAM));
+        assertEquals("Grizzly", target.getInfo(INFOListChunkID.IART));
+    }
+
+    /**
+     * Writes one second of a 24-bit sine in four channels with a channel mask and metadata.
+     *
+     * @param path the path of the file
+     */
+    private static void writeSource(String path) throws IOException {
+        WAVFile wavFile = WAVFile.builder()
+                .filePath(path)
+                .fileAudioFormat((short) 1)
+                .numChannels((short) NUM_CHANNELS)
+                .fileSampleRate(SAMPLE_RATE)
+                .bitsPerSample((short) 24)
+                .validBitsPerSample((short) 20)
+                .channelMask(CHANNEL_MASK)
+                .build();
+        wavFile.addInfo(INFOListChunkID.INAM, "Normalized take");
+        wavFile.addInfo(INFOListChunkID.IART, "Grizzly");
+        ByteBuffer data = ByteBuffer.allocate(SAMPLE_RATE * NUM_CHANNELS * 3).order(ByteOrder.LITTLE_ENDIAN);
+        for (int i = 0; i < SAMPLE_RATE; i++) {
+            int sample = (int) (Math.sin(2 * Math.PI * 1000 * i / SAMPLE_RATE) * 0x100000);
+            for (int channel = 0; channel < NUM_CHANNELS; channel++) {
+                data.put((byte) sample).put((byte) (sample >> 8)).put((byte) (sample >> 16));
+            }
+        }
+        data.flip();
+        try (WAVStreamWriter writer = new WAVStreamWriter(wavFile)) {
+            writer.append(data);
+        }
+    }
+
+}
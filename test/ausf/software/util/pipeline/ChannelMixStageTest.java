@@ -0,0 +1,67 @@
+/*
+ * Copyright © 2021 Shcherbina Daniil
+ * License: http://opensource.org/licenses/MIT
+ */
+
+package ausf.software.util.pipeline;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ChannelMixStageTest {
+
+    /**
+     * A stereo source filling every block up to its capacity.
+     */
+    private static class FullSource implements BlockSource {
+
+        @Override
+        public int getSampleRate() {
+            return 48000;
+        }
+
+        @Override
+        public int getNumberChannels() {
+            return 2;
+        }
+
+        @Override
+        public int read(AudioBlock block) {
+            int frames = block.getCapacity();
+            for (int i = 0; i < frames; i++) {
+                block.getChannel(0)[i] = 0.25f;
+                block.getChannel(1)[i] = 0.5f;
+            }
+            block.setFrames(frames);
+            return frames;
+        }
+
+    }
+
+    @Test
+    void readsNoMoreThanTheCapacityAfterALargerBlock() {
+        ChannelMixStage stage = new ChannelMixStage(new FullSource(), new float[][] {{1, 1}});
+
+        AudioBlock large = new AudioBlock(1, 1024);
+        assertEquals(1024, stage.read(large));
+        assertEquals(1024, large.getFrames());
+
+        AudioBlock small = new AudioBlock(1, 64);
+        assertEquals(64, stage.read(small));
+        assertEquals(64, small.getFrames());
+        for (int i = 0; i < 64; i++) {
+            assertEquals(0.75f, small.getChannel(0)[i]);
+        }
+    }
+
+    @Test
+    void reusedBlockHasTheRequestedCapacity() {
+        AudioBlock block = new AudioBlock(2, 1024);
+        AudioBlock reused = AudioBlock.reuse(block, 2, 64);
+        assertEquals(block, reused);
+        assertEquals(64, reused.getCapacity());
+        assertEquals(1024, AudioBlock.reuse(reused, 2, 1024).getCapacity());
+    }
+
+}